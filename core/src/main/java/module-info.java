@@ -0,0 +1,12 @@
+module org.group13.chessgame.core {
+    requires chesslib;
+
+    exports org.group13.chessgame.model;
+    exports org.group13.chessgame.utils;
+    exports org.group13.chessgame.pgn;
+    exports org.group13.chessgame.engine;
+    exports org.group13.chessgame.network;
+    exports org.group13.chessgame.server;
+    exports org.group13.chessgame.analysis;
+    exports org.group13.chessgame.index;
+}
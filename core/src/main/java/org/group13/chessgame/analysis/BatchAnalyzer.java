@@ -0,0 +1,336 @@
+package org.group13.chessgame.analysis;
+
+import org.group13.chessgame.engine.*;
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.pgn.PgnGame;
+import org.group13.chessgame.pgn.PgnReader;
+import org.group13.chessgame.pgn.PgnWriter;
+import org.group13.chessgame.utils.NotationUtils;
+import org.group13.chessgame.utils.PgnParseException;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Command-line analysis of PGN games and EPD positions without the JavaFX application.
+ * <p>
+ * Every game (every position of its mainline) or EPD line is one item. Items are read lazily and handed to a
+ * fixed pool of worker threads, each borrowing an engine from an {@link EnginePool}; at most two items per worker
+ * are in flight, so a database of any size is processed in bounded memory. Results are written in input order as
+ * JSON lines or annotated PGN, and with {@code --checkpoint} an interrupted run continues where it stopped.
+ * <p>
+ * Run with {@code java -cp ChessGame-core.jar org.group13.chessgame.analysis.BatchAnalyzer}; see
+ * {@link BatchOptions#USAGE} for the options.
+ */
+public class BatchAnalyzer {
+    private static final int IN_FLIGHT_PER_THREAD = 2;
+
+    private final BatchOptions options;
+
+    public BatchAnalyzer(BatchOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        BatchOptions options;
+        try {
+            options = BatchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(BatchOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            long analysed = new BatchAnalyzer(options).run();
+            System.err.printf("Analysed %d items in %.1f s%n", analysed, (System.nanoTime() - started) / 1e9);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Batch analysis stopped: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analyses every input item not covered by the checkpoint.
+     *
+     * @return the number of items analysed by this run.
+     * @throws IOException if an input, the output or an engine fails; progress up to then is checkpointed.
+     */
+    public long run() throws IOException, InterruptedException {
+        String fingerprint = fingerprint();
+        Checkpoint checkpoint = options.checkpoint() != null ? Checkpoint.load(options.checkpoint()) : null;
+        if (checkpoint != null && !checkpoint.fingerprint().equals(fingerprint)) {
+            throw new IOException("Checkpoint " + options.checkpoint() + " was written for different inputs or settings");
+        }
+        long firstIndex = checkpoint != null ? checkpoint.nextIndex() : 0;
+        long outputBytes = checkpoint != null ? checkpoint.outputBytes() : 0;
+
+        FileChannel outputChannel = null;
+        OutputStream out;
+        if (options.output() != null) {
+            outputChannel = FileChannel.open(options.output(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            outputChannel.truncate(outputBytes);
+            outputChannel.position(outputBytes);
+            out = new BufferedOutputStream(Channels.newOutputStream(outputChannel), 1 << 16);
+        } else {
+            out = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16);
+        }
+        if (firstIndex > 0) {
+            System.err.println("Resuming after " + firstIndex + " items");
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads());
+        OrderedResultWriter writer = new OrderedResultWriter(out, options.checkpoint(), fingerprint, firstIndex, outputBytes);
+        Semaphore inFlight = new Semaphore(options.threads() * IN_FLIGHT_PER_THREAD);
+        List<IOException> failures = new CopyOnWriteArrayList<>();
+        EnginePool engines = null;
+        try {
+            engines = new EnginePool(options.threads(), this::createEngine);
+            EnginePool pool = engines;
+            long index = 0;
+            for (Path input : options.inputs()) {
+                boolean epd = input.getFileName().toString().toLowerCase().endsWith(".epd");
+                try (ItemSource source = epd ? new EpdSource(input) : new PgnSource(input)) {
+                    Item item;
+                    while (failures.isEmpty() && (item = source.next(index < firstIndex)) != null) {
+                        long itemIndex = index++;
+                        if (itemIndex < firstIndex) continue;
+                        inFlight.acquire();
+                        Item work = item;
+                        workers.execute(() -> {
+                            try {
+                                writer.complete(itemIndex, analyze(itemIndex, work, pool));
+                            } catch (IOException e) {
+                                failures.add(e);
+                            } catch (RuntimeException e) {
+                                failures.add(new IOException("Analysing item " + itemIndex + " failed", e));
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+                    }
+                }
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            writer.checkpoint();
+            if (!failures.isEmpty()) throw failures.getFirst();
+            return writer.getNextIndex() - firstIndex;
+        } finally {
+            workers.shutdownNow();
+            if (engines != null) engines.close();
+            out.flush();
+            if (outputChannel != null) outputChannel.close();
+        }
+    }
+
+    private AnalysisEngine createEngine() throws IOException {
+        return options.engine().equals(BatchOptions.BUILTIN_ENGINE) ? new AlphaBetaSearch() : UciEngine.start(options.engine());
+    }
+
+    private String fingerprint() throws IOException {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path input : options.inputs()) {
+            fingerprint.append(input.toAbsolutePath()).append(':').append(Files.size(input)).append(':').append(Files.getLastModifiedTime(input).toMillis()).append(';');
+        }
+        return fingerprint.append(options.engine()).append(';').append(options.limit()).append(';').append(options.format()).toString();
+    }
+
+    private String analyze(long index, Item item, EnginePool engines) throws IOException, InterruptedException {
+        if (item.error() != null) {
+            System.err.println("Skipping item " + index + ": " + item.error());
+            return options.format() == BatchOptions.OutputFormat.JSONL ? "{\"index\":" + index + ",\"error\":" + quote(item.error()) + "}\n" : "";
+        }
+        if (item.game() != null) {
+            PgnGame game = item.game();
+            Position[] positions = game.positions();
+            Evaluation[] evaluations = new Evaluation[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                evaluations[i] = engines.analyze(positions[i], options.limit());
+            }
+            return options.format() == BatchOptions.OutputFormat.JSONL ? gameToJson(index, game, positions, evaluations) : gameToPgn(game, positions, evaluations, engines.getEngineName());
+        }
+        EpdRecord epd = item.epd();
+        Evaluation evaluation = engines.analyze(epd.position(), options.limit());
+        return options.format() == BatchOptions.OutputFormat.JSONL ? epdToJson(index, epd, evaluation) : epdToPgn(epd, evaluation, engines.getEngineName());
+    }
+
+    private static String san(Position position, int move) {
+        return move == PackedMove.NONE ? null : NotationUtils.toSan(position, move);
+    }
+
+    private static String gameToJson(long index, PgnGame game, Position[] positions, Evaluation[] evaluations) {
+        StringBuilder json = new StringBuilder(64 + 64 * game.plyCount());
+        json.append("{\"index\":").append(index).append(",\"tags\":{");
+        boolean firstTag = true;
+        for (Map.Entry<String, String> tag : game.tags().entrySet()) {
+            if (!firstTag) json.append(',');
+            json.append(quote(tag.getKey())).append(':').append(quote(tag.getValue()));
+            firstTag = false;
+        }
+        json.append("},\"plies\":[");
+        for (int ply = 0; ply < game.plyCount(); ply++) {
+            Evaluation before = evaluations[ply];
+            Evaluation after = evaluations[ply + 1];
+            if (ply > 0) json.append(',');
+            json.append("{\"ply\":").append(ply + 1);
+            json.append(",\"move\":").append(quote(san(positions[ply], game.moves()[ply])));
+            json.append(",\"best\":").append(quote(san(positions[ply], before.bestMove())));
+            json.append(",\"eval\":").append(quote(after.formatForWhite(positions[ply + 1].getSideToMove())));
+            json.append(",\"depth\":").append(before.depth()).append('}');
+        }
+        return json.append("]}\n").toString();
+    }
+
+    private static String epdToJson(long index, EpdRecord epd, Evaluation evaluation) {
+        Position position = epd.position();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"index\":").append(index);
+        if (epd.getId() != null) json.append(",\"id\":").append(quote(epd.getId()));
+        json.append(",\"fen\":").append(quote(position.toFen()));
+        json.append(",\"best\":").append(quote(san(position, evaluation.bestMove())));
+        json.append(",\"eval\":").append(quote(evaluation.formatForWhite(position.getSideToMove())));
+        json.append(",\"depth\":").append(evaluation.depth());
+        json.append(",\"nodes\":").append(evaluation.nodes());
+        String expected = epd.operations().get("bm");
+        if (expected != null) {
+            json.append(",\"bm\":").append(quote(expected));
+            json.append(",\"solved\":").append(isExpectedMove(position, expected, evaluation.bestMove()));
+        }
+        return json.append("}\n").toString();
+    }
+
+    private static boolean isExpectedMove(Position position, String expected, int move) {
+        for (String san : expected.split("\\s+")) {
+            if (move != PackedMove.NONE && NotationUtils.parseSan(position, san) == move) return true;
+        }
+        return false;
+    }
+
+    private static String gameToPgn(PgnGame game, Position[] positions, Evaluation[] evaluations, String engineName) throws IOException {
+        StringWriter pgn = new StringWriter(256 + 32 * game.plyCount());
+        PgnWriter writer = new PgnWriter(pgn);
+        writer.tags(game.tags()).tag("Annotator", engineName).startMovetext(game.startPosition());
+        for (int ply = 0; ply < game.plyCount(); ply++) {
+            Position position = positions[ply];
+            int played = game.moves()[ply];
+            int best = evaluations[ply].bestMove();
+            String bestText = best != PackedMove.NONE && !PackedMove.sameIntent(best, played) ? "Best: " + NotationUtils.toSan(position, best) : null;
+            writer.move(position, played).eval(evaluations[ply + 1].formatForWhite(positions[ply + 1].getSideToMove()), bestText);
+        }
+        writer.endGame(game.result());
+        return pgn.toString();
+    }
+
+    private static String epdToPgn(EpdRecord epd, Evaluation evaluation, String engineName) throws IOException {
+        Position position = epd.position();
+        StringWriter pgn = new StringWriter(256);
+        PgnWriter writer = new PgnWriter(pgn);
+        writer.tag("Event", epd.getId() != null ? epd.getId() : "?").tag("Result", "*").tag("SetUp", "1").tag("FEN", position.toFen()).tag("Annotator", engineName);
+        writer.startMovetext(position);
+        if (evaluation.bestMove() != PackedMove.NONE) {
+            writer.move(position, evaluation.bestMove());
+        }
+        writer.eval(evaluation.formatForWhite(position.getSideToMove()), null);
+        writer.endGame("*");
+        return pgn.toString();
+    }
+
+    static String quote(String text) {
+        if (text == null) return "null";
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (ch < 0x20) quoted.append(String.format("\\u%04x", (int) ch));
+                    else quoted.append(ch);
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * A game, an EPD position, or the reason an input entry could not be read; exactly one is set.
+     */
+    private record Item(PgnGame game, EpdRecord epd, String error) {
+    }
+
+    private interface ItemSource extends Closeable {
+        /**
+         * @param skipping true while the item will be skipped anyway because a checkpoint covers it.
+         * @return the next item, or null at the end of the file.
+         */
+        Item next(boolean skipping) throws IOException;
+    }
+
+    private static final class PgnSource implements ItemSource {
+        private final PgnReader reader;
+
+        PgnSource(Path file) throws IOException {
+            reader = PgnReader.open(file);
+        }
+
+        @Override
+        public Item next(boolean skipping) throws IOException {
+            if (skipping) return reader.skip() ? new Item(null, null, "skipped") : null;
+            try {
+                PgnGame game = reader.next();
+                return game == null ? null : new Item(game, null, null);
+            } catch (PgnParseException e) {
+                return new Item(null, null, e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class EpdSource implements ItemSource {
+        private final BufferedReader reader;
+
+        EpdSource(Path file) throws IOException {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Item next(boolean skipping) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+            } while (line.isBlank() || line.startsWith("#"));
+            if (skipping) return new Item(null, null, "skipped");
+            try {
+                return new Item(null, EpdRecord.parse(line), null);
+            } catch (IllegalArgumentException e) {
+                return new Item(null, null, e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
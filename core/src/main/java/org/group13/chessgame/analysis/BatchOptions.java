@@ -0,0 +1,91 @@
+package org.group13.chessgame.analysis;
+
+import org.group13.chessgame.engine.SearchLimit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line of {@link BatchAnalyzer}.
+ *
+ * @param engine     {@code builtin} or the path of a UCI engine executable.
+ * @param output     file to write to, or null for standard output.
+ * @param checkpoint file recording how far the run got, or null; requires an output file.
+ */
+public record BatchOptions(List<Path> inputs, String engine, SearchLimit limit, int threads, OutputFormat format, Path output, Path checkpoint) {
+    public static final String BUILTIN_ENGINE = "builtin";
+    public static final int DEFAULT_BUILTIN_DEPTH = 3;
+
+    public static final String USAGE = """
+            Usage: BatchAnalyzer [options] <file.pgn|file.epd>...
+              --engine builtin|<path>   built-in search (default) or a UCI engine executable
+              --depth <plies>           search depth per position (default 3 for the built-in search)
+              --movetime <ms>           search time per position; with --depth, whichever ends first
+              --threads <n>             parallel workers, each with its own engine (default: one per core)
+              --format jsonl|pgn        one JSON object per game/position, or annotated PGN (default jsonl)
+              --output <file>           write results here instead of standard output
+              --checkpoint <file>       record progress and resume from it when the same run is restarted""";
+
+    public enum OutputFormat {JSONL, PGN}
+
+    public BatchOptions {
+        if (inputs.isEmpty()) throw new IllegalArgumentException("No input files given");
+        if (threads < 1) throw new IllegalArgumentException("--threads must be at least 1");
+        if (checkpoint != null && output == null) throw new IllegalArgumentException("--checkpoint needs --output");
+        inputs = List.copyOf(inputs);
+    }
+
+    /**
+     * @throws IllegalArgumentException on an unknown option or a missing or invalid value.
+     */
+    public static BatchOptions parse(String[] args) {
+        List<Path> inputs = new ArrayList<>();
+        String engine = BUILTIN_ENGINE;
+        int depth = 0;
+        int moveTime = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        OutputFormat format = OutputFormat.JSONL;
+        Path output = null;
+        Path checkpoint = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                inputs.add(Path.of(arg));
+                continue;
+            }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+            String value = args[++i];
+            switch (arg) {
+                case "--engine" -> engine = value;
+                case "--depth" -> depth = parsePositive(arg, value);
+                case "--movetime" -> moveTime = parsePositive(arg, value);
+                case "--threads" -> threads = parsePositive(arg, value);
+                case "--format" -> format = switch (value.toLowerCase()) {
+                    case "jsonl" -> OutputFormat.JSONL;
+                    case "pgn" -> OutputFormat.PGN;
+                    default -> throw new IllegalArgumentException("Unknown format " + value);
+                };
+                case "--output" -> output = Path.of(value);
+                case "--checkpoint" -> checkpoint = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (depth == 0 && moveTime == 0) {
+            if (!engine.equals(BUILTIN_ENGINE)) throw new IllegalArgumentException("A UCI engine needs --depth or --movetime");
+            depth = DEFAULT_BUILTIN_DEPTH;
+        }
+        return new BatchOptions(inputs, engine, new SearchLimit(depth, moveTime), threads, format, output, checkpoint);
+    }
+
+    private static int parsePositive(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) return parsed;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " needs a positive number, got " + value);
+    }
+}
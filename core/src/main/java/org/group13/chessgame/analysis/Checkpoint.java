@@ -0,0 +1,51 @@
+package org.group13.chessgame.analysis;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of a batch run: results for inputs {@code 0 .. nextIndex - 1} are in the first {@code outputBytes}
+ * bytes of the output file. Anything written after that belongs to items that were still in flight when the run
+ * stopped and is truncated on resume.
+ * <p>
+ * The fingerprint ties the checkpoint to the inputs and settings of the run; a checkpoint from a different run
+ * is refused rather than silently skipping the wrong items.
+ */
+record Checkpoint(String fingerprint, long nextIndex, long outputBytes) {
+    /**
+     * @return the saved checkpoint, or null if the file does not exist.
+     */
+    static Checkpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            return new Checkpoint(properties.getProperty("fingerprint", ""), Long.parseLong(properties.getProperty("nextIndex")), Long.parseLong(properties.getProperty("outputBytes")));
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IOException("Corrupt checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Writes a temporary file and renames it over the old one, so a crash never leaves a half-written checkpoint.
+     */
+    void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("fingerprint", fingerprint);
+        properties.setProperty("nextIndex", Long.toString(nextIndex));
+        properties.setProperty("outputBytes", Long.toString(outputBytes));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "BatchAnalyzer checkpoint");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,51 @@
+package org.group13.chessgame.analysis;
+
+import org.group13.chessgame.model.Position;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One line of an EPD file: the four FEN position fields followed by {@code opcode operand;} operations,
+ * e.g. {@code r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - bm Bb5; id "Ruy";}.
+ */
+public record EpdRecord(Position position, Map<String, String> operations) {
+    /**
+     * @throws IllegalArgumentException if the line does not start with four FEN fields.
+     */
+    public static EpdRecord parse(String line) {
+        String[] fields = line.trim().split("\\s+", 5);
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("EPD needs four position fields: " + line);
+        }
+        // EPD has no move counters; hmvc and fmvn operations supply them when present
+        Map<String, String> operations = parseOperations(fields.length > 4 ? fields[4] : "");
+        String fen = String.join(" ", fields[0], fields[1], fields[2], fields[3]) + " " + operations.getOrDefault("hmvc", "0") + " " + operations.getOrDefault("fmvn", "1");
+        return new EpdRecord(Position.fromFen(fen), operations);
+    }
+
+    private static Map<String, String> parseOperations(String text) {
+        Map<String, String> operations = new LinkedHashMap<>();
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) i++;
+            int opcodeStart = i;
+            while (i < text.length() && !Character.isWhitespace(text.charAt(i)) && text.charAt(i) != ';') i++;
+            String opcode = text.substring(opcodeStart, i);
+            StringBuilder operand = new StringBuilder();
+            boolean quoted = false;
+            while (i < text.length() && (quoted || text.charAt(i) != ';')) {
+                char ch = text.charAt(i++);
+                if (ch == '"') quoted = !quoted;
+                else operand.append(ch);
+            }
+            i++;
+            if (!opcode.isEmpty()) operations.put(opcode, operand.toString().trim());
+        }
+        return operations;
+    }
+
+    public String getId() {
+        return operations.get("id");
+    }
+}
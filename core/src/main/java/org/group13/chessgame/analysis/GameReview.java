@@ -0,0 +1,109 @@
+package org.group13.chessgame.analysis;
+
+import org.group13.chessgame.engine.EnginePool;
+import org.group13.chessgame.engine.Evaluation;
+import org.group13.chessgame.engine.SearchLimit;
+import org.group13.chessgame.model.*;
+import org.group13.chessgame.utils.NotationUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-game review: every position of the line is searched once, in parallel across an {@link EnginePool}, and
+ * each move is judged by comparing the evaluation before it (best play) with the evaluation after it.
+ * <p>
+ * Evaluations are turned into win percentages with the logistic curve Lichess uses, which drives the accuracy of
+ * each move and its {@link MoveClassification}. {@link #annotate} writes the verdicts back into a {@link Game}'s
+ * moves as NAGs and comments for {@link org.group13.chessgame.utils.PgnFormatter}.
+ */
+public class GameReview {
+    public static final int EVAL_CAP_CENTIPAWNS = 1000;
+
+    private final EnginePool engines;
+    private final SearchLimit limit;
+
+    public GameReview(EnginePool engines, SearchLimit limit) {
+        this.engines = engines;
+        this.limit = limit;
+    }
+
+    /**
+     * Reviews the played line of a game. Snapshots the game first, so it must be called on the thread that owns
+     * the game; the searches themselves run on the pool's threads.
+     */
+    public ReviewReport review(Game game) throws IOException, InterruptedException {
+        List<Move> played = game.getPlayedMoveSequence();
+        int[] moves = new int[played.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = PackedMove.fromMove(played.get(i));
+        }
+        return review(game.getStartPosition(), moves);
+    }
+
+    public ReviewReport review(Position start, int[] moves) throws IOException, InterruptedException {
+        Position[] positions = new Position[moves.length + 1];
+        positions[0] = start;
+        for (int i = 0; i < moves.length; i++) {
+            positions[i + 1] = positions[i].makeMove(moves[i]);
+        }
+        Evaluation[] evaluations = engines.analyzeAll(positions, limit);
+
+        List<MoveReview> reviews = new ArrayList<>(moves.length);
+        for (int i = 0; i < moves.length; i++) {
+            PieceColor mover = positions[i].getSideToMove();
+            Evaluation before = evaluations[i];
+            Evaluation after = evaluations[i + 1];
+            int evalBefore = clamp(before.whiteCentipawns(mover));
+            int evalAfter = clamp(after.whiteCentipawns(positions[i + 1].getSideToMove()));
+            int sign = mover == PieceColor.WHITE ? 1 : -1;
+
+            boolean playedBest = PackedMove.sameIntent(before.bestMove(), moves[i]);
+            // with the engine's own move, any difference is search noise rather than a loss
+            int loss = playedBest ? 0 : Math.max(0, sign * (evalBefore - evalAfter));
+            double winDrop = playedBest ? 0 : Math.max(0, winPercent(sign * evalBefore) - winPercent(sign * evalAfter));
+            String evalText = after.formatForWhite(positions[i + 1].getSideToMove());
+            reviews.add(new MoveReview(i + 1, mover, moves[i], before.bestMove(), evalBefore, evalAfter, evalText, loss, moveAccuracy(winDrop), MoveClassification.classify(playedBest, winDrop)));
+        }
+        return new ReviewReport(reviews);
+    }
+
+    /**
+     * Sets the NAG and a comment on every move of the game's played line, e.g. {@code [%eval -2.10] Blunder. Nf3 was best.}
+     */
+    public static void annotate(Game game, ReviewReport report) {
+        List<Move> played = game.getPlayedMoveSequence();
+        Position position = game.getStartPosition();
+        for (int i = 0; i < played.size() && i < report.moves().size(); i++) {
+            MoveReview review = report.moves().get(i);
+            Move move = played.get(i);
+            move.setNag(review.classification().getNag());
+            StringBuilder comment = new StringBuilder("[%eval ").append(review.evalText()).append(']');
+            if (review.classification().getLabel() != null) {
+                comment.append(' ').append(review.classification().getLabel()).append('.');
+                if (review.bestMove() != PackedMove.NONE) {
+                    comment.append(' ').append(NotationUtils.toSan(position, review.bestMove())).append(" was best.");
+                }
+            }
+            move.setComment(comment.toString());
+            position = position.makeMove(review.move());
+        }
+    }
+
+    private static int clamp(int centipawns) {
+        return Math.max(-EVAL_CAP_CENTIPAWNS, Math.min(EVAL_CAP_CENTIPAWNS, centipawns));
+    }
+
+    /**
+     * @return the chance of winning, 0-100, for a side with the given advantage in centipawns.
+     */
+    static double winPercent(int centipawns) {
+        return 50 + 50 * (2 / (1 + Math.exp(-0.00368208 * centipawns)) - 1);
+    }
+
+    static double moveAccuracy(double winPercentDrop) {
+        double accuracy = 103.1668 * Math.exp(-0.04354 * winPercentDrop) - 3.1669;
+        return Math.max(0, Math.min(100, accuracy));
+    }
+}
@@ -0,0 +1,46 @@
+package org.group13.chessgame.analysis;
+
+/**
+ * Verdict on a played move, from how much it lowered the mover's winning chances compared with the engine's move.
+ * The thresholds are drops in win percentage, so the same centipawn loss weighs less in a position that was
+ * already won or lost.
+ */
+public enum MoveClassification {
+    BEST(0, 0, null),
+    GOOD(0, 0, null),
+    INACCURACY(5, 6, "Inaccuracy"),
+    MISTAKE(10, 2, "Mistake"),
+    BLUNDER(15, 4, "Blunder");
+
+    private final double minWinPercentDrop;
+    private final int nag;
+    private final String label;
+
+    MoveClassification(double minWinPercentDrop, int nag, String label) {
+        this.minWinPercentDrop = minWinPercentDrop;
+        this.nag = nag;
+        this.label = label;
+    }
+
+    static MoveClassification classify(boolean playedBest, double winPercentDrop) {
+        if (playedBest) return BEST;
+        if (winPercentDrop >= BLUNDER.minWinPercentDrop) return BLUNDER;
+        if (winPercentDrop >= MISTAKE.minWinPercentDrop) return MISTAKE;
+        if (winPercentDrop >= INACCURACY.minWinPercentDrop) return INACCURACY;
+        return GOOD;
+    }
+
+    /**
+     * @return the PGN Numeric Annotation Glyph: $6 (?!), $2 (?) or $4 (??); 0 for moves that get none.
+     */
+    public int getNag() {
+        return nag;
+    }
+
+    /**
+     * @return the word used in review comments, or null for moves that are not criticised.
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,17 @@
+package org.group13.chessgame.analysis;
+
+import org.group13.chessgame.model.PieceColor;
+
+/**
+ * Review of one ply. Evaluations are centipawns from White's point of view, clamped to
+ * +-{@link GameReview#EVAL_CAP_CENTIPAWNS} so that a missed mate counts as a large but finite loss.
+ *
+ * @param ply            1-based ply number.
+ * @param evalBefore     evaluation with the engine's best move, before the move was played.
+ * @param evalAfter      evaluation after the played move.
+ * @param evalText       {@code evalAfter} as a PGN {@code [%eval]} value, keeping mate distances.
+ * @param centipawnLoss  how much worse the played move was for the mover than the best move, never negative.
+ * @param accuracy       0-100 score of the move, from the drop in the mover's win percentage.
+ */
+public record MoveReview(int ply, PieceColor mover, int move, int bestMove, int evalBefore, int evalAfter, String evalText, int centipawnLoss, double accuracy, MoveClassification classification) {
+}
@@ -0,0 +1,67 @@
+package org.group13.chessgame.analysis;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes results in input order although workers finish out of order: a result waits in {@code pending} until
+ * every earlier one has been written. Keeping the output in input order is what lets a {@link Checkpoint} describe
+ * progress with a single index.
+ */
+class OrderedResultWriter {
+    private static final long CHECKPOINT_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final OutputStream out;
+    private final Path checkpointFile;
+    private final String fingerprint;
+    private final Map<Long, String> pending = new HashMap<>();
+    private long nextIndex;
+    private long bytesWritten;
+    private long lastCheckpointNanos = System.nanoTime();
+
+    OrderedResultWriter(OutputStream out, Path checkpointFile, String fingerprint, long firstIndex, long bytesAlreadyWritten) {
+        this.out = out;
+        this.checkpointFile = checkpointFile;
+        this.fingerprint = fingerprint;
+        this.nextIndex = firstIndex;
+        this.bytesWritten = bytesAlreadyWritten;
+    }
+
+    /**
+     * @param text the formatted result, possibly empty for an item that produced no output.
+     */
+    synchronized void complete(long index, String text) throws IOException {
+        pending.put(index, text);
+        boolean wrote = false;
+        String next;
+        while ((next = pending.remove(nextIndex)) != null) {
+            byte[] bytes = next.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            bytesWritten += bytes.length;
+            nextIndex++;
+            wrote = true;
+        }
+        if (wrote && System.nanoTime() - lastCheckpointNanos >= CHECKPOINT_INTERVAL_NANOS) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Flushes what has been written in order and records it in the checkpoint file, if there is one.
+     */
+    synchronized void checkpoint() throws IOException {
+        out.flush();
+        lastCheckpointNanos = System.nanoTime();
+        if (checkpointFile != null) {
+            new Checkpoint(fingerprint, nextIndex, bytesWritten).save(checkpointFile);
+        }
+    }
+
+    synchronized long getNextIndex() {
+        return nextIndex;
+    }
+}
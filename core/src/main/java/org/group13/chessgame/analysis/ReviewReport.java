@@ -0,0 +1,32 @@
+package org.group13.chessgame.analysis;
+
+import org.group13.chessgame.model.PieceColor;
+
+import java.util.List;
+
+/**
+ * Result of a {@link GameReview}: one {@link MoveReview} per ply plus per-side summaries.
+ */
+public record ReviewReport(List<MoveReview> moves) {
+    public ReviewReport {
+        moves = List.copyOf(moves);
+    }
+
+    /**
+     * @return the mean accuracy of {@code color}'s moves, 100 if it made none.
+     */
+    public double getAccuracy(PieceColor color) {
+        return moves.stream().filter(review -> review.mover() == color).mapToDouble(MoveReview::accuracy).average().orElse(100);
+    }
+
+    /**
+     * @return the average centipawn loss of {@code color}'s moves.
+     */
+    public int getAverageCentipawnLoss(PieceColor color) {
+        return (int) Math.round(moves.stream().filter(review -> review.mover() == color).mapToInt(MoveReview::centipawnLoss).average().orElse(0));
+    }
+
+    public long count(PieceColor color, MoveClassification classification) {
+        return moves.stream().filter(review -> review.mover() == color && review.classification() == classification).count();
+    }
+}
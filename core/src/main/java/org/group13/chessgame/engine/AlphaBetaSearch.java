@@ -0,0 +1,199 @@
+package org.group13.chessgame.engine;
+
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.PieceType;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.model.RepetitionHistory;
+
+/**
+ * Built-in engine for when no UCI program is installed: iterative-deepening alpha-beta over {@link Position}
+ * with a capture-only quiescence search and a material plus piece-square evaluation. A position that repeats one
+ * earlier in the searched line scores as a draw.
+ * <p>
+ * It is far weaker than a real engine, but it has no external dependency and is good enough to spot hanging
+ * pieces and short mates in batch runs.
+ */
+public class AlphaBetaSearch implements AnalysisEngine {
+    private static final int MATE_SCORE = 100_000;
+    private static final int MAX_PLY = 64;
+    private static final int INFINITY = MATE_SCORE + 1;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    // PAWN, ROOK, KNIGHT, BISHOP, QUEEN, KING in PieceType order
+    private static final int[] PIECE_VALUES = {100, 500, 320, 330, 900, 0};
+    // bonus for the distance from the edge, for knights and bishops
+    private static final int[] CENTRALIZATION = {0, 4, 8, 12};
+
+    private final RepetitionHistory history = new RepetitionHistory();
+    private long nodes;
+    private long deadlineNanos;
+    private boolean aborted;
+
+    @Override
+    public Evaluation analyze(Position position, SearchLimit limit) {
+        int[] rootMoves = position.getLegalMoves();
+        if (rootMoves.length == 0) {
+            return Evaluation.terminal(position.isInCheck());
+        }
+        nodes = 0;
+        aborted = false;
+        history.reset(position.getHash(), position.getHalfMoveClock());
+        deadlineNanos = limit.moveTimeMillis() > 0 ? System.nanoTime() + limit.moveTimeMillis() * 1_000_000L : Long.MAX_VALUE;
+        int maxDepth = limit.depth() > 0 ? Math.min(limit.depth(), MAX_PLY) : MAX_PLY;
+
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            // search last iteration's best move first so a cut-short iteration still improves on it
+            orderRoot(rootMoves, bestMove);
+            int iterationBest = rootMoves[0];
+            int alpha = -INFINITY;
+            for (int move : rootMoves) {
+                int score = -negamax(position.makeMove(move), depth - 1, 1, -INFINITY, -alpha);
+                if (aborted) break;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                }
+            }
+            if (aborted && completedDepth > 0) break;
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            if (aborted || Math.abs(bestScore) >= MATE_SCORE - MAX_PLY) break;
+        }
+
+        if (Math.abs(bestScore) >= MATE_SCORE - MAX_PLY) {
+            int plies = MATE_SCORE - Math.abs(bestScore);
+            int mateIn = (plies + 1) / 2;
+            return new Evaluation(bestMove, 0, bestScore > 0 ? mateIn : -mateIn, completedDepth, nodes);
+        }
+        return new Evaluation(bestMove, bestScore, 0, completedDepth, nodes);
+    }
+
+    private static void orderRoot(int[] moves, int first) {
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] == first) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = first;
+                return;
+            }
+        }
+    }
+
+    private int negamax(Position position, int depth, int ply, int alpha, int beta) {
+        if (++nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos) aborted = true;
+        if (aborted) return 0;
+
+        int[] moves = position.getLegalMoves();
+        if (moves.length == 0) {
+            return position.isInCheck() ? -(MATE_SCORE - ply) : 0;
+        }
+        if (position.getHalfMoveClock() >= 100) return 0;
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiescence(position, ply, alpha, beta);
+        }
+
+        history.push(position.getHash(), position.getHalfMoveClock());
+        try {
+            if (history.isRepetition()) return 0;
+            orderCapturesFirst(position, moves);
+            for (int move : moves) {
+                int score = -negamax(position.makeMove(move), depth - 1, ply + 1, -beta, -alpha);
+                if (aborted) return 0;
+                if (score >= beta) return beta;
+                if (score > alpha) alpha = score;
+            }
+            return alpha;
+        } finally {
+            history.pop();
+        }
+    }
+
+    private int quiescence(Position position, int ply, int alpha, int beta) {
+        nodes++;
+        int standPat = evaluate(position);
+        if (standPat >= beta) return beta;
+        if (standPat > alpha) alpha = standPat;
+        if (ply >= MAX_PLY) return alpha;
+
+        int[] moves = position.getLegalMoves();
+        int captures = orderCapturesFirst(position, moves);
+        for (int i = 0; i < captures; i++) {
+            int score = -quiescence(position.makeMove(moves[i]), ply + 1, -beta, -alpha);
+            if (score >= beta) return beta;
+            if (score > alpha) alpha = score;
+        }
+        return alpha;
+    }
+
+    /**
+     * Moves captures and promotions to the front, most valuable victim first.
+     *
+     * @return how many moves were moved to the front.
+     */
+    private static int orderCapturesFirst(Position position, int[] moves) {
+        int count = 0;
+        for (int i = 0; i < moves.length; i++) {
+            if (gain(position, moves[i]) > 0) {
+                int move = moves[i];
+                moves[i] = moves[count];
+                moves[count++] = move;
+            }
+        }
+        // insertion sort: there are rarely more than a handful of captures
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int value = gain(position, move);
+            int j = i - 1;
+            while (j >= 0 && gain(position, moves[j]) < value) {
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            moves[j + 1] = move;
+        }
+        return count;
+    }
+
+    private static int gain(Position position, int move) {
+        int victim = position.pieceAt(PackedMove.to(move));
+        int value = victim != Position.EMPTY ? PIECE_VALUES[Position.typeOf(victim).ordinal()] : 0;
+        if (PackedMove.isEnPassant(move)) value = PIECE_VALUES[PieceType.PAWN.ordinal()];
+        if (PackedMove.isPromotion(move)) value += PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+        return value;
+    }
+
+    /**
+     * Static evaluation from the side to move's point of view.
+     */
+    static int evaluate(Position position) {
+        int score = 0;
+        for (int square = 0; square < 64; square++) {
+            int code = position.pieceAt(square);
+            if (code == Position.EMPTY) continue;
+            PieceType type = Position.typeOf(code);
+            PieceColor color = Position.colorOf(code);
+            int value = PIECE_VALUES[type.ordinal()];
+            int row = PackedMove.row(square);
+            int col = PackedMove.col(square);
+            switch (type) {
+                case PAWN -> value += 5 * (color == PieceColor.WHITE ? 6 - row : row - 1);
+                case KNIGHT, BISHOP -> value += CENTRALIZATION[Math.min(Math.min(row, 7 - row), Math.min(col, 7 - col))];
+                default -> {
+                }
+            }
+            score += color == PieceColor.WHITE ? value : -value;
+        }
+        return position.getSideToMove() == PieceColor.WHITE ? score : -score;
+    }
+
+    @Override
+    public String getName() {
+        return "Built-in alpha-beta";
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,22 @@
+package org.group13.chessgame.engine;
+
+import org.group13.chessgame.model.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A backend that evaluates positions for batch work and game review, either the built-in {@link AlphaBetaSearch}
+ * or an external program through {@link UciEngine}.
+ * <p>
+ * An engine analyses one position at a time and is not thread-safe; parallel callers give each worker thread its
+ * own instance.
+ */
+public interface AnalysisEngine extends Closeable {
+    /**
+     * @param position a position with at least one legal move.
+     */
+    Evaluation analyze(Position position, SearchLimit limit) throws IOException;
+
+    String getName();
+}
@@ -0,0 +1,114 @@
+package org.group13.chessgame.engine;
+
+import org.group13.chessgame.model.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A fixed set of {@link AnalysisEngine} instances shared by several threads. Since an engine handles one position
+ * at a time, {@link #analyze} borrows an idle engine for the duration of the search; {@link #analyzeAll} spreads a
+ * batch of positions over every engine at once.
+ */
+public class EnginePool implements Closeable {
+    private final List<AnalysisEngine> engines = new ArrayList<>();
+    private final BlockingQueue<AnalysisEngine> idle;
+    private final ExecutorService workers;
+
+    @FunctionalInterface
+    public interface EngineFactory {
+        AnalysisEngine create() throws IOException;
+    }
+
+    /**
+     * Starts {@code size} engines up front, so a missing or broken engine fails here rather than mid-run.
+     */
+    public EnginePool(int size, EngineFactory factory) throws IOException {
+        if (size < 1) throw new IllegalArgumentException("An engine pool needs at least one engine");
+        idle = new ArrayBlockingQueue<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                AnalysisEngine engine = factory.create();
+                engines.add(engine);
+                idle.add(engine);
+            }
+        } catch (IOException e) {
+            closeEngines();
+            throw e;
+        }
+        workers = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "engine-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int size() {
+        return engines.size();
+    }
+
+    public String getEngineName() {
+        return engines.getFirst().getName();
+    }
+
+    /**
+     * Analyses one position on the next idle engine, waiting for one if all are busy. Positions without a legal
+     * move are scored directly as mate or stalemate.
+     */
+    public Evaluation analyze(Position position, SearchLimit limit) throws IOException, InterruptedException {
+        if (position.getLegalMoves().length == 0) {
+            return Evaluation.terminal(position.isInCheck());
+        }
+        AnalysisEngine engine = idle.take();
+        try {
+            return engine.analyze(position, limit);
+        } finally {
+            idle.add(engine);
+        }
+    }
+
+    /**
+     * Analyses the positions in parallel, one search per engine at a time.
+     *
+     * @return the evaluations in the order of {@code positions}.
+     */
+    public Evaluation[] analyzeAll(Position[] positions, SearchLimit limit) throws IOException, InterruptedException {
+        List<Future<Evaluation>> futures = new ArrayList<>(positions.length);
+        for (Position position : positions) {
+            futures.add(workers.submit(() -> analyze(position, limit)));
+        }
+        Evaluation[] evaluations = new Evaluation[positions.length];
+        try {
+            for (int i = 0; i < positions.length; i++) {
+                evaluations[i] = futures.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Analysis failed", e.getCause());
+        } finally {
+            for (Future<Evaluation> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return evaluations;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        closeEngines();
+    }
+
+    private void closeEngines() {
+        for (AnalysisEngine engine : engines) {
+            try {
+                engine.close();
+            } catch (IOException e) {
+                System.err.println("Error stopping engine " + engine.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.group13.chessgame.engine;
+
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.PieceColor;
+
+/**
+ * Result of analysing one position. Scores are from the side to move's point of view, like UCI reports them:
+ * {@code centipawns} is positive when the side to move is better, and {@code mateIn} is the number of moves to
+ * mate (positive when the side to move mates, negative when it is mated, 0 when no mate was found).
+ *
+ * @param bestMove the {@link PackedMove} to play, or {@link PackedMove#NONE} if the position has no legal move.
+ */
+public record Evaluation(int bestMove, int centipawns, int mateIn, int depth, long nodes) {
+    public boolean isMate() {
+        return mateIn != 0;
+    }
+
+    /**
+     * @return the score in centipawns from White's point of view; mates count as +-100000 minus the distance.
+     */
+    public int whiteCentipawns(PieceColor sideToMove) {
+        int score = isMate() ? Integer.signum(mateIn) * (100_000 - Math.abs(mateIn)) : centipawns;
+        return sideToMove == PieceColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Formats the score from White's point of view as PGN {@code [%eval]} does: {@code 0.35}, {@code -1.20} or
+     * {@code #-3}; a checkmated position is {@code #0}.
+     */
+    public String formatForWhite(PieceColor sideToMove) {
+        int sign = sideToMove == PieceColor.WHITE ? 1 : -1;
+        if (isMate()) return bestMove == PackedMove.NONE ? "#0" : "#" + (sign * mateIn);
+        int pawns = sign * centipawns;
+        return (pawns < 0 ? "-" : "") + Math.abs(pawns) / 100 + "." + String.format("%02d", Math.abs(pawns) % 100);
+    }
+
+    /**
+     * Evaluation of a position without legal moves: mated if in check, otherwise stalemate. A mated side reports
+     * {@code mateIn} -1, since 0 already means "no mate".
+     */
+    public static Evaluation terminal(boolean inCheck) {
+        return inCheck ? new Evaluation(PackedMove.NONE, 0, -1, 0, 0) : new Evaluation(PackedMove.NONE, 0, 0, 0, 0);
+    }
+}
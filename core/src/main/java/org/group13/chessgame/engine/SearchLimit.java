@@ -0,0 +1,28 @@
+package org.group13.chessgame.engine;
+
+/**
+ * How long an {@link AnalysisEngine} may think about one position: a fixed depth, a fixed time, or both, in which
+ * case the search stops at whichever comes first. Zero means no limit of that kind.
+ */
+public record SearchLimit(int depth, int moveTimeMillis) {
+    public SearchLimit {
+        if (depth < 0 || moveTimeMillis < 0 || (depth == 0 && moveTimeMillis == 0)) {
+            throw new IllegalArgumentException("A search needs a positive depth or move time");
+        }
+    }
+
+    public static SearchLimit depth(int depth) {
+        return new SearchLimit(depth, 0);
+    }
+
+    public static SearchLimit moveTime(int moveTimeMillis) {
+        return new SearchLimit(0, moveTimeMillis);
+    }
+
+    @Override
+    public String toString() {
+        if (moveTimeMillis == 0) return "depth " + depth;
+        if (depth == 0) return "movetime " + moveTimeMillis;
+        return "depth " + depth + " movetime " + moveTimeMillis;
+    }
+}
@@ -0,0 +1,138 @@
+package org.group13.chessgame.engine;
+
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.Piece;
+import org.group13.chessgame.model.Position;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking UCI client for batch work: one request at a time, answered from the last {@code info} line before
+ * {@code bestmove}. {@link UciService} stays the asynchronous client the board uses while a game is played.
+ */
+public class UciEngine implements AnalysisEngine {
+    private final Process process;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+    private String name = "Unknown Engine";
+
+    private UciEngine(Process process) {
+        this.process = process;
+        this.reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Launches the engine and waits for {@code uciok} and {@code readyok}.
+     */
+    public static UciEngine start(String enginePath) throws IOException {
+        UciEngine engine = new UciEngine(new ProcessBuilder(enginePath).redirectError(ProcessBuilder.Redirect.DISCARD).start());
+        try {
+            engine.send("uci");
+            String line;
+            while (!(line = engine.readLine()).equals("uciok")) {
+                if (line.startsWith("id name ")) engine.name = line.substring(8).trim();
+            }
+            engine.waitReady();
+        } catch (IOException e) {
+            engine.close();
+            throw e;
+        }
+        return engine;
+    }
+
+    private void send(String command) throws IOException {
+        writer.write(command);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new EOFException("Engine " + name + " exited");
+        }
+        return line.trim();
+    }
+
+    private void waitReady() throws IOException {
+        send("isready");
+        while (!readLine().equals("readyok")) {
+            // skip output left from the previous command
+        }
+    }
+
+    @Override
+    public Evaluation analyze(Position position, SearchLimit limit) throws IOException {
+        send("position fen " + position.toFen());
+        StringBuilder go = new StringBuilder("go");
+        if (limit.depth() > 0) go.append(" depth ").append(limit.depth());
+        if (limit.moveTimeMillis() > 0) go.append(" movetime ").append(limit.moveTimeMillis());
+        send(go.toString());
+
+        int depth = 0;
+        int centipawns = 0;
+        int mateIn = 0;
+        long nodes = 0;
+        while (true) {
+            String line = readLine();
+            if (line.startsWith("bestmove")) {
+                String[] parts = line.split("\\s+");
+                int bestMove = parts.length > 1 ? parseUciMove(position, parts[1]) : PackedMove.NONE;
+                return new Evaluation(bestMove, centipawns, mateIn, depth, nodes);
+            }
+            if (!line.startsWith("info") || line.startsWith("info string") || line.contains(" lowerbound") || line.contains(" upperbound")) continue;
+            String[] parts = line.split("\\s+");
+            for (int i = 1; i < parts.length - 1; i++) {
+                switch (parts[i]) {
+                    case "depth" -> depth = Integer.parseInt(parts[++i]);
+                    case "nodes" -> nodes = Long.parseLong(parts[++i]);
+                    case "score" -> {
+                        if (i + 2 >= parts.length) break;
+                        String kind = parts[++i];
+                        int value = Integer.parseInt(parts[++i]);
+                        if (kind.equals("cp")) {
+                            centipawns = value;
+                            mateIn = 0;
+                        } else if (kind.equals("mate")) {
+                            mateIn = value == 0 ? -1 : value;
+                        }
+                    }
+                    case "pv" -> i = parts.length;
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    private static int parseUciMove(Position position, String uci) {
+        if (uci.length() < 4) return PackedMove.NONE;
+        int from = PackedMove.algebraicToSquare(uci.substring(0, 2));
+        int to = PackedMove.algebraicToSquare(uci.substring(2, 4));
+        if (from < 0 || to < 0) return PackedMove.NONE;
+        return position.findLegalMove(from, to, uci.length() > 4 ? Piece.charToPieceType(uci.charAt(4)) : null);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() {
+        try {
+            send("quit");
+        } catch (IOException e) {
+            // already gone
+        }
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.model.ReplayCursor;
+import org.group13.chessgame.pgn.PgnGame;
+import org.group13.chessgame.pgn.PgnWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Finds games that repeat an earlier game of the same PGN files move for move, whatever their tags say, as
+ * happens when archives from several sources are merged.
+ * <p>
+ * The files are read twice and never held in memory. The first pass replays games on all worker threads and
+ * keeps 16 bytes per game: a hash of the start position and move sequence, and part of the final position's
+ * hash. Sorting those fingerprints joins games with equal hashes into candidate groups. The second pass reads
+ * the files again in order and compares each candidate with the earlier games of its group move by move, so hash
+ * collisions never remove a game; only the games of groups still open are kept meanwhile. Games without moves
+ * are never reported as duplicates.
+ * <p>
+ * Run with {@code java -cp ChessGame-core.jar org.group13.chessgame.index.DuplicateGameFinder <output.pgn>
+ * <input.pgn>...} to write the input games without their duplicates.
+ */
+public class DuplicateGameFinder {
+    private static final String USAGE = "Usage: DuplicateGameFinder <output.pgn> <input.pgn>...";
+    // from, to and promotion; the flags follow from the position
+    private static final int MOVE_BITS = 0x7FFF;
+    private static final long FINAL_HASH_BITS = 0xFFFFFFFF00000000L;
+
+    private final int threads;
+
+    public DuplicateGameFinder(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        List<Path> inputs = Arrays.stream(args).skip(1).map(Path::of).toList();
+        try {
+            long started = System.nanoTime();
+            Result result = new DuplicateGameFinder(Runtime.getRuntime().availableProcessors()).clean(inputs, Path.of(args[0]));
+            System.err.printf("Read %d games, removed %d duplicates in %.1f s%n", result.getGameCount(), result.getDuplicateCount(), (System.nanoTime() - started) / 1e9);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Removing duplicate games failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Finds the duplicates without writing anything. Games are numbered across all files in order, unreadable
+     * games included, as in the other databases of this package.
+     */
+    public Result find(List<Path> pgnFiles) throws IOException, InterruptedException {
+        return run(pgnFiles, null);
+    }
+
+    /**
+     * Finds the duplicates and writes every other readable game to {@code output}, in input order.
+     */
+    public Result clean(List<Path> pgnFiles, Path output) throws IOException, InterruptedException {
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        Result result;
+        try (PgnWriter writer = PgnWriter.open(temp)) {
+            result = run(pgnFiles, writer);
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return result;
+    }
+
+    private Result run(List<Path> pgnFiles, PgnWriter writer) throws IOException, InterruptedException {
+        List<Fingerprinter> fingerprinters = Collections.synchronizedList(new ArrayList<>());
+        long gameCount = ParallelGameScan.run(pgnFiles, threads, () -> {
+            Fingerprinter fingerprinter = new Fingerprinter();
+            fingerprinters.add(fingerprinter);
+            return fingerprinter;
+        }, "duplicate-fingerprint");
+
+        int total = 0;
+        for (Fingerprinter fingerprinter : fingerprinters) total += fingerprinter.size;
+        long[] keys = new long[total];
+        long[] values = new long[total];
+        int offset = 0;
+        for (Fingerprinter fingerprinter : fingerprinters) {
+            System.arraycopy(fingerprinter.keys, 0, keys, offset, fingerprinter.size);
+            System.arraycopy(fingerprinter.values, 0, values, offset, fingerprinter.size);
+            offset += fingerprinter.size;
+            fingerprinter.keys = null;
+            fingerprinter.values = null;
+        }
+        PairSort.sort(keys, values, total);
+
+        // runs of equal move hash and final hash are the candidate groups, their games in ascending order
+        long[] candidates = new long[16];
+        int candidateCount = 0;
+        int[] groupLast = new int[16];
+        int groups = 0;
+        for (int start = 0, end; start < total; start = end) {
+            end = start + 1;
+            while (end < total && keys[end] == keys[start] && (values[end] & FINAL_HASH_BITS) == (values[start] & FINAL_HASH_BITS)) end++;
+            if (end - start < 2) continue;
+            if (groups == groupLast.length) groupLast = Arrays.copyOf(groupLast, groups * 2);
+            groupLast[groups] = (int) values[end - 1];
+            for (int i = start; i < end; i++) {
+                if (candidateCount == candidates.length) candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                candidates[candidateCount++] = ((long) (int) values[i] << 32) | groups;
+            }
+            groups++;
+        }
+        keys = null;
+        values = null;
+        long[] byGame = Arrays.copyOf(candidates, candidateCount);
+        Arrays.sort(byGame);
+
+        Verifier verifier = new Verifier(byGame, groupLast, writer);
+        // a single worker sees the games in file order
+        ParallelGameScan.run(pgnFiles, 1, () -> verifier, "duplicate-verify");
+        return new Result(gameCount, verifier.duplicateIds.toArray(), verifier.originalIds.toArray());
+    }
+
+    /**
+     * Hashes the start position and every move, so games differing in any move or in their order differ.
+     */
+    static long moveHash(PgnGame game) {
+        long h = game.startPosition().getHash();
+        for (int move : game.moves()) {
+            h = mix(h ^ (move & MOVE_BITS));
+        }
+        return mix(h ^ game.plyCount());
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 31);
+    }
+
+    private static final class Fingerprinter implements ParallelGameScan.GameSink {
+        private final ReplayCursor cursor = new ReplayCursor();
+        // key: move hash; value: upper half of the final position's hash, game id
+        private long[] keys = new long[1024];
+        private long[] values = new long[1024];
+        private int size = 0;
+
+        @Override
+        public void accept(int gameId, PgnGame game) {
+            if (game.plyCount() == 0) return;
+            cursor.reset(game.startPosition(), game.moves());
+            while (cursor.next()) {
+                // replay to the final position
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = moveHash(game);
+            values[size] = (cursor.getHash() & FINAL_HASH_BITS) | gameId;
+            size++;
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private record Original(int gameId, PgnGame game) {
+        boolean sameMoves(PgnGame other) {
+            return Arrays.equals(game.moves(), other.moves()) && game.startPosition().equals(other.startPosition());
+        }
+    }
+
+    private static final class Verifier implements ParallelGameScan.GameSink {
+        private final long[] candidates;
+        private final int[] groupLast;
+        private final PgnWriter writer;
+        // distinct games seen so far of each group whose last game is still to come
+        private final Map<Integer, List<Original>> open = new HashMap<>();
+        private final IntList duplicateIds = new IntList();
+        private final IntList originalIds = new IntList();
+        private int next = 0;
+
+        Verifier(long[] candidates, int[] groupLast, PgnWriter writer) {
+            this.candidates = candidates;
+            this.groupLast = groupLast;
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(int gameId, PgnGame game) throws IOException {
+            while (next < candidates.length && (int) (candidates[next] >>> 32) < gameId) next++;
+            if (next < candidates.length && (int) (candidates[next] >>> 32) == gameId) {
+                int group = (int) candidates[next];
+                List<Original> seen = open.computeIfAbsent(group, k -> new ArrayList<>(1));
+                Original original = null;
+                for (Original candidate : seen) {
+                    if (candidate.sameMoves(game)) {
+                        original = candidate;
+                        break;
+                    }
+                }
+                if (gameId == groupLast[group]) {
+                    open.remove(group);
+                } else if (original == null) {
+                    // only the moves are compared, so the tags need not be kept
+                    seen.add(new Original(gameId, new PgnGame(Map.of(), game.startPosition(), game.moves(), game.result())));
+                }
+                if (original != null) {
+                    duplicateIds.add(gameId);
+                    originalIds.add(original.gameId());
+                    return;
+                }
+            }
+            if (writer != null) writer.game(game);
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * The duplicates found in a set of files: every game that repeats an earlier game, with the first game it
+     * repeats.
+     */
+    public static final class Result {
+        private final long gameCount;
+        private final int[] duplicateIds;
+        private final int[] originalIds;
+
+        Result(long gameCount, int[] duplicateIds, int[] originalIds) {
+            this.gameCount = gameCount;
+            this.duplicateIds = duplicateIds;
+            this.originalIds = originalIds;
+        }
+
+        /**
+         * @return the number of games read, including unreadable ones.
+         */
+        public long getGameCount() {
+            return gameCount;
+        }
+
+        public int getDuplicateCount() {
+            return duplicateIds.length;
+        }
+
+        public boolean isDuplicate(int gameId) {
+            return Arrays.binarySearch(duplicateIds, gameId) >= 0;
+        }
+
+        /**
+         * @return the id of the first game that {@code gameId} repeats, or -1 if it is not a duplicate.
+         */
+        public int getOriginal(int gameId) {
+            int index = Arrays.binarySearch(duplicateIds, gameId);
+            return index < 0 ? -1 : originalIds[index];
+        }
+
+        /**
+         * @return the ids of the duplicates, to exclude them from {@link HeaderStore} queries.
+         */
+        public GameIdBitmap getDuplicates() {
+            return GameIdBitmap.of(duplicateIds);
+        }
+    }
+}
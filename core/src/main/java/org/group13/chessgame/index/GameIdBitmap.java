@@ -0,0 +1,278 @@
+package org.group13.chessgame.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of game ids in the style of a Roaring bitmap: ids are split by their upper 16 bits into chunks,
+ * and each chunk is stored as a sorted {@code char[]} while it holds at most {@value #ARRAY_MAX} ids, or as a
+ * 65536-bit bitmap once it is denser. Sparse sets cost about two bytes per id, dense ones one bit.
+ * <p>
+ * {@link #and}, {@link #or} and {@link #andNot} return new bitmaps and leave their operands unchanged, so bitmaps
+ * held by a {@link HeaderStore} can be shared between concurrent queries. {@link #add} is for building and is not
+ * thread-safe.
+ */
+public final class GameIdBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // chunk i holds the ids whose upper 16 bits are keys[i]; keys ascend
+    private char[] keys = new char[4];
+    private Object[] chunks = new Object[4];   // sorted char[] (first cardinalities[i] entries used) or long[BITMAP_WORDS]
+    private int[] cardinalities = new int[4];
+    private int size = 0;
+
+    public GameIdBitmap() {
+    }
+
+    public static GameIdBitmap of(int... ids) {
+        GameIdBitmap bitmap = new GameIdBitmap();
+        for (int id : ids) bitmap.add(id);
+        return bitmap;
+    }
+
+    /**
+     * Adds an id. Ids added in ascending order, as when a store is built, append without searching.
+     */
+    public void add(int id) {
+        if (id < 0) throw new IllegalArgumentException("Negative game id: " + id);
+        char high = (char) (id >>> 16);
+        char low = (char) id;
+        int index = size > 0 && keys[size - 1] == high ? size - 1 : chunkIndex(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, high, new char[0], 0);
+        }
+        Object chunk = chunks[index];
+        if (chunk instanceof long[] words) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinalities[index]++;
+            }
+            return;
+        }
+        char[] values = (char[]) chunk;
+        int count = cardinalities[index];
+        int position = count > 0 && values[count - 1] < low ? -count - 1 : Arrays.binarySearch(values, 0, count, low);
+        if (position >= 0) return;
+        position = -position - 1;
+        if (count == ARRAY_MAX) {
+            long[] words = toWords(values, count);
+            words[low >>> 6] |= 1L << low;
+            chunks[index] = words;
+            cardinalities[index] = count + 1;
+            return;
+        }
+        if (count == values.length) {
+            values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, count * 2)));
+            chunks[index] = values;
+        }
+        System.arraycopy(values, position, values, position + 1, count - position);
+        values[position] = low;
+        cardinalities[index] = count + 1;
+    }
+
+    public boolean contains(int id) {
+        if (id < 0) return false;
+        int index = chunkIndex((char) (id >>> 16));
+        return index >= 0 && chunkContains(index, (char) id);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += cardinalities[i];
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return cardinality() == 0;
+    }
+
+    /**
+     * Calls {@code action} for every id in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int base = keys[i] << 16;
+            if (chunks[i] instanceof long[] words) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        action.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) chunks[i];
+                for (int j = 0; j < cardinalities[i]; j++) action.accept(base | values[j]);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] ids = new int[cardinality()];
+        int[] next = {0};
+        forEach(id -> ids[next[0]++] = id);
+        return ids;
+    }
+
+    public GameIdBitmap and(GameIdBitmap other) {
+        GameIdBitmap result = new GameIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object a = chunks[i];
+                Object b = other.chunks[j];
+                if (a instanceof long[] wa && b instanceof long[] wb) {
+                    long[] words = new long[BITMAP_WORDS];
+                    for (int w = 0; w < BITMAP_WORDS; w++) words[w] = wa[w] & wb[w];
+                    result.appendWords(keys[i], words);
+                } else if (a instanceof char[] va) {
+                    result.appendFiltered(keys[i], va, cardinalities[i], other, j, true);
+                } else {
+                    result.appendFiltered(keys[i], (char[]) b, other.cardinalities[j], this, i, true);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public GameIdBitmap or(GameIdBitmap other) {
+        GameIdBitmap result = new GameIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendCopy(keys[i], chunks[i], cardinalities[i]);
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendCopy(other.keys[j], other.chunks[j], other.cardinalities[j]);
+                j++;
+            } else {
+                long[] words = wordsOf(chunks[i], cardinalities[i]);
+                long[] otherWords = wordsOf(other.chunks[j], other.cardinalities[j]);
+                for (int w = 0; w < BITMAP_WORDS; w++) words[w] |= otherWords[w];
+                result.appendWords(keys[i], words);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids in this bitmap that are not in {@code other}.
+     */
+    public GameIdBitmap andNot(GameIdBitmap other) {
+        GameIdBitmap result = new GameIdBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            if (j == other.size || other.keys[j] != keys[i]) {
+                result.appendCopy(keys[i], chunks[i], cardinalities[i]);
+            } else if (chunks[i] instanceof char[] values) {
+                result.appendFiltered(keys[i], values, cardinalities[i], other, j, false);
+            } else {
+                long[] words = ((long[]) chunks[i]).clone();
+                long[] otherWords = wordsOf(other.chunks[j], other.cardinalities[j]);
+                for (int w = 0; w < BITMAP_WORDS; w++) words[w] &= ~otherWords[w];
+                result.appendWords(keys[i], words);
+            }
+        }
+        return result;
+    }
+
+    private boolean chunkContains(int index, char low) {
+        if (chunks[index] instanceof long[] words) return (words[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) chunks[index], 0, cardinalities[index], low) >= 0;
+    }
+
+    private int chunkIndex(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertChunk(int index, char high, Object chunk, int cardinality) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+            cardinalities = Arrays.copyOf(cardinalities, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(chunks, index, chunks, index + 1, size - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, size - index);
+        keys[index] = high;
+        chunks[index] = chunk;
+        cardinalities[index] = cardinality;
+        size++;
+    }
+
+    private void appendCopy(char high, Object chunk, int cardinality) {
+        Object copy = chunk instanceof long[] words ? words.clone() : Arrays.copyOf((char[]) chunk, cardinality);
+        insertChunk(size, high, copy, cardinality);
+    }
+
+    /**
+     * Appends the values of an array chunk that are (keep = true) or are not (keep = false) in chunk
+     * {@code otherIndex} of {@code other}.
+     */
+    private void appendFiltered(char high, char[] values, int count, GameIdBitmap other, int otherIndex, boolean keep) {
+        char[] kept = new char[count];
+        int n = 0;
+        for (int k = 0; k < count; k++) {
+            if (other.chunkContains(otherIndex, values[k]) == keep) kept[n++] = values[k];
+        }
+        if (n > 0) insertChunk(size, high, Arrays.copyOf(kept, n), n);
+    }
+
+    private void appendWords(char high, long[] words) {
+        int cardinality = 0;
+        for (long word : words) cardinality += Long.bitCount(word);
+        if (cardinality == 0) return;
+        if (cardinality > ARRAY_MAX) {
+            insertChunk(size, high, words, cardinality);
+            return;
+        }
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        insertChunk(size, high, values, cardinality);
+    }
+
+    private static long[] wordsOf(Object chunk, int cardinality) {
+        return chunk instanceof long[] words ? words.clone() : toWords((char[]) chunk, cardinality);
+    }
+
+    private static long[] toWords(char[] values, int count) {
+        long[] words = new long[BITMAP_WORDS];
+        for (int k = 0; k < count; k++) words[values[k] >>> 6] |= 1L << values[k];
+        return words;
+    }
+
+    /**
+     * Releases the spare capacity left by {@link #add}.
+     */
+    void trim() {
+        for (int i = 0; i < size; i++) {
+            if (chunks[i] instanceof char[] values && values.length != cardinalities[i]) {
+                chunks[i] = Arrays.copyOf(values, cardinalities[i]);
+            }
+        }
+        keys = Arrays.copyOf(keys, Math.max(1, size));
+        chunks = Arrays.copyOf(chunks, Math.max(1, size));
+        cardinalities = Arrays.copyOf(cardinalities, Math.max(1, size));
+    }
+}
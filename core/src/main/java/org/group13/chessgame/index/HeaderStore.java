@@ -0,0 +1,420 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.pgn.PgnGame;
+import org.group13.chessgame.pgn.PgnHeaders;
+import org.group13.chessgame.pgn.PgnReader;
+import org.group13.chessgame.utils.PgnParseException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * The headers of a game collection stored by column rather than as one {@link PgnHeaders} object per game.
+ * <p>
+ * Player, event and site names are dictionary-encoded: each distinct string is kept once and games refer to it
+ * by an int. Dates are packed into one int ({@code year << 9 | month << 5 | day}, unknown parts 0) and results into
+ * one byte. A game therefore costs about 21 bytes plus its share of the indexes. Games with a given player,
+ * event or result are found through {@link GameIdBitmap} indexes, and {@link Query} combines them by bitmap
+ * intersection, so a filter never looks at the games it excludes.
+ * <p>
+ * Game ids are positions in the store, numbered like {@link PositionIndexBuilder} numbers games, so ids from
+ * both refer to the same games when built from the same files. A store is immutable once built and safe to
+ * query from several threads.
+ */
+public final class HeaderStore {
+    private static final int MAGIC = 0x43474844; // "CGHD"
+    private static final int VERSION = 1;
+    private static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+    private final String[] players;
+    private final String[] events;
+    private final String[] sites;
+    private final int[] white;
+    private final int[] black;
+    private final int[] event;
+    private final int[] site;
+    private final int[] date;
+    private final byte[] result;
+
+    private final Map<String, Integer> playerIds = new HashMap<>();
+    private final Map<String, Integer> eventIds = new HashMap<>();
+    private final GameIdBitmap[] gamesAsWhite;
+    private final GameIdBitmap[] gamesAsBlack;
+    private final GameIdBitmap[] gamesByEvent;
+    private final GameIdBitmap[] gamesByResult;
+    // game ids ordered by date, for date ranges without other filters
+    private final int[] idsByDate;
+    private final GameIdBitmap allGames;
+
+    private HeaderStore(String[] players, String[] events, String[] sites, int[] white, int[] black, int[] event, int[] site, int[] date, byte[] result) {
+        this.players = players;
+        this.events = events;
+        this.sites = sites;
+        this.white = white;
+        this.black = black;
+        this.event = event;
+        this.site = site;
+        this.date = date;
+        this.result = result;
+        for (int i = 0; i < players.length; i++) playerIds.put(players[i], i);
+        for (int i = 0; i < events.length; i++) eventIds.put(events[i], i);
+
+        gamesAsWhite = newBitmaps(players.length);
+        gamesAsBlack = newBitmaps(players.length);
+        gamesByEvent = newBitmaps(events.length);
+        gamesByResult = newBitmaps(RESULTS.length);
+        allGames = new GameIdBitmap();
+        for (int id = 0; id < white.length; id++) {
+            gamesAsWhite[white[id]].add(id);
+            gamesAsBlack[black[id]].add(id);
+            gamesByEvent[event[id]].add(id);
+            gamesByResult[result[id]].add(id);
+            allGames.add(id);
+        }
+        for (GameIdBitmap[] bitmaps : List.of(gamesAsWhite, gamesAsBlack, gamesByEvent, gamesByResult)) {
+            for (GameIdBitmap bitmap : bitmaps) bitmap.trim();
+        }
+
+        // sort (date, id) pairs packed into longs rather than boxing millions of ids
+        long[] order = new long[date.length];
+        for (int id = 0; id < order.length; id++) order[id] = (long) date[id] << 32 | id;
+        Arrays.sort(order);
+        idsByDate = new int[order.length];
+        for (int i = 0; i < order.length; i++) idsByDate[i] = (int) order[i];
+    }
+
+    private static GameIdBitmap[] newBitmaps(int count) {
+        GameIdBitmap[] bitmaps = new GameIdBitmap[count];
+        for (int i = 0; i < count; i++) bitmaps[i] = new GameIdBitmap();
+        return bitmaps;
+    }
+
+    /**
+     * Reads the tags of every game in the files. A game that cannot be read still takes an id, with empty tags.
+     */
+    public static HeaderStore fromPgn(List<Path> pgnFiles) throws IOException {
+        Builder builder = new Builder();
+        for (Path file : pgnFiles) {
+            try (PgnReader reader = PgnReader.open(file)) {
+                while (true) {
+                    PgnGame game;
+                    try {
+                        game = reader.next();
+                    } catch (PgnParseException e) {
+                        System.err.println("Game " + builder.size + " in " + file + " has no readable headers: " + e.getMessage());
+                        builder.add(Map.of());
+                        continue;
+                    }
+                    if (game == null) break;
+                    builder.add(game.tags());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return white.length;
+    }
+
+    public String getWhite(int id) {
+        return players[white[id]];
+    }
+
+    public String getBlack(int id) {
+        return players[black[id]];
+    }
+
+    public String getEvent(int id) {
+        return events[event[id]];
+    }
+
+    public String getSite(int id) {
+        return sites[site[id]];
+    }
+
+    /**
+     * @return the date in PGN form, {@code yyyy.mm.dd} with {@code ?} for unknown parts.
+     */
+    public String getDate(int id) {
+        return formatDate(date[id]);
+    }
+
+    public String getResult(int id) {
+        return RESULTS[result[id]];
+    }
+
+    /**
+     * @return the game's Seven Tag Roster as the {@link PgnHeaders} used by the rest of the application.
+     */
+    public PgnHeaders toHeaders(int id) {
+        PgnHeaders headers = new PgnHeaders();
+        headers.setEvent(getEvent(id));
+        headers.setSite(getSite(id));
+        headers.setDate(getDate(id));
+        headers.setWhite(getWhite(id));
+        headers.setBlack(getBlack(id));
+        headers.setResult(getResult(id));
+        return headers;
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * A conjunction of filters. Every filter narrows the result; a query without filters matches every game.
+     */
+    public final class Query {
+        private final List<GameIdBitmap> filters = new ArrayList<>();
+        private int fromDate = Integer.MIN_VALUE;
+        private int toDate = Integer.MAX_VALUE;
+
+        private Query() {
+        }
+
+        /**
+         * Games in which {@code name} played either colour.
+         */
+        public Query player(String name) {
+            Integer id = playerIds.get(name);
+            filters.add(id == null ? new GameIdBitmap() : gamesAsWhite[id].or(gamesAsBlack[id]));
+            return this;
+        }
+
+        public Query white(String name) {
+            Integer id = playerIds.get(name);
+            filters.add(id == null ? new GameIdBitmap() : gamesAsWhite[id]);
+            return this;
+        }
+
+        public Query black(String name) {
+            Integer id = playerIds.get(name);
+            filters.add(id == null ? new GameIdBitmap() : gamesAsBlack[id]);
+            return this;
+        }
+
+        public Query event(String name) {
+            Integer id = eventIds.get(name);
+            filters.add(id == null ? new GameIdBitmap() : gamesByEvent[id]);
+            return this;
+        }
+
+        /**
+         * @param pgnResult one of {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *}.
+         */
+        public Query result(String pgnResult) {
+            int code = Arrays.asList(RESULTS).indexOf(pgnResult);
+            if (code < 0) throw new IllegalArgumentException("Not a PGN result: " + pgnResult);
+            filters.add(gamesByResult[code]);
+            return this;
+        }
+
+        /**
+         * Games dated from {@code from} to {@code to}, both included, in PGN form; null leaves that end open.
+         * Unknown parts of {@code to} stand for the end of the period, so {@code 2020.??.??} includes all of 2020;
+         * games whose own date has unknown parts sort at the start of their period.
+         */
+        public Query dateBetween(String from, String to) {
+            if (from != null) fromDate = Math.max(fromDate, packDate(from));
+            if (to != null) {
+                int packed = packDate(to);
+                if ((packed & 0x1E0) == 0) packed |= 0x1E0;
+                if ((packed & 0x1F) == 0) packed |= 0x1F;
+                toDate = Math.min(toDate, packed);
+            }
+            return this;
+        }
+
+        /**
+         * @return the matching games. The bitmap may be one of the store's indexes and must not be modified.
+         */
+        public GameIdBitmap bitmap() {
+            GameIdBitmap matches = null;
+            // intersect the smallest bitmaps first, so intermediate results stay small
+            List<GameIdBitmap> ordered = new ArrayList<>(filters);
+            ordered.sort(Comparator.comparingInt(GameIdBitmap::cardinality));
+            for (GameIdBitmap filter : ordered) {
+                matches = matches == null ? filter : matches.and(filter);
+                if (matches.isEmpty()) return matches;
+            }
+            boolean datesFiltered = fromDate != Integer.MIN_VALUE || toDate != Integer.MAX_VALUE;
+            if (!datesFiltered) return matches == null ? allGames : matches;
+            if (matches != null) {
+                GameIdBitmap dated = new GameIdBitmap();
+                matches.forEach(id -> {
+                    if (date[id] >= fromDate && date[id] <= toDate) dated.add(id);
+                });
+                return dated;
+            }
+            int start = lowerBound(fromDate);
+            int end = toDate == Integer.MAX_VALUE ? idsByDate.length : lowerBound(toDate + 1);
+            if (start >= end) return new GameIdBitmap();
+            int[] ids = Arrays.copyOfRange(idsByDate, start, end);
+            Arrays.sort(ids);
+            return GameIdBitmap.of(ids);
+        }
+
+        public int[] ids() {
+            return bitmap().toArray();
+        }
+
+        public int count() {
+            return bitmap().cardinality();
+        }
+
+        private int lowerBound(int packed) {
+            int low = 0;
+            int high = idsByDate.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (date[idsByDate[middle]] < packed) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    static int packDate(String pgnDate) {
+        String[] parts = pgnDate == null ? new String[0] : pgnDate.split("\\.");
+        int year = parts.length > 0 ? parseDatePart(parts[0], 4095) : 0;
+        int month = parts.length > 1 ? parseDatePart(parts[1], 12) : 0;
+        int day = parts.length > 2 ? parseDatePart(parts[2], 31) : 0;
+        return year << 9 | month << 5 | day;
+    }
+
+    private static int parseDatePart(String part, int max) {
+        try {
+            int value = Integer.parseInt(part.trim());
+            return value >= 0 && value <= max ? value : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static String formatDate(int packed) {
+        int year = packed >>> 9;
+        int month = (packed >>> 5) & 0xF;
+        int day = packed & 0x1F;
+        return (year == 0 ? "????" : String.format("%04d", year)) + "." + (month == 0 ? "??" : String.format("%02d", month)) + "." + (day == 0 ? "??" : String.format("%02d", day));
+    }
+
+    /**
+     * Writes the columns and dictionaries; the bitmap indexes are rebuilt by {@link #load}.
+     */
+    public void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeStrings(out, players);
+            writeStrings(out, events);
+            writeStrings(out, sites);
+            out.writeInt(white.length);
+            for (int[] column : List.of(white, black, event, site, date)) {
+                for (int value : column) out.writeInt(value);
+            }
+            out.write(result);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static HeaderStore load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a header store: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported header store version " + version);
+            String[] players = readStrings(in);
+            String[] events = readStrings(in);
+            String[] sites = readStrings(in);
+            int count = in.readInt();
+            int[][] columns = new int[5][count];
+            for (int[] column : columns) {
+                for (int i = 0; i < count; i++) column[i] = in.readInt();
+            }
+            byte[] result = new byte[count];
+            in.readFully(result);
+            return new HeaderStore(players, events, sites, columns[0], columns[1], columns[2], columns[3], columns[4], result);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+        out.writeInt(strings.length);
+        for (String string : strings) out.writeUTF(string);
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) strings[i] = in.readUTF();
+        return strings;
+    }
+
+    /**
+     * Collects headers game by game. Missing tags are stored as {@code ?}, like {@link PgnHeaders} does.
+     */
+    public static final class Builder {
+        private final Dictionary players = new Dictionary();
+        private final Dictionary events = new Dictionary();
+        private final Dictionary sites = new Dictionary();
+        private int[] white = new int[1024];
+        private int[] black = new int[1024];
+        private int[] event = new int[1024];
+        private int[] site = new int[1024];
+        private int[] date = new int[1024];
+        private byte[] result = new byte[1024];
+        private int size = 0;
+
+        /**
+         * @return the id of the added game.
+         */
+        public int add(Map<String, String> tags) {
+            if (size == white.length) {
+                int capacity = size * 2;
+                white = Arrays.copyOf(white, capacity);
+                black = Arrays.copyOf(black, capacity);
+                event = Arrays.copyOf(event, capacity);
+                site = Arrays.copyOf(site, capacity);
+                date = Arrays.copyOf(date, capacity);
+                result = Arrays.copyOf(result, capacity);
+            }
+            white[size] = players.id(tags.get("White"));
+            black[size] = players.id(tags.get("Black"));
+            event[size] = events.id(tags.get("Event"));
+            site[size] = sites.id(tags.get("Site"));
+            date[size] = packDate(tags.get("Date"));
+            result[size] = (byte) Math.max(0, Arrays.asList(RESULTS).indexOf(tags.getOrDefault("Result", "*")));
+            return size++;
+        }
+
+        public int add(PgnHeaders headers) {
+            return add(Map.of("Event", headers.getEvent(), "Site", headers.getSite(), "Date", headers.getDate(), "White", headers.getWhite(), "Black", headers.getBlack(), "Result", headers.getResult()));
+        }
+
+        public HeaderStore build() {
+            return new HeaderStore(players.values(), events.values(), sites.values(), Arrays.copyOf(white, size), Arrays.copyOf(black, size), Arrays.copyOf(event, size), Arrays.copyOf(site, size), Arrays.copyOf(date, size), Arrays.copyOf(result, size));
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            String key = value == null || value.isBlank() ? "?" : value.trim();
+            return ids.computeIfAbsent(key, k -> {
+                values.add(k);
+                return values.size() - 1;
+            });
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
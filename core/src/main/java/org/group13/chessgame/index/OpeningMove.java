@@ -0,0 +1,26 @@
+package org.group13.chessgame.index;
+
+/**
+ * Statistics of one continuation in the opening explorer.
+ *
+ * @param move          the {@link org.group13.chessgame.model.PackedMove} played.
+ * @param san           the move in SAN, for display.
+ * @param averageRating mean rating of the players in the games that had ratings, 0 if none did.
+ */
+public record OpeningMove(int move, String san, int games, int whiteWins, int draws, int blackWins, int averageRating) {
+    public double whitePercent() {
+        return percent(whiteWins);
+    }
+
+    public double drawPercent() {
+        return percent(draws);
+    }
+
+    public double blackPercent() {
+        return percent(blackWins);
+    }
+
+    private double percent(int count) {
+        return games == 0 ? 0 : 100.0 * count / games;
+    }
+}
@@ -0,0 +1,143 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.model.ZobristTable;
+import org.group13.chessgame.utils.NotationUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read side of the opening explorer: for a position, the moves played from it in a game database with their
+ * results and average rating. Files are written by {@link OpeningTableBuilder}.
+ * <p>
+ * After a {@value #HEADER_SIZE}-byte header the file is an array of fixed-size {@value #RECORD_SIZE}-byte
+ * records sorted by (position key, move): key, move, White wins, draws, Black wins, rated games and the sum of
+ * their ratings. The records are memory-mapped and found by binary search, so a lookup touches a few pages and
+ * never scans games.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class OpeningTable implements Closeable {
+    static final long MAGIC = 0x4347424F4F4B3031L; // "CGBOOK01"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 36;
+    private static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final long recordCount;
+    private final long gameCount;
+    private final int maxPly;
+    private final MappedByteBuffer[] segments;
+
+    private OpeningTable(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) throw new IOException("Truncated opening table");
+        }
+        header.flip();
+        if (header.getLong() != MAGIC) throw new IOException("Not an opening table");
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("Unsupported opening table version " + version);
+        if (header.getLong() != ZobristTable.shared().getFingerprint()) {
+            throw new IOException("Opening table was built with a different Zobrist key set");
+        }
+        recordCount = header.getLong();
+        gameCount = header.getLong();
+        maxPly = header.getInt();
+        if (HEADER_SIZE + recordCount * RECORD_SIZE > channel.size()) throw new IOException("Truncated opening table");
+
+        int segmentCount = (int) ((recordCount + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long first = (long) i * RECORDS_PER_SEGMENT;
+            long records = Math.min(RECORDS_PER_SEGMENT, recordCount - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public static OpeningTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new OpeningTable(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * @return the number of (position, move) pairs in the table.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return how many plies into each game were counted; later positions are never found.
+     */
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    /**
+     * @return the moves played from {@code position}, most frequent first; empty if the position is not in the table.
+     */
+    public List<OpeningMove> lookup(Position position) {
+        long key = position.getHash();
+        List<OpeningMove> moves = new ArrayList<>();
+        for (long i = lowerBound(key); i < recordCount && keyAt(i) == key; i++) {
+            ByteBuffer segment = segments[(int) (i / RECORDS_PER_SEGMENT)];
+            int offset = (int) (i % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+            int move = segment.getInt(offset + 8);
+            int white = segment.getInt(offset + 12);
+            int draws = segment.getInt(offset + 16);
+            int black = segment.getInt(offset + 20);
+            int rated = segment.getInt(offset + 24);
+            long ratingSum = segment.getLong(offset + 28);
+            int averageRating = rated == 0 ? 0 : (int) Math.round((double) ratingSum / rated);
+            moves.add(new OpeningMove(move, NotationUtils.toSan(position, move), white + draws + black, white, draws, black, averageRating));
+        }
+        moves.sort(Comparator.comparingInt(OpeningMove::games).reversed().thenComparing(OpeningMove::san));
+        return moves;
+    }
+
+    private long lowerBound(long key) {
+        long low = 0;
+        long high = recordCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(long record) {
+        return segments[(int) (record / RECORDS_PER_SEGMENT)].getLong((int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,178 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.model.ReplayCursor;
+import org.group13.chessgame.model.ZobristTable;
+import org.group13.chessgame.pgn.PgnGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Builds an {@link OpeningTable} from PGN files in one parallel pass: each worker counts the (position, move)
+ * pairs of the first {@code maxPly} plies of its games in a map of its own, and the maps are merged and written
+ * sorted at the end. Games without a decisive or drawn result ({@code *}) are left out of the statistics.
+ * <p>
+ * Run with {@code java -cp ChessGame-core.jar org.group13.chessgame.index.OpeningTableBuilder <output.book>
+ * <input.pgn>...} to prepare a table for the explorer panel.
+ */
+public class OpeningTableBuilder {
+    public static final int DEFAULT_MAX_PLY = 40;
+    private static final String USAGE = "Usage: OpeningTableBuilder <output.book> <input.pgn>...";
+
+    private final int threads;
+    private final int maxPly;
+
+    public OpeningTableBuilder(int threads) {
+        this(threads, DEFAULT_MAX_PLY);
+    }
+
+    public OpeningTableBuilder(int threads, int maxPly) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+        if (maxPly < 1) throw new IllegalArgumentException("At least one ply must be counted");
+        this.threads = threads;
+        this.maxPly = maxPly;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        List<Path> inputs = Arrays.stream(args).skip(1).map(Path::of).toList();
+        try {
+            long started = System.nanoTime();
+            long games = new OpeningTableBuilder(Runtime.getRuntime().availableProcessors()).build(inputs, Path.of(args[0]));
+            System.err.printf("Read %d games in %.1f s%n", games, (System.nanoTime() - started) / 1e9);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Building the opening table failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the number of games read, including unfinished and unreadable ones.
+     */
+    public long build(List<Path> pgnFiles, Path output) throws IOException, InterruptedException {
+        List<Counter> counters = Collections.synchronizedList(new ArrayList<>());
+        long gameCount = ParallelGameScan.run(pgnFiles, threads, () -> {
+            Counter counter = new Counter();
+            counters.add(counter);
+            return counter;
+        }, "opening-table");
+
+        // fold every worker's counts into the largest map
+        counters.sort(Comparator.comparingInt((Counter counter) -> counter.stats.size()).reversed());
+        Map<Continuation, long[]> merged = counters.isEmpty() ? new HashMap<>() : counters.getFirst().stats;
+        for (Counter counter : counters.subList(1, counters.size())) {
+            counter.stats.forEach((continuation, stats) -> merged.merge(continuation, stats, OpeningTableBuilder::add));
+            counter.stats.clear();
+        }
+
+        List<Map.Entry<Continuation, long[]>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        write(entries, temp, gameCount);
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return gameCount;
+    }
+
+    private record Continuation(long key, int move) implements Comparable<Continuation> {
+        @Override
+        public int compareTo(Continuation other) {
+            return key != other.key ? Long.compare(key, other.key) : Integer.compare(move, other.move);
+        }
+    }
+
+    // stats: White wins, draws, Black wins, rated games, rating sum
+    private static long[] add(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) a[i] += b[i];
+        return a;
+    }
+
+    private final class Counter implements ParallelGameScan.GameSink {
+        private final Map<Continuation, long[]> stats = new HashMap<>();
+        private final ReplayCursor cursor = new ReplayCursor();
+
+        @Override
+        public void accept(int gameId, PgnGame game) {
+            int outcome = switch (game.result()) {
+                case "1-0" -> 0;
+                case "1/2-1/2" -> 1;
+                case "0-1" -> 2;
+                default -> -1;
+            };
+            if (outcome < 0) return;
+            int rating = gameRating(game);
+            cursor.reset(game.startPosition(), game.moves(), Math.min(maxPly, game.plyCount()));
+            while (cursor.hasNext()) {
+                int move = cursor.peekMove();
+                long[] counts = stats.computeIfAbsent(new Continuation(cursor.getHash(), move), k -> new long[5]);
+                counts[outcome]++;
+                if (rating > 0) {
+                    counts[3]++;
+                    counts[4] += rating;
+                }
+                cursor.next();
+            }
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    /**
+     * @return the mean of the players' Elo tags that are present, 0 if neither is.
+     */
+    private static int gameRating(PgnGame game) {
+        int sum = 0;
+        int count = 0;
+        for (String tag : new String[]{"WhiteElo", "BlackElo"}) {
+            try {
+                int elo = Integer.parseInt(game.tags().getOrDefault(tag, "").trim());
+                if (elo > 0) {
+                    sum += elo;
+                    count++;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    private void write(List<Map.Entry<Continuation, long[]>> entries, Path file, long gameCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(OpeningTable.MAGIC).putInt(OpeningTable.VERSION).putLong(ZobristTable.shared().getFingerprint());
+            buffer.putLong(entries.size()).putLong(gameCount).putInt(maxPly);
+            buffer.position(OpeningTable.HEADER_SIZE);
+            for (Map.Entry<Continuation, long[]> entry : entries) {
+                if (buffer.remaining() < OpeningTable.RECORD_SIZE) drain(channel, buffer);
+                long[] stats = entry.getValue();
+                buffer.putLong(entry.getKey().key()).putInt(entry.getKey().move());
+                buffer.putInt(saturate(stats[0])).putInt(saturate(stats[1])).putInt(saturate(stats[2])).putInt(saturate(stats[3]));
+                buffer.putLong(stats[4]);
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        }
+    }
+
+    private static int saturate(long count) {
+        return (int) Math.min(Integer.MAX_VALUE, count);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package org.group13.chessgame.index;
+
+/**
+ * Sorts two parallel {@code long} arrays by (key, value) in place, without boxing them into pair objects.
+ */
+final class PairSort {
+    private static final int INSERTION_THRESHOLD = 24;
+
+    private PairSort() {
+    }
+
+    static void sort(long[] keys, long[] values, int size) {
+        quickSort(keys, values, 0, size - 1, 2 * (64 - Long.numberOfLeadingZeros(Math.max(1, size))));
+    }
+
+    private static void quickSort(long[] keys, long[] values, int low, int high, int depthBudget) {
+        while (high - low > INSERTION_THRESHOLD) {
+            if (depthBudget-- == 0) {
+                heapSort(keys, values, low, high);
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            // median of three as pivot, moved to high
+            if (less(keys, values, middle, low)) swap(keys, values, middle, low);
+            if (less(keys, values, high, low)) swap(keys, values, high, low);
+            if (less(keys, values, middle, high)) swap(keys, values, middle, high);
+            long pivotKey = keys[high];
+            long pivotValue = values[high];
+            int store = low;
+            for (int i = low; i < high; i++) {
+                if (keys[i] < pivotKey || (keys[i] == pivotKey && values[i] < pivotValue)) {
+                    swap(keys, values, i, store++);
+                }
+            }
+            swap(keys, values, store, high);
+            // recurse into the smaller side to bound the stack depth
+            if (store - low < high - store) {
+                quickSort(keys, values, low, store - 1, depthBudget);
+                low = store + 1;
+            } else {
+                quickSort(keys, values, store + 1, high, depthBudget);
+                high = store - 1;
+            }
+        }
+        insertionSort(keys, values, low, high);
+    }
+
+    private static void insertionSort(long[] keys, long[] values, int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            long key = keys[i];
+            long value = values[i];
+            int j = i - 1;
+            while (j >= low && (keys[j] > key || (keys[j] == key && values[j] > value))) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(long[] keys, long[] values, int low, int high) {
+        int n = high - low + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) siftDown(keys, values, low, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, values, low, low + end);
+            siftDown(keys, values, low, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] keys, long[] values, int offset, int root, int n) {
+        while (2 * root + 1 < n) {
+            int child = 2 * root + 1;
+            if (child + 1 < n && less(keys, values, offset + child, offset + child + 1)) child++;
+            if (!less(keys, values, offset + root, offset + child)) return;
+            swap(keys, values, offset + root, offset + child);
+            root = child;
+        }
+    }
+
+    private static boolean less(long[] keys, long[] values, int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && values[a] < values[b]);
+    }
+
+    private static void swap(long[] keys, long[] values, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+    }
+}
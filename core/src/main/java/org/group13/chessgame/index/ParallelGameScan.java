@@ -0,0 +1,117 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.pgn.PgnGame;
+import org.group13.chessgame.pgn.PgnReader;
+import org.group13.chessgame.utils.PgnParseException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * The read-and-dispatch loop shared by the database builders: games are parsed on the calling thread, numbered
+ * across all files in order, and handed to one {@link GameSink} per worker thread through a bounded queue.
+ */
+final class ParallelGameScan {
+    private static final int QUEUE_PER_THREAD = 16;
+
+    /**
+     * Per-thread consumer of games. Only ever called from its own worker thread.
+     */
+    interface GameSink {
+        void accept(int gameId, PgnGame game) throws IOException;
+
+        /**
+         * Called once after the last game, if no sink has failed.
+         */
+        void finish() throws IOException;
+    }
+
+    private record Job(int gameId, PgnGame game) {
+        static final Job END = new Job(-1, null);
+    }
+
+    private ParallelGameScan() {
+    }
+
+    /**
+     * Games that cannot be read are reported on stderr and skipped, but keep their number. If a sink throws, the
+     * remaining games are read but no longer processed, and the first exception is rethrown here.
+     *
+     * @return the number of games read, including unreadable ones.
+     */
+    static long run(List<Path> pgnFiles, int threads, Supplier<? extends GameSink> sinks, String threadName) throws IOException, InterruptedException {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        BlockingQueue<Job> queue = new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD);
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<GameSink> created = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                GameSink sink = sinks.get();
+                created.add(sink);
+                workers.execute(() -> drain(queue, sink, failure));
+            }
+            long gameId = 0;
+            try {
+                for (Path file : pgnFiles) {
+                    try (PgnReader reader = PgnReader.open(file)) {
+                        while (true) {
+                            PgnGame game;
+                            try {
+                                game = reader.next();
+                            } catch (PgnParseException e) {
+                                System.err.println("Skipping game " + gameId + " in " + file + ": " + e.getMessage());
+                                gameId++;
+                                continue;
+                            }
+                            if (game == null) break;
+                            if (gameId > Integer.MAX_VALUE) throw new IOException("Too many games for one database");
+                            queue.put(new Job((int) gameId++, game));
+                        }
+                    }
+                }
+            } finally {
+                for (int i = 0; i < created.size(); i++) {
+                    queue.put(Job.END);
+                }
+                workers.shutdown();
+                workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+            Exception e = failure.get();
+            if (e instanceof IOException io) throw io;
+            if (e instanceof RuntimeException re) throw re;
+            return gameId;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static void drain(BlockingQueue<Job> queue, GameSink sink, AtomicReference<Exception> failure) {
+        try {
+            while (true) {
+                Job job = queue.take();
+                if (job == Job.END) break;
+                // after a failure keep draining, so the reading thread never blocks on a full queue
+                if (failure.get() != null) continue;
+                try {
+                    sink.accept(job.gameId(), job.game());
+                } catch (IOException | RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+            if (failure.get() == null) sink.finish();
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.model.ZobristTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read side of an on-disk position index: for a Zobrist key, every (game, ply) at which a game of the indexed
+ * databases reached that position. Files are written by {@link PositionIndexBuilder}.
+ * <p>
+ * Layout: a {@value #HEADER_SIZE}-byte header, then blocks of up to {@value #BLOCK_KEYS} keys in ascending order,
+ * then a directory holding the first key and offset of each block. Inside a block every key is stored as the
+ * delta from the previous key, followed by its posting count, the byte length of its postings and the postings
+ * themselves: {@code gameId << 16 | ply} values, ascending and delta-encoded. All numbers in blocks are unsigned
+ * LEB128 varints. The directory is read into memory on open; blocks are memory-mapped, so a lookup is a binary
+ * search over the directory and a scan of one block.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class PositionIndex implements Closeable {
+    static final long MAGIC = 0x4347504944583031L; // "CGPIDX01"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int BLOCK_KEYS = 128;
+    static final int PLY_BITS = 16;
+    static final int MAX_PLY = (1 << PLY_BITS) - 1;
+    // blocks never straddle two mappings, and a single mapping is limited to 2 GiB
+    private static final long MAX_SEGMENT = Integer.MAX_VALUE;
+
+    /**
+     * One occurrence of a position: the game's number in build order (0-based, across all input files, with
+     * unreadable games keeping their number) and the ply after which the position was on the board.
+     */
+    public record Posting(int gameId, int ply) {
+    }
+
+    private final FileChannel channel;
+    private final long gameCount;
+    private final long positionCount;
+    private final long postingCount;
+    private final long[] blockFirstKeys;
+    private final long[] blockOffsets;
+    private final long dataEnd;
+    private final MappedByteBuffer[] segments;
+    private final long[] segmentStarts;
+    private final int[] blockSegments;
+
+    private PositionIndex(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, 0);
+        header.flip();
+        if (header.getLong() != MAGIC) throw new IOException("Not a position index");
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("Unsupported position index version " + version);
+        if (header.getLong() != ZobristTable.shared().getFingerprint()) {
+            throw new IOException("Position index was built with a different Zobrist key set");
+        }
+        gameCount = header.getLong();
+        positionCount = header.getLong();
+        postingCount = header.getLong();
+        dataEnd = header.getLong();
+
+        ByteBuffer countBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(countBuffer, dataEnd);
+        int blockCount = countBuffer.flip().getInt();
+        ByteBuffer directory = ByteBuffer.allocate(blockCount * 2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(directory, dataEnd + Integer.BYTES);
+        directory.flip();
+        blockFirstKeys = new long[blockCount];
+        blockOffsets = new long[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            blockFirstKeys[i] = directory.getLong();
+            blockOffsets[i] = directory.getLong();
+        }
+
+        // map the blocks in as few segments as possible without splitting a block
+        blockSegments = new int[blockCount];
+        List<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < blockCount; i++) {
+            long end = blockEnd(i);
+            if (ranges.isEmpty() || end - ranges.getLast()[0] > MAX_SEGMENT) {
+                ranges.add(new long[]{blockOffsets[i], end});
+            } else {
+                ranges.getLast()[1] = end;
+            }
+            blockSegments[i] = ranges.size() - 1;
+        }
+        segments = new MappedByteBuffer[ranges.size()];
+        segmentStarts = new long[ranges.size()];
+        for (int i = 0; i < segments.length; i++) {
+            long[] range = ranges.get(i);
+            segmentStarts[i] = range[0];
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+        }
+    }
+
+    public static PositionIndex open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new PositionIndex(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * @return the number of distinct positions in the index.
+     */
+    public long getPositionCount() {
+        return positionCount;
+    }
+
+    public long getPostingCount() {
+        return postingCount;
+    }
+
+    public List<Posting> find(Position position) {
+        return find(position.getHash());
+    }
+
+    /**
+     * @return every occurrence of the position with this Zobrist key, ordered by game and ply; empty if none.
+     */
+    public List<Posting> find(long key) {
+        ByteBuffer block = seek(key);
+        if (block == null) return List.of();
+        int count = (int) readVarLong(block);
+        readVarLong(block); // byte length, only needed for skipping
+        List<Posting> postings = new ArrayList<>(count);
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value += readVarLong(block);
+            postings.add(new Posting((int) (value >>> PLY_BITS), (int) (value & MAX_PLY)));
+        }
+        return postings;
+    }
+
+    /**
+     * @return how often the position occurs, without decoding its postings.
+     */
+    public int count(long key) {
+        ByteBuffer block = seek(key);
+        return block == null ? 0 : (int) readVarLong(block);
+    }
+
+    /**
+     * @return the distinct games that reached the position, ascending.
+     */
+    public int[] findGames(long key) {
+        return find(key).stream().mapToInt(Posting::gameId).distinct().toArray();
+    }
+
+    /**
+     * Positions {@code block} just after the key, at its posting count, or returns null if the key is absent.
+     */
+    private ByteBuffer seek(long key) {
+        int blockIndex = Arrays.binarySearch(blockFirstKeys, key);
+        if (blockIndex < 0) blockIndex = -blockIndex - 2;
+        if (blockIndex < 0) return null;
+
+        ByteBuffer segment = segments[blockSegments[blockIndex]].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = (int) (blockOffsets[blockIndex] - segmentStarts[blockSegments[blockIndex]]);
+        int end = (int) (blockEnd(blockIndex) - segmentStarts[blockSegments[blockIndex]]);
+        segment.limit(end).position(start);
+        // the first key of a block is stored as a zero delta from the directory entry
+        long current = blockFirstKeys[blockIndex];
+        while (segment.hasRemaining()) {
+            current += readVarLong(segment);
+            if (current == key) return segment;
+            if (current > key) return null;
+            readVarLong(segment);
+            long length = readVarLong(segment);
+            segment.position(segment.position() + (int) length);
+        }
+        return null;
+    }
+
+    private long blockEnd(int blockIndex) {
+        return blockIndex + 1 < blockOffsets.length ? blockOffsets[blockIndex + 1] : dataEnd;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Truncated position index");
+        }
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,288 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.model.ReplayCursor;
+import org.group13.chessgame.model.ZobristTable;
+import org.group13.chessgame.pgn.PgnGame;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Builds a {@link PositionIndex} from PGN files.
+ * <p>
+ * Games are read on the calling thread and replayed on a pool of workers. Each worker collects (key, posting)
+ * pairs in a fixed-size buffer, sorts it when full and spills it to a temporary run file, so memory use depends
+ * on the buffer size and not on the size of the databases. The sorted runs are then merged into the final blocks.
+ * The index is written to a temporary file and moved into place only when complete.
+ */
+public class PositionIndexBuilder {
+    public static final int DEFAULT_RUN_ENTRIES = 1 << 20;
+
+    private final int threads;
+    private final int runEntries;
+
+    public PositionIndexBuilder(int threads) {
+        this(threads, DEFAULT_RUN_ENTRIES);
+    }
+
+    /**
+     * @param runEntries postings each worker buffers before spilling a sorted run; 16 bytes each.
+     */
+    public PositionIndexBuilder(int threads, int runEntries) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+        if (runEntries < 1) throw new IllegalArgumentException("Run size must be positive");
+        this.threads = threads;
+        this.runEntries = runEntries;
+    }
+
+    /**
+     * Indexes every position of the mainline of every game, numbering games across {@code pgnFiles} in order.
+     * Games that cannot be read are reported on stderr and keep their number without postings.
+     *
+     * @return the number of games read, including unreadable ones.
+     */
+    public long build(List<Path> pgnFiles, Path output) throws IOException, InterruptedException {
+        Path directory = output.toAbsolutePath().getParent();
+        Path tempDir = Files.createTempDirectory(directory, ".pidx-runs");
+        List<Path> runs = Collections.synchronizedList(new ArrayList<>());
+        try {
+            long gameCount = ParallelGameScan.run(pgnFiles, threads, () -> new RunWriter(tempDir, runs), "position-index");
+            Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+            merge(runs, temp, gameCount);
+            Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return gameCount;
+        } finally {
+            try (var files = Files.list(tempDir)) {
+                for (Path file : files.toList()) Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(tempDir);
+        }
+    }
+
+    /**
+     * Collects the postings of one worker and spills them as sorted runs.
+     */
+    private final class RunWriter implements ParallelGameScan.GameSink {
+        private final Path tempDir;
+        private final List<Path> runs;
+        private final long[] keys = new long[runEntries];
+        private final long[] values = new long[runEntries];
+        private final ReplayCursor cursor = new ReplayCursor();
+        private int size = 0;
+
+        RunWriter(Path tempDir, List<Path> runs) {
+            this.tempDir = tempDir;
+            this.runs = runs;
+        }
+
+        @Override
+        public void accept(int gameId, PgnGame game) throws IOException {
+            cursor.reset(game.startPosition(), game.moves(), Math.min(game.plyCount(), PositionIndex.MAX_PLY));
+            do {
+                add(cursor.getHash(), ((long) gameId << PositionIndex.PLY_BITS) | cursor.getPly());
+            } while (cursor.next());
+        }
+
+        @Override
+        public void finish() throws IOException {
+            spill();
+        }
+
+        private void add(long key, long value) throws IOException {
+            if (size == keys.length) spill();
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+
+        private void spill() throws IOException {
+            if (size == 0) return;
+            PairSort.sort(keys, values, size);
+            Path run = Files.createTempFile(tempDir, "run", ".bin");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(keys[i]);
+                    out.writeLong(values[i]);
+                }
+            }
+            runs.add(run);
+            size = 0;
+        }
+    }
+
+    private static void merge(List<Path> runs, Path output, long gameCount) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> a.key != b.key ? Long.compare(a.key, b.key) : Long.compare(a.value, b.value));
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                if (reader.advance()) heads.add(reader); else reader.close();
+            }
+            BlockWriter writer = new BlockWriter(channel);
+            while (!heads.isEmpty()) {
+                RunReader head = heads.poll();
+                writer.add(head.key, head.value);
+                if (head.advance()) heads.add(head); else head.close();
+            }
+            writer.finish(gameCount);
+        } finally {
+            for (RunReader reader : heads) reader.close();
+        }
+    }
+
+    private static final class RunReader implements Closeable {
+        private final DataInputStream in;
+        private long remaining;
+        long key;
+        long value;
+
+        RunReader(Path run) throws IOException {
+            remaining = Files.size(run) / (2 * Long.BYTES);
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            key = in.readLong();
+            value = in.readLong();
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Encodes merged pairs into blocks. The postings of the current key are held until the key changes, since
+     * the count and byte length precede them.
+     */
+    private static final class BlockWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long written = PositionIndex.HEADER_SIZE;
+        private long[] blockFirstKeys = new long[64];
+        private long[] blockOffsets = new long[64];
+        private int blockCount = 0;
+        private int keysInBlock = 0;
+        private long previousKey;
+
+        private boolean hasKey = false;
+        private long currentKey;
+        private long[] postings = new long[64];
+        private int postingCount = 0;
+        private long positionCount = 0;
+        private long totalPostings = 0;
+
+        BlockWriter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(PositionIndex.HEADER_SIZE);
+        }
+
+        void add(long key, long value) throws IOException {
+            if (hasKey && key == currentKey) {
+                if (postings[postingCount - 1] == value) return;
+                if (postingCount == postings.length) postings = Arrays.copyOf(postings, postingCount * 2);
+                postings[postingCount++] = value;
+                return;
+            }
+            flushKey();
+            hasKey = true;
+            currentKey = key;
+            postings[0] = value;
+            postingCount = 1;
+        }
+
+        private void flushKey() throws IOException {
+            if (!hasKey) return;
+            if (keysInBlock == PositionIndex.BLOCK_KEYS || blockCount == 0) {
+                if (blockCount == blockFirstKeys.length) {
+                    blockFirstKeys = Arrays.copyOf(blockFirstKeys, blockCount * 2);
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                }
+                blockFirstKeys[blockCount] = currentKey;
+                blockOffsets[blockCount] = written + buffer.position();
+                blockCount++;
+                keysInBlock = 0;
+                previousKey = currentKey;
+            }
+            long length = 0;
+            long previous = 0;
+            for (int i = 0; i < postingCount; i++) {
+                length += varLongSize(postings[i] - previous);
+                previous = postings[i];
+            }
+            writeVarLong(currentKey - previousKey);
+            writeVarLong(postingCount);
+            writeVarLong(length);
+            previous = 0;
+            for (int i = 0; i < postingCount; i++) {
+                writeVarLong(postings[i] - previous);
+                previous = postings[i];
+            }
+            previousKey = currentKey;
+            keysInBlock++;
+            positionCount++;
+            totalPostings += postingCount;
+        }
+
+        void finish(long gameCount) throws IOException {
+            flushKey();
+            long dataEnd = written + buffer.position();
+            ensureSpace(Integer.BYTES);
+            buffer.putInt(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                ensureSpace(2 * Long.BYTES);
+                buffer.putLong(blockFirstKeys[i]).putLong(blockOffsets[i]);
+            }
+            drain();
+
+            ByteBuffer header = ByteBuffer.allocate(PositionIndex.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(PositionIndex.MAGIC).putInt(PositionIndex.VERSION).putLong(ZobristTable.shared().getFingerprint());
+            header.putLong(gameCount).putLong(positionCount).putLong(totalPostings).putLong(dataEnd);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            ensureSpace(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private static int varLongSize(long value) {
+            int size = 1;
+            while ((value & ~0x7FL) != 0) {
+                value >>>= 7;
+                size++;
+            }
+            return size;
+        }
+
+        private void ensureSpace(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package org.group13.chessgame.index;
+
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.model.PositionCodec;
+import org.group13.chessgame.model.ReplayCursor;
+import org.group13.chessgame.pgn.PgnGame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A set of distinct positions with a {@code long} counter each, kept outside the Java heap so that hundreds of
+ * millions of positions neither need a huge heap nor slow down garbage collection.
+ * <p>
+ * The store is an open-addressing hash table with linear probing over direct or memory-mapped byte buffers.
+ * Each slot is 32 bytes: the three words of the {@link PositionCodec} encoding and the counter. Keys are
+ * compared in full, so two positions are never merged because their hashes collide. Insertion is lock-free: a
+ * thread claims an empty slot by compare-and-set on its first word, writes the other key words and then
+ * publishes the occupancy word, while readers that meet a slot being written wait for it. Counters are updated
+ * with atomic adds. Any number of threads may add and look up positions concurrently.
+ * <p>
+ * The capacity is fixed when the store is created; adding more positions than it allows throws
+ * {@link IllegalStateException}. Direct buffers are released by the garbage collector once the store is no
+ * longer referenced; a mapped store keeps its contents in the file, which may be larger than physical memory.
+ */
+public final class PositionStore implements Closeable {
+    static final int SLOT_BYTES = 32;
+    // 2^25 slots of 32 bytes: 1 GiB per buffer, below the 2 GiB limit of a ByteBuffer
+    private static final int SEGMENT_SHIFT = 25;
+    private static final double MAX_LOAD = 0.75;
+    private static final long EMPTY = 0;
+    // no position occupies all 64 squares
+    private static final long WRITING = -1;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] segments;
+    private final long slotMask;
+    private final int segmentMask;
+    private final long maxSize;
+    private final LongAdder size = new LongAdder();
+    private final FileChannel channel;
+
+    private PositionStore(ByteBuffer[] segments, long slots, FileChannel channel) {
+        this.segments = segments;
+        this.slotMask = slots - 1;
+        this.segmentMask = (int) Math.min(slots, 1L << SEGMENT_SHIFT) - 1;
+        this.maxSize = (long) (slots * MAX_LOAD);
+        this.channel = channel;
+        for (ByteBuffer segment : segments) {
+            if (segment.alignmentOffset(0, Long.BYTES) != 0) throw new IllegalStateException("Buffer is not 8-byte aligned");
+        }
+    }
+
+    /**
+     * Creates a store in direct memory with room for {@code expectedPositions} positions.
+     */
+    public static PositionStore allocate(long expectedPositions) {
+        long slots = slotsFor(expectedPositions);
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(slots)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect((int) (Math.min(slots, 1L << SEGMENT_SHIFT) * SLOT_BYTES));
+        }
+        return new PositionStore(segments, slots, null);
+    }
+
+    /**
+     * Creates a store backed by {@code file}, which is created or truncated. The operating system pages it in
+     * and out as needed, so the store can be larger than physical memory.
+     */
+    public static PositionStore map(Path file, long expectedPositions) throws IOException {
+        long slots = slotsFor(expectedPositions);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long segmentBytes = Math.min(slots, 1L << SEGMENT_SHIFT) * SLOT_BYTES;
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(slots)];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentBytes, segmentBytes);
+            }
+            return new PositionStore(segments, slots, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static long slotsFor(long expectedPositions) {
+        if (expectedPositions < 1) throw new IllegalArgumentException("Expected position count must be positive");
+        long slots = Long.highestOneBit((long) Math.ceil(expectedPositions / MAX_LOAD));
+        if (slots < expectedPositions / MAX_LOAD) slots <<= 1;
+        return Math.max(slots, 16);
+    }
+
+    private static int segmentCount(long slots) {
+        return (int) Math.max(1, slots >>> SEGMENT_SHIFT);
+    }
+
+    /**
+     * Adds {@code delta} to the counter of a position, inserting it with a counter of 0 first if needed.
+     *
+     * @param key the position's {@link PositionCodec} encoding, at {@code key[offset]}.
+     * @return the counter after the addition.
+     * @throws IllegalStateException if the position is new and the store is full.
+     */
+    public long add(long[] key, int offset, long delta) {
+        long occupancy = key[offset];
+        long low = key[offset + 1];
+        long high = key[offset + 2];
+        for (long slot = slotOf(occupancy, low, high) & slotMask; ; slot = (slot + 1) & slotMask) {
+            ByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+            int base = (int) (slot & segmentMask) * SLOT_BYTES;
+            long first = (long) LONGS.getAcquire(segment, base);
+            if (first == EMPTY) {
+                if (size.sum() >= maxSize) throw new IllegalStateException("Position store is full");
+                if (!LONGS.compareAndSet(segment, base, EMPTY, WRITING)) {
+                    first = awaitWritten(segment, base);
+                } else {
+                    LONGS.set(segment, base + 8, low);
+                    LONGS.set(segment, base + 16, high);
+                    LONGS.set(segment, base + 24, delta);
+                    LONGS.setRelease(segment, base, occupancy);
+                    size.increment();
+                    return delta;
+                }
+            } else if (first == WRITING) {
+                first = awaitWritten(segment, base);
+            }
+            if (first == occupancy && (long) LONGS.get(segment, base + 8) == low && (long) LONGS.get(segment, base + 16) == high) {
+                return delta == 0 ? (long) LONGS.getAcquire(segment, base + 24) : (long) LONGS.getAndAdd(segment, base + 24, delta) + delta;
+            }
+        }
+    }
+
+    /**
+     * Counts one more occurrence of {@code position}.
+     *
+     * @return true if the position was not in the store before.
+     */
+    public boolean add(Position position) {
+        long[] key = new long[PositionCodec.LONGS];
+        PositionCodec.encode(position, key, 0);
+        return add(key, 0, 1) == 1;
+    }
+
+    /**
+     * @return the counter of the position encoded at {@code key[offset]}, or -1 if it is not in the store.
+     */
+    public long get(long[] key, int offset) {
+        long occupancy = key[offset];
+        long low = key[offset + 1];
+        long high = key[offset + 2];
+        for (long slot = slotOf(occupancy, low, high) & slotMask; ; slot = (slot + 1) & slotMask) {
+            ByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+            int base = (int) (slot & segmentMask) * SLOT_BYTES;
+            long first = (long) LONGS.getAcquire(segment, base);
+            if (first == EMPTY) return -1;
+            if (first == WRITING) first = awaitWritten(segment, base);
+            if (first == occupancy && (long) LONGS.get(segment, base + 8) == low && (long) LONGS.get(segment, base + 16) == high) {
+                return (long) LONGS.getAcquire(segment, base + 24);
+            }
+        }
+    }
+
+    public long get(Position position) {
+        long[] key = new long[PositionCodec.LONGS];
+        PositionCodec.encode(position, key, 0);
+        return get(key, 0);
+    }
+
+    public boolean contains(Position position) {
+        return get(position) >= 0;
+    }
+
+    /**
+     * @return the number of distinct positions.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * @return the number of positions the store can hold.
+     */
+    public long capacity() {
+        return maxSize;
+    }
+
+    /**
+     * Visits every position with its counter, in slot order. Must not run while other threads add positions.
+     */
+    public void forEach(EntryVisitor visitor) {
+        long[] key = new long[PositionCodec.LONGS];
+        for (long slot = 0; slot <= slotMask; slot++) {
+            ByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+            int base = (int) (slot & segmentMask) * SLOT_BYTES;
+            long first = (long) LONGS.getAcquire(segment, base);
+            if (first == EMPTY || first == WRITING) continue;
+            key[0] = first;
+            key[1] = (long) LONGS.get(segment, base + 8);
+            key[2] = (long) LONGS.get(segment, base + 16);
+            visitor.visit(key, (long) LONGS.get(segment, base + 24));
+        }
+    }
+
+    /**
+     * Receives the entries of {@link #forEach}. The key array is reused between calls; decode it with
+     * {@link PositionCodec#decode} if the position itself is needed.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(long[] key, long count);
+    }
+
+    /**
+     * Counts every position of every game in {@code pgnFiles} (the mainline, start position included), replaying
+     * games on {@code threads} workers that insert into this store concurrently.
+     *
+     * @return the number of games read, including unreadable ones.
+     */
+    public long addGames(List<Path> pgnFiles, int threads) throws IOException, InterruptedException {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+        return ParallelGameScan.run(pgnFiles, threads, Inserter::new, "position-store");
+    }
+
+    private final class Inserter implements ParallelGameScan.GameSink {
+        private final ReplayCursor cursor = new ReplayCursor();
+        private final long[] key = new long[PositionCodec.LONGS];
+
+        @Override
+        public void accept(int gameId, PgnGame game) {
+            cursor.reset(game.startPosition(), game.moves());
+            do {
+                PositionCodec.encode(cursor, key, 0);
+                add(key, 0, 1);
+            } while (cursor.next());
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private static long slotOf(long occupancy, long low, long high) {
+        long h = occupancy * 0x9E3779B97F4A7C15L;
+        h = (h ^ low) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ high) * 0x165667B19E3779F9L;
+        return h ^ (h >>> 29);
+    }
+
+    private static long awaitWritten(ByteBuffer segment, int base) {
+        long first;
+        while ((first = (long) LONGS.getAcquire(segment, base)) == WRITING) {
+            Thread.onSpinWait();
+        }
+        return first;
+    }
+
+    /**
+     * Flushes a mapped store to its file and closes it; a no-op for a direct store.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        for (ByteBuffer segment : segments) {
+            ((MappedByteBuffer) segment).force();
+        }
+        channel.close();
+    }
+}
@@ -3,11 +3,18 @@ package org.group13.chessgame.model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Bishop extends Piece {
-    public Bishop(PieceColor color) {
+public final class Bishop extends Piece {
+    private static final Bishop WHITE = new Bishop(PieceColor.WHITE);
+    private static final Bishop BLACK = new Bishop(PieceColor.BLACK);
+
+    private Bishop(PieceColor color) {
         super(color, PieceType.BISHOP);
     }
 
+    public static Bishop of(PieceColor color) {
+        return color == PieceColor.WHITE ? WHITE : BLACK;
+    }
+
     @Override
     public List<Move> getPseudoLegalMoves(Game game, int currentRow, int currentCol) {
         List<Move> moves = new ArrayList<>();
@@ -27,10 +34,10 @@ public class Bishop extends Piece {
 
                 Square targetSquare = board.getSquare(nextRow, nextCol);
                 if (targetSquare.isEmpty()) {
-                    moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                    moves.add(new Move(startSquare, targetSquare, this));
                 } else {
                     if (targetSquare.getPiece().getColor() != this.color) {
-                        moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                        moves.add(new Move(startSquare, targetSquare, this));
                     }
                     break;
                 }
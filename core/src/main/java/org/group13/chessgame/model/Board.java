@@ -17,21 +17,6 @@ public class Board {
         return row >= 0 && row < SIZE && col >= 0 && col < SIZE;
     }
 
-    private static Piece getNewPiece(Piece p) {
-        Piece newPiece = null;
-        switch (p) {
-            case Pawn ignored -> newPiece = new Pawn(p.getColor());
-            case Rook ignored -> newPiece = new Rook(p.getColor());
-            case Knight ignored -> newPiece = new Knight(p.getColor());
-            case Bishop ignored -> newPiece = new Bishop(p.getColor());
-            case Queen ignored -> newPiece = new Queen(p.getColor());
-            case King ignored -> newPiece = new King(p.getColor());
-            default -> {
-            }
-        }
-        return newPiece;
-    }
-
     public Square getSquare(int row, int col) {
         if (isValidCoordinate(row, col)) {
             return squares[row][col];
@@ -59,28 +44,28 @@ public class Board {
             }
         }
 
-        setPiece(0, 0, new Rook(PieceColor.BLACK)); // Rank 8
-        setPiece(0, 1, new Knight(PieceColor.BLACK));
-        setPiece(0, 2, new Bishop(PieceColor.BLACK));
-        setPiece(0, 3, new Queen(PieceColor.BLACK));
-        setPiece(0, 4, new King(PieceColor.BLACK));
-        setPiece(0, 5, new Bishop(PieceColor.BLACK));
-        setPiece(0, 6, new Knight(PieceColor.BLACK));
-        setPiece(0, 7, new Rook(PieceColor.BLACK));
+        setPiece(0, 0, Rook.of(PieceColor.BLACK)); // Rank 8
+        setPiece(0, 1, Knight.of(PieceColor.BLACK));
+        setPiece(0, 2, Bishop.of(PieceColor.BLACK));
+        setPiece(0, 3, Queen.of(PieceColor.BLACK));
+        setPiece(0, 4, King.of(PieceColor.BLACK));
+        setPiece(0, 5, Bishop.of(PieceColor.BLACK));
+        setPiece(0, 6, Knight.of(PieceColor.BLACK));
+        setPiece(0, 7, Rook.of(PieceColor.BLACK));
         for (int col = 0; col < SIZE; col++) {
-            setPiece(1, col, new Pawn(PieceColor.BLACK)); // Rank 7
+            setPiece(1, col, Pawn.of(PieceColor.BLACK)); // Rank 7
         }
 
-        setPiece(7, 0, new Rook(PieceColor.WHITE)); // Rank 1
-        setPiece(7, 1, new Knight(PieceColor.WHITE));
-        setPiece(7, 2, new Bishop(PieceColor.WHITE));
-        setPiece(7, 3, new Queen(PieceColor.WHITE));
-        setPiece(7, 4, new King(PieceColor.WHITE));
-        setPiece(7, 5, new Bishop(PieceColor.WHITE));
-        setPiece(7, 6, new Knight(PieceColor.WHITE));
-        setPiece(7, 7, new Rook(PieceColor.WHITE));
+        setPiece(7, 0, Rook.of(PieceColor.WHITE)); // Rank 1
+        setPiece(7, 1, Knight.of(PieceColor.WHITE));
+        setPiece(7, 2, Bishop.of(PieceColor.WHITE));
+        setPiece(7, 3, Queen.of(PieceColor.WHITE));
+        setPiece(7, 4, King.of(PieceColor.WHITE));
+        setPiece(7, 5, Bishop.of(PieceColor.WHITE));
+        setPiece(7, 6, Knight.of(PieceColor.WHITE));
+        setPiece(7, 7, Rook.of(PieceColor.WHITE));
         for (int col = 0; col < SIZE; col++) {
-            setPiece(6, col, new Pawn(PieceColor.WHITE)); // Rank 2
+            setPiece(6, col, Pawn.of(PieceColor.WHITE)); // Rank 2
         }
     }
 
@@ -94,22 +79,16 @@ public class Board {
             return;
         }
 
-        movedPiece.setHasMoved(true);
-
         start.setPiece(null);
 
         if (move.isPromotion()) {
             Piece promotedPiece = switch (move.getPromotionPieceType()) {
-                case QUEEN -> new Queen(movedPiece.getColor());
-                case ROOK -> new Rook(movedPiece.getColor());
-                case BISHOP -> new Bishop(movedPiece.getColor());
-                case KNIGHT -> new Knight(movedPiece.getColor());
+                case QUEEN, ROOK, BISHOP, KNIGHT -> Piece.of(move.getPromotionPieceType(), movedPiece.getColor());
                 default -> {
                     System.err.println("Loại quân phong cấp không hợp lệ!");
-                    yield new Queen(movedPiece.getColor());
+                    yield Queen.of(movedPiece.getColor());
                 }
             };
-            promotedPiece.setHasMoved(true);
             end.setPiece(promotedPiece);
         } else {
             end.setPiece(movedPiece);
@@ -123,7 +102,6 @@ public class Board {
             if (rook != null && rook.getType() == PieceType.ROOK) {
                 rookStart.setPiece(null);
                 rookEnd.setPiece(rook);
-                rook.setHasMoved(true);
             } else {
                 System.err.println("Lỗi nhập thành: Không tìm thấy Xe hoặc Xe không đúng vị trí.");
             }
@@ -144,14 +122,8 @@ public class Board {
         Square end = move.getEndSquare();
         Piece originalPieceThatMoved = move.getPieceMoved();
 
-        if (move.isPromotion()) {
-            Pawn originalPawn = new Pawn(originalPieceThatMoved.getColor());
-            originalPawn.setHasMoved(move.getPieceMovedOriginalHasMoved());
-            start.setPiece(originalPawn);
-        } else {
-            originalPieceThatMoved.setHasMoved(move.getPieceMovedOriginalHasMoved());
-            start.setPiece(originalPieceThatMoved);
-        }
+        // for a promotion this is the pawn, which pieces being shared makes the same instance as before
+        start.setPiece(originalPieceThatMoved);
 
         if (move.isCastlingMove()) {
             Square rookStartOriginal = move.getRookStartSquareForCastling();
@@ -160,7 +132,6 @@ public class Board {
             if (rook != null && rook.getType() == PieceType.ROOK) {
                 rookEndOriginal.setPiece(null);
                 rookStartOriginal.setPiece(rook);
-                rook.setHasMoved(move.getRookOriginalHasMoved());
             } else {
                 System.err.println("Lỗi undo castling: Không có thông tin Xe gốc.");
             }
@@ -177,19 +148,14 @@ public class Board {
         }
     }
 
+    /**
+     * @return a board with the same pieces; pieces are immutable and shared, so only the squares are new.
+     */
     public Board copy() {
         Board newBoard = new Board();
         for (int r = 0; r < SIZE; r++) {
             for (int c = 0; c < SIZE; c++) {
-                Piece p = this.getPiece(r, c);
-                if (p != null) {
-                    Piece newPiece = getNewPiece(p);
-
-                    if (newPiece != null) {
-                        newPiece.setHasMoved(p.hasMoved());
-                        newBoard.setPiece(r, c, newPiece);
-                    }
-                }
+                newBoard.squares[r][c].setPiece(this.squares[r][c].getPiece());
             }
         }
         return newBoard;
@@ -218,8 +184,6 @@ public class Board {
                 fen.append('/');
             }
         }
-        fen.append(" ");
-
         return fen.toString();
     }
 
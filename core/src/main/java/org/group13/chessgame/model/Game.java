@@ -1,12 +1,16 @@
 package org.group13.chessgame.model;
 
+import org.group13.chessgame.pgn.EcoClassifier;
+import org.group13.chessgame.pgn.EcoOpening;
 import org.group13.chessgame.pgn.PgnHeaders;
 import org.group13.chessgame.utils.NotationUtils;
 
 import java.util.*;
 
 public class Game {
-    private static final ZobristTable zobristTable = new ZobristTable();
+    private static final ZobristTable zobristTable = ZobristTable.shared();
+    // a Position is kept every CHECKPOINT_INTERVAL plies, so seekToPly never replays more than that
+    private static final int CHECKPOINT_INTERVAL = 16;
     private final Board board;
     private final Player whitePlayer;
     private final Player blackPlayer;
@@ -14,9 +18,23 @@ public class Game {
     private final Deque<Move> redoStack;
     private final List<Piece> piecesCapturedByWhite;
     private final List<Piece> piecesCapturedByBlack;
-    // threefold repetition
-    private final Map<Long, Integer> positionHistoryCount;
+    // checkpoints.get(i) is the position after i * CHECKPOINT_INTERVAL plies of the current line
+    private final List<Position> checkpoints;
+    // every line played or explored from the start; lineNodes[i] is the tree node at ply i of the current line
+    private GameTree moveTree;
+    private int[] lineNodes = new int[64];
+    // ecoStates[i] is the EcoClassifier state at ply i of the current line
+    private final EcoClassifier ecoClassifier = EcoClassifier.standard();
+    private long[] ecoStates = new long[64];
+    // threefold repetition: the position hashes of the current line up to the current ply
+    private final RepetitionHistory repetitionHistory;
     private long currentPositionHash;
+    private long initialPositionHash;
+    // castling rights as Position.WHITE_KINGSIDE | ... and the en-passant target square (-1 if none) of the
+    // current position; stateWords[i] holds both, packed, at ply i of the current line for undo and seeking
+    private int castlingRights;
+    private int enPassantSquare = -1;
+    private int[] stateWords = new int[64];
     // 50-move rule
     private int halfMoveClock;
     private Player currentPlayer;
@@ -24,6 +42,7 @@ public class Game {
     private Square whiteKingSquare;
     private Square blackKingSquare;
     private PgnHeaders pgnHeaders;
+    private GameClock clock;
 
     public Game() {
         this.board = new Board();
@@ -31,10 +50,11 @@ public class Game {
         this.blackPlayer = new Player(PieceColor.BLACK);
         this.undoStack = new ArrayDeque<>();
         this.redoStack = new ArrayDeque<>();
-        this.positionHistoryCount = new HashMap<>();
+        this.repetitionHistory = new RepetitionHistory();
         this.pgnHeaders = new PgnHeaders();
         this.piecesCapturedByWhite = new ArrayList<>();
         this.piecesCapturedByBlack = new ArrayList<>();
+        this.checkpoints = new ArrayList<>();
     }
 
     public void initializeGame() {
@@ -44,17 +64,32 @@ public class Game {
         undoStack.clear();
         redoStack.clear();
         this.halfMoveClock = 0;
-        this.positionHistoryCount.clear();
+        this.castlingRights = Position.ALL_CASTLING;
+        this.enPassantSquare = -1;
+        this.stateWords[0] = packState(castlingRights, enPassantSquare);
         updateKingSquares();
 
         this.currentPositionHash = calculateBoardHash();
-        this.positionHistoryCount.put(this.currentPositionHash, 1);
+        this.initialPositionHash = this.currentPositionHash;
+        this.repetitionHistory.reset(this.currentPositionHash, this.halfMoveClock);
 
         this.piecesCapturedByWhite.clear();
         this.piecesCapturedByBlack.clear();
+
+        this.checkpoints.clear();
+        this.checkpoints.add(toPosition());
+        resetMoveTree();
     }
 
     public Move makeMove(Move moveFromUI) {
+        return makeMove(moveFromUI, true);
+    }
+
+    /**
+     * @param punchClock false when replaying moves that were already played or explored, such as a sideline
+     *                   restored by {@link #goToNode}; the clock is then left alone.
+     */
+    private Move makeMove(Move moveFromUI, boolean punchClock) {
         Piece pieceToMoveFromUI = moveFromUI.getStartSquare().getPiece();
         if (pieceToMoveFromUI == null || pieceToMoveFromUI.getColor() != currentPlayer.getColor()) {
             System.err.println("Nước đi không hợp lệ: Không phải quân của bạn hoặc ô trống.");
@@ -88,14 +123,7 @@ public class Game {
         actualMoveToMake.setHalfMoveClockBeforeMove(this.halfMoveClock);
         actualMoveToMake.setEnPassantTargetSquareBeforeMove(this.getEnPassantTargetSquare());
 
-        long newHash = this.currentPositionHash;
-
-        Square oldEnPassantTarget = actualMoveToMake.getEnPassantTargetSquareBeforeMove();
-        if (oldEnPassantTarget != null) {
-            newHash ^= zobristTable.getEnPassantFileKey(oldEnPassantTarget.getCol());
-        }
-
-        newHash ^= getCastlingHash();
+        long newHash = this.currentPositionHash ^ Position.enPassantKey(enPassantSquare) ^ Position.castlingKey(castlingRights);
 
         Piece pieceMoved = actualMoveToMake.getPieceMoved();
         newHash ^= zobristTable.getPieceKey(pieceMoved.getType(), pieceMoved.getColor(), actualMoveToMake.getStartSquare().getRow(), actualMoveToMake.getStartSquare().getCol());
@@ -141,17 +169,12 @@ public class Game {
             newHash ^= zobristTable.getPieceKey(rookForCastling.getType(), rookForCastling.getColor(), rookNewSquare.getRow(), rookNewSquare.getCol());
         }
 
-        newHash ^= getCastlingHash();
-
-        Square newEnPassantTarget = null;
-        assert pieceOnEndSquare != null;
-        if (pieceOnEndSquare.getType() == PieceType.PAWN && Math.abs(actualMoveToMake.getStartSquare().getRow() - actualMoveToMake.getEndSquare().getRow()) == 2) {
-            int direction = (pieceOnEndSquare.getColor() == PieceColor.WHITE) ? -1 : 1;
-            newEnPassantTarget = board.getSquare(actualMoveToMake.getEndSquare().getRow() - direction, actualMoveToMake.getEndSquare().getCol());
-        }
-        if (newEnPassantTarget != null) {
-            newHash ^= zobristTable.getEnPassantFileKey(newEnPassantTarget.getCol());
-        }
+        int from = PackedMove.square(actualMoveToMake.getStartSquare().getRow(), actualMoveToMake.getStartSquare().getCol());
+        int to = PackedMove.square(actualMoveToMake.getEndSquare().getRow(), actualMoveToMake.getEndSquare().getCol());
+        this.castlingRights = Position.updateCastlingRights(castlingRights, Position.code(pieceMoved.getType(), pieceMoved.getColor()), from, to);
+        boolean doublePush = pieceMoved.getType() == PieceType.PAWN && Math.abs(from - to) == 16;
+        this.enPassantSquare = doublePush ? (from + to) / 2 : -1;
+        newHash ^= Position.castlingKey(castlingRights) ^ Position.enPassantKey(enPassantSquare);
 
         newHash ^= zobristTable.getBlackToMoveKey();
 
@@ -174,14 +197,23 @@ public class Game {
         actualMoveToMake.setHashGenerated(this.currentPositionHash);
         undoStack.push(actualMoveToMake);
         redoStack.clear();
+        recordTreeNode(actualMoveToMake);
+        recordOpening(actualMoveToMake);
+        recordState();
 
-        int count = this.positionHistoryCount.getOrDefault(this.currentPositionHash, 0) + 1;
-        this.positionHistoryCount.put(this.currentPositionHash, count);
+        this.repetitionHistory.push(this.currentPositionHash, this.halfMoveClock);
+
+        if (punchClock && clock != null) {
+            clock.punch(pieceMoved.getColor());
+        }
 
         switchPlayer();
         updateKingSquares();
 
+        recordCheckpoint();
+
         updateGameState();
+        if (punchClock) stopClockIfOver();
 
         String suffix = "";
         if (this.gameState == GameState.WHITE_WINS_CHECKMATE || this.gameState == GameState.BLACK_WINS_CHECKMATE) {
@@ -198,64 +230,199 @@ public class Game {
         if (undoStack.isEmpty()) {
             return null;
         }
-        Move moveToUndo = undoStack.pop();
-        redoStack.push(moveToUndo);
+        Move moveToUndo = undoStack.peek();
+        seekToPly(undoStack.size() - 1);
+        return moveToUndo;
+    }
 
-        long hashThatWasGenerated = this.currentPositionHash;
-        int oldCount = this.positionHistoryCount.getOrDefault(hashThatWasGenerated, 0);
-        if (oldCount > 0) {
-            this.positionHistoryCount.put(hashThatWasGenerated, oldCount - 1);
-            if (this.positionHistoryCount.get(hashThatWasGenerated) == 0) {
-                this.positionHistoryCount.remove(hashThatWasGenerated);
-            }
+    public Move redo() {
+        if (redoStack.isEmpty()) {
+            return null;
         }
+        Move moveToRedo = redoStack.peek();
+        seekToPly(undoStack.size() + 1);
+        return moveToRedo;
+    }
 
-        board.undoMove(moveToUndo);
+    /**
+     * Moves along the played line (undo + redo stacks) to the position after {@code targetPly} half-moves.
+     * Long jumps restore the nearest checkpoint first, so at most {@link #CHECKPOINT_INTERVAL} moves are
+     * applied to the board. Hashing and game-state evaluation only run once, at the destination.
+     *
+     * @return false if {@code targetPly} is outside the played line.
+     */
+    public boolean seekToPly(int targetPly) {
+        int currentPly = undoStack.size();
+        if (targetPly < 0 || targetPly > currentPly + redoStack.size()) {
+            return false;
+        }
+        if (targetPly == currentPly) {
+            return true;
+        }
 
-        this.halfMoveClock = moveToUndo.getHalfMoveClockBeforeMove();
+        int checkpointIndex = Math.min(targetPly / CHECKPOINT_INTERVAL, checkpoints.size() - 1);
+        if (checkpointIndex >= 0 && Math.abs(targetPly - currentPly) > CHECKPOINT_INTERVAL) {
+            int checkpointPly = checkpointIndex * CHECKPOINT_INTERVAL;
+            // only the move records travel here; the board is replaced wholesale below
+            while (undoStack.size() > checkpointPly) shiftRecordToRedo();
+            while (undoStack.size() < checkpointPly) shiftRecordToUndo();
+            restoreCheckpoint(checkpoints.get(checkpointIndex));
+        }
 
-        switchPlayer();
-        updateKingSquares();
+        while (undoStack.size() > targetPly) {
+            board.undoMove(undoStack.peek());
+            shiftRecordToRedo();
+        }
+        while (undoStack.size() < targetPly) {
+            board.applyMove(redoStack.peek());
+            shiftRecordToUndo();
+        }
 
-        this.currentPositionHash = calculateBoardHash();
+        Move nextMove = redoStack.peek();
+        Move lastMove = undoStack.peek();
+        if (nextMove != null) {
+            this.halfMoveClock = nextMove.getHalfMoveClockBeforeMove();
+        } else if (lastMove != null) {
+            boolean irreversible = lastMove.getPieceMoved().getType() == PieceType.PAWN || lastMove.getPieceCaptured() != null;
+            this.halfMoveClock = irreversible ? 0 : lastMove.getHalfMoveClockBeforeMove() + 1;
+        }
+        this.currentPositionHash = (lastMove != null) ? lastMove.getHashGenerated() : initialPositionHash;
+        int stateWord = stateWords[targetPly];
+        this.castlingRights = stateWord & Position.ALL_CASTLING;
+        this.enPassantSquare = (stateWord >>> 4) - 1;
 
+        updateKingSquares();
         this.gameState = GameState.ACTIVE;
-
         updateGameState();
-        return moveToUndo;
+        return true;
     }
 
-    public Move redo() {
-        if (redoStack.isEmpty()) {
-            return null;
+    private void shiftRecordToRedo() {
+        Move move = undoStack.pop();
+        redoStack.push(move);
+        repetitionHistory.pop();
+
+        Piece captured = move.getPieceCaptured();
+        if (captured != null) {
+            List<Piece> capturedList = (captured.getColor() == PieceColor.BLACK) ? piecesCapturedByWhite : piecesCapturedByBlack;
+            int index = capturedList.lastIndexOf(captured);
+            if (index >= 0) capturedList.remove(index);
         }
-        Move moveToRedo = redoStack.pop();
+        switchPlayer();
+    }
 
-        board.applyMove(moveToRedo);
+    private void shiftRecordToUndo() {
+        Move move = redoStack.pop();
+        undoStack.push(move);
 
-        Piece pieceThatMoved = moveToRedo.getPieceMoved();
+        boolean irreversible = move.getPieceMoved().getType() == PieceType.PAWN || move.getPieceCaptured() != null;
+        repetitionHistory.push(move.getHashGenerated(), irreversible ? 0 : move.getHalfMoveClockBeforeMove() + 1);
 
-        if (pieceThatMoved.getType() == PieceType.PAWN || moveToRedo.getPieceCaptured() != null) {
-            this.resetHalfMoveClock();
-        } else {
-            this.incrementHalfMoveClock();
+        Piece captured = move.getPieceCaptured();
+        if (captured != null) {
+            if (captured.getColor() == PieceColor.BLACK) {
+                piecesCapturedByWhite.add(captured);
+            } else {
+                piecesCapturedByBlack.add(captured);
+            }
         }
+        switchPlayer();
+    }
 
-        undoStack.push(moveToRedo);
+    private void resetMoveTree() {
+        this.moveTree = new GameTree(checkpoints.getFirst());
+        this.lineNodes[0] = GameTree.ROOT;
+        this.ecoStates[0] = ecoClassifier.start(initialPositionHash);
+    }
 
-        switchPlayer();
-        updateKingSquares();
+    private void recordTreeNode(Move move) {
+        int ply = undoStack.size();
+        if (ply == lineNodes.length) lineNodes = Arrays.copyOf(lineNodes, ply * 2);
+        // the redo line that makeMove just discarded stays in the tree as a variation
+        lineNodes[ply] = moveTree.addChild(lineNodes[ply - 1], PackedMove.fromMove(move), move.getHashGenerated());
+    }
 
-        this.currentPositionHash = calculateBoardHash();
+    private void recordOpening(Move move) {
+        int ply = undoStack.size();
+        if (ply == ecoStates.length) ecoStates = Arrays.copyOf(ecoStates, ply * 2);
+        ecoStates[ply] = ecoClassifier.advance(ecoStates[ply - 1], PackedMove.fromMove(move), move.getHashGenerated());
+    }
 
-        int count = this.positionHistoryCount.getOrDefault(this.currentPositionHash, 0) + 1;
-        this.positionHistoryCount.put(this.currentPositionHash, count);
+    private void recordState() {
+        int ply = undoStack.size();
+        if (ply == stateWords.length) stateWords = Arrays.copyOf(stateWords, ply * 2);
+        stateWords[ply] = packState(castlingRights, enPassantSquare);
+    }
 
-        this.gameState = GameState.ACTIVE;
+    private static int packState(int castlingRights, int enPassantSquare) {
+        return castlingRights | ((enPassantSquare + 1) << 4);
+    }
 
-        updateGameState();
+    /**
+     * @return the ECO opening of the current position, the deepest named line it has passed through; null before
+     * the game reaches one.
+     */
+    public EcoOpening getOpening() {
+        return ecoClassifier.opening(ecoStates[undoStack.size()]);
+    }
 
-        return moveToRedo;
+    /**
+     * Switches the board to any node of the move tree, such as a sideline explored earlier. The game's line
+     * (undo + redo stacks) becomes the path to that node followed by its main continuation.
+     *
+     * @return false if the node is not part of the tree.
+     */
+    public boolean goToNode(int node) {
+        if (!moveTree.contains(node)) return false;
+        int[] path = moveTree.pathTo(node);
+        int currentLineLength = undoStack.size() + redoStack.size() + 1;
+        int common = 0;
+        while (common < path.length && common < currentLineLength && lineNodes[common] == path[common]) common++;
+        if (common == path.length) {
+            return seekToPly(path.length - 1);
+        }
+
+        seekToPly(common - 1);
+        int end = moveTree.mainLineEnd(node);
+        int[] line = moveTree.pathTo(end);
+        for (int ply = common; ply < line.length; ply++) {
+            Move move = findLegalMove(moveTree.getMove(line[ply]));
+            if (move == null || makeMove(move, false) == null) return false;
+        }
+        return seekToPly(path.length - 1);
+    }
+
+    public GameTree getMoveTree() {
+        return moveTree;
+    }
+
+    /**
+     * @return the tree node of the current position.
+     */
+    public int getCurrentNode() {
+        return lineNodes[undoStack.size()];
+    }
+
+    private void recordCheckpoint() {
+        int ply = undoStack.size();
+        // checkpoints past this ply belonged to the redo line that makeMove just discarded
+        int validCount = (ply + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+        while (checkpoints.size() > validCount) {
+            checkpoints.removeLast();
+        }
+        if (ply % CHECKPOINT_INTERVAL == 0 && checkpoints.size() == ply / CHECKPOINT_INTERVAL) {
+            checkpoints.add(toPosition());
+        }
+    }
+
+    private void restoreCheckpoint(Position position) {
+        for (int r = 0; r < Board.SIZE; r++) {
+            for (int c = 0; c < Board.SIZE; c++) {
+                int code = position.pieceAt(PackedMove.square(r, c));
+                board.setPiece(r, c, code == Position.EMPTY ? null : Piece.of(Position.typeOf(code), Position.colorOf(code)));
+            }
+        }
+        this.currentPlayer = (position.getSideToMove() == PieceColor.WHITE) ? whitePlayer : blackPlayer;
     }
 
     public Move makeMoveFromUCI(String uciMoveString) {
@@ -293,6 +460,22 @@ public class Game {
         }
     }
 
+    /**
+     * @return the legal move of the side to move matching the from, to and promotion of a {@link PackedMove},
+     * or null if there is none.
+     */
+    public Move findLegalMove(int packedMove) {
+        int from = PackedMove.from(packedMove);
+        int to = PackedMove.to(packedMove);
+        PieceType promotion = PackedMove.promotion(packedMove);
+        for (Move move : getAllLegalMovesForPlayer(this.currentPlayer.getColor())) {
+            if (PackedMove.square(move.getStartSquare().getRow(), move.getStartSquare().getCol()) == from && PackedMove.square(move.getEndSquare().getRow(), move.getEndSquare().getCol()) == to && move.getPromotionPieceType() == promotion) {
+                return move;
+            }
+        }
+        return null;
+    }
+
     public boolean makeMoveFromSquares(Square fromSquareModel, Square toSquareModel, PieceType promotionTypeModel) {
         List<Move> legalMoves = getAllLegalMovesForPlayer(this.currentPlayer.getColor());
         Move matchedMove = null;
@@ -340,16 +523,39 @@ public class Game {
             return;
         }
         gameState = pieceColor == PieceColor.WHITE ? GameState.WHITE_SURRENDERS : GameState.BLACK_SURRENDERS;
-        System.out.println("After surrender - GameState: " + gameState);
+        stopClockIfOver();
     }
 
     public void acceptDrawOffer() {
         if (gameState != GameState.ACTIVE && gameState != GameState.CHECK) return;
         this.gameState = GameState.DRAW_BY_AGREEMENT;
+        stopClockIfOver();
+    }
+
+    /**
+     * Ends the game on time if the side to move has run out.
+     *
+     * @return true if this call flagged the side to move.
+     */
+    public boolean checkTimeout() {
+        if (clock == null || !clock.isRunning() || (gameState != GameState.ACTIVE && gameState != GameState.CHECK)) {
+            return false;
+        }
+        PieceColor toMove = currentPlayer.getColor();
+        if (!clock.isFlagged(toMove)) return false;
+        gameState = toMove == PieceColor.WHITE ? GameState.WHITE_OUT_OF_TIME : GameState.BLACK_OUT_OF_TIME;
+        clock.stop();
+        return true;
+    }
+
+    private void stopClockIfOver() {
+        if (clock != null && gameState != GameState.ACTIVE && gameState != GameState.CHECK) {
+            clock.stop();
+        }
     }
 
     private void updateGameState() {
-        if (gameState == GameState.WHITE_SURRENDERS || gameState == GameState.BLACK_SURRENDERS) {
+        if (gameState == GameState.WHITE_SURRENDERS || gameState == GameState.BLACK_SURRENDERS || gameState == GameState.WHITE_OUT_OF_TIME || gameState == GameState.BLACK_OUT_OF_TIME) {
             return;
         }
         PieceColor opponentColor = currentPlayer.getColor();
@@ -381,12 +587,11 @@ public class Game {
                 gameState = GameState.INSUFFICIENT_MATERIAL_DRAW;
             }
         }
-        System.out.println("New GameState: " + gameState + (inCheck && gameState != GameState.BLACK_WINS_CHECKMATE && gameState != GameState.WHITE_WINS_CHECKMATE ? " (King " + opponentColor + " is in CHECK!)" : ""));
     }
 
     public List<Move> getAllLegalMovesForPlayer(PieceColor playerColor) {
         List<Move> legalMoves = new ArrayList<>();
-        if (gameState == GameState.BLACK_WINS_CHECKMATE || gameState == GameState.WHITE_WINS_CHECKMATE || gameState == GameState.STALEMATE_DRAW || gameState == GameState.FIFTY_MOVE_DRAW || gameState == GameState.THREEFOLD_REPETITION_DRAW || gameState == GameState.INSUFFICIENT_MATERIAL_DRAW || gameState == GameState.BLACK_SURRENDERS || gameState == GameState.WHITE_SURRENDERS) {
+        if (gameState == GameState.BLACK_WINS_CHECKMATE || gameState == GameState.WHITE_WINS_CHECKMATE || gameState == GameState.STALEMATE_DRAW || gameState == GameState.FIFTY_MOVE_DRAW || gameState == GameState.THREEFOLD_REPETITION_DRAW || gameState == GameState.INSUFFICIENT_MATERIAL_DRAW || gameState == GameState.BLACK_SURRENDERS || gameState == GameState.WHITE_SURRENDERS || gameState == GameState.WHITE_OUT_OF_TIME || gameState == GameState.BLACK_OUT_OF_TIME) {
             return legalMoves;
         }
 
@@ -439,43 +644,46 @@ public class Game {
     }
 
     private void addCastlingMoves(List<Move> legalMoves, PieceColor playerColor) {
-        Square kingSquare = getKingSquare(playerColor);
-        if (kingSquare == null || kingSquare.getPiece() == null || kingSquare.getPiece().hasMoved() || isKingInCheck(playerColor)) {
+        int kingside = playerColor == PieceColor.WHITE ? Position.WHITE_KINGSIDE : Position.BLACK_KINGSIDE;
+        int queenside = playerColor == PieceColor.WHITE ? Position.WHITE_QUEENSIDE : Position.BLACK_QUEENSIDE;
+        // a right is only kept while the king and that rook stand unmoved on their squares
+        if ((castlingRights & (kingside | queenside)) == 0 || isKingInCheck(playerColor)) {
             return;
         }
 
+        Square kingSquare = getKingSquare(playerColor);
         int kingRow = kingSquare.getRow();
 
         Square kingsideRookSquare = board.getSquare(kingRow, Board.SIZE - 1);
-        if (kingsideRookSquare.hasPiece() && kingsideRookSquare.getPiece().getType() == PieceType.ROOK && !kingsideRookSquare.getPiece().hasMoved()) {
+        if ((castlingRights & kingside) != 0) {
             if (board.getSquare(kingRow, 5).isEmpty() && board.getSquare(kingRow, 6).isEmpty() && !isSquareAttackedBy(board.getSquare(kingRow, 5), playerColor.opposite()) && !isSquareAttackedBy(board.getSquare(kingRow, 6), playerColor.opposite())) {
                 Piece king = kingSquare.getPiece();
                 Piece rook = kingsideRookSquare.getPiece();
 
                 Square kingEndSquare = board.getSquare(kingRow, 6);
                 Square rookEndSquare = board.getSquare(kingRow, 5);
-                Move castlingMove = new Move(kingSquare, kingEndSquare, king, king.hasMoved());
+                Move castlingMove = new Move(kingSquare, kingEndSquare, king);
                 castlingMove.setCastlingMove(true);
                 castlingMove.setRookStartSquareForCastling(kingsideRookSquare);
                 castlingMove.setRookEndSquareForCastling(rookEndSquare);
-                castlingMove.setRookInfoForCastlingUndo(rook, rook.hasMoved());
+                castlingMove.setRookInfoForCastlingUndo(rook);
                 legalMoves.add(castlingMove);
             }
         }
 
         Square queensideRookSquare = board.getSquare(kingRow, 0);
-        if (queensideRookSquare.hasPiece() && queensideRookSquare.getPiece().getType() == PieceType.ROOK && !queensideRookSquare.getPiece().hasMoved()) {
+        if ((castlingRights & queenside) != 0) {
             if (board.getSquare(kingRow, 1).isEmpty() && board.getSquare(kingRow, 2).isEmpty() && board.getSquare(kingRow, 3).isEmpty() && !isSquareAttackedBy(board.getSquare(kingRow, 3), playerColor.opposite()) && !isSquareAttackedBy(board.getSquare(kingRow, 2), playerColor.opposite())) {
                 Piece king = kingSquare.getPiece();
                 Piece rook = queensideRookSquare.getPiece();
 
                 Square kingEndSquare = board.getSquare(kingRow, 2);
                 Square rookEndSquare = board.getSquare(kingRow, 3);
-                Move castlingMove = new Move(kingSquare, kingEndSquare, king, king.hasMoved());
+                Move castlingMove = new Move(kingSquare, kingEndSquare, king);
                 castlingMove.setCastlingMove(true);
                 castlingMove.setRookStartSquareForCastling(queensideRookSquare);
                 castlingMove.setRookEndSquareForCastling(rookEndSquare);
-                castlingMove.setRookInfoForCastlingUndo(rook, rook.hasMoved());
+                castlingMove.setRookInfoForCastlingUndo(rook);
                 legalMoves.add(castlingMove);
             }
         }
@@ -523,11 +731,21 @@ public class Game {
     }
 
     private boolean isThreefoldRepetition() {
-        if (this.currentPositionHash == 0 && !this.positionHistoryCount.isEmpty()) {
-            System.err.println("Warning: Checking threefold repetition with uninitialized/zero currentPositionHash.");
-            return false;
-        }
-        return this.positionHistoryCount.getOrDefault(this.currentPositionHash, 0) >= 3;
+        return repetitionHistory.getRepetitionCount() >= 3;
+    }
+
+    /**
+     * @return true if the current position already occurred earlier in the current line.
+     */
+    public boolean isRepetition() {
+        return repetitionHistory.isRepetition();
+    }
+
+    /**
+     * @return how often the current position has occurred in the current line, itself included.
+     */
+    public int getRepetitionCount() {
+        return repetitionHistory.getRepetitionCount();
     }
 
     private boolean isInsufficientMaterial() {
@@ -635,13 +853,7 @@ public class Game {
             hash ^= zobristTable.getBlackToMoveKey();
         }
 
-        hash ^= getCastlingHash();
-
-        Square epTarget = getEnPassantTargetSquare();
-        if (epTarget != null) {
-            hash ^= zobristTable.getEnPassantFileKey(epTarget.getCol());
-        }
-        return hash;
+        return hash ^ Position.castlingKey(castlingRights) ^ Position.enPassantKey(enPassantSquare);
     }
 
     public Square getSquareFromAlgebraic(String algebraicNotation) {
@@ -662,6 +874,17 @@ public class Game {
         return currentPlayer;
     }
 
+    /**
+     * @param clock clock punched by every {@link #makeMove(Move)} while it runs, or null for an untimed game.
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
     public GameState getGameState() {
         return gameState;
     }
@@ -711,19 +934,24 @@ public class Game {
                 board.setPiece(r, c, null);
             }
         }
+        long movedMask = 0L;
         if (placements != null) {
             for (PiecePlacement p : placements) {
                 board.setPiece(p.row, p.col, p.piece);
-                if (p.piece != null) {
-                    p.piece.setHasMoved(p.piece.hasMoved());
-                }
+                if (p.hasMoved) movedMask |= 1L << PackedMove.square(p.row, p.col);
             }
         }
+        this.castlingRights = castlingRightsFromBoard(movedMask);
+        this.enPassantSquare = -1;
+        this.stateWords[0] = packState(castlingRights, enPassantSquare);
         this.currentPositionHash = calculateBoardHash();
-        this.positionHistoryCount.clear();
-        this.positionHistoryCount.put(this.currentPositionHash, 1);
+        this.repetitionHistory.reset(this.currentPositionHash, this.halfMoveClock);
         updateKingSquares();
         setCurrentPlayerColorForTest(playerWhoseTurnItIs);
+        this.initialPositionHash = calculateBoardHash();
+        this.checkpoints.clear();
+        this.checkpoints.add(toPosition());
+        resetMoveTree();
     }
 
     public void setCurrentPlayerColorForTest(PieceColor color) {
@@ -734,37 +962,35 @@ public class Game {
         }
     }
 
-    public Square getKingSquare(PieceColor kingColor) {
-        return (kingColor == PieceColor.WHITE) ? whiteKingSquare : blackKingSquare;
+    public void setEnPassantSquareForTest(int square) {
+        this.enPassantSquare = square;
+        this.stateWords[undoStack.size()] = packState(castlingRights, enPassantSquare);
     }
 
-    private long getCastlingHash() {
-        long castlingHash = 0;
-        if (canCastleKingside(PieceColor.WHITE)) castlingHash ^= zobristTable.getCastlingRightsKey(0);
-        if (canCastleQueenside(PieceColor.WHITE)) castlingHash ^= zobristTable.getCastlingRightsKey(1);
-        if (canCastleKingside(PieceColor.BLACK)) castlingHash ^= zobristTable.getCastlingRightsKey(2);
-        if (canCastleQueenside(PieceColor.BLACK)) castlingHash ^= zobristTable.getCastlingRightsKey(3);
-        return castlingHash;
+    public Square getKingSquare(PieceColor kingColor) {
+        return (kingColor == PieceColor.WHITE) ? whiteKingSquare : blackKingSquare;
     }
 
     public void resetHalfMoveClock() {
         this.halfMoveClock = 0;
     }
 
-    private boolean canCastleKingside(PieceColor color) {
-        Square kingSquare = getKingSquare(color);
-        if (kingSquare == null || kingSquare.getPiece() == null || kingSquare.getPiece().hasMoved()) return false;
-        int kingRow = kingSquare.getRow();
-        Square rookSquare = board.getSquare(kingRow, Board.SIZE - 1);
-        return rookSquare.hasPiece() && rookSquare.getPiece().getType() == PieceType.ROOK && rookSquare.getPiece().getColor() == color && !rookSquare.getPiece().hasMoved();
+    // only for boards set up piece by piece; after that the rights are updated move by move
+    private int castlingRightsFromBoard(long movedMask) {
+        int rights = 0;
+        if (isUnmoved(7, 4, King.of(PieceColor.WHITE), movedMask)) {
+            if (isUnmoved(7, 7, Rook.of(PieceColor.WHITE), movedMask)) rights |= Position.WHITE_KINGSIDE;
+            if (isUnmoved(7, 0, Rook.of(PieceColor.WHITE), movedMask)) rights |= Position.WHITE_QUEENSIDE;
+        }
+        if (isUnmoved(0, 4, King.of(PieceColor.BLACK), movedMask)) {
+            if (isUnmoved(0, 7, Rook.of(PieceColor.BLACK), movedMask)) rights |= Position.BLACK_KINGSIDE;
+            if (isUnmoved(0, 0, Rook.of(PieceColor.BLACK), movedMask)) rights |= Position.BLACK_QUEENSIDE;
+        }
+        return rights;
     }
 
-    private boolean canCastleQueenside(PieceColor color) {
-        Square kingSquare = getKingSquare(color);
-        if (kingSquare == null || kingSquare.getPiece() == null || kingSquare.getPiece().hasMoved()) return false;
-        int kingRow = kingSquare.getRow();
-        Square rookSquare = board.getSquare(kingRow, 0);
-        return rookSquare.hasPiece() && rookSquare.getPiece().getType() == PieceType.ROOK && rookSquare.getPiece().getColor() == color && !rookSquare.getPiece().hasMoved();
+    private boolean isUnmoved(int row, int col, Piece piece, long movedMask) {
+        return board.getPiece(row, col) == piece && (movedMask & (1L << PackedMove.square(row, col))) == 0;
     }
 
     public void incrementHalfMoveClock() {
@@ -780,21 +1006,63 @@ public class Game {
     }
 
     public Square getEnPassantTargetSquare() {
-        Move lastMove = undoStack.peek();
-        if (lastMove != null && lastMove.getPieceMoved().getType() == PieceType.PAWN && Math.abs(lastMove.getStartSquare().getRow() - lastMove.getEndSquare().getRow()) == 2) {
-            int direction = (lastMove.getPieceMoved().getColor() == PieceColor.WHITE) ? -1 : 1;
-            return board.getSquare(lastMove.getEndSquare().getRow() - direction, lastMove.getEndSquare().getCol());
-        }
-        return null;
+        return enPassantSquare < 0 ? null : board.getSquare(PackedMove.row(enPassantSquare), PackedMove.col(enPassantSquare));
+    }
+
+    /**
+     * @return the square a pawn may capture en passant on, as {@code row * 8 + col}, or -1 if none.
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return the castling rights still held, as {@link Position#WHITE_KINGSIDE} | ... flags.
+     */
+    public int getCastlingRights() {
+        return castlingRights;
     }
 
     public long getCurrentPositionHash() {
         return this.currentPositionHash;
     }
 
+    /**
+     * @return how often each position of the current line has occurred, keyed by hash. Built on each call, for
+     * display and tests; {@link #getRepetitionCount} answers the same question for the current position.
+     */
     public Map<Long, Integer> getPositionHistoryCount() {
-        // return Collections.unmodifiableMap(this.positionHistoryCount);
-        return this.positionHistoryCount;
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int ply = 0; ply <= repetitionHistory.getPly(); ply++) {
+            counts.merge(repetitionHistory.getHash(ply), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Takes an immutable snapshot of the current position that can be handed to engine, network or
+     * analysis threads. Like every other method here it must be called from the thread that owns
+     * this game, normally the JavaFX thread; the returned {@link Position} is then safe anywhere.
+     */
+    public Position toPosition() {
+        byte[] squares = new byte[Board.SIZE * Board.SIZE];
+        for (int r = 0; r < Board.SIZE; r++) {
+            for (int c = 0; c < Board.SIZE; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p != null) {
+                    squares[PackedMove.square(r, c)] = Position.code(p.getType(), p.getColor());
+                }
+            }
+        }
+
+        return Position.create(squares, currentPlayer.getColor(), castlingRights, enPassantSquare, halfMoveClock, (undoStack.size() / 2) + 1);
+    }
+
+    /**
+     * @return the position the game started from, before the first move of the played line.
+     */
+    public Position getStartPosition() {
+        return checkpoints.getFirst();
     }
 
     public String getFen() {
@@ -804,21 +1072,14 @@ public class Game {
         fenBuilder.append(" ").append(this.currentPlayer.getColor() == PieceColor.WHITE ? "w" : "b");
 
         fenBuilder.append(" ");
-        StringBuilder castlingFen = new StringBuilder();
-        if (canCastleKingside(PieceColor.WHITE)) castlingFen.append("K");
-        if (canCastleQueenside(PieceColor.WHITE)) castlingFen.append("Q");
-        if (canCastleKingside(PieceColor.BLACK)) castlingFen.append("k");
-        if (canCastleQueenside(PieceColor.BLACK)) castlingFen.append("q");
-        if (castlingFen.isEmpty()) castlingFen.append("-");
-        fenBuilder.append(castlingFen);
+        if (castlingRights == 0) fenBuilder.append("-");
+        if ((castlingRights & Position.WHITE_KINGSIDE) != 0) fenBuilder.append("K");
+        if ((castlingRights & Position.WHITE_QUEENSIDE) != 0) fenBuilder.append("Q");
+        if ((castlingRights & Position.BLACK_KINGSIDE) != 0) fenBuilder.append("k");
+        if ((castlingRights & Position.BLACK_QUEENSIDE) != 0) fenBuilder.append("q");
 
         fenBuilder.append(" ");
-        Square epTarget = getEnPassantTargetSquare();
-        if (epTarget != null) {
-            fenBuilder.append(NotationUtils.squareToAlgebraic(epTarget));
-        } else {
-            fenBuilder.append("-");
-        }
+        fenBuilder.append(enPassantSquare < 0 ? "-" : PackedMove.squareToAlgebraic(enPassantSquare));
 
         fenBuilder.append(" ").append(this.halfMoveClock);
 
@@ -829,9 +1090,13 @@ public class Game {
     }
 
     public enum GameState {
-        ACTIVE, CHECK, WHITE_WINS_CHECKMATE, BLACK_WINS_CHECKMATE, STALEMATE_DRAW, FIFTY_MOVE_DRAW, THREEFOLD_REPETITION_DRAW, INSUFFICIENT_MATERIAL_DRAW, DRAW_BY_AGREEMENT, WHITE_SURRENDERS, BLACK_SURRENDERS
+        ACTIVE, CHECK, WHITE_WINS_CHECKMATE, BLACK_WINS_CHECKMATE, STALEMATE_DRAW, FIFTY_MOVE_DRAW, THREEFOLD_REPETITION_DRAW, INSUFFICIENT_MATERIAL_DRAW, DRAW_BY_AGREEMENT, WHITE_SURRENDERS, BLACK_SURRENDERS, WHITE_OUT_OF_TIME, BLACK_OUT_OF_TIME
     }
 
+    /**
+     * A piece for {@link #setupBoardForTest}. A king or rook placed on its starting square keeps its castling
+     * right unless {@code hasMoved} says it has left that square and come back.
+     */
     public static class PiecePlacement {
         public final int row;
         public final int col;
@@ -839,7 +1104,7 @@ public class Game {
         public final boolean hasMoved;
 
         public PiecePlacement(int row, int col, Piece piece) {
-            this(row, col, piece, piece != null && piece.hasMoved());
+            this(row, col, piece, false);
         }
 
         public PiecePlacement(int row, int col, Piece piece, boolean hasMoved) {
@@ -849,4 +1114,4 @@ public class Game {
             this.hasMoved = hasMoved;
         }
     }
-}
\ No newline at end of file
+}
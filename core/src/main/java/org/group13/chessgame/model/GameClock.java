@@ -0,0 +1,167 @@
+package org.group13.chessgame.model;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Chess clock for both sides under one {@link TimeControl}.
+ * <p>
+ * {@link Game#makeMove(Move)} punches the clock of the side that moved, which stops it, applies the increment
+ * and starts the opponent's. Every punch is recorded with its timestamp (relative to {@link #start}) and the time
+ * the move took. A move that arrived over the network has also spent its transmission delay on this side's
+ * clock; {@link #compensateLag} gives that back to the mover, capped at {@link #MAX_LAG_COMPENSATION_NANOS}.
+ * <p>
+ * Methods are synchronized: the UI thread punches and displays the clock while network threads read it for
+ * heartbeat drift checks.
+ */
+public class GameClock {
+    public static final long MAX_LAG_COMPENSATION_NANOS = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final TimeControl timeControl;
+    private final LongSupplier nanoTime;
+    private final long[] remainingNanos = new long[PieceColor.values().length];
+    private PieceColor running;
+    private long startedAtNanos;
+    private long turnStartedNanos;
+
+    private long[] moveTimestampNanos = new long[64];
+    private long[] moveElapsedNanos = new long[64];
+    private long[] moveBonusNanos = new long[64];
+    private int moveCount = 0;
+
+    public GameClock(TimeControl timeControl) {
+        this(timeControl, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime monotonic time source, replaceable for tests.
+     */
+    public GameClock(TimeControl timeControl, LongSupplier nanoTime) {
+        this.timeControl = timeControl;
+        this.nanoTime = nanoTime;
+        Arrays.fill(remainingNanos, timeControl.baseMillis() * NANOS_PER_MILLI);
+    }
+
+    public synchronized void start(PieceColor toMove) {
+        startedAtNanos = nanoTime.getAsLong();
+        turnStartedNanos = startedAtNanos;
+        running = toMove;
+    }
+
+    public synchronized void stop() {
+        if (running == null) return;
+        remainingNanos[running.ordinal()] -= nanoTime.getAsLong() - turnStartedNanos;
+        running = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return running != null;
+    }
+
+    public synchronized PieceColor getRunningColor() {
+        return running;
+    }
+
+    /**
+     * Ends {@code mover}'s turn. Ignored if it is not {@code mover}'s clock that is running.
+     *
+     * @return the time the move took, in nanoseconds.
+     */
+    public synchronized long punch(PieceColor mover) {
+        if (running != mover) return 0;
+        long now = nanoTime.getAsLong();
+        long elapsed = now - turnStartedNanos;
+        long bonus = incrementFor(elapsed);
+        remainingNanos[mover.ordinal()] += bonus - elapsed;
+
+        if (moveCount == moveElapsedNanos.length) {
+            int capacity = moveCount * 2;
+            moveTimestampNanos = Arrays.copyOf(moveTimestampNanos, capacity);
+            moveElapsedNanos = Arrays.copyOf(moveElapsedNanos, capacity);
+            moveBonusNanos = Arrays.copyOf(moveBonusNanos, capacity);
+        }
+        moveTimestampNanos[moveCount] = now - startedAtNanos;
+        moveElapsedNanos[moveCount] = elapsed;
+        moveBonusNanos[moveCount] = bonus;
+        moveCount++;
+
+        running = mover.opposite();
+        turnStartedNanos = now;
+        return elapsed;
+    }
+
+    private long incrementFor(long elapsedNanos) {
+        long increment = timeControl.incrementMillis() * NANOS_PER_MILLI;
+        return timeControl.mode() == TimeControl.IncrementMode.BRONSTEIN ? Math.min(increment, elapsedNanos) : increment;
+    }
+
+    /**
+     * Credits back part of the last move's time that was really spent in transit. The credit is limited to the
+     * cap and to the time the move took; under Bronstein the delay bonus is recomputed for the shorter move.
+     *
+     * @return the nanoseconds actually credited.
+     */
+    public synchronized long compensateLag(PieceColor mover, long transitNanos) {
+        if (moveCount == 0 || running != mover.opposite()) return 0;
+        int last = moveCount - 1;
+        long credit = Math.min(Math.max(0, transitNanos), Math.min(MAX_LAG_COMPENSATION_NANOS, moveElapsedNanos[last]));
+        long elapsed = moveElapsedNanos[last] - credit;
+        long bonus = incrementFor(elapsed);
+        remainingNanos[mover.ordinal()] += credit - (moveBonusNanos[last] - bonus);
+        moveElapsedNanos[last] = elapsed;
+        moveBonusNanos[last] = bonus;
+        return credit;
+    }
+
+    public synchronized long getRemainingMillis(PieceColor color) {
+        long remaining = remainingNanos[color.ordinal()];
+        if (running == color) {
+            remaining -= nanoTime.getAsLong() - turnStartedNanos;
+        }
+        return Math.max(0, remaining / NANOS_PER_MILLI);
+    }
+
+    public synchronized boolean isFlagged(PieceColor color) {
+        return getRemainingMillis(color) == 0;
+    }
+
+    public synchronized int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return when move {@code ply} was made, in milliseconds since the clock started.
+     */
+    public synchronized long getMoveTimestampMillis(int ply) {
+        checkPly(ply);
+        return moveTimestampNanos[ply] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return how long move {@code ply} took, after any lag compensation, in milliseconds.
+     */
+    public synchronized long getMoveTimeMillis(int ply) {
+        checkPly(ply);
+        return moveElapsedNanos[ply] / NANOS_PER_MILLI;
+    }
+
+    private void checkPly(int ply) {
+        if (ply < 0 || ply >= moveCount) {
+            throw new IndexOutOfBoundsException("No move " + ply + " on the clock (" + moveCount + " recorded)");
+        }
+    }
+
+    public TimeControl getTimeControl() {
+        return timeControl;
+    }
+
+    /**
+     * Formats a remaining time as m:ss, or m:ss.t under ten seconds.
+     */
+    public static String format(long millis) {
+        long totalSeconds = millis / 1000;
+        String text = (totalSeconds / 60) + ":" + String.format("%02d", totalSeconds % 60);
+        return millis < 10_000 ? text + "." + (millis % 1000) / 100 : text;
+    }
+}
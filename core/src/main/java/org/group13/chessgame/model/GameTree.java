@@ -0,0 +1,379 @@
+package org.group13.chessgame.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every line explored from one starting position: the played game plus all its variations.
+ * <p>
+ * Nodes are int ids into parallel arrays rather than objects: each stores its {@link PackedMove}, parent, first
+ * child, next sibling, ply, NAG and the Zobrist hash of the position it leads to, about 30 bytes per move with no
+ * {@link Square} or {@link Piece} references. Node {@link #ROOT} is the starting position. The first child of a
+ * node is its main continuation and later children are variations. Comments are rare, so they live in a map.
+ * <p>
+ * Removed subtrees are unlinked but their slots are not reused; a tree only grows while a session lasts.
+ */
+public final class GameTree {
+    public static final int ROOT = 0;
+    public static final int NO_NODE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Position startPosition;
+    private int size;
+    private int[] moves;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] plies;
+    private long[] hashes;
+    private byte[] nags;
+    private final Map<Integer, String> comments = new HashMap<>();
+
+    public GameTree(Position startPosition) {
+        this.startPosition = startPosition;
+        moves = new int[INITIAL_CAPACITY];
+        parents = new int[INITIAL_CAPACITY];
+        firstChildren = new int[INITIAL_CAPACITY];
+        nextSiblings = new int[INITIAL_CAPACITY];
+        plies = new int[INITIAL_CAPACITY];
+        hashes = new long[INITIAL_CAPACITY];
+        nags = new byte[INITIAL_CAPACITY];
+        newNode(NO_NODE, PackedMove.NONE, startPosition.getHash());
+    }
+
+    public Position getStartPosition() {
+        return startPosition;
+    }
+
+    /**
+     * @return the number of nodes ever added, including the root and removed ones.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the child of {@code parent} reached by {@code move}, adding it as the last variation if it is new.
+     */
+    public int addChild(int parent, int move, long hash) {
+        checkNode(parent);
+        int existing = findChild(parent, move);
+        if (existing != NO_NODE) return existing;
+        int node = newNode(parent, move, hash);
+        int child = firstChildren[parent];
+        if (child == NO_NODE) {
+            firstChildren[parent] = node;
+        } else {
+            while (nextSiblings[child] != NO_NODE) child = nextSiblings[child];
+            nextSiblings[child] = node;
+        }
+        return node;
+    }
+
+    /**
+     * @return the child of {@code parent} with the same from, to and promotion as {@code move}, or {@link #NO_NODE}.
+     */
+    public int findChild(int parent, int move) {
+        for (int child = firstChildren[parent]; child != NO_NODE; child = nextSiblings[child]) {
+            if (PackedMove.sameIntent(moves[child], move)) return child;
+        }
+        return NO_NODE;
+    }
+
+    public int getMove(int node) {
+        return moves[node];
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getPly(int node) {
+        return plies[node];
+    }
+
+    /**
+     * @return the Zobrist hash of the position after the node's move, comparable with {@link Position#getHash()}.
+     */
+    public long getHash(int node) {
+        return hashes[node];
+    }
+
+    /**
+     * @return the main continuation of {@code node}, or {@link #NO_NODE} at the end of a line.
+     */
+    public int getMainChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    public int[] getChildren(int node) {
+        int count = 0;
+        for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) count++;
+        int[] children = new int[count];
+        int i = 0;
+        for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) children[i++] = child;
+        return children;
+    }
+
+    /**
+     * @return whether every move from the root to {@code node} is a main continuation.
+     */
+    public boolean isMainLine(int node) {
+        for (int n = node; parents[n] != NO_NODE; n = parents[n]) {
+            if (firstChildren[parents[n]] != n) return false;
+        }
+        return true;
+    }
+
+    public int getNag(int node) {
+        return nags[node] & 0xFF;
+    }
+
+    public void setNag(int node, int nag) {
+        if (nag < 0 || nag > 255) throw new IllegalArgumentException("NAG out of range: " + nag);
+        nags[node] = (byte) nag;
+    }
+
+    public String getComment(int node) {
+        return comments.get(node);
+    }
+
+    public void setComment(int node, String comment) {
+        if (comment == null || comment.isEmpty()) {
+            comments.remove(node);
+        } else {
+            comments.put(node, comment);
+        }
+    }
+
+    /**
+     * Makes {@code node} the main continuation of its parent; the previous main move becomes its first variation.
+     */
+    public void promote(int node) {
+        int parent = parents[node];
+        if (parent == NO_NODE || firstChildren[parent] == node) return;
+        unlink(node);
+        nextSiblings[node] = firstChildren[parent];
+        firstChildren[parent] = node;
+    }
+
+    /**
+     * Detaches {@code node} and everything after it from the tree.
+     */
+    public void remove(int node) {
+        if (node == ROOT) throw new IllegalArgumentException("The root cannot be removed");
+        unlink(node);
+        parents[node] = NO_NODE;
+    }
+
+    /**
+     * @return whether {@code node} was added to this tree and is still attached to the root, that is neither it
+     * nor one of its ancestors has been removed.
+     */
+    public boolean contains(int node) {
+        if (node < 0 || node >= size) return false;
+        int n = node;
+        while (parents[n] != NO_NODE) n = parents[n];
+        return n == ROOT;
+    }
+
+    /**
+     * @return the nodes from the root to {@code node}, both included; index i is the node at ply i.
+     * @throws IllegalArgumentException if the node is not in the tree.
+     */
+    public int[] pathTo(int node) {
+        checkNode(node);
+        int[] path = new int[plies[node] + 1];
+        for (int i = path.length - 1, n = node; i >= 0; i--, n = parents[n]) {
+            path[i] = n;
+        }
+        return path;
+    }
+
+    /**
+     * @return the moves from the starting position to {@code node}.
+     */
+    public int[] lineTo(int node) {
+        int[] path = pathTo(node);
+        int[] line = new int[path.length - 1];
+        for (int i = 1; i < path.length; i++) {
+            line[i - 1] = moves[path[i]];
+        }
+        return line;
+    }
+
+    /**
+     * @return the last node of the main continuation from {@code node}.
+     */
+    public int mainLineEnd(int node) {
+        while (firstChildren[node] != NO_NODE) node = firstChildren[node];
+        return node;
+    }
+
+    public Position positionAt(int node) {
+        Position position = startPosition;
+        for (int move : lineTo(node)) {
+            position = position.makeMove(move);
+        }
+        return position;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int newNode(int parent, int move, long hash) {
+        if (size == moves.length) grow();
+        int node = size++;
+        moves[node] = move;
+        parents[node] = parent;
+        firstChildren[node] = NO_NODE;
+        nextSiblings[node] = NO_NODE;
+        plies[node] = parent == NO_NODE ? 0 : plies[parent] + 1;
+        hashes[node] = hash;
+        return node;
+    }
+
+    private void unlink(int node) {
+        int parent = parents[node];
+        if (parent == NO_NODE) return;
+        if (firstChildren[parent] == node) {
+            firstChildren[parent] = nextSiblings[node];
+        } else {
+            int sibling = firstChildren[parent];
+            while (nextSiblings[sibling] != node) sibling = nextSiblings[sibling];
+            nextSiblings[sibling] = nextSiblings[node];
+        }
+        nextSiblings[node] = NO_NODE;
+    }
+
+    private void grow() {
+        int capacity = moves.length * 2;
+        moves = Arrays.copyOf(moves, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        plies = Arrays.copyOf(plies, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        nags = Arrays.copyOf(nags, capacity);
+    }
+
+    private void checkNode(int node) {
+        if (!contains(node)) {
+            throw new IllegalArgumentException("Not a node of this tree: " + node);
+        }
+    }
+
+    /**
+     * A position in the tree. Keeps the {@link Position} of every node from the root to the current one, so
+     * stepping forward or back costs one move and jumping elsewhere only replays from the common ancestor.
+     */
+    public final class Cursor {
+        private final List<Position> positions = new ArrayList<>();
+        private int[] path = {ROOT};
+
+        private Cursor() {
+            positions.add(startPosition);
+        }
+
+        public int node() {
+            return path[positions.size() - 1];
+        }
+
+        public int ply() {
+            return plies[node()];
+        }
+
+        public Position position() {
+            return positions.getLast();
+        }
+
+        public GameTree tree() {
+            return GameTree.this;
+        }
+
+        /**
+         * Plays {@code move} from the current position, following the existing node for it or adding a new
+         * variation.
+         *
+         * @return false if the move is not legal here.
+         */
+        public boolean play(int move) {
+            Position current = position();
+            int legal = current.findLegalMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotion(move));
+            if (legal == PackedMove.NONE) return false;
+            int child = findChild(node(), legal);
+            if (child != NO_NODE) {
+                push(child, current.makeMove(legal));
+            } else {
+                Position next = current.makeMove(legal);
+                push(addChild(node(), legal, next.getHash()), next);
+            }
+            return true;
+        }
+
+        /**
+         * Follows the main continuation.
+         *
+         * @return false at the end of the line.
+         */
+        public boolean forward() {
+            int child = firstChildren[node()];
+            if (child == NO_NODE) return false;
+            push(child, position().makeMove(moves[child]));
+            return true;
+        }
+
+        public boolean back() {
+            if (positions.size() == 1) return false;
+            positions.removeLast();
+            return true;
+        }
+
+        public void toStart() {
+            while (positions.size() > 1) positions.removeLast();
+        }
+
+        public void toEnd() {
+            boolean moved = true;
+            while (moved) moved = forward();
+        }
+
+        /**
+         * Jumps to any node, replaying only the moves after the deepest node shared with the current path.
+         */
+        public void moveTo(int node) {
+            checkNode(node);
+            int[] target = pathTo(node);
+            int common = 0;
+            int depth = positions.size();
+            while (common < target.length && common < depth && path[common] == target[common]) common++;
+            while (positions.size() > common) positions.removeLast();
+            for (int i = common; i < target.length; i++) {
+                push(target[i], position().makeMove(moves[target[i]]));
+            }
+        }
+
+        /**
+         * @return the moves that could have been played instead of the current one, the current one included.
+         */
+        public int[] variations() {
+            int parent = parents[node()];
+            return parent == NO_NODE ? new int[]{ROOT} : getChildren(parent);
+        }
+
+        private void push(int node, Position position) {
+            int depth = positions.size();
+            if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+            path[depth] = node;
+            positions.add(position);
+        }
+    }
+}
@@ -3,11 +3,18 @@ package org.group13.chessgame.model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class King extends Piece {
-    public King(PieceColor color) {
+public final class King extends Piece {
+    private static final King WHITE = new King(PieceColor.WHITE);
+    private static final King BLACK = new King(PieceColor.BLACK);
+
+    private King(PieceColor color) {
         super(color, PieceType.KING);
     }
 
+    public static King of(PieceColor color) {
+        return color == PieceColor.WHITE ? WHITE : BLACK;
+    }
+
     @Override
     public List<Move> getPseudoLegalMoves(Game game, int currentRow, int currentCol) {
         List<Move> moves = new ArrayList<>();
@@ -23,7 +30,7 @@ public class King extends Piece {
             if (Board.isValidCoordinate(nextRow, nextCol)) {
                 Square targetSquare = board.getSquare(nextRow, nextCol);
                 if (targetSquare.isEmpty() || targetSquare.getPiece().getColor() != this.color) {
-                    moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                    moves.add(new Move(startSquare, targetSquare, this));
                 }
             }
         }
@@ -3,11 +3,18 @@ package org.group13.chessgame.model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Knight extends Piece {
-    public Knight(PieceColor color) {
+public final class Knight extends Piece {
+    private static final Knight WHITE = new Knight(PieceColor.WHITE);
+    private static final Knight BLACK = new Knight(PieceColor.BLACK);
+
+    private Knight(PieceColor color) {
         super(color, PieceType.KNIGHT);
     }
 
+    public static Knight of(PieceColor color) {
+        return color == PieceColor.WHITE ? WHITE : BLACK;
+    }
+
     @Override
     public List<Move> getPseudoLegalMoves(Game game, int currentRow, int currentCol) {
         List<Move> moves = new ArrayList<>();
@@ -23,7 +30,7 @@ public class Knight extends Piece {
             if (Board.isValidCoordinate(nextRow, nextCol)) {
                 Square targetSquare = board.getSquare(nextRow, nextCol);
                 if (targetSquare.isEmpty() || targetSquare.getPiece().getColor() != this.color) {
-                    moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                    moves.add(new Move(startSquare, targetSquare, this));
                 }
             }
         }
@@ -6,7 +6,6 @@ public class Move {
     private final Square startSquare;
     private final Square endSquare;
     private final Piece pieceMoved;
-    private final boolean pieceMovedOriginalHasMoved;
 
     private Piece pieceCaptured;
     private PieceType promotionPieceType = null;
@@ -15,7 +14,6 @@ public class Move {
     private Square rookStartSquareForCastling = null;
     private Square rookEndSquareForCastling = null;
     private Piece pieceOnRookStartForCastling;
-    private boolean rookOriginalHasMoved;
 
     private boolean isEnPassantMove = false;
     private Square enPassantCaptureSquare = null;
@@ -24,17 +22,19 @@ public class Move {
     private Square enPassantTargetSquareBeforeMove;
     private long hashGeneratedByThisMove;
     private String standardAlgebraicNotation;
+    // PGN annotations: a Numeric Annotation Glyph (0 = none) and a comment, written after the move
+    private int nag;
+    private String comment;
 
-    public Move(Square startSquare, Square endSquare, Piece pieceMoved, boolean pieceMovedOriginalHasMoved) {
+    public Move(Square startSquare, Square endSquare, Piece pieceMoved) {
         this.startSquare = startSquare;
         this.endSquare = endSquare;
         this.pieceMoved = pieceMoved;
-        this.pieceMovedOriginalHasMoved = pieceMovedOriginalHasMoved;
         this.pieceCaptured = endSquare.hasPiece() && !this.isEnPassantMove() ? endSquare.getPiece() : null;
     }
 
-    public Move(Square startSquare, Square endSquare, Piece pieceMoved, boolean pieceMovedOriginalHasMoved, PieceType promotionPieceType) {
-        this(startSquare, endSquare, pieceMoved, pieceMovedOriginalHasMoved);
+    public Move(Square startSquare, Square endSquare, Piece pieceMoved, PieceType promotionPieceType) {
+        this(startSquare, endSquare, pieceMoved);
         this.promotionPieceType = promotionPieceType;
     }
 
@@ -58,13 +58,8 @@ public class Move {
         this.pieceCaptured = pieceCaptured;
     }
 
-    public boolean getPieceMovedOriginalHasMoved() {
-        return pieceMovedOriginalHasMoved;
-    }
-
-    public void setRookInfoForCastlingUndo(Piece rook, boolean rookOriginalHasMoved) {
+    public void setRookInfoForCastlingUndo(Piece rook) {
         this.pieceOnRookStartForCastling = rook;
-        this.rookOriginalHasMoved = rookOriginalHasMoved;
     }
 
     public int getHalfMoveClockBeforeMove() {
@@ -95,10 +90,6 @@ public class Move {
         return pieceOnRookStartForCastling;
     }
 
-    public boolean getRookOriginalHasMoved() {
-        return rookOriginalHasMoved;
-    }
-
     public boolean isPromotion() {
         return promotionPieceType != null;
     }
@@ -155,6 +146,22 @@ public class Move {
         this.standardAlgebraicNotation = san;
     }
 
+    public int getNag() {
+        return nag;
+    }
+
+    public void setNag(int nag) {
+        this.nag = nag;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
     @Override
     public String toString() { // UCI string
         String start = NotationUtils.squareToAlgebraic(startSquare).toLowerCase();
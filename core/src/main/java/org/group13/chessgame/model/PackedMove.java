@@ -0,0 +1,106 @@
+package org.group13.chessgame.model;
+
+/**
+ * Helpers for moves encoded as a single {@code int}, used by {@link Position} and other code that
+ * must not allocate a {@link Move} per ply.
+ * <p>
+ * Layout: bits 0-5 start square, bits 6-11 end square, bits 12-14 promotion piece
+ * ({@code PieceType.ordinal() + 1}, 0 = none), bits 15-17 flags. Square indices are
+ * {@code row * 8 + col}, with row 0 being rank 8, the same orientation as {@link Board}.
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    public static final int FLAG_CASTLING = 1 << 15;
+    public static final int FLAG_EN_PASSANT = 1 << 16;
+    public static final int FLAG_DOUBLE_PUSH = 1 << 17;
+
+    // from, to and promotion: everything a player actually chooses
+    private static final int INTENT_MASK = (1 << 15) - 1;
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, PieceType promotion) {
+        return of(from, to) | (promotion == null ? 0 : (promotion.ordinal() + 1) << 12);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static PieceType promotion(int move) {
+        int code = (move >>> 12) & 0x7;
+        return code == 0 ? null : PieceType.values()[code - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return ((move >>> 12) & 0x7) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        return (move & FLAG_CASTLING) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & FLAG_DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * @return true if both moves have the same start, end and promotion, ignoring flags.
+     */
+    public static boolean sameIntent(int a, int b) {
+        return (a & INTENT_MASK) == (b & INTENT_MASK);
+    }
+
+    public static int square(int row, int col) {
+        return row * Board.SIZE + col;
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    public static int fromMove(Move move) {
+        int packed = of(square(move.getStartSquare().getRow(), move.getStartSquare().getCol()), square(move.getEndSquare().getRow(), move.getEndSquare().getCol()), move.getPromotionPieceType());
+        if (move.isCastlingMove()) packed |= FLAG_CASTLING;
+        if (move.isEnPassantMove()) packed |= FLAG_EN_PASSANT;
+        if (move.getPieceMoved().getType() == PieceType.PAWN && Math.abs(move.getStartSquare().getRow() - move.getEndSquare().getRow()) == 2) {
+            packed |= FLAG_DOUBLE_PUSH;
+        }
+        return packed;
+    }
+
+    public static String squareToAlgebraic(int square) {
+        return "" + (char) ('a' + col(square)) + (Board.SIZE - row(square));
+    }
+
+    public static int algebraicToSquare(String algebraic) {
+        if (algebraic == null || algebraic.length() != 2) return -1;
+        int col = Character.toLowerCase(algebraic.charAt(0)) - 'a';
+        int row = '8' - algebraic.charAt(1);
+        return Board.isValidCoordinate(row, col) ? square(row, col) : -1;
+    }
+
+    public static String toUci(int move) {
+        String uci = squareToAlgebraic(from(move)) + squareToAlgebraic(to(move));
+        PieceType promotion = promotion(move);
+        return promotion == null ? uci : uci + Piece.pieceTypeToChar(promotion).toLowerCase();
+    }
+}
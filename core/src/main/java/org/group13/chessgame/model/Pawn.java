@@ -3,11 +3,18 @@ package org.group13.chessgame.model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Pawn extends Piece {
-    public Pawn(PieceColor color) {
+public final class Pawn extends Piece {
+    private static final Pawn WHITE = new Pawn(PieceColor.WHITE);
+    private static final Pawn BLACK = new Pawn(PieceColor.BLACK);
+
+    private Pawn(PieceColor color) {
         super(color, PieceType.PAWN);
     }
 
+    public static Pawn of(PieceColor color) {
+        return color == PieceColor.WHITE ? WHITE : BLACK;
+    }
+
     @Override
     public List<Move> getPseudoLegalMoves(Game game, int currentRow, int currentCol) {
         List<Move> moves = new ArrayList<>();
@@ -16,12 +23,13 @@ public class Pawn extends Piece {
 
         int oneStepRow = currentRow + direction;
         if (Board.isValidCoordinate(oneStepRow, currentCol) && board.getSquare(oneStepRow, currentCol).isEmpty()) {
-            addPawnMove(moves, board.getSquare(currentRow, currentCol), board.getSquare(oneStepRow, currentCol), this.color, this.hasMoved);
+            addPawnMove(moves, board.getSquare(currentRow, currentCol), board.getSquare(oneStepRow, currentCol), this.color);
 
-            if (!this.hasMoved()) {
+            // a pawn on its starting rank has not moved yet
+            if (currentRow == (this.color == PieceColor.WHITE ? Board.SIZE - 2 : 1)) {
                 int twoStepsRow = currentRow + 2 * direction;
                 if (Board.isValidCoordinate(twoStepsRow, currentCol) && board.getSquare(twoStepsRow, currentCol).isEmpty()) {
-                    moves.add(new Move(board.getSquare(currentRow, currentCol), board.getSquare(twoStepsRow, currentCol), this, this.hasMoved));
+                    moves.add(new Move(board.getSquare(currentRow, currentCol), board.getSquare(twoStepsRow, currentCol), this));
                 }
             }
         }
@@ -31,19 +39,18 @@ public class Pawn extends Piece {
             if (Board.isValidCoordinate(oneStepRow, captureCol)) {
                 Square targetSquare = board.getSquare(oneStepRow, captureCol);
                 if (targetSquare.hasPiece() && targetSquare.getPiece().getColor() != this.color) {
-                    addPawnMove(moves, board.getSquare(currentRow, currentCol), targetSquare, this.color, this.hasMoved);
+                    addPawnMove(moves, board.getSquare(currentRow, currentCol), targetSquare, this.color);
                 }
             }
         }
 
-        Move lastMove = game.getUndoStack().peek();
-        if (lastMove != null && lastMove.getPieceMoved().getType() == PieceType.PAWN && Math.abs(lastMove.getStartSquare().getRow() - lastMove.getEndSquare().getRow()) == 2 && lastMove.getEndSquare().getRow() == currentRow && Math.abs(lastMove.getEndSquare().getCol() - currentCol) == 1) {
-
-            Square targetSquareForMove = board.getSquare(currentRow + direction, lastMove.getEndSquare().getCol());
-            Square capturedPawnSquare = lastMove.getEndSquare();
+        int enPassantSquare = game.getEnPassantSquare();
+        if (enPassantSquare >= 0 && PackedMove.row(enPassantSquare) == oneStepRow && Math.abs(PackedMove.col(enPassantSquare) - currentCol) == 1) {
+            Square targetSquareForMove = board.getSquare(oneStepRow, PackedMove.col(enPassantSquare));
+            Square capturedPawnSquare = board.getSquare(currentRow, PackedMove.col(enPassantSquare));
 
-            if (targetSquareForMove != null && targetSquareForMove.isEmpty()) {
-                Move enPassantMove = new Move(board.getSquare(currentRow, currentCol), targetSquareForMove, this, this.hasMoved);
+            if (targetSquareForMove.isEmpty() && capturedPawnSquare.hasPiece()) {
+                Move enPassantMove = new Move(board.getSquare(currentRow, currentCol), targetSquareForMove, this);
                 enPassantMove.setEnPassantMove(true);
                 enPassantMove.setPieceCaptured(capturedPawnSquare.getPiece());
                 enPassantMove.setEnPassantCaptureSquare(capturedPawnSquare);
@@ -54,15 +61,15 @@ public class Pawn extends Piece {
         return moves;
     }
 
-    private void addPawnMove(List<Move> moves, Square startSquare, Square endSquare, PieceColor pawnColor, boolean originalHasMoved) {
+    private void addPawnMove(List<Move> moves, Square startSquare, Square endSquare, PieceColor pawnColor) {
         int promotionRank = (pawnColor == PieceColor.WHITE) ? 0 : (Board.SIZE - 1);
         if (endSquare.getRow() == promotionRank) {
-            moves.add(new Move(startSquare, endSquare, this, originalHasMoved, PieceType.QUEEN));
-            moves.add(new Move(startSquare, endSquare, this, originalHasMoved, PieceType.ROOK));
-            moves.add(new Move(startSquare, endSquare, this, originalHasMoved, PieceType.BISHOP));
-            moves.add(new Move(startSquare, endSquare, this, originalHasMoved, PieceType.KNIGHT));
+            moves.add(new Move(startSquare, endSquare, this, PieceType.QUEEN));
+            moves.add(new Move(startSquare, endSquare, this, PieceType.ROOK));
+            moves.add(new Move(startSquare, endSquare, this, PieceType.BISHOP));
+            moves.add(new Move(startSquare, endSquare, this, PieceType.KNIGHT));
         } else {
-            moves.add(new Move(startSquare, endSquare, this, originalHasMoved));
+            moves.add(new Move(startSquare, endSquare, this));
         }
     }
 }
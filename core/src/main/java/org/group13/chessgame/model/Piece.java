@@ -2,17 +2,31 @@ package org.group13.chessgame.model;
 
 import java.util.List;
 
-public abstract class Piece {
+/**
+ * A chess piece: its colour, type and how it moves. Pieces hold no other state, so there is one shared instance
+ * per colour and type, obtained with {@link #of} or the subclasses' {@code of(color)}. Whether a king or rook may
+ * still castle and whether a pawn may advance two squares follow from the position instead.
+ */
+public abstract sealed class Piece permits King, Queen, Rook, Bishop, Knight, Pawn {
     protected final PieceColor color;
     protected final PieceType type;
-    protected boolean hasMoved;
-    protected String imagePath;
+    private final String imagePath;
 
-    public Piece(PieceColor color, PieceType type) {
+    Piece(PieceColor color, PieceType type) {
         this.color = color;
         this.type = type;
-        this.hasMoved = false;
-        setImagePath();
+        this.imagePath = "/images/piece/" + (color == PieceColor.WHITE ? "w" : "b") + pieceTypeToChar(type) + ".png";
+    }
+
+    public static Piece of(PieceType type, PieceColor color) {
+        return switch (type) {
+            case PAWN -> Pawn.of(color);
+            case ROOK -> Rook.of(color);
+            case KNIGHT -> Knight.of(color);
+            case BISHOP -> Bishop.of(color);
+            case QUEEN -> Queen.of(color);
+            case KING -> King.of(color);
+        };
     }
 
     public abstract List<Move> getPseudoLegalMoves(Game game, int currentRow, int currentCol);
@@ -25,24 +39,10 @@ public abstract class Piece {
         return type;
     }
 
-    public boolean hasMoved() {
-        return hasMoved;
-    }
-
-    public void setHasMoved(boolean hasMoved) {
-        this.hasMoved = hasMoved;
-    }
-
     public String getImagePath() {
         return imagePath;
     }
 
-    protected void setImagePath() {
-        String colorStr = (color == PieceColor.WHITE) ? "w" : "b";
-        String typeStr = pieceTypeToChar(this.type).toUpperCase();
-        this.imagePath = String.format("/images/piece/%s%s.png", colorStr, typeStr);
-    }
-
     public static String pieceTypeToChar(PieceType type) {
         return switch (type) {
             case PAWN -> "P";
@@ -0,0 +1,600 @@
+package org.group13.chessgame.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compact snapshot of a chess position: one byte per square plus a packed state word.
+ * <p>
+ * Unlike {@link Game} and {@link Board}, a {@code Position} never changes after construction, so it
+ * can be handed to engine, network or analysis threads without locking. {@link #makeMove(int)}
+ * returns a new snapshot and leaves this one untouched. Moves are {@link PackedMove} ints and
+ * squares are {@code row * 8 + col}, row 0 being rank 8.
+ */
+public final class Position {
+    public static final byte EMPTY = 0;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 1 << 1;
+    public static final int BLACK_KINGSIDE = 1 << 2;
+    public static final int BLACK_QUEENSIDE = 1 << 3;
+    public static final int ALL_CASTLING = 0xF;
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    static final int MAX_MOVES = 320;
+
+    // state word: bit 0 side to move (1 = black), bits 1-4 castling rights,
+    // bits 5-11 en passant square + 1 (0 = none), bits 12-21 halfmove clock
+    private static final int CASTLING_SHIFT = 1;
+    private static final int EP_SHIFT = 5;
+    private static final int HALFMOVE_SHIFT = 12;
+
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    private static final int[][] KNIGHT_OFFSETS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_OFFSETS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] ORTHOGONAL = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
+    private static final int[][] DIAGONAL = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    // rights that survive a move touching the square (king or rook leaving, rook captured)
+    private static final int[] CORNER_MASK = new int[64];
+    private static final long[] PIECE_KEYS = new long[13 * 64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EP_FILE_KEYS = new long[Board.SIZE];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        ZobristTable table = ZobristTable.shared();
+        for (PieceType type : PieceType.values()) {
+            for (PieceColor color : PieceColor.values()) {
+                for (int sq = 0; sq < 64; sq++) {
+                    PIECE_KEYS[code(type, color) * 64 + sq] = table.getPieceKey(type, color, PackedMove.row(sq), PackedMove.col(sq));
+                }
+            }
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            long key = 0;
+            for (int i = 0; i < 4; i++) {
+                if ((rights & (1 << i)) != 0) key ^= table.getCastlingRightsKey(i);
+            }
+            CASTLING_KEYS[rights] = key;
+        }
+        for (int file = 0; file < Board.SIZE; file++) {
+            EP_FILE_KEYS[file] = table.getEnPassantFileKey(file);
+        }
+        BLACK_TO_MOVE_KEY = table.getBlackToMoveKey();
+
+        Arrays.fill(CORNER_MASK, ALL_CASTLING);
+        CORNER_MASK[63] &= ~WHITE_KINGSIDE;  // h1
+        CORNER_MASK[56] &= ~WHITE_QUEENSIDE; // a1
+        CORNER_MASK[7] &= ~BLACK_KINGSIDE;   // h8
+        CORNER_MASK[0] &= ~BLACK_QUEENSIDE;  // a8
+    }
+
+    private final byte[] squares;
+    private final int state;
+    private final int fullMoveNumber;
+    private final long hash;
+
+    private Position(byte[] squares, int state, int fullMoveNumber, long hash) {
+        this.squares = squares;
+        this.state = state;
+        this.fullMoveNumber = fullMoveNumber;
+        this.hash = hash;
+    }
+
+    static Position create(byte[] squares, PieceColor sideToMove, int castlingRights, int enPassantSquare, int halfMoveClock, int fullMoveNumber) {
+        int state = packState(sideToMove == PieceColor.BLACK ? 1 : 0, castlingRights, enPassantSquare, halfMoveClock);
+        return new Position(squares, state, fullMoveNumber, computeHash(squares, state));
+    }
+
+    public static Position startPosition() {
+        return fromFen(START_FEN);
+    }
+
+    public static Position fromFen(String fen) {
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        byte[] squares = new byte[64];
+        int row = 0;
+        int col = 0;
+        for (char ch : parts[0].toCharArray()) {
+            if (ch == '/') {
+                row++;
+                col = 0;
+            } else if (Character.isDigit(ch)) {
+                col += ch - '0';
+            } else {
+                PieceType type = Piece.charToPieceType(ch);
+                if (type == null || !Board.isValidCoordinate(row, col)) {
+                    throw new IllegalArgumentException("Invalid FEN piece placement: " + fen);
+                }
+                PieceColor color = Character.isUpperCase(ch) ? PieceColor.WHITE : PieceColor.BLACK;
+                squares[PackedMove.square(row, col)] = code(type, color);
+                col++;
+            }
+        }
+
+        PieceColor side = parts[1].equals("b") ? PieceColor.BLACK : PieceColor.WHITE;
+        int rights = 0;
+        if (parts.length > 2) {
+            for (char ch : parts[2].toCharArray()) {
+                switch (ch) {
+                    case 'K' -> rights |= WHITE_KINGSIDE;
+                    case 'Q' -> rights |= WHITE_QUEENSIDE;
+                    case 'k' -> rights |= BLACK_KINGSIDE;
+                    case 'q' -> rights |= BLACK_QUEENSIDE;
+                    default -> {
+                    }
+                }
+            }
+        }
+        int ep = parts.length > 3 && !parts[3].equals("-") ? PackedMove.algebraicToSquare(parts[3]) : -1;
+        int halfMove = parts.length > 4 ? Integer.parseInt(parts[4]) : 0;
+        int fullMove = parts.length > 5 ? Integer.parseInt(parts[5]) : 1;
+        return create(squares, side, rights, ep, halfMove, fullMove);
+    }
+
+    // --- Piece codes: 0 = empty, 1..6 white, 7..12 black, in PieceType order ---
+
+    public static byte code(PieceType type, PieceColor color) {
+        return (byte) (1 + type.ordinal() + color.ordinal() * 6);
+    }
+
+    public static PieceType typeOf(int code) {
+        return code == EMPTY ? null : PieceType.values()[(code - 1) % 6];
+    }
+
+    public static PieceColor colorOf(int code) {
+        return code == EMPTY ? null : PieceColor.values()[(code - 1) / 6];
+    }
+
+    static int typeIndex(int code) {
+        return (code - 1) % 6;
+    }
+
+    static int colorIndex(int code) {
+        return (code - 1) / 6;
+    }
+
+    static long pieceKey(int code, int square) {
+        return PIECE_KEYS[code * 64 + square];
+    }
+
+    static long castlingKey(int rights) {
+        return CASTLING_KEYS[rights];
+    }
+
+    static long enPassantKey(int square) {
+        return square < 0 ? 0 : EP_FILE_KEYS[PackedMove.col(square)];
+    }
+
+    static long blackToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    private static int packState(int side, int castlingRights, int enPassantSquare, int halfMoveClock) {
+        return side | (castlingRights << CASTLING_SHIFT) | ((enPassantSquare + 1) << EP_SHIFT) | (Math.min(halfMoveClock, 1023) << HALFMOVE_SHIFT);
+    }
+
+    private static long computeHash(byte[] squares, int state) {
+        long h = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            if (squares[sq] != EMPTY) h ^= pieceKey(squares[sq], sq);
+        }
+        if ((state & 1) != 0) h ^= BLACK_TO_MOVE_KEY;
+        h ^= CASTLING_KEYS[(state >>> CASTLING_SHIFT) & 0xF];
+        h ^= enPassantKey(((state >>> EP_SHIFT) & 0x7F) - 1);
+        return h;
+    }
+
+    // --- Accessors ---
+
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    public int pieceAt(int row, int col) {
+        return squares[PackedMove.square(row, col)];
+    }
+
+    public byte[] copySquares() {
+        return squares.clone();
+    }
+
+    // the array itself, for readers in this package that must not allocate; never modified
+    byte[] squares() {
+        return squares;
+    }
+
+    public PieceColor getSideToMove() {
+        return (state & 1) == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+    }
+
+    public int getCastlingRights() {
+        return (state >>> CASTLING_SHIFT) & 0xF;
+    }
+
+    /**
+     * @return the en passant target square, or -1 if the last move was not a double pawn push.
+     */
+    public int getEnPassantSquare() {
+        return ((state >>> EP_SHIFT) & 0x7F) - 1;
+    }
+
+    public int getHalfMoveClock() {
+        return state >>> HALFMOVE_SHIFT;
+    }
+
+    public int getFullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int getKingSquare(PieceColor color) {
+        return findKing(squares, color.ordinal());
+    }
+
+    public boolean isInCheck() {
+        int side = state & 1;
+        int king = findKing(squares, side);
+        return king >= 0 && isAttacked(squares, king, side ^ 1);
+    }
+
+    public boolean isSquareAttackedBy(int square, PieceColor attacker) {
+        return isAttacked(squares, square, attacker.ordinal());
+    }
+
+    // --- Move generation ---
+
+    public int[] getLegalMoves() {
+        int[] buffer = new int[MAX_MOVES];
+        int count = generateLegalMoves(squares, state, buffer);
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Looks up the legal move matching the given start, end and promotion.
+     *
+     * @return the fully flagged move, or {@link PackedMove#NONE} if it is not legal here.
+     */
+    public int findLegalMove(int from, int to, PieceType promotion) {
+        int wanted = PackedMove.of(from, to, promotion);
+        for (int move : getLegalMoves()) {
+            if (PackedMove.sameIntent(move, wanted)) return move;
+        }
+        return PackedMove.NONE;
+    }
+
+    public boolean isLegal(int move) {
+        return findLegalMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotion(move)) != PackedMove.NONE;
+    }
+
+    /**
+     * Plays a move that is assumed legal and returns the resulting position. The castling and
+     * en passant flags are re-derived from the board, so a bare {@code PackedMove.of(from, to)} works.
+     */
+    public Position makeMove(int move) {
+        byte[] next = squares.clone();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = next[from];
+        if (moving == EMPTY) {
+            throw new IllegalArgumentException("No piece on " + PackedMove.squareToAlgebraic(from));
+        }
+        int side = colorIndex(moving);
+        int type = typeIndex(moving);
+        int rights = getCastlingRights();
+        int oldEp = getEnPassantSquare();
+
+        long h = hash ^ CASTLING_KEYS[rights] ^ enPassantKey(oldEp) ^ pieceKey(moving, from);
+
+        boolean capture = next[to] != EMPTY;
+        if (capture) {
+            h ^= pieceKey(next[to], to);
+        } else if (type == PAWN && to == oldEp && PackedMove.col(from) != PackedMove.col(to)) {
+            int capturedSquare = PackedMove.square(PackedMove.row(from), PackedMove.col(to));
+            h ^= pieceKey(next[capturedSquare], capturedSquare);
+            next[capturedSquare] = EMPTY;
+            capture = true;
+        }
+
+        next[from] = EMPTY;
+        PieceType promotion = PackedMove.promotion(move);
+        int placed = (type == PAWN && promotion != null) ? code(promotion, PieceColor.values()[side]) : moving;
+        next[to] = (byte) placed;
+        h ^= pieceKey(placed, to);
+
+        if (type == KING && Math.abs(PackedMove.col(to) - PackedMove.col(from)) == 2) {
+            int rookFrom = PackedMove.col(to) > PackedMove.col(from) ? to + 1 : to - 2;
+            int rookTo = PackedMove.col(to) > PackedMove.col(from) ? to - 1 : to + 1;
+            int rook = next[rookFrom];
+            next[rookFrom] = EMPTY;
+            next[rookTo] = (byte) rook;
+            h ^= pieceKey(rook, rookFrom) ^ pieceKey(rook, rookTo);
+        }
+
+        rights = updateCastlingRights(rights, moving, from, to);
+        int newEp = (type == PAWN && Math.abs(to - from) == 16) ? (from + to) / 2 : -1;
+        int halfMove = (type == PAWN || capture) ? 0 : getHalfMoveClock() + 1;
+        int fullMove = side == 1 ? fullMoveNumber + 1 : fullMoveNumber;
+
+        h ^= CASTLING_KEYS[rights] ^ enPassantKey(newEp) ^ BLACK_TO_MOVE_KEY;
+        return new Position(next, packState(side ^ 1, rights, newEp, halfMove), fullMove, h);
+    }
+
+    static int updateCastlingRights(int rights, int moving, int from, int to) {
+        if (typeIndex(moving) == KING) {
+            rights &= colorIndex(moving) == 0 ? ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) : ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        return rights & CORNER_MASK[from] & CORNER_MASK[to];
+    }
+
+    // --- Array kernels, shared with other primitive position types in this package ---
+
+    static int findKing(byte[] board, int side) {
+        int king = 1 + KING + side * 6;
+        for (int sq = 0; sq < 64; sq++) {
+            if (board[sq] == king) return sq;
+        }
+        return -1;
+    }
+
+    static boolean isAttacked(byte[] board, int square, int attackerSide) {
+        int row = PackedMove.row(square);
+        int col = PackedMove.col(square);
+        int base = 1 + attackerSide * 6;
+
+        // a white pawn attacks towards row - 1, so it sits on row + 1 relative to its target
+        int pawnRow = attackerSide == 0 ? row + 1 : row - 1;
+        if (pawnRow >= 0 && pawnRow < Board.SIZE) {
+            if (col > 0 && board[PackedMove.square(pawnRow, col - 1)] == base + PAWN) return true;
+            if (col < 7 && board[PackedMove.square(pawnRow, col + 1)] == base + PAWN) return true;
+        }
+        for (int[] d : KNIGHT_OFFSETS) {
+            int r = row + d[0], c = col + d[1];
+            if (Board.isValidCoordinate(r, c) && board[PackedMove.square(r, c)] == base + KNIGHT) return true;
+        }
+        for (int[] d : KING_OFFSETS) {
+            int r = row + d[0], c = col + d[1];
+            if (Board.isValidCoordinate(r, c) && board[PackedMove.square(r, c)] == base + KING) return true;
+        }
+        return slidingAttack(board, row, col, ORTHOGONAL, base + ROOK, base + QUEEN) || slidingAttack(board, row, col, DIAGONAL, base + BISHOP, base + QUEEN);
+    }
+
+    private static boolean slidingAttack(byte[] board, int row, int col, int[][] directions, int slider, int queen) {
+        for (int[] d : directions) {
+            int r = row + d[0], c = col + d[1];
+            while (Board.isValidCoordinate(r, c)) {
+                int p = board[PackedMove.square(r, c)];
+                if (p != EMPTY) {
+                    if (p == slider || p == queen) return true;
+                    break;
+                }
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return false;
+    }
+
+    static int generateLegalMoves(byte[] board, int state, int[] out) {
+        int side = state & 1;
+        int pseudoCount = generatePseudoLegal(board, state, out);
+        byte[] scratch = new byte[64];
+        int king = findKing(board, side);
+        int legal = 0;
+        for (int i = 0; i < pseudoCount; i++) {
+            int move = out[i];
+            System.arraycopy(board, 0, scratch, 0, 64);
+            applyToBoard(scratch, move);
+            int from = PackedMove.from(move);
+            int kingSquare = from == king ? PackedMove.to(move) : king;
+            if (kingSquare < 0 || !isAttacked(scratch, kingSquare, side ^ 1)) {
+                out[legal++] = move;
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Moves pieces for an already flagged move, without touching any state or hash.
+     */
+    static void applyToBoard(byte[] board, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = board[from];
+        board[from] = EMPTY;
+        PieceType promotion = PackedMove.promotion(move);
+        board[to] = (byte) (promotion != null ? code(promotion, PieceColor.values()[colorIndex(moving)]) : moving);
+        if (PackedMove.isEnPassant(move)) {
+            board[PackedMove.square(PackedMove.row(from), PackedMove.col(to))] = EMPTY;
+        } else if (PackedMove.isCastling(move)) {
+            boolean kingside = PackedMove.col(to) > PackedMove.col(from);
+            int rookFrom = kingside ? to + 1 : to - 2;
+            int rookTo = kingside ? to - 1 : to + 1;
+            board[rookTo] = board[rookFrom];
+            board[rookFrom] = EMPTY;
+        }
+    }
+
+    private static int generatePseudoLegal(byte[] board, int state, int[] out) {
+        int side = state & 1;
+        int n = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int p = board[sq];
+            if (p == EMPTY || colorIndex(p) != side) continue;
+            int row = PackedMove.row(sq);
+            int col = PackedMove.col(sq);
+            switch (PieceType.values()[typeIndex(p)]) {
+                case PAWN -> n = generatePawnMoves(board, state, sq, row, col, side, out, n);
+                case KNIGHT -> n = generateSteps(board, sq, row, col, side, KNIGHT_OFFSETS, out, n);
+                case KING -> n = generateSteps(board, sq, row, col, side, KING_OFFSETS, out, n);
+                case ROOK -> n = generateSlides(board, sq, row, col, side, ORTHOGONAL, out, n);
+                case BISHOP -> n = generateSlides(board, sq, row, col, side, DIAGONAL, out, n);
+                case QUEEN -> {
+                    n = generateSlides(board, sq, row, col, side, ORTHOGONAL, out, n);
+                    n = generateSlides(board, sq, row, col, side, DIAGONAL, out, n);
+                }
+            }
+        }
+        return generateCastling(board, state, side, out, n);
+    }
+
+    private static int generatePawnMoves(byte[] board, int state, int sq, int row, int col, int side, int[] out, int n) {
+        int direction = side == 0 ? -1 : 1;
+        int startRow = side == 0 ? 6 : 1;
+        int promotionRow = side == 0 ? 0 : 7;
+        int oneStep = row + direction;
+        if (oneStep < 0 || oneStep >= Board.SIZE) return n;
+
+        int target = PackedMove.square(oneStep, col);
+        if (board[target] == EMPTY) {
+            n = addPawnMove(sq, target, oneStep == promotionRow, 0, out, n);
+            int twoSteps = PackedMove.square(row + 2 * direction, col);
+            if (row == startRow && board[twoSteps] == EMPTY) {
+                out[n++] = PackedMove.of(sq, twoSteps) | PackedMove.FLAG_DOUBLE_PUSH;
+            }
+        }
+        int ep = ((state >>> EP_SHIFT) & 0x7F) - 1;
+        for (int dc = -1; dc <= 1; dc += 2) {
+            int c = col + dc;
+            if (c < 0 || c >= Board.SIZE) continue;
+            int captureSquare = PackedMove.square(oneStep, c);
+            int victim = board[captureSquare];
+            if (victim != EMPTY && colorIndex(victim) != side) {
+                n = addPawnMove(sq, captureSquare, oneStep == promotionRow, 0, out, n);
+            } else if (victim == EMPTY && captureSquare == ep) {
+                out[n++] = PackedMove.of(sq, captureSquare) | PackedMove.FLAG_EN_PASSANT;
+            }
+        }
+        return n;
+    }
+
+    private static int addPawnMove(int from, int to, boolean promotes, int flags, int[] out, int n) {
+        if (promotes) {
+            for (PieceType promotion : PROMOTIONS) {
+                out[n++] = PackedMove.of(from, to, promotion) | flags;
+            }
+        } else {
+            out[n++] = PackedMove.of(from, to) | flags;
+        }
+        return n;
+    }
+
+    private static int generateSteps(byte[] board, int sq, int row, int col, int side, int[][] offsets, int[] out, int n) {
+        for (int[] d : offsets) {
+            int r = row + d[0], c = col + d[1];
+            if (!Board.isValidCoordinate(r, c)) continue;
+            int target = PackedMove.square(r, c);
+            if (board[target] == EMPTY || colorIndex(board[target]) != side) {
+                out[n++] = PackedMove.of(sq, target);
+            }
+        }
+        return n;
+    }
+
+    private static int generateSlides(byte[] board, int sq, int row, int col, int side, int[][] directions, int[] out, int n) {
+        for (int[] d : directions) {
+            int r = row + d[0], c = col + d[1];
+            while (Board.isValidCoordinate(r, c)) {
+                int target = PackedMove.square(r, c);
+                if (board[target] == EMPTY) {
+                    out[n++] = PackedMove.of(sq, target);
+                } else {
+                    if (colorIndex(board[target]) != side) out[n++] = PackedMove.of(sq, target);
+                    break;
+                }
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return n;
+    }
+
+    private static int generateCastling(byte[] board, int state, int side, int[] out, int n) {
+        int rights = (state >>> CASTLING_SHIFT) & 0xF;
+        int kingside = side == 0 ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = side == 0 ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        if ((rights & (kingside | queenside)) == 0) return n;
+
+        int row = side == 0 ? 7 : 0;
+        int king = PackedMove.square(row, 4);
+        int enemy = side ^ 1;
+        if (board[king] != 1 + KING + side * 6 || isAttacked(board, king, enemy)) return n;
+
+        int rook = 1 + ROOK + side * 6;
+        if ((rights & kingside) != 0 && board[king + 3] == rook && board[king + 1] == EMPTY && board[king + 2] == EMPTY && !isAttacked(board, king + 1, enemy) && !isAttacked(board, king + 2, enemy)) {
+            out[n++] = PackedMove.of(king, king + 2) | PackedMove.FLAG_CASTLING;
+        }
+        if ((rights & queenside) != 0 && board[king - 4] == rook && board[king - 1] == EMPTY && board[king - 2] == EMPTY && board[king - 3] == EMPTY && !isAttacked(board, king - 1, enemy) && !isAttacked(board, king - 2, enemy)) {
+            out[n++] = PackedMove.of(king, king - 2) | PackedMove.FLAG_CASTLING;
+        }
+        return n;
+    }
+
+    // --- FEN ---
+
+    public String toFen() {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 0; row < Board.SIZE; row++) {
+            int empty = 0;
+            for (int col = 0; col < Board.SIZE; col++) {
+                int p = squares[PackedMove.square(row, col)];
+                if (p == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char ch = Piece.pieceTypeToChar(typeOf(p)).charAt(0);
+                fen.append(colorOf(p) == PieceColor.WHITE ? ch : Character.toLowerCase(ch));
+            }
+            if (empty > 0) fen.append(empty);
+            if (row < Board.SIZE - 1) fen.append('/');
+        }
+        fen.append(getSideToMove() == PieceColor.WHITE ? " w " : " b ");
+        int rights = getCastlingRights();
+        if (rights == 0) fen.append('-');
+        if ((rights & WHITE_KINGSIDE) != 0) fen.append('K');
+        if ((rights & WHITE_QUEENSIDE) != 0) fen.append('Q');
+        if ((rights & BLACK_KINGSIDE) != 0) fen.append('k');
+        if ((rights & BLACK_QUEENSIDE) != 0) fen.append('q');
+        int ep = getEnPassantSquare();
+        fen.append(' ').append(ep < 0 ? "-" : PackedMove.squareToAlgebraic(ep));
+        fen.append(' ').append(getHalfMoveClock()).append(' ').append(fullMoveNumber);
+        return fen.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Position other)) return false;
+        // the move counters do not change which position is on the board
+        int mask = (1 << HALFMOVE_SHIFT) - 1;
+        return (state & mask) == (other.state & mask) && Arrays.equals(squares, other.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+}
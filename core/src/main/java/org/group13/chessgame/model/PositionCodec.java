@@ -0,0 +1,128 @@
+package org.group13.chessgame.model;
+
+/**
+ * Encodes a position, without its move counters, into {@value #BYTES} bytes held as {@value #LONGS} longs, for
+ * stores that keep very many positions.
+ * <p>
+ * Word 0 is the occupancy: bit {@code sq} is set when square {@code sq} holds a piece. Words 1 and 2 hold a
+ * 4-bit code per occupied square, in ascending square order, sixteen per word; a legal position has at most 32
+ * pieces. Codes 1-12 are the piece codes of {@link Position}. Three more codes carry the rest of the position:
+ * {@value #EN_PASSANT_PAWN} marks the pawn that just made a double push, {@value #CASTLING_ROOK} a rook that
+ * may still castle (its colour follows from its rank) and {@value #BLACK_KING_TO_MOVE} the black king when
+ * Black is to move. A castling right is only encoded while its rook stands on its corner, which is always the
+ * case in positions reached by legal moves.
+ * <p>
+ * Two positions have the same encoding exactly when they are {@link Position#equals equal}.
+ */
+public final class PositionCodec {
+    public static final int LONGS = 3;
+    public static final int BYTES = LONGS * Long.BYTES;
+
+    private static final int EN_PASSANT_PAWN = 13;
+    private static final int CASTLING_ROOK = 14;
+    private static final int BLACK_KING_TO_MOVE = 15;
+    private static final int BLACK_KING = Position.code(PieceType.KING, PieceColor.BLACK);
+    private static final int WHITE_ROOK = Position.code(PieceType.ROOK, PieceColor.WHITE);
+    private static final int BLACK_ROOK = Position.code(PieceType.ROOK, PieceColor.BLACK);
+    private static final int WHITE_PAWN = Position.code(PieceType.PAWN, PieceColor.WHITE);
+    private static final int BLACK_PAWN = Position.code(PieceType.PAWN, PieceColor.BLACK);
+    // h1, a1, h8, a8: the rook squares of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE, BLACK_QUEENSIDE
+    private static final int[] CASTLING_ROOK_SQUARES = {63, 56, 7, 0};
+
+    private PositionCodec() {
+    }
+
+    /**
+     * Writes the encoding of {@code position} to {@code out[offset..offset + LONGS)}.
+     */
+    public static void encode(Position position, long[] out, int offset) {
+        encode(position.squares(), position.getSideToMove() == PieceColor.BLACK, position.getCastlingRights(), position.getEnPassantSquare(), out, offset);
+    }
+
+    /**
+     * Writes the encoding of the cursor's current position, without allocating.
+     */
+    public static void encode(ReplayCursor cursor, long[] out, int offset) {
+        encode(cursor.squares(), !cursor.isWhiteToMove(), cursor.getCastlingRights(), cursor.getEnPassantSquare(), out, offset);
+    }
+
+    private static void encode(byte[] squares, boolean blackToMove, int castlingRights, int enPassantSquare, long[] out, int offset) {
+        // the pawn that made the double push stands one rank beyond the target square, seen from its side
+        int enPassantPawn = enPassantSquare < 0 ? -1 : enPassantSquare + (blackToMove ? -8 : 8);
+        long occupancy = 0;
+        long low = 0;
+        long high = 0;
+        int count = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int code = squares[sq];
+            if (code == Position.EMPTY) continue;
+            if (sq == enPassantPawn && (code == WHITE_PAWN || code == BLACK_PAWN)) {
+                code = EN_PASSANT_PAWN;
+            } else if (code == BLACK_KING && blackToMove) {
+                code = BLACK_KING_TO_MOVE;
+            } else if (code == WHITE_ROOK || code == BLACK_ROOK) {
+                for (int right = 0; right < 4; right++) {
+                    if ((castlingRights & (1 << right)) != 0 && CASTLING_ROOK_SQUARES[right] == sq && code == (right < 2 ? WHITE_ROOK : BLACK_ROOK)) {
+                        code = CASTLING_ROOK;
+                    }
+                }
+            }
+            occupancy |= 1L << sq;
+            if (count < 16) {
+                low |= (long) code << (count * 4);
+            } else if (count < 32) {
+                high |= (long) code << ((count - 16) * 4);
+            } else {
+                throw new IllegalArgumentException("More than 32 pieces cannot be encoded");
+            }
+            count++;
+        }
+        out[offset] = occupancy;
+        out[offset + 1] = low;
+        out[offset + 2] = high;
+    }
+
+    /**
+     * @return the position with the encoding at {@code in[offset]}; its halfmove clock is 0 and its move number 1.
+     */
+    public static Position decode(long[] in, int offset) {
+        long occupancy = in[offset];
+        byte[] squares = new byte[64];
+        boolean blackToMove = false;
+        int castlingRights = 0;
+        int enPassantPawn = -1;
+        int count = 0;
+        for (long bits = occupancy; bits != 0; bits &= bits - 1) {
+            int sq = Long.numberOfTrailingZeros(bits);
+            long word = count < 16 ? in[offset + 1] : in[offset + 2];
+            int code = (int) (word >>> ((count & 15) * 4)) & 0xF;
+            count++;
+            switch (code) {
+                case EN_PASSANT_PAWN -> {
+                    // its colour depends on the side to move, which may be found on a later square
+                    enPassantPawn = sq;
+                    code = Position.EMPTY;
+                }
+                case CASTLING_ROOK -> {
+                    for (int right = 0; right < 4; right++) {
+                        if (CASTLING_ROOK_SQUARES[right] == sq) castlingRights |= 1 << right;
+                    }
+                    code = PackedMove.row(sq) == 0 ? BLACK_ROOK : WHITE_ROOK;
+                }
+                case BLACK_KING_TO_MOVE -> {
+                    blackToMove = true;
+                    code = BLACK_KING;
+                }
+                default -> {
+                }
+            }
+            squares[sq] = (byte) code;
+        }
+        int enPassantSquare = -1;
+        if (enPassantPawn >= 0) {
+            squares[enPassantPawn] = (byte) (blackToMove ? WHITE_PAWN : BLACK_PAWN);
+            enPassantSquare = enPassantPawn + (blackToMove ? 8 : -8);
+        }
+        return Position.create(squares, blackToMove ? PieceColor.BLACK : PieceColor.WHITE, castlingRights, enPassantSquare, 0, 1);
+    }
+}
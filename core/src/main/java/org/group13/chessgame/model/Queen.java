@@ -3,11 +3,18 @@ package org.group13.chessgame.model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Queen extends Piece {
-    public Queen(PieceColor color) {
+public final class Queen extends Piece {
+    private static final Queen WHITE = new Queen(PieceColor.WHITE);
+    private static final Queen BLACK = new Queen(PieceColor.BLACK);
+
+    private Queen(PieceColor color) {
         super(color, PieceType.QUEEN);
     }
 
+    public static Queen of(PieceColor color) {
+        return color == PieceColor.WHITE ? WHITE : BLACK;
+    }
+
     @Override
     public List<Move> getPseudoLegalMoves(Game game, int currentRow, int currentCol) {
         List<Move> moves = new ArrayList<>();
@@ -27,10 +34,10 @@ public class Queen extends Piece {
 
                 Square targetSquare = board.getSquare(nextRow, nextCol);
                 if (targetSquare.isEmpty()) {
-                    moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                    moves.add(new Move(startSquare, targetSquare, this));
                 } else {
                     if (targetSquare.getPiece().getColor() != this.color) {
-                        moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                        moves.add(new Move(startSquare, targetSquare, this));
                     }
                     break;
                 }
@@ -0,0 +1,78 @@
+package org.group13.chessgame.model;
+
+import java.util.Arrays;
+
+/**
+ * The Zobrist keys of the positions of one line, indexed by ply, for repetition detection.
+ * <p>
+ * Each entry also keeps the position's halfmove clock: no position before the last capture or pawn move can
+ * come back, so a check only compares the keys of the last {@code halfMoveClock} plies, and only those with
+ * the same side to move. Pushing, popping and checking never allocate once the arrays have grown to the
+ * line's length, so a search can push on make and pop on unmake.
+ */
+public final class RepetitionHistory {
+    private long[] hashes = new long[128];
+    private int[] halfMoveClocks = new int[128];
+    // index of the current position
+    private int ply = -1;
+
+    /**
+     * Starts a new line at the position with this key and halfmove clock.
+     */
+    public void reset(long hash, int halfMoveClock) {
+        ply = -1;
+        push(hash, halfMoveClock);
+    }
+
+    public void push(long hash, int halfMoveClock) {
+        if (++ply == hashes.length) {
+            hashes = Arrays.copyOf(hashes, ply * 2);
+            halfMoveClocks = Arrays.copyOf(halfMoveClocks, ply * 2);
+        }
+        hashes[ply] = hash;
+        halfMoveClocks[ply] = halfMoveClock;
+    }
+
+    public void pop() {
+        if (ply == 0) throw new IllegalStateException("The start position cannot be popped");
+        ply--;
+    }
+
+    /**
+     * @return the number of moves pushed since {@link #reset}.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    public long getHash(int ply) {
+        if (ply < 0 || ply > this.ply) throw new IndexOutOfBoundsException("Ply " + ply + " is not in the line");
+        return hashes[ply];
+    }
+
+    /**
+     * Two-fold check: whether the current position occurred before. A search can score this as a draw, since
+     * the side that allowed the repetition could have repeated again.
+     */
+    public boolean isRepetition() {
+        long hash = hashes[ply];
+        int first = Math.max(0, ply - halfMoveClocks[ply]);
+        for (int i = ply - 2; i >= first; i -= 2) {
+            if (hashes[i] == hash) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return how often the current position has occurred, itself included; 3 or more is a draw by repetition.
+     */
+    public int getRepetitionCount() {
+        long hash = hashes[ply];
+        int first = Math.max(0, ply - halfMoveClocks[ply]);
+        int count = 1;
+        for (int i = ply - 2; i >= first; i -= 2) {
+            if (hashes[i] == hash) count++;
+        }
+        return count;
+    }
+}
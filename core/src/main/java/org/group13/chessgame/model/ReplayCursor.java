@@ -0,0 +1,257 @@
+package org.group13.chessgame.model;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks the moves of a game over one mutable board, for database scans that only need the hash, material or
+ * side to move of each position.
+ * <p>
+ * Unlike {@link Position#makeMove}, which copies the board, and {@link Game}, which builds {@link Move} objects
+ * and evaluates the game state, advancing a cursor only updates its own arrays and fields: no object is created
+ * per ply, and a cursor can be {@link #reset} for every game of a scan. The moves are trusted to be legal, as
+ * the ones produced by the PGN reader are; they are applied without checking.
+ * <p>
+ * A cursor is not thread-safe. Scans over several threads use one cursor per thread.
+ */
+public final class ReplayCursor {
+    // PAWN, ROOK, KNIGHT, BISHOP, QUEEN, KING in PieceType order, in pawns
+    private static final int[] MATERIAL_VALUES = {1, 5, 3, 3, 9, 0};
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    private final byte[] squares = new byte[64];
+    private final int[] material = new int[2];
+    private int[] moves = new int[0];
+    private int moveCount;
+    private int ply;
+    private int side;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfMoveClock;
+    private int fullMoveNumber;
+    private long hash;
+
+    /**
+     * Starts a new game: the cursor is on {@code start}, before the first of {@code moves}. The array is not
+     * copied and must not change while the cursor walks it.
+     */
+    public ReplayCursor reset(Position start, int[] moves) {
+        return reset(start, moves, moves.length);
+    }
+
+    /**
+     * Like {@link #reset(Position, int[])}, replaying only the first {@code length} moves.
+     */
+    public ReplayCursor reset(Position start, int[] moves, int length) {
+        if (length < 0 || length > moves.length) throw new IllegalArgumentException("Invalid move count " + length);
+        material[0] = 0;
+        material[1] = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int code = start.pieceAt(sq);
+            squares[sq] = (byte) code;
+            if (code != Position.EMPTY) material[Position.colorIndex(code)] += MATERIAL_VALUES[Position.typeIndex(code)];
+        }
+        this.moves = moves;
+        this.moveCount = length;
+        ply = 0;
+        side = start.getSideToMove() == PieceColor.WHITE ? 0 : 1;
+        castlingRights = start.getCastlingRights();
+        enPassantSquare = start.getEnPassantSquare();
+        halfMoveClock = start.getHalfMoveClock();
+        fullMoveNumber = start.getFullMoveNumber();
+        hash = start.getHash();
+        return this;
+    }
+
+    public boolean hasNext() {
+        return ply < moveCount;
+    }
+
+    /**
+     * Plays the next move.
+     *
+     * @return false, without changing anything, if every move has been played.
+     */
+    public boolean next() {
+        if (ply == moveCount) return false;
+        int move = moves[ply];
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = squares[from];
+        if (moving == Position.EMPTY) {
+            throw new IllegalStateException("No piece on " + PackedMove.squareToAlgebraic(from) + " at ply " + (ply + 1));
+        }
+        int type = Position.typeIndex(moving);
+        long h = hash ^ Position.castlingKey(castlingRights) ^ Position.enPassantKey(enPassantSquare) ^ Position.pieceKey(moving, from);
+
+        boolean capture = squares[to] != Position.EMPTY;
+        if (capture) {
+            capture(to);
+            h ^= Position.pieceKey(squares[to], to);
+        } else if (type == PAWN && to == enPassantSquare && PackedMove.col(from) != PackedMove.col(to)) {
+            int capturedSquare = PackedMove.square(PackedMove.row(from), PackedMove.col(to));
+            capture(capturedSquare);
+            h ^= Position.pieceKey(squares[capturedSquare], capturedSquare);
+            squares[capturedSquare] = Position.EMPTY;
+            capture = true;
+        }
+
+        squares[from] = Position.EMPTY;
+        int placed = moving;
+        int promotion = (move >>> 12) & 0x7;
+        if (type == PAWN && promotion != 0) {
+            placed = 1 + (promotion - 1) + side * 6;
+            material[side] += MATERIAL_VALUES[promotion - 1] - MATERIAL_VALUES[PAWN];
+        }
+        squares[to] = (byte) placed;
+        h ^= Position.pieceKey(placed, to);
+
+        if (type == KING && Math.abs(PackedMove.col(to) - PackedMove.col(from)) == 2) {
+            int rookFrom = PackedMove.col(to) > PackedMove.col(from) ? to + 1 : to - 2;
+            int rookTo = PackedMove.col(to) > PackedMove.col(from) ? to - 1 : to + 1;
+            int rook = squares[rookFrom];
+            squares[rookFrom] = Position.EMPTY;
+            squares[rookTo] = (byte) rook;
+            h ^= Position.pieceKey(rook, rookFrom) ^ Position.pieceKey(rook, rookTo);
+        }
+
+        castlingRights = Position.updateCastlingRights(castlingRights, moving, from, to);
+        enPassantSquare = (type == PAWN && Math.abs(to - from) == 16) ? (from + to) / 2 : -1;
+        halfMoveClock = (type == PAWN || capture) ? 0 : halfMoveClock + 1;
+        if (side == 1) fullMoveNumber++;
+        side ^= 1;
+        hash = h ^ Position.castlingKey(castlingRights) ^ Position.enPassantKey(enPassantSquare) ^ Position.blackToMoveKey();
+        ply++;
+        return true;
+    }
+
+    private void capture(int square) {
+        int captured = squares[square];
+        material[Position.colorIndex(captured)] -= MATERIAL_VALUES[Position.typeIndex(captured)];
+    }
+
+    /**
+     * Calls {@code visitor} with the cursor on the current position and after each remaining move. The visitor
+     * sees the cursor itself and must read what it needs before returning.
+     */
+    public void forEach(Consumer<? super ReplayCursor> visitor) {
+        visitor.accept(this);
+        while (next()) {
+            visitor.accept(this);
+        }
+    }
+
+    /**
+     * The current position followed by each position still to come, as a sequential stream of this cursor.
+     * Every element is the same, advancing object, so elements must not be collected or compared.
+     */
+    public Stream<ReplayCursor> stream() {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<>(moveCount - ply + 1, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean started = false;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super ReplayCursor> action) {
+                if (started && !next()) return false;
+                started = true;
+                action.accept(ReplayCursor.this);
+                return true;
+            }
+        }, false);
+    }
+
+    /**
+     * @return the hashes of the current position and each position still to come.
+     */
+    public LongStream hashes() {
+        return stream().mapToLong(ReplayCursor::getHash);
+    }
+
+    /**
+     * @return the number of moves played since {@link #reset}; 0 on the start position.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * @return the move that led to the current position, or {@link PackedMove#NONE} on the start position.
+     */
+    public int getLastMove() {
+        return ply == 0 ? PackedMove.NONE : moves[ply - 1];
+    }
+
+    /**
+     * @return the next move to be played, or {@link PackedMove#NONE} at the end.
+     */
+    public int peekMove() {
+        return ply < moveCount ? moves[ply] : PackedMove.NONE;
+    }
+
+    /**
+     * @return the Zobrist key of the current position, equal to {@link Position#getHash()} of the same position.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public PieceColor getSideToMove() {
+        return side == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+    }
+
+    public boolean isWhiteToMove() {
+        return side == 0;
+    }
+
+    /**
+     * @return the material of one side in pawns (pawn 1, knight and bishop 3, rook 5, queen 9).
+     */
+    public int getMaterial(PieceColor color) {
+        return material[color.ordinal()];
+    }
+
+    /**
+     * @return White's material minus Black's, in pawns.
+     */
+    public int getMaterialBalance() {
+        return material[0] - material[1];
+    }
+
+    /**
+     * @return the piece code on {@code square}, as in {@link Position#pieceAt(int)}.
+     */
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    byte[] squares() {
+        return squares;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public int getHalfMoveClock() {
+        return halfMoveClock;
+    }
+
+    public int getFullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    /**
+     * Copies the current position into an immutable {@link Position}, for the few plies a scan wants to keep.
+     */
+    public Position toPosition() {
+        return Position.create(squares.clone(), getSideToMove(), castlingRights, enPassantSquare, halfMoveClock, fullMoveNumber);
+    }
+}
@@ -3,11 +3,18 @@ package org.group13.chessgame.model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Rook extends Piece {
-    public Rook(PieceColor color) {
+public final class Rook extends Piece {
+    private static final Rook WHITE = new Rook(PieceColor.WHITE);
+    private static final Rook BLACK = new Rook(PieceColor.BLACK);
+
+    private Rook(PieceColor color) {
         super(color, PieceType.ROOK);
     }
 
+    public static Rook of(PieceColor color) {
+        return color == PieceColor.WHITE ? WHITE : BLACK;
+    }
+
     @Override
     public List<Move> getPseudoLegalMoves(Game game, int currentRow, int currentCol) {
         List<Move> moves = new ArrayList<>();
@@ -27,10 +34,10 @@ public class Rook extends Piece {
 
                 Square targetSquare = board.getSquare(nextRow, nextCol);
                 if (targetSquare.isEmpty()) {
-                    moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                    moves.add(new Move(startSquare, targetSquare, this));
                 } else {
                     if (targetSquare.getPiece().getColor() != this.color) {
-                        moves.add(new Move(startSquare, targetSquare, this, this.hasMoved));
+                        moves.add(new Move(startSquare, targetSquare, this));
                     }
                     break;
                 }
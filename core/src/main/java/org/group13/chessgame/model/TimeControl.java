@@ -0,0 +1,48 @@
+package org.group13.chessgame.model;
+
+/**
+ * Base time plus a per-move bonus. With {@link IncrementMode#FISCHER} the bonus is always added after a move;
+ * with {@link IncrementMode#BRONSTEIN} it is a delay, so a player gets back at most the time the move took.
+ * <p>
+ * Written like the PGN TimeControl tag, in seconds: {@code "300+3"} is Fischer, {@code "300d3"} Bronstein.
+ */
+public record TimeControl(long baseMillis, long incrementMillis, IncrementMode mode) {
+    public enum IncrementMode {FISCHER, BRONSTEIN}
+
+    public TimeControl {
+        if (baseMillis <= 0 || incrementMillis < 0) {
+            throw new IllegalArgumentException("Invalid time control: base " + baseMillis + " ms, increment " + incrementMillis + " ms");
+        }
+    }
+
+    public static TimeControl fischer(long baseSeconds, long incrementSeconds) {
+        return new TimeControl(baseSeconds * 1000, incrementSeconds * 1000, IncrementMode.FISCHER);
+    }
+
+    public static TimeControl bronstein(long baseSeconds, long delaySeconds) {
+        return new TimeControl(baseSeconds * 1000, delaySeconds * 1000, IncrementMode.BRONSTEIN);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not {@code base+increment} or {@code base'd'delay} in seconds.
+     */
+    public static TimeControl parse(String text) {
+        String trimmed = text.trim();
+        int separator = Math.max(trimmed.indexOf('+'), trimmed.indexOf('d'));
+        try {
+            if (separator < 0) {
+                return fischer(Long.parseLong(trimmed), 0);
+            }
+            long base = Long.parseLong(trimmed.substring(0, separator));
+            long increment = Long.parseLong(trimmed.substring(separator + 1));
+            return trimmed.charAt(separator) == 'd' ? bronstein(base, increment) : fischer(base, increment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time control '" + text + "', expected e.g. 300+3 or 300d3", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (baseMillis / 1000) + (mode == IncrementMode.BRONSTEIN ? "d" : "+") + (incrementMillis / 1000);
+    }
+}
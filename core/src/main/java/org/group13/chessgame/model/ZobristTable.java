@@ -1,13 +1,14 @@
 package org.group13.chessgame.model;
 
-import java.security.SecureRandom;
 import java.util.Random;
 
 public class ZobristTable {
     private static final int NUM_PIECE_TYPES = PieceType.values().length;   // 6
     private static final int NUM_COLORS = PieceColor.values().length;       // 2
     private static final int BOARD_SIZE = Board.SIZE;                       // 8
-    private static final Random random = new SecureRandom();
+    // fixed seed: hashes are compared across processes (LAN checksums, persisted indexes), so every JVM needs the same keys
+    private static final long SEED = 0x13C4E55L;
+    private static final ZobristTable SHARED = new ZobristTable();
     // pieceKeys[pieceType][color][row][col]
     private final long[][][][] pieceKeys;
     private final long blackToMoveKey;
@@ -15,8 +16,10 @@ public class ZobristTable {
     private final long[] castlingRightsKeys; // Index 0: WK, 1: WQ, 2: BK, 3: BQ
     // enPassantFileKeys[0_to_7]
     private final long[] enPassantFileKeys;
+    private final long fingerprint;
 
     public ZobristTable() {
+        Random random = new Random(SEED);
         pieceKeys = new long[NUM_PIECE_TYPES][NUM_COLORS][BOARD_SIZE][BOARD_SIZE];
         for (int pt = 0; pt < NUM_PIECE_TYPES; pt++) {
             for (int c = 0; c < NUM_COLORS; c++) {
@@ -39,6 +42,15 @@ public class ZobristTable {
         for (int i = 0; i < BOARD_SIZE; i++) {
             enPassantFileKeys[i] = random.nextLong();
         }
+
+        fingerprint = computeFingerprint();
+    }
+
+    /**
+     * The key set used by {@link Game} and {@link Position}, so hashes from both are comparable.
+     */
+    public static ZobristTable shared() {
+        return SHARED;
     }
 
     public long getPieceKey(PieceType type, PieceColor color, int row, int col) {
@@ -56,4 +68,33 @@ public class ZobristTable {
     public long getEnPassantFileKey(int file) { // 0-7
         return enPassantFileKeys[file];
     }
-}
\ No newline at end of file
+
+    /**
+     * A digest of every key, stored by files that persist hashes (position indexes, opening tables) so a file
+     * written with a different key set is rejected instead of returning wrong matches.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    private long computeFingerprint() {
+        long digest = 0x9E3779B97F4A7C15L;
+        for (long[][][] byColor : pieceKeys) {
+            for (long[][] byRow : byColor) {
+                for (long[] byCol : byRow) {
+                    for (long key : byCol) {
+                        digest = Long.rotateLeft(digest ^ key, 27) * 0x94D049BB133111EBL;
+                    }
+                }
+            }
+        }
+        digest = Long.rotateLeft(digest ^ blackToMoveKey, 27) * 0x94D049BB133111EBL;
+        for (long key : castlingRightsKeys) {
+            digest = Long.rotateLeft(digest ^ key, 27) * 0x94D049BB133111EBL;
+        }
+        for (long key : enPassantFileKeys) {
+            digest = Long.rotateLeft(digest ^ key, 27) * 0x94D049BB133111EBL;
+        }
+        return digest;
+    }
+}
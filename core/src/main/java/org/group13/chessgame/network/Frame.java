@@ -0,0 +1,22 @@
+package org.group13.chessgame.network;
+
+/**
+ * One protocol message: its type, the sender's sequence number and the raw payload, which must fit the u16
+ * length field of the header.
+ */
+public record Frame(MessageType type, int sequence, byte[] payload) {
+    public Frame {
+        if (payload.length > FrameCodec.MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Payload of " + payload.length + " bytes does not fit in one frame");
+        }
+    }
+
+    public int payloadSize() {
+        return payload.length;
+    }
+
+    @Override
+    public String toString() {
+        return type + "#" + sequence + " (" + payload.length + " bytes)";
+    }
+}
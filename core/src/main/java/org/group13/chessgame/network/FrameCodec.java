@@ -0,0 +1,324 @@
+package org.group13.chessgame.network;
+
+import org.group13.chessgame.model.Game;
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.PieceType;
+import org.group13.chessgame.model.TimeControl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary wire format of the LAN protocol, shared by the host/join handshake and the in-game listener.
+ * <p>
+ * Every frame is an 8-byte header followed by the payload:
+ * <pre>
+ *   version   u8    {@link #VERSION}
+ *   type      u8    {@link MessageType#getCode()}
+ *   sequence  i32   per-sender counter starting at 0
+ *   length    u16   payload size in bytes
+ * </pre>
+ * A MOVE payload is {@code from, to, promotion} (one byte each, squares as in {@link PackedMove}, promotion
+ * {@code PieceType.ordinal() + 1} or 0) followed by the Zobrist hash of the position after the move, which
+ * the receiver compares with its own to detect a desync. CHAT and ERROR carry UTF-8 text, COLOR_ASSIGNMENT a
+ * single {@code PieceColor.ordinal()} byte and SPECTATE an i32 room id. A SNAPSHOT is the position hash (i64),
+ * the {@code GameState.ordinal()} (u8) and a u16 move count followed by the moves in the 3-byte MOVE encoding.
+ * RESUME carries the last sequence received from the peer (i32, -1 for none), the position hash (i64) and
+ * the number of plies played (i32). PING and PONG carry the pinger's {@code System.nanoTime()} (i64) followed by
+ * the sender's White and Black clock readings in milliseconds (i64 each, -1 without a clock) and the last
+ * sequence the sender received from the peer (i32, -1 for none), and TIME_CONTROL
+ * the base and increment in milliseconds (i64 each) and the {@code IncrementMode.ordinal()} (u8).
+ * The other types have no payload.
+ * <p>
+ * Big-endian throughout, so {@link ByteBuffer} (for non-blocking channels) and {@link DataOutputStream}
+ * produce the same bytes.
+ */
+public final class FrameCodec {
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int MAX_PAYLOAD_SIZE = 0xFFFF;
+    public static final int MOVE_PAYLOAD_SIZE = 3 + Long.BYTES;
+    public static final int RESUME_PAYLOAD_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    public static final int HEARTBEAT_PAYLOAD_SIZE = 3 * Long.BYTES + Integer.BYTES;
+    public static final int TIME_CONTROL_PAYLOAD_SIZE = 2 * Long.BYTES + 1;
+    private static final int SNAPSHOT_HEADER_SIZE = Long.BYTES + 1 + Short.BYTES;
+
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+    private FrameCodec() {
+    }
+
+    public static int encodedSize(Frame frame) {
+        return HEADER_SIZE + frame.payloadSize();
+    }
+
+    public static void encode(Frame frame, ByteBuffer out) {
+        out.put((byte) VERSION);
+        out.put((byte) frame.type().getCode());
+        out.putInt(frame.sequence());
+        out.putShort((short) frame.payloadSize());
+        out.put(frame.payload());
+    }
+
+    /**
+     * @return a new buffer holding the encoded frame, ready to be read.
+     */
+    public static ByteBuffer encode(Frame frame) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(frame));
+        encode(frame, buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes one frame from {@code in} (in read mode). If the buffer does not hold a complete frame yet,
+     * nothing is consumed and null is returned, so callers can keep appending bytes and retry.
+     */
+    public static Frame decode(ByteBuffer in) throws NetworkProtocolException {
+        if (in.remaining() < HEADER_SIZE) return null;
+        int start = in.position();
+        int payloadSize = Short.toUnsignedInt(in.getShort(start + 6));
+        if (in.remaining() < HEADER_SIZE + payloadSize) return null;
+
+        int version = Byte.toUnsignedInt(in.get());
+        MessageType type = checkHeader(version, Byte.toUnsignedInt(in.get()));
+        int sequence = in.getInt();
+        in.getShort();
+        byte[] payload = payloadSize == 0 ? EMPTY_PAYLOAD : new byte[payloadSize];
+        in.get(payload);
+        return new Frame(type, sequence, payload);
+    }
+
+    public static void write(DataOutputStream out, Frame frame) throws IOException {
+        out.writeByte(VERSION);
+        out.writeByte(frame.type().getCode());
+        out.writeInt(frame.sequence());
+        out.writeShort(frame.payloadSize());
+        out.write(frame.payload());
+    }
+
+    /**
+     * Blocks until a whole frame has been read.
+     */
+    public static Frame read(DataInputStream in) throws IOException {
+        int version = in.readUnsignedByte();
+        MessageType type = checkHeader(version, in.readUnsignedByte());
+        int sequence = in.readInt();
+        int payloadSize = in.readUnsignedShort();
+        byte[] payload = payloadSize == 0 ? EMPTY_PAYLOAD : new byte[payloadSize];
+        in.readFully(payload);
+        return new Frame(type, sequence, payload);
+    }
+
+    private static MessageType checkHeader(int version, int typeCode) throws NetworkProtocolException {
+        if (version != VERSION) {
+            throw new NetworkProtocolException("Unsupported protocol version " + version + " (expected " + VERSION + ")");
+        }
+        MessageType type = MessageType.fromCode(typeCode);
+        if (type == null) {
+            throw new NetworkProtocolException("Unknown message type " + typeCode);
+        }
+        return type;
+    }
+
+    public static byte[] emptyPayload() {
+        return EMPTY_PAYLOAD;
+    }
+
+    public static byte[] movePayload(int packedMove, long positionHashAfterMove) {
+        PieceType promotion = PackedMove.promotion(packedMove);
+        ByteBuffer buffer = ByteBuffer.allocate(MOVE_PAYLOAD_SIZE);
+        buffer.put((byte) PackedMove.from(packedMove));
+        buffer.put((byte) PackedMove.to(packedMove));
+        buffer.put((byte) (promotion == null ? 0 : promotion.ordinal() + 1));
+        buffer.putLong(positionHashAfterMove);
+        return buffer.array();
+    }
+
+    /**
+     * @return the move as a {@link PackedMove} holding only from, to and promotion (no flags).
+     */
+    public static int readMove(Frame frame) throws NetworkProtocolException {
+        byte[] payload = requirePayload(frame, MessageType.MOVE, MOVE_PAYLOAD_SIZE);
+        int from = Byte.toUnsignedInt(payload[0]);
+        int to = Byte.toUnsignedInt(payload[1]);
+        int promotion = Byte.toUnsignedInt(payload[2]);
+        if (from >= 64 || to >= 64 || promotion > PieceType.values().length) {
+            throw new NetworkProtocolException("Malformed move payload in " + frame);
+        }
+        return PackedMove.of(from, to, promotion == 0 ? null : PieceType.values()[promotion - 1]);
+    }
+
+    public static long readPositionHash(Frame frame) throws NetworkProtocolException {
+        byte[] payload = requirePayload(frame, MessageType.MOVE, MOVE_PAYLOAD_SIZE);
+        return ByteBuffer.wrap(payload, 3, Long.BYTES).getLong();
+    }
+
+    public static byte[] snapshotPayload(int[] packedMoves, int moveCount, long positionHash, Game.GameState state) throws NetworkProtocolException {
+        int size = SNAPSHOT_HEADER_SIZE + moveCount * 3;
+        if (size > MAX_PAYLOAD_SIZE) {
+            throw new NetworkProtocolException("Move log of " + moveCount + " plies does not fit in one frame");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(positionHash);
+        buffer.put((byte) state.ordinal());
+        buffer.putShort((short) moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            PieceType promotion = PackedMove.promotion(packedMoves[i]);
+            buffer.put((byte) PackedMove.from(packedMoves[i]));
+            buffer.put((byte) PackedMove.to(packedMoves[i]));
+            buffer.put((byte) (promotion == null ? 0 : promotion.ordinal() + 1));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @return the logged moves in play order, each as a {@link PackedMove} without flags.
+     */
+    public static int[] readSnapshotMoves(Frame frame) throws NetworkProtocolException {
+        ByteBuffer buffer = snapshotBuffer(frame);
+        int moveCount = Short.toUnsignedInt(buffer.getShort(Long.BYTES + 1));
+        if (frame.payloadSize() != SNAPSHOT_HEADER_SIZE + moveCount * 3) {
+            throw new NetworkProtocolException("Malformed snapshot payload in " + frame);
+        }
+        int[] moves = new int[moveCount];
+        byte[] payload = frame.payload();
+        for (int i = 0; i < moveCount; i++) {
+            int offset = SNAPSHOT_HEADER_SIZE + i * 3;
+            int from = Byte.toUnsignedInt(payload[offset]);
+            int to = Byte.toUnsignedInt(payload[offset + 1]);
+            int promotion = Byte.toUnsignedInt(payload[offset + 2]);
+            if (from >= 64 || to >= 64 || promotion > PieceType.values().length) {
+                throw new NetworkProtocolException("Malformed move #" + i + " in " + frame);
+            }
+            moves[i] = PackedMove.of(from, to, promotion == 0 ? null : PieceType.values()[promotion - 1]);
+        }
+        return moves;
+    }
+
+    public static long readSnapshotHash(Frame frame) throws NetworkProtocolException {
+        return snapshotBuffer(frame).getLong(0);
+    }
+
+    public static Game.GameState readSnapshotState(Frame frame) throws NetworkProtocolException {
+        int ordinal = Byte.toUnsignedInt(snapshotBuffer(frame).get(Long.BYTES));
+        if (ordinal >= Game.GameState.values().length) {
+            throw new NetworkProtocolException("Malformed game state in " + frame);
+        }
+        return Game.GameState.values()[ordinal];
+    }
+
+    private static ByteBuffer snapshotBuffer(Frame frame) throws NetworkProtocolException {
+        if (frame.type() != MessageType.SNAPSHOT || frame.payloadSize() < SNAPSHOT_HEADER_SIZE) {
+            throw new NetworkProtocolException("Expected a SNAPSHOT payload, got " + frame);
+        }
+        return ByteBuffer.wrap(frame.payload());
+    }
+
+    public static byte[] spectatePayload(int roomId) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(roomId).array();
+    }
+
+    public static int readRoomId(Frame frame) throws NetworkProtocolException {
+        return ByteBuffer.wrap(requirePayload(frame, MessageType.SPECTATE, Integer.BYTES)).getInt();
+    }
+
+    public static byte[] resumePayload(int lastReceivedSequence, long positionHash, int plyCount) {
+        return ByteBuffer.allocate(RESUME_PAYLOAD_SIZE).putInt(lastReceivedSequence).putLong(positionHash).putInt(plyCount).array();
+    }
+
+    public static int readResumeAcknowledged(Frame frame) throws NetworkProtocolException {
+        return ByteBuffer.wrap(requirePayload(frame, MessageType.RESUME, RESUME_PAYLOAD_SIZE)).getInt(0);
+    }
+
+    public static long readResumeHash(Frame frame) throws NetworkProtocolException {
+        return ByteBuffer.wrap(requirePayload(frame, MessageType.RESUME, RESUME_PAYLOAD_SIZE)).getLong(Integer.BYTES);
+    }
+
+    public static int readResumePlyCount(Frame frame) throws NetworkProtocolException {
+        return ByteBuffer.wrap(requirePayload(frame, MessageType.RESUME, RESUME_PAYLOAD_SIZE)).getInt(Integer.BYTES + Long.BYTES);
+    }
+
+    public static byte[] heartbeatPayload(long timestampNanos, long whiteClockMillis, long blackClockMillis, int lastReceivedSequence) {
+        return ByteBuffer.allocate(HEARTBEAT_PAYLOAD_SIZE).putLong(timestampNanos).putLong(whiteClockMillis).putLong(blackClockMillis).putInt(lastReceivedSequence).array();
+    }
+
+    public static long readHeartbeatTimestamp(Frame frame) throws NetworkProtocolException {
+        return heartbeatBuffer(frame).getLong(0);
+    }
+
+    /**
+     * @return the sender's reading of {@code color}'s clock in milliseconds, or -1 if it has no clock.
+     */
+    public static long readHeartbeatClock(Frame frame, PieceColor color) throws NetworkProtocolException {
+        return heartbeatBuffer(frame).getLong(Long.BYTES * (1 + color.ordinal()));
+    }
+
+    /**
+     * @return the last sequence the sender had received when it sent the heartbeat, or -1 for none.
+     */
+    public static int readHeartbeatAcknowledged(Frame frame) throws NetworkProtocolException {
+        return heartbeatBuffer(frame).getInt(3 * Long.BYTES);
+    }
+
+    private static ByteBuffer heartbeatBuffer(Frame frame) throws NetworkProtocolException {
+        if ((frame.type() != MessageType.PING && frame.type() != MessageType.PONG) || frame.payloadSize() != HEARTBEAT_PAYLOAD_SIZE) {
+            throw new NetworkProtocolException("Expected a " + HEARTBEAT_PAYLOAD_SIZE + "-byte PING or PONG payload, got " + frame);
+        }
+        return ByteBuffer.wrap(frame.payload());
+    }
+
+    public static byte[] timeControlPayload(TimeControl timeControl) {
+        return ByteBuffer.allocate(TIME_CONTROL_PAYLOAD_SIZE).putLong(timeControl.baseMillis()).putLong(timeControl.incrementMillis()).put((byte) timeControl.mode().ordinal()).array();
+    }
+
+    public static TimeControl readTimeControl(Frame frame) throws NetworkProtocolException {
+        ByteBuffer buffer = ByteBuffer.wrap(requirePayload(frame, MessageType.TIME_CONTROL, TIME_CONTROL_PAYLOAD_SIZE));
+        long base = buffer.getLong();
+        long increment = buffer.getLong();
+        int mode = Byte.toUnsignedInt(buffer.get());
+        if (mode >= TimeControl.IncrementMode.values().length) {
+            throw new NetworkProtocolException("Malformed time control payload in " + frame);
+        }
+        try {
+            return new TimeControl(base, increment, TimeControl.IncrementMode.values()[mode]);
+        } catch (IllegalArgumentException e) {
+            throw new NetworkProtocolException(e.getMessage());
+        }
+    }
+
+    public static byte[] textPayload(String text) throws NetworkProtocolException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        if (payload.length > MAX_PAYLOAD_SIZE) {
+            throw new NetworkProtocolException("Text of " + payload.length + " bytes does not fit in one frame");
+        }
+        return payload;
+    }
+
+    public static String readText(Frame frame) {
+        return new String(frame.payload(), StandardCharsets.UTF_8);
+    }
+
+    public static byte[] colorPayload(PieceColor color) {
+        return new byte[]{(byte) color.ordinal()};
+    }
+
+    public static PieceColor readColor(Frame frame) throws NetworkProtocolException {
+        byte[] payload = requirePayload(frame, MessageType.COLOR_ASSIGNMENT, 1);
+        int ordinal = Byte.toUnsignedInt(payload[0]);
+        if (ordinal >= PieceColor.values().length) {
+            throw new NetworkProtocolException("Malformed color payload in " + frame);
+        }
+        return PieceColor.values()[ordinal];
+    }
+
+    private static byte[] requirePayload(Frame frame, MessageType type, int size) throws NetworkProtocolException {
+        if (frame.type() != type || frame.payloadSize() != size) {
+            throw new NetworkProtocolException("Expected a " + size + "-byte " + type + " payload, got " + frame);
+        }
+        return frame.payload();
+    }
+}
@@ -0,0 +1,51 @@
+package org.group13.chessgame.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only record of the frames one side has sent, kept so that a reconnected peer can be sent exactly the
+ * frames it never received. Frames are appended in sequence order; the prefix the peer has acknowledged can be
+ * discarded, nothing else is ever removed or rewritten.
+ */
+public class FrameJournal {
+    private final List<Frame> frames = new ArrayList<>();
+    // sequence number of frames.get(0)
+    private int firstSequence = 0;
+
+    public synchronized void append(Frame frame) {
+        int expected = firstSequence + frames.size();
+        if (frame.sequence() != expected) {
+            throw new IllegalArgumentException("Journal expected frame #" + expected + " but got " + frame);
+        }
+        frames.add(frame);
+    }
+
+    /**
+     * @return the frames after {@code acknowledgedSequence}, oldest first.
+     * @throws NetworkProtocolException if some of them were already discarded.
+     */
+    public synchronized List<Frame> framesAfter(int acknowledgedSequence) throws NetworkProtocolException {
+        int start = acknowledgedSequence + 1 - firstSequence;
+        if (start < 0) {
+            throw new NetworkProtocolException("Frames after #" + acknowledgedSequence + " are no longer journaled (oldest is #" + firstSequence + ")");
+        }
+        if (start >= frames.size()) return Collections.emptyList();
+        return new ArrayList<>(frames.subList(start, frames.size()));
+    }
+
+    /**
+     * Drops every frame up to and including {@code acknowledgedSequence}, which the peer has confirmed.
+     */
+    public synchronized void discardThrough(int acknowledgedSequence) {
+        int count = Math.min(acknowledgedSequence + 1 - firstSequence, frames.size());
+        if (count <= 0) return;
+        frames.subList(0, count).clear();
+        firstSequence += count;
+    }
+
+    public synchronized int size() {
+        return frames.size();
+    }
+}
@@ -0,0 +1,346 @@
+package org.group13.chessgame.network;
+
+import org.group13.chessgame.model.GameClock;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.TimeControl;
+
+import java.io.*;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One side of a LAN game: frames go out with consecutive sequence numbers, and incoming frames are checked
+ * against the sequence expected from the peer. A repeated frame is dropped; a gap or a frame from the
+ * past that was never seen means the streams are out of step and is reported as a protocol error.
+ * The exception is a SNAPSHOT: a watcher joins the game server's broadcast midway, so the snapshot's sequence
+ * becomes the starting point for the frames after it.
+ * <p>
+ * Every frame sent is also appended to a {@link FrameJournal}. When the socket drops, {@link #resume} opens a
+ * replacement through the {@link Reconnector}; both sides exchange a RESUME frame with the last sequence they
+ * received and their position hash, then each replays only the journaled frames the other is missing. Frames
+ * sent while disconnected just go to the journal and are delivered by the next resume.
+ * <p>
+ * {@link #startHeartbeat} sends a PING at a fixed interval. PINGs and PONGs bypass the sequence and the journal;
+ * each PONG adds a round-trip sample to the {@link NetworkMetrics}. Every PING and PONG also carries the last
+ * sequence its sender received, and the journal drops the frames acknowledged this way, so between resumes it
+ * only holds the few frames still in flight. A peer that stays silent for
+ * {@link #HEARTBEAT_TIMEOUT_INTERVALS} intervals while connected has its socket closed so the listener can resume.
+ * <p>
+ * Sending is synchronized because moves and replies are written from the UI thread while the listener
+ * thread may answer draw offers or resume the connection.
+ */
+public class GameConnection implements Closeable {
+    public static final Duration DEFAULT_HEARTBEAT_INTERVAL = Duration.ofSeconds(2);
+    public static final int HEARTBEAT_TIMEOUT_INTERVALS = 5;
+    private static final int RESUME_HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+
+    private final FrameJournal journal = new FrameJournal();
+    private final NetworkMetrics metrics = new NetworkMetrics();
+    private volatile GameClock clock;
+    private volatile long lastHeardNanos = System.nanoTime();
+    private ScheduledExecutorService heartbeat;
+    private volatile Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+    private Reconnector reconnector;
+    private int nextSendSequence = 0;
+    // read by the heartbeat thread to acknowledge received frames
+    private volatile int expectedReceiveSequence = 0;
+    private volatile boolean connected = true;
+
+    public GameConnection(Socket socket) throws IOException {
+        this(socket, socket.getInputStream(), socket.getOutputStream());
+    }
+
+    public GameConnection(InputStream in, OutputStream out) {
+        this(null, in, out);
+    }
+
+    private GameConnection(Socket socket, InputStream in, OutputStream out) {
+        attach(socket, in, out);
+    }
+
+    private void attach(Socket socket, InputStream in, OutputStream out) {
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    /**
+     * Enables {@link #resume(long, int)}; without a reconnector a dropped socket ends the game as before.
+     */
+    public void setReconnector(Reconnector reconnector) {
+        this.reconnector = reconnector;
+    }
+
+    public boolean canResume() {
+        return reconnector != null;
+    }
+
+    public synchronized void send(MessageType type, byte[] payload) throws IOException {
+        // an oversized payload throws here, before it can use up a sequence number
+        Frame frame = new Frame(type, nextSendSequence, payload);
+        nextSendSequence++;
+        journal.append(frame);
+        if (!connected) return;
+        try {
+            FrameCodec.write(out, frame);
+            out.flush();
+        } catch (IOException e) {
+            if (reconnector == null) throw e;
+            connected = false;
+            System.err.println("Sending " + frame + " failed, it will be replayed after reconnecting: " + e.getMessage());
+        }
+    }
+
+    public void sendSignal(MessageType type) throws IOException {
+        send(type, FrameCodec.emptyPayload());
+    }
+
+    public void sendMove(int packedMove, long positionHashAfterMove) throws IOException {
+        send(MessageType.MOVE, FrameCodec.movePayload(packedMove, positionHashAfterMove));
+    }
+
+    public void sendChat(String message) throws IOException {
+        send(MessageType.CHAT, FrameCodec.textPayload(message));
+    }
+
+    public void sendColorAssignment(PieceColor color) throws IOException {
+        send(MessageType.COLOR_ASSIGNMENT, FrameCodec.colorPayload(color));
+    }
+
+    public void sendTimeControl(TimeControl timeControl) throws IOException {
+        send(MessageType.TIME_CONTROL, FrameCodec.timeControlPayload(timeControl));
+    }
+
+    // heartbeat frames are best effort: a failure only marks the link down for the listener to notice
+    private synchronized void sendUnsequenced(MessageType type, byte[] payload) {
+        if (!connected) return;
+        try {
+            FrameCodec.write(out, new Frame(type, nextSendSequence, payload));
+            out.flush();
+        } catch (IOException e) {
+            connected = false;
+            System.err.println("Sending " + type + " failed: " + e.getMessage());
+        }
+    }
+
+    private byte[] heartbeatPayload(long timestampNanos) {
+        GameClock currentClock = clock;
+        if (currentClock == null) {
+            return FrameCodec.heartbeatPayload(timestampNanos, -1, -1, expectedReceiveSequence - 1);
+        }
+        return FrameCodec.heartbeatPayload(timestampNanos, currentClock.getRemainingMillis(PieceColor.WHITE), currentClock.getRemainingMillis(PieceColor.BLACK), expectedReceiveSequence - 1);
+    }
+
+    /**
+     * Starts pinging the peer every {@code interval} on a daemon thread; stopped by {@link #close()}.
+     */
+    public synchronized void startHeartbeat(Duration interval) {
+        if (heartbeat != null) return;
+        lastHeardNanos = System.nanoTime();
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lan-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = interval.toNanos();
+        heartbeat.scheduleAtFixedRate(() -> beat(intervalNanos), 0, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void beat(long intervalNanos) {
+        long now = System.nanoTime();
+        Socket currentSocket = socket;
+        // while a resume is under way the silence is expected, and the socket may already be the replacement
+        if (!connected) return;
+        if (currentSocket != null && now - lastHeardNanos > HEARTBEAT_TIMEOUT_INTERVALS * intervalNanos) {
+            System.err.println("No reply from peer for " + TimeUnit.NANOSECONDS.toSeconds(now - lastHeardNanos) + "s, dropping the connection");
+            lastHeardNanos = now;
+            closeQuietly(currentSocket);
+            return;
+        }
+        sendUnsequenced(MessageType.PING, heartbeatPayload(now));
+    }
+
+    private void onPong(Frame pong) throws NetworkProtocolException {
+        long now = System.nanoTime();
+        long roundTripNanos = now - FrameCodec.readHeartbeatTimestamp(pong);
+        metrics.recordRoundTrip(roundTripNanos, now);
+
+        GameClock currentClock = clock;
+        if (currentClock == null) return;
+        PieceColor running = currentClock.getRunningColor();
+        long drift = 0;
+        for (PieceColor color : PieceColor.values()) {
+            long theirs = FrameCodec.readHeartbeatClock(pong, color);
+            if (theirs < 0) return;
+            // the peer read its clocks about half a round trip ago; the running one has ticked down since
+            if (color == running) theirs -= roundTripNanos / 2 / 1_000_000L;
+            long difference = currentClock.getRemainingMillis(color) - theirs;
+            if (Math.abs(difference) > Math.abs(drift)) drift = difference;
+        }
+        metrics.recordClockDrift(drift);
+    }
+
+    /**
+     * @param clock clock whose readings are exchanged in heartbeats to measure drift, or null.
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
+    public NetworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the number of frames sent that the peer has not acknowledged yet, which a resume would replay.
+     */
+    public int getUnacknowledgedCount() {
+        return journal.size();
+    }
+
+    /**
+     * Asks a game server to watch a room instead of being paired; 0 picks the most recently started game.
+     */
+    public void sendSpectate(int roomId) throws IOException {
+        send(MessageType.SPECTATE, FrameCodec.spectatePayload(roomId));
+    }
+
+    /**
+     * Blocks until the next in-sequence frame arrives. Duplicates of already delivered frames are skipped.
+     *
+     * @throws NetworkProtocolException if a frame arrives ahead of the expected sequence.
+     * @throws EOFException             if the peer closed the connection.
+     */
+    public Frame receive() throws IOException {
+        while (true) {
+            Frame frame = FrameCodec.read(in);
+            lastHeardNanos = System.nanoTime();
+            if (frame.type() == MessageType.PING || frame.type() == MessageType.PONG) {
+                journal.discardThrough(FrameCodec.readHeartbeatAcknowledged(frame));
+            }
+            if (frame.type() == MessageType.PING) {
+                sendUnsequenced(MessageType.PONG, heartbeatPayload(FrameCodec.readHeartbeatTimestamp(frame)));
+                continue;
+            }
+            if (frame.type() == MessageType.PONG) {
+                onPong(frame);
+                continue;
+            }
+            if (frame.type() == MessageType.SNAPSHOT) {
+                expectedReceiveSequence = frame.sequence() + 1;
+                return frame;
+            }
+            if (frame.sequence() < expectedReceiveSequence) {
+                System.err.println("Dropping duplicate frame " + frame + ", expected #" + expectedReceiveSequence);
+                continue;
+            }
+            if (frame.sequence() > expectedReceiveSequence) {
+                throw new NetworkProtocolException("Frame out of order: expected #" + expectedReceiveSequence + " but got " + frame);
+            }
+            expectedReceiveSequence++;
+            return frame;
+        }
+    }
+
+    /**
+     * Reconnects through the {@link Reconnector} and resynchronizes with the peer. Call it from the thread that
+     * receives, after {@link #receive()} failed; the game must not change until it returns.
+     *
+     * @param positionHash Zobrist hash of the current position.
+     * @param plyCount     number of plies played, so positions are only compared when both sides are level.
+     * @return the number of journaled frames replayed to the peer.
+     */
+    public int resume(long positionHash, int plyCount) throws IOException {
+        if (reconnector == null) {
+            throw new IOException("This connection cannot be resumed");
+        }
+        synchronized (this) {
+            connected = false;
+        }
+        closeQuietly(socket);
+        return resume(reconnector.reconnect(), positionHash, plyCount);
+    }
+
+    /**
+     * Resynchronizes over {@code replacement}, which must already be connected to the same peer. The wait for the
+     * peer's RESUME happens outside the lock, so frames sent meanwhile are journaled without blocking the sender
+     * and replayed with the rest.
+     *
+     * @throws NetworkProtocolException if the peer is at the same ply with a different position, or
+     *                                  acknowledges frames that were never sent.
+     */
+    public int resume(Socket replacement, long positionHash, int plyCount) throws IOException {
+        int previousTimeout = replacement.getSoTimeout();
+        replacement.setSoTimeout(RESUME_HANDSHAKE_TIMEOUT_MILLIS);
+        DataInputStream handshakeIn;
+        synchronized (this) {
+            connected = false;
+            lastHeardNanos = System.nanoTime();
+            attach(replacement, replacement.getInputStream(), replacement.getOutputStream());
+            FrameCodec.write(out, new Frame(MessageType.RESUME, nextSendSequence, FrameCodec.resumePayload(expectedReceiveSequence - 1, positionHash, plyCount)));
+            out.flush();
+            handshakeIn = in;
+        }
+
+        Frame peer = FrameCodec.read(handshakeIn);
+        if (peer.type() != MessageType.RESUME) {
+            throw new NetworkProtocolException("Expected RESUME from the reconnected peer, got " + peer);
+        }
+        if (FrameCodec.readResumePlyCount(peer) == plyCount && FrameCodec.readResumeHash(peer) != positionHash) {
+            throw new NetworkProtocolException("Positions differ after " + plyCount + " plies; the game cannot be resumed");
+        }
+
+        synchronized (this) {
+            int peerAcknowledged = FrameCodec.readResumeAcknowledged(peer);
+            if (peerAcknowledged >= nextSendSequence) {
+                throw new NetworkProtocolException("Peer acknowledges #" + peerAcknowledged + " but only " + nextSendSequence + " frames were sent");
+            }
+            journal.discardThrough(peerAcknowledged);
+            List<Frame> missing = journal.framesAfter(peerAcknowledged);
+            for (Frame frame : missing) {
+                FrameCodec.write(out, frame);
+            }
+            out.flush();
+            replacement.setSoTimeout(previousTimeout);
+            lastHeardNanos = System.nanoTime();
+            connected = true;
+            return missing.size();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing dropped socket: " + e.getMessage());
+        }
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public boolean isClosed() {
+        return socket != null && socket.isClosed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reconnector = null;
+        synchronized (this) {
+            if (heartbeat != null) heartbeat.shutdownNow();
+        }
+        try {
+            in.close();
+            out.close();
+        } finally {
+            if (socket != null) socket.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.group13.chessgame.network;
+
+/**
+ * Frame types of the LAN protocol. The codes are part of the wire format, so existing values must not change.
+ */
+public enum MessageType {
+    MOVE(0),
+    SURRENDER_WHITE(1),
+    SURRENDER_BLACK(2),
+    CHAT(3),
+    OFFER_DRAW(4),
+    ACCEPT_DRAW(5),
+    COLOR_ASSIGNMENT(6),
+    // UTF-8 reason, sent by the game server when it rejects a frame
+    ERROR(7),
+    // sent by a watcher instead of waiting to be paired; payload is the room id, 0 for the newest room
+    SPECTATE(8),
+    // move log of the game so far, sent to a watcher before the live broadcast
+    SNAPSHOT(9),
+    // first frame on a replacement socket; outside the sequence and never journaled
+    RESUME(10),
+    // heartbeat, also outside the sequence: PING is answered at once with a PONG echoing its timestamp
+    PING(11),
+    PONG(12),
+    // sent by the host after COLOR_ASSIGNMENT when the game is timed
+    TIME_CONTROL(13);
+
+    private static final MessageType[] BY_CODE = new MessageType[256];
+
+    static {
+        for (MessageType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    MessageType(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the type for a wire code, or null if this version does not know it.
+     */
+    public static MessageType fromCode(int code) {
+        return (code >= 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,79 @@
+package org.group13.chessgame.network;
+
+/**
+ * Link statistics gathered from heartbeat round trips.
+ * <p>
+ * The smoothed RTT and its variation follow TCP's estimator (gains 1/8 and 1/4); jitter is the RFC 3550
+ * running average of the change between consecutive samples (gain 1/16). Clock drift is how far the two
+ * peers' views of the game clocks are apart, after allowing for the half round trip the reply spent in flight.
+ */
+public class NetworkMetrics {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private long lastRoundTripNanos = -1;
+    private long smoothedRoundTripNanos = -1;
+    private long minRoundTripNanos = Long.MAX_VALUE;
+    private long jitterNanos = 0;
+    private long clockDriftMillis = 0;
+    private long lastSampleAtNanos = 0;
+    private int sampleCount = 0;
+
+    synchronized void recordRoundTrip(long roundTripNanos, long nowNanos) {
+        if (roundTripNanos < 0) return;
+        if (lastRoundTripNanos >= 0) {
+            jitterNanos += (Math.abs(roundTripNanos - lastRoundTripNanos) - jitterNanos) / 16;
+        }
+        smoothedRoundTripNanos = (smoothedRoundTripNanos < 0) ? roundTripNanos : smoothedRoundTripNanos + (roundTripNanos - smoothedRoundTripNanos) / 8;
+        minRoundTripNanos = Math.min(minRoundTripNanos, roundTripNanos);
+        lastRoundTripNanos = roundTripNanos;
+        lastSampleAtNanos = nowNanos;
+        sampleCount++;
+    }
+
+    synchronized void recordClockDrift(long driftMillis) {
+        clockDriftMillis = driftMillis;
+    }
+
+    public synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    public synchronized double getRoundTripMillis() {
+        return lastRoundTripNanos < 0 ? 0 : (double) lastRoundTripNanos / NANOS_PER_MILLI;
+    }
+
+    public synchronized double getSmoothedRoundTripMillis() {
+        return smoothedRoundTripNanos < 0 ? 0 : (double) smoothedRoundTripNanos / NANOS_PER_MILLI;
+    }
+
+    public synchronized double getMinRoundTripMillis() {
+        return sampleCount == 0 ? 0 : (double) minRoundTripNanos / NANOS_PER_MILLI;
+    }
+
+    public synchronized double getJitterMillis() {
+        return (double) jitterNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return the signed difference between this side's and the peer's clock readings, largest of both colours.
+     */
+    public synchronized long getClockDriftMillis() {
+        return clockDriftMillis;
+    }
+
+    /**
+     * @return half the smoothed round trip: the estimate of how long a move took to arrive, 0 before any sample.
+     */
+    public synchronized long getOneWayDelayNanos() {
+        return smoothedRoundTripNanos < 0 ? 0 : smoothedRoundTripNanos / 2;
+    }
+
+    synchronized long getLastSampleAtNanos() {
+        return lastSampleAtNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RTT %.0f ms (avg %.0f, min %.0f), jitter %.1f ms, clock drift %d ms", getRoundTripMillis(), getSmoothedRoundTripMillis(), getMinRoundTripMillis(), getJitterMillis(), clockDriftMillis);
+    }
+}
@@ -0,0 +1,15 @@
+package org.group13.chessgame.network;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the peer sends something this protocol version cannot accept: an unknown version or type,
+ * a malformed payload, or a frame out of sequence.
+ */
+public class NetworkProtocolException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public NetworkProtocolException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,50 @@
+package org.group13.chessgame.network;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+/**
+ * Re-establishes the socket of a dropped LAN game: the host listens on its port again, the joining side dials
+ * the host until it answers. Either gives up after the timeout.
+ */
+@FunctionalInterface
+public interface Reconnector {
+    Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+    long DIAL_RETRY_MILLIS = 1000;
+
+    Socket reconnect() throws IOException;
+
+    static Reconnector listenAgain(int port, Duration timeout) {
+        return () -> {
+            try (ServerSocket serverSocket = new ServerSocket(port)) {
+                serverSocket.setSoTimeout((int) timeout.toMillis());
+                return serverSocket.accept();
+            }
+        };
+    }
+
+    static Reconnector dialAgain(String host, int port, Duration timeout) {
+        return () -> {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (true) {
+                try {
+                    return new Socket(host, port);
+                } catch (ConnectException e) {
+                    if (System.nanoTime() >= deadline) {
+                        throw new SocketTimeoutException("Host " + host + ":" + port + " did not come back within " + timeout.toSeconds() + "s");
+                    }
+                }
+                try {
+                    Thread.sleep(DIAL_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Reconnect interrupted", e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package org.group13.chessgame.pgn;
+
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.model.ZobristTable;
+import org.group13.chessgame.utils.NotationUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Names the opening of a game from an ECO table in the tab-separated {@code eco, name, pgn} format of the
+ * lichess chess-openings files.
+ * <p>
+ * The table's lines are held as a trie of moves: nodes are ints, {@code nodeOpenings[n]} is the line node
+ * {@code n} names, if any, and the edges live in an open-addressing table keyed by (node, move). Every node is
+ * also registered under the hash of its position, so a game that reaches a table position by another move
+ * order continues from that node.
+ * <p>
+ * Classification is incremental: the caller keeps a {@code long} state and passes it with each move to
+ * {@link #advance}, which costs two array probes at most. The state holds the current trie node (or none, once
+ * the game has left the table) and the deepest opening named so far, so it can be stored per ply for undo.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class EcoClassifier {
+    private static final String STANDARD_TABLE = "eco.tsv";
+    private static final int NO_NODE = -1;
+    private static final int NO_OPENING = -1;
+
+    private final int[] nodeOpenings;
+    private final EcoOpening[] openings;
+    private final LongIntTable children;
+    private final LongIntTable positions;
+    private final long startHash;
+
+    private EcoClassifier(int[] nodeOpenings, EcoOpening[] openings, LongIntTable children, LongIntTable positions) {
+        this.nodeOpenings = nodeOpenings;
+        this.openings = openings;
+        this.children = children;
+        this.positions = positions;
+        this.startHash = Position.startPosition().getHash();
+    }
+
+    /**
+     * @return the table bundled with the application, loaded on first use; empty if it cannot be read.
+     */
+    public static EcoClassifier standard() {
+        return StandardHolder.INSTANCE;
+    }
+
+    private static final class StandardHolder {
+        static final EcoClassifier INSTANCE = loadStandard();
+
+        private static EcoClassifier loadStandard() {
+            try (InputStream in = EcoClassifier.class.getResourceAsStream(STANDARD_TABLE)) {
+                if (in == null) throw new IOException("resource " + STANDARD_TABLE + " not found");
+                return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.err.println("Could not load the ECO table: " + e.getMessage());
+                return new Builder().build();
+            }
+        }
+    }
+
+    public static EcoClassifier load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Reads a table. A header line, blank lines and lines starting with {@code #} are skipped; lines whose moves
+     * cannot be played are reported on stderr and skipped. When two lines end on the same move sequence, the
+     * first one wins.
+     */
+    public static EcoClassifier load(Reader reader) throws IOException {
+        Builder builder = new Builder();
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("eco\t")) continue;
+            String[] fields = line.split("\t");
+            if (fields.length < 3) {
+                System.err.println("ECO table line " + lineNumber + " has fewer than three fields");
+                continue;
+            }
+            if (!builder.add(fields[0].trim(), fields[1].trim(), fields[2].trim())) {
+                System.err.println("ECO table line " + lineNumber + " has an unplayable move: " + fields[2]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of named lines in the table.
+     */
+    public int size() {
+        return openings.length;
+    }
+
+    /**
+     * @return the state for a game starting from the position with this hash.
+     */
+    public long start(long positionHash) {
+        int node = positionHash == startHash ? 0 : positions.get(positionHash);
+        return state(node, node == NO_NODE ? NO_OPENING : nodeOpenings[node]);
+    }
+
+    /**
+     * @param move     the move played, as a {@link PackedMove} with its flags.
+     * @param hashAfter the Zobrist key of the position after the move.
+     * @return the state after the move.
+     */
+    public long advance(long state, int move, long hashAfter) {
+        int node = (int) (state >> 32);
+        int opening = (int) state;
+        int next = node == NO_NODE ? NO_NODE : children.get(edgeKey(node, move));
+        if (next == NO_NODE) next = positions.get(positionKey(hashAfter, move));
+        if (next != NO_NODE && nodeOpenings[next] != NO_OPENING) opening = nodeOpenings[next];
+        return state(next, opening);
+    }
+
+    /**
+     * @return the deepest opening reached so far, or null if the game has not reached a named position.
+     */
+    public EcoOpening opening(long state) {
+        int opening = (int) state;
+        return opening == NO_OPENING ? null : openings[opening];
+    }
+
+    /**
+     * @return true while the game is still inside the table, so later moves can refine the opening.
+     */
+    public boolean inBook(long state) {
+        return (int) (state >> 32) != NO_NODE;
+    }
+
+    /**
+     * Classifies a whole line, for games that are not played move by move.
+     */
+    public EcoOpening classify(Position start, int[] moves) {
+        long state = start(start.getHash());
+        Position position = start;
+        for (int move : moves) {
+            position = position.makeMove(move);
+            state = advance(state, move, position.getHash());
+        }
+        return opening(state);
+    }
+
+    private static long state(int node, int opening) {
+        return ((long) node << 32) | (opening & 0xFFFFFFFFL);
+    }
+
+    private static long edgeKey(int node, int move) {
+        return ((long) node << 15) | (move & 0x7FFF);
+    }
+
+    /**
+     * The position hash includes the en-passant file after every double push, capture possible or not; it is
+     * removed here so that 1. Nf3 d5 2. d4 transposes into 1. d4 d5 2. Nf3.
+     */
+    private static long positionKey(long hash, int move) {
+        return PackedMove.isDoublePush(move) ? hash ^ ZobristTable.shared().getEnPassantFileKey(PackedMove.col(PackedMove.to(move))) : hash;
+    }
+
+    private static final class Builder {
+        private int[] nodeOpenings = new int[256];
+        private long[] nodeKeys = new long[256];
+        private int size = 1;
+        private final List<EcoOpening> openings = new ArrayList<>();
+        private final LongIntTable children = new LongIntTable();
+
+        Builder() {
+            nodeOpenings[0] = NO_OPENING;
+            nodeKeys[0] = Position.startPosition().getHash();
+        }
+
+        boolean add(String eco, String name, String pgn) {
+            Position position = Position.startPosition();
+            int node = 0;
+            for (String token : pgn.split("\\s+")) {
+                String san = token.replaceFirst("^\\d+\\.+", "");
+                if (san.isEmpty()) continue;
+                int move = NotationUtils.parseSan(position, san);
+                if (move == PackedMove.NONE) return false;
+                position = position.makeMove(move);
+                int child = children.get(edgeKey(node, move));
+                if (child == NO_NODE) {
+                    child = newNode(positionKey(position.getHash(), move));
+                    children.put(edgeKey(node, move), child);
+                }
+                node = child;
+            }
+            if (node != 0 && nodeOpenings[node] == NO_OPENING) {
+                nodeOpenings[node] = openings.size();
+                openings.add(new EcoOpening(eco, name));
+            }
+            return true;
+        }
+
+        private int newNode(long key) {
+            if (size == nodeOpenings.length) {
+                nodeOpenings = Arrays.copyOf(nodeOpenings, size * 2);
+                nodeKeys = Arrays.copyOf(nodeKeys, size * 2);
+            }
+            nodeOpenings[size] = NO_OPENING;
+            nodeKeys[size] = key;
+            return size++;
+        }
+
+        EcoClassifier build() {
+            // a position reached by several table lines maps to the shallowest named one
+            LongIntTable positions = new LongIntTable();
+            for (int node = 0; node < size; node++) {
+                long key = nodeKeys[node];
+                int existing = positions.get(key);
+                if (existing == NO_NODE || (nodeOpenings[existing] == NO_OPENING && nodeOpenings[node] != NO_OPENING)) {
+                    positions.put(key, node);
+                }
+            }
+            return new EcoClassifier(Arrays.copyOf(nodeOpenings, size), openings.toArray(new EcoOpening[0]), children, positions);
+        }
+    }
+
+    /**
+     * Open-addressing map from long keys to non-negative ints, with linear probing and no removal.
+     */
+    private static final class LongIntTable {
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int count = 0;
+
+        LongIntTable() {
+            Arrays.fill(values, NO_NODE);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); values[slot] != NO_NODE; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+            }
+            return NO_NODE;
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != NO_NODE && keys[slot] != key) slot = (slot + 1) & mask;
+            if (values[slot] == NO_NODE) count++;
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(values, NO_NODE);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != NO_NODE) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed >>> 40) & mask;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.group13.chessgame.pgn;
+
+/**
+ * An entry of an ECO opening table: the code written to the PGN {@code ECO} tag and the name written to the
+ * {@code Opening} tag.
+ */
+public record EcoOpening(String eco, String name) {
+    @Override
+    public String toString() {
+        return eco + " " + name;
+    }
+}
@@ -0,0 +1,31 @@
+package org.group13.chessgame.pgn;
+
+import org.group13.chessgame.model.Position;
+
+import java.util.Map;
+
+/**
+ * One game read by {@link PgnReader}: the tag pairs in file order, the starting position (from the FEN tag if
+ * there is one), the mainline as {@link org.group13.chessgame.model.PackedMove} ints and the game termination token.
+ */
+public record PgnGame(Map<String, String> tags, Position startPosition, int[] moves, String result) {
+    public String tag(String name) {
+        return tags.getOrDefault(name, "?");
+    }
+
+    public int plyCount() {
+        return moves.length;
+    }
+
+    /**
+     * @return the position before every ply followed by the final position, {@code plyCount() + 1} entries.
+     */
+    public Position[] positions() {
+        Position[] positions = new Position[moves.length + 1];
+        positions[0] = startPosition;
+        for (int i = 0; i < moves.length; i++) {
+            positions[i + 1] = positions[i].makeMove(moves[i]);
+        }
+        return positions;
+    }
+}
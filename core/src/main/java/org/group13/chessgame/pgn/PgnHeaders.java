@@ -17,6 +17,9 @@ public class PgnHeaders implements Serializable {
     private String white;
     private String black;
     private String result;
+    // optional tags, null when unknown
+    private String eco;
+    private String opening;
 
     public PgnHeaders() {
         this.event = "?";
@@ -84,6 +87,22 @@ public class PgnHeaders implements Serializable {
         this.result = (result != null && !result.isEmpty()) ? result : "*";
     }
 
+    public String getEco() {
+        return eco;
+    }
+
+    public void setEco(String eco) {
+        this.eco = (eco != null && !eco.isEmpty()) ? eco : null;
+    }
+
+    public String getOpening() {
+        return opening;
+    }
+
+    public void setOpening(String opening) {
+        this.opening = (opening != null && !opening.isEmpty()) ? opening : null;
+    }
+
     @Override
     public String toString() {
         return String.format("""
@@ -0,0 +1,236 @@
+package org.group13.chessgame.pgn;
+
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.utils.NotationUtils;
+import org.group13.chessgame.utils.PgnParseException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the games of a PGN file one at a time, so databases of any size can be processed in constant memory.
+ * <p>
+ * Only the mainline is kept: comments, NAGs, variations and move numbers are skipped, and SAN is resolved
+ * against the legal moves of the current {@link Position}. A game with an illegal or unreadable move is read to
+ * its end and then reported with a {@link PgnParseException}, so the caller can skip it and call {@link #next()}
+ * again. Unlike {@link org.group13.chessgame.utils.PgnParser} this does not need chesslib or a {@code Game}.
+ */
+public class PgnReader implements Closeable {
+    private static final String TOKEN_DELIMITERS = "{}()[];";
+
+    private final PushbackReader in;
+    private int gamesRead = 0;
+    private EcoClassifier ecoClassifier;
+
+    public PgnReader(Reader reader) {
+        this.in = new PushbackReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader, 1 << 16));
+    }
+
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Classifies every game read from now on while its moves are parsed, and adds {@code ECO} and
+     * {@code Opening} tags to games that do not have them. Null turns classification off.
+     */
+    public PgnReader setEcoClassifier(EcoClassifier classifier) {
+        this.ecoClassifier = classifier;
+        return this;
+    }
+
+    /**
+     * @return the next game, or null at the end of the input.
+     * @throws PgnParseException if the game has an invalid FEN tag or a move that is not legal in its position.
+     */
+    public PgnGame next() throws IOException {
+        return read(true);
+    }
+
+    /**
+     * Reads past the next game without resolving its moves, for callers that will discard it anyway.
+     *
+     * @return false at the end of the input.
+     */
+    public boolean skip() throws IOException {
+        return read(false) != null;
+    }
+
+    private PgnGame read(boolean parseMoves) throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        Position start = null;
+        Position position = null;
+        boolean inMoveText = false;
+        boolean sawMove = false;
+        int[] moves = new int[128];
+        int plyCount = 0;
+        String error = null;
+        long ecoState = 0;
+
+        while (true) {
+            int ch = skipWhitespace();
+            if (ch < 0) {
+                if (tags.isEmpty() && !sawMove) return null;
+                return finish(tags, start, moves, plyCount, tags.getOrDefault("Result", "*"), error, ecoState);
+            }
+            if (ch == '[') {
+                if (inMoveText) {
+                    // a new tag section before a termination token: the previous game ended without a result
+                    in.unread(ch);
+                    return finish(tags, start, moves, plyCount, tags.getOrDefault("Result", "*"), error, ecoState);
+                }
+                readTag(tags);
+                continue;
+            }
+            if (!inMoveText) {
+                inMoveText = true;
+                if (parseMoves) {
+                    try {
+                        start = tags.containsKey("FEN") ? Position.fromFen(tags.get("FEN")) : Position.startPosition();
+                        position = start;
+                        if (ecoClassifier != null) ecoState = ecoClassifier.start(start.getHash());
+                    } catch (IllegalArgumentException e) {
+                        // the moves cannot be resolved, but are still read so the next game starts in the right place
+                        error = "Invalid FEN tag: " + e.getMessage();
+                    }
+                }
+            }
+            switch (ch) {
+                case '{' -> skipPast('}');
+                case ';' -> skipPast('\n');
+                case '(' -> skipVariation();
+                case ')' -> {
+                }
+                default -> {
+                    in.unread(ch);
+                    String token = readToken();
+                    if (isResult(token)) {
+                        return finish(tags, start, moves, plyCount, token, error, ecoState);
+                    }
+                    String san = stripMoveNumber(token);
+                    if (san.isEmpty() || "$!?".indexOf(san.charAt(0)) >= 0) continue;
+                    sawMove = true;
+                    if (!parseMoves || error != null) continue;
+
+                    int move = NotationUtils.parseSan(position, san);
+                    if (move == PackedMove.NONE) {
+                        error = "Illegal or ambiguous move '" + san + "' at ply " + (plyCount + 1) + " in position " + position.toFen();
+                        continue;
+                    }
+                    if (plyCount == moves.length) moves = Arrays.copyOf(moves, plyCount * 2);
+                    moves[plyCount++] = move;
+                    position = position.makeMove(move);
+                    if (ecoClassifier != null) ecoState = ecoClassifier.advance(ecoState, move, position.getHash());
+                }
+            }
+        }
+    }
+
+    public int getGamesRead() {
+        return gamesRead;
+    }
+
+    private PgnGame finish(Map<String, String> tags, Position start, int[] moves, int plyCount, String result, String error, long ecoState) {
+        gamesRead++;
+        if (error != null) {
+            throw new PgnParseException("Game " + gamesRead + " (" + tags.getOrDefault("White", "?") + " - " + tags.getOrDefault("Black", "?") + "): " + error);
+        }
+        EcoOpening opening = ecoClassifier != null && start != null ? ecoClassifier.opening(ecoState) : null;
+        if (opening != null) {
+            tags.putIfAbsent("ECO", opening.eco());
+            tags.putIfAbsent("Opening", opening.name());
+        }
+        Position startPosition = start != null ? start : Position.startPosition();
+        return new PgnGame(tags, startPosition, Arrays.copyOf(moves, plyCount), result);
+    }
+
+    private int skipWhitespace() throws IOException {
+        int ch = in.read();
+        while (ch >= 0) {
+            if (ch == '%') {
+                // escape line
+                skipPast('\n');
+            } else if (!Character.isWhitespace(ch)) {
+                return ch;
+            }
+            ch = in.read();
+        }
+        return ch;
+    }
+
+    private void skipPast(char terminator) throws IOException {
+        int ch = in.read();
+        while (ch >= 0 && ch != terminator) {
+            ch = in.read();
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        int ch;
+        while (depth > 0 && (ch = in.read()) >= 0) {
+            if (ch == '{') skipPast('}');
+            else if (ch == '(') depth++;
+            else if (ch == ')') depth--;
+        }
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        StringBuilder name = new StringBuilder();
+        int ch = skipWhitespace();
+        while (ch >= 0 && !Character.isWhitespace(ch) && ch != '"' && ch != ']') {
+            name.append((char) ch);
+            ch = in.read();
+        }
+        while (ch >= 0 && ch != '"' && ch != ']') {
+            ch = in.read();
+        }
+        StringBuilder value = new StringBuilder();
+        if (ch == '"') {
+            ch = in.read();
+            while (ch >= 0 && ch != '"') {
+                if (ch == '\\') ch = in.read();
+                if (ch >= 0) value.append((char) ch);
+                ch = in.read();
+            }
+            skipPast(']');
+        }
+        tags.put(name.toString(), value.toString());
+    }
+
+    private String readToken() throws IOException {
+        StringBuilder token = new StringBuilder();
+        int ch = in.read();
+        while (ch >= 0 && !Character.isWhitespace(ch) && TOKEN_DELIMITERS.indexOf(ch) < 0) {
+            token.append((char) ch);
+            ch = in.read();
+        }
+        if (ch >= 0) in.unread(ch);
+        return token.toString();
+    }
+
+    // "12." and "12..." are dropped, "12.e4" keeps the move
+    private static String stripMoveNumber(String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) i++;
+        if (i == 0) return token;
+        int j = i;
+        while (j < token.length() && token.charAt(j) == '.') j++;
+        return (j == i) ? (j == token.length() ? "" : token) : token.substring(j);
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,271 @@
+package org.group13.chessgame.pgn;
+
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.utils.NotationUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Writes PGN in export format straight to a {@link Writer}, one token at a time, so a database of any size or a
+ * deeply annotated analysis is written through a fixed-size buffer instead of being built up as a string.
+ * <p>
+ * A game is written as a sequence of calls: {@link #tag} for each tag pair, then {@link #move}, {@link #nag},
+ * {@link #comment}, {@link #eval}, {@link #startVariation} and {@link #endVariation} in movetext order, and finally
+ * {@link #endGame}. Move numbers are inserted where export format needs them, including the {@code N...} form
+ * after a comment or variation, and lines are wrapped at {@link #DEFAULT_LINE_LENGTH} characters.
+ */
+public class PgnWriter implements Closeable, Flushable {
+    public static final int DEFAULT_LINE_LENGTH = 79;
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    private final Writer out;
+    private final int lineLength;
+
+    private boolean inMovetext = false;
+    private int column = 0;
+    private boolean glueNext = false;
+    private int ply;            // 0 = White's first move
+    private boolean needsMoveNumber;
+    private int variationStartPly;
+    private final Deque<int[]> variations = new ArrayDeque<>(); // {ply to return to, start ply of the enclosing line}
+    private long gamesWritten = 0;
+
+    public PgnWriter(Writer writer) {
+        this(writer, DEFAULT_LINE_LENGTH);
+    }
+
+    public PgnWriter(Writer writer, int lineLength) {
+        if (lineLength < 16) throw new IllegalArgumentException("PGN line length too short: " + lineLength);
+        this.out = writer instanceof BufferedWriter || writer instanceof StringWriter ? writer : new BufferedWriter(writer, BUFFER_SIZE);
+        this.lineLength = lineLength;
+    }
+
+    public PgnWriter(OutputStream stream) {
+        this(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+    }
+
+    public static PgnWriter open(Path file) throws IOException {
+        return new PgnWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes one tag pair. Tags must come before the first move of the game.
+     *
+     * @throws IllegalArgumentException if the name is not a PGN symbol (letters, digits and underscores).
+     */
+    public PgnWriter tag(String name, String value) throws IOException {
+        if (inMovetext) throw new IllegalStateException("Tag " + name + " written after the movetext started");
+        if (name == null || name.isEmpty() || !name.chars().allMatch(ch -> Character.isLetterOrDigit(ch) || ch == '_')) {
+            throw new IllegalArgumentException("Invalid PGN tag name: " + name);
+        }
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        String text = value == null ? "" : value;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '"' || ch == '\\') out.write('\\');
+            out.write(ch == '\n' || ch == '\r' ? ' ' : ch);
+        }
+        out.write("\"]\n");
+        return this;
+    }
+
+    public PgnWriter tags(Map<String, String> tags) throws IOException {
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            tag(tag.getKey(), tag.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * Writes the Seven Tag Roster, followed by the ECO and Opening tags when they are known.
+     */
+    public PgnWriter tags(PgnHeaders headers) throws IOException {
+        tag("Event", headers.getEvent());
+        tag("Site", headers.getSite());
+        tag("Date", headers.getDate());
+        tag("Round", headers.getRound());
+        tag("White", headers.getWhite());
+        tag("Black", headers.getBlack());
+        tag("Result", headers.getResult());
+        if (headers.getEco() != null) tag("ECO", headers.getEco());
+        if (headers.getOpening() != null) tag("Opening", headers.getOpening());
+        return this;
+    }
+
+    /**
+     * Starts the movetext at a given move, for games set up from a FEN. Without this call the first move is
+     * numbered as White's first move.
+     */
+    public PgnWriter startMovetext(int fullMoveNumber, PieceColor sideToMove) throws IOException {
+        if (inMovetext) throw new IllegalStateException("Movetext already started");
+        inMovetext = true;
+        out.write('\n');
+        column = 0;
+        ply = (Math.max(1, fullMoveNumber) - 1) * 2 + (sideToMove == PieceColor.BLACK ? 1 : 0);
+        variationStartPly = ply;
+        needsMoveNumber = true;
+        return this;
+    }
+
+    public PgnWriter startMovetext(Position start) throws IOException {
+        return startMovetext(start.getFullMoveNumber(), start.getSideToMove());
+    }
+
+    public PgnWriter move(String san) throws IOException {
+        if (!inMovetext) startMovetext(1, PieceColor.WHITE);
+        int moveNumber = ply / 2 + 1;
+        if (ply % 2 == 0) {
+            token(moveNumber + ".");
+        } else if (needsMoveNumber) {
+            token(moveNumber + "...");
+        }
+        token(san);
+        ply++;
+        needsMoveNumber = false;
+        return this;
+    }
+
+    /**
+     * Writes a {@link org.group13.chessgame.model.PackedMove} played from {@code before} in SAN.
+     */
+    public PgnWriter move(Position before, int move) throws IOException {
+        return move(NotationUtils.toSan(before, move));
+    }
+
+    /**
+     * Writes a whole game read by {@link PgnReader}: its tags in file order, the mainline and the result.
+     */
+    public PgnWriter game(PgnGame game) throws IOException {
+        tags(game.tags());
+        startMovetext(game.startPosition());
+        Position position = game.startPosition();
+        for (int move : game.moves()) {
+            move(position, move);
+            position = position.makeMove(move);
+        }
+        return endGame(game.result());
+    }
+
+    /**
+     * Writes a Numeric Annotation Glyph ({@code $1} = !, {@code $2} = ?, ...) for the move just written.
+     */
+    public PgnWriter nag(int nag) throws IOException {
+        if (nag < 0 || nag > 255) throw new IllegalArgumentException("NAG out of range: " + nag);
+        if (nag > 0) token("$" + nag);
+        return this;
+    }
+
+    /**
+     * Writes a brace comment, wrapped across lines if needed. A '}' inside the text would end the comment early,
+     * so it is replaced by ')'.
+     */
+    public PgnWriter comment(String text) throws IOException {
+        if (!inMovetext) startMovetext(1, PieceColor.WHITE);
+        String[] words = text.replace('}', ')').trim().split("\\s+");
+        if (words.length == 1) {
+            token("{" + words[0] + "}");
+        } else {
+            token("{" + words[0]);
+            for (int i = 1; i < words.length - 1; i++) {
+                token(words[i]);
+            }
+            token(words[words.length - 1] + "}");
+        }
+        needsMoveNumber = true;
+        return this;
+    }
+
+    /**
+     * Writes an engine evaluation as a {@code [%eval ...]} command inside a comment, followed by {@code text} if
+     * it is not null.
+     *
+     * @param value the evaluation from White's point of view, e.g. {@code 0.35} or {@code #-3}.
+     */
+    public PgnWriter eval(String value, String text) throws IOException {
+        return comment(text == null || text.isBlank() ? "[%eval " + value + "]" : "[%eval " + value + "] " + text);
+    }
+
+    /**
+     * Opens a variation: an alternative to the move just written, numbered from the same ply.
+     */
+    public PgnWriter startVariation() throws IOException {
+        if (ply <= variationStartPly) throw new IllegalStateException("A variation needs a move to replace");
+        variations.push(new int[]{ply, variationStartPly});
+        ply--;
+        variationStartPly = ply;
+        token("(");
+        glueNext = true;
+        needsMoveNumber = true;
+        return this;
+    }
+
+    public PgnWriter endVariation() throws IOException {
+        if (variations.isEmpty()) throw new IllegalStateException("No variation to close");
+        int[] outer = variations.pop();
+        ply = outer[0];
+        variationStartPly = outer[1];
+        glueNext = false;
+        if (column > 0 && column + 1 <= lineLength) {
+            out.write(')');
+            column++;
+        } else {
+            token(")");
+        }
+        needsMoveNumber = true;
+        return this;
+    }
+
+    /**
+     * Writes the game termination marker and the blank line that separates games.
+     */
+    public PgnWriter endGame(String result) throws IOException {
+        if (!variations.isEmpty()) throw new IllegalStateException(variations.size() + " variation(s) left open");
+        if (!inMovetext) {
+            out.write('\n');
+            column = 0;
+        }
+        token(result == null || result.isEmpty() ? "*" : result);
+        out.write("\n\n");
+        inMovetext = false;
+        column = 0;
+        glueNext = false;
+        gamesWritten++;
+        return this;
+    }
+
+    public long getGamesWritten() {
+        return gamesWritten;
+    }
+
+    private void token(String token) throws IOException {
+        if (column > 0 && column + 1 + token.length() > lineLength) {
+            out.write('\n');
+            column = 0;
+        } else if (column > 0 && !glueNext) {
+            out.write(' ');
+            column++;
+        }
+        out.write(token);
+        column += token.length();
+        glueNext = false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
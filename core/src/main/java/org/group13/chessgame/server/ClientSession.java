@@ -0,0 +1,203 @@
+package org.group13.chessgame.server;
+
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.network.Frame;
+import org.group13.chessgame.network.FrameCodec;
+import org.group13.chessgame.network.MessageType;
+import org.group13.chessgame.network.NetworkProtocolException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Non-blocking counterpart of {@link org.group13.chessgame.network.GameConnection} for one client socket.
+ * <p>
+ * Bytes are read into a buffer that only grows when a single frame does not fit, complete frames are handed to
+ * the current {@link SessionListener}, and outgoing frames that the socket cannot take at once wait in a queue
+ * until the selector reports the channel writable. Sequence numbers follow the same rules as the client:
+ * duplicates are dropped, a gap is a protocol error. Heartbeat PINGs are answered directly.
+ * <p>
+ * Spectators share encoded broadcast frames: each gets a {@link ByteBuffer#duplicate()} of the same bytes, so
+ * the cost of a move does not depend on how many people watch.
+ * <p>
+ * A session is only ever touched by the thread that owns the selector it is registered with.
+ */
+final class ClientSession {
+    private static final int INITIAL_READ_BUFFER_SIZE = 256;
+    private static final int MAX_READ_BUFFER_SIZE = FrameCodec.HEADER_SIZE + FrameCodec.MAX_PAYLOAD_SIZE;
+
+    private final SocketChannel channel;
+    private final long connectedAtNanos = System.nanoTime();
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+    private SelectionKey key;
+    private SessionListener listener;
+    private PieceColor color;
+    private int nextSendSequence = 0;
+    private int expectedReceiveSequence = 0;
+    private boolean closed = false;
+
+    ClientSession(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(false);
+    }
+
+    void register(Selector selector, SessionListener listener) throws IOException {
+        this.listener = listener;
+        int interestOps = writeQueue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        key = channel.register(selector, interestOps, this);
+    }
+
+    /**
+     * Called by the selector loop; reads what is available and dispatches every complete frame.
+     */
+    void handleReadable() throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            throw new EOFException("Client closed the connection");
+        }
+        readBuffer.flip();
+        Frame frame;
+        // stop once a listener has closed or detached the session
+        while (!closed && key != null && (frame = FrameCodec.decode(readBuffer)) != null) {
+            if (frame.type() == MessageType.PING) {
+                // the server keeps no clock, so it answers heartbeats with empty readings
+                enqueue(FrameCodec.encode(new Frame(MessageType.PONG, nextSendSequence, FrameCodec.heartbeatPayload(FrameCodec.readHeartbeatTimestamp(frame), -1, -1, expectedReceiveSequence - 1))));
+                continue;
+            }
+            if (frame.type() == MessageType.PONG) continue;
+            if (frame.sequence() < expectedReceiveSequence) {
+                System.err.println("Dropping duplicate frame " + frame + " from " + this + ", expected #" + expectedReceiveSequence);
+                continue;
+            }
+            if (frame.sequence() > expectedReceiveSequence) {
+                throw new NetworkProtocolException("Frame out of order from " + this + ": expected #" + expectedReceiveSequence + " but got " + frame);
+            }
+            expectedReceiveSequence++;
+            listener.onFrame(this, frame);
+        }
+        readBuffer.compact();
+        if (!readBuffer.hasRemaining()) {
+            growReadBuffer();
+        }
+    }
+
+    // a full buffer with no complete frame in it means the next frame is larger than the buffer
+    private void growReadBuffer() throws NetworkProtocolException {
+        if (readBuffer.capacity() >= MAX_READ_BUFFER_SIZE) {
+            throw new NetworkProtocolException("Frame from " + this + " exceeds " + MAX_READ_BUFFER_SIZE + " bytes");
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, MAX_READ_BUFFER_SIZE));
+        readBuffer.flip();
+        larger.put(readBuffer);
+        readBuffer = larger;
+    }
+
+    void send(MessageType type, byte[] payload) throws IOException {
+        if (closed) return;
+        Frame frame = new Frame(type, nextSendSequence, payload);
+        nextSendSequence++;
+        enqueue(FrameCodec.encode(frame));
+    }
+
+    /**
+     * Queues a frame that was numbered by the caller, e.g. a room's broadcast stream.
+     */
+    void sendNumbered(Frame frame) throws IOException {
+        if (closed) return;
+        enqueue(FrameCodec.encode(frame));
+    }
+
+    /**
+     * Queues an already encoded frame without copying it; {@code encoded} must not be modified afterwards.
+     */
+    void sendShared(ByteBuffer encoded) throws IOException {
+        if (closed) return;
+        enqueue(encoded.duplicate());
+    }
+
+    void sendText(MessageType type, String text) throws IOException {
+        send(type, FrameCodec.textPayload(text));
+    }
+
+    private void enqueue(ByteBuffer buffer) throws IOException {
+        if (writeQueue.isEmpty()) {
+            channel.write(buffer);
+            if (!buffer.hasRemaining()) return;
+        }
+        writeQueue.add(buffer);
+        if (key != null && key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Called by the selector loop when the channel accepts more bytes.
+     */
+    void handleWritable() throws IOException {
+        while (!writeQueue.isEmpty()) {
+            ByteBuffer head = writeQueue.peek();
+            channel.write(head);
+            if (head.hasRemaining()) return;
+            writeQueue.poll();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Cancels the current selector registration. Must be called on the thread owning that selector before
+     * the session is handed to another one.
+     */
+    void detach() {
+        if (key != null) key.cancel();
+        key = null;
+    }
+
+    int getQueuedWriteCount() {
+        return writeQueue.size();
+    }
+
+    long getConnectedAtNanos() {
+        return connectedAtNanos;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    PieceColor getColor() {
+        return color;
+    }
+
+    void setColor(PieceColor color) {
+        this.color = color;
+    }
+
+    SessionListener getListener() {
+        return listener;
+    }
+
+    void close() {
+        if (closed) return;
+        closed = true;
+        if (key != null) key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + this + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return "client " + channel.getRemoteAddress();
+        } catch (IOException e) {
+            return "client (disconnected)";
+        }
+    }
+}
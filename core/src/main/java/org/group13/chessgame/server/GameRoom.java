@@ -0,0 +1,215 @@
+package org.group13.chessgame.server;
+
+import org.group13.chessgame.model.Game;
+import org.group13.chessgame.model.Game.GameState;
+import org.group13.chessgame.model.Move;
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.network.Frame;
+import org.group13.chessgame.network.FrameCodec;
+import org.group13.chessgame.network.MessageType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Two paired players, their spectators and the authoritative {@link Game} between them.
+ * <p>
+ * Every MOVE is replayed on the server's board before it is forwarded, so a client can only reach its
+ * opponent with a legal move made on its own turn; anything else is answered with an ERROR frame and dropped.
+ * <p>
+ * Everything the players relay to each other except draw offers is also broadcast to the spectators. The
+ * broadcast has its own sequence numbers, so each frame is encoded once and shared by all spectators; a late
+ * joiner first gets a SNAPSHOT of the move log numbered just before the next broadcast frame. Spectators are
+ * read-only and one whose socket falls too far behind is dropped rather than buffered without bound.
+ * <p>
+ * A room belongs to a single {@link ServerWorker} and is only called from that worker's thread.
+ */
+final class GameRoom implements SessionListener {
+    static final int MAX_SPECTATOR_BACKLOG = 256;
+
+    private final int id;
+    private final ServerWorker worker;
+    private final Game game = new Game();
+    private final ClientSession white;
+    private final ClientSession black;
+    private final List<ClientSession> spectators = new ArrayList<>();
+    private int[] moveLog = new int[64];
+    private int moveCount = 0;
+    // starts at 1 so that a snapshot taken before the first broadcast can be numbered 0
+    private int nextBroadcastSequence = 1;
+    private PieceColor pendingDrawOfferBy;
+    private boolean closed = false;
+
+    GameRoom(int id, ServerWorker worker, ClientSession white, ClientSession black) {
+        this.id = id;
+        this.worker = worker;
+        this.white = white;
+        this.black = black;
+        white.setColor(PieceColor.WHITE);
+        black.setColor(PieceColor.BLACK);
+        game.initializeGame();
+    }
+
+    /**
+     * Registers both players with the worker's selector and tells them their colours.
+     */
+    void open(Selector selector) throws IOException {
+        white.register(selector, this);
+        black.register(selector, this);
+        white.send(MessageType.COLOR_ASSIGNMENT, FrameCodec.colorPayload(PieceColor.WHITE));
+        black.send(MessageType.COLOR_ASSIGNMENT, FrameCodec.colorPayload(PieceColor.BLACK));
+    }
+
+    void addSpectator(ClientSession spectator, Selector selector) {
+        try {
+            if (closed) {
+                spectator.sendText(MessageType.ERROR, "Game " + id + " has already ended.");
+                spectator.close();
+                return;
+            }
+            spectator.register(selector, this);
+            byte[] snapshot = FrameCodec.snapshotPayload(moveLog, moveCount, game.getCurrentPositionHash(), game.getGameState());
+            spectator.sendNumbered(new Frame(MessageType.SNAPSHOT, nextBroadcastSequence - 1, snapshot));
+            spectators.add(spectator);
+        } catch (IOException e) {
+            System.err.println("Could not add spectator to room " + id + ": " + e.getMessage());
+            spectator.close();
+        }
+    }
+
+    @Override
+    public void onFrame(ClientSession sender, Frame frame) throws IOException {
+        if (sender != white && sender != black) {
+            System.err.println("Closing spectator " + sender + " of room " + id + ": it sent " + frame);
+            sender.close();
+            onClosed(sender);
+            return;
+        }
+        ClientSession opponent = (sender == white) ? black : white;
+        switch (frame.type()) {
+            case MOVE -> handleMove(sender, opponent, frame);
+            case CHAT -> relay(opponent, frame);
+            case OFFER_DRAW -> {
+                if (rejectIfOver(sender)) return;
+                pendingDrawOfferBy = sender.getColor();
+                opponent.send(MessageType.OFFER_DRAW, frame.payload());
+            }
+            case ACCEPT_DRAW -> {
+                if (pendingDrawOfferBy != opponent.getColor()) {
+                    sender.sendText(MessageType.ERROR, "There is no draw offer to accept.");
+                    return;
+                }
+                pendingDrawOfferBy = null;
+                game.acceptDrawOffer();
+                relay(opponent, frame);
+            }
+            case SURRENDER_WHITE, SURRENDER_BLACK -> {
+                PieceColor surrendering = (frame.type() == MessageType.SURRENDER_WHITE) ? PieceColor.WHITE : PieceColor.BLACK;
+                if (surrendering != sender.getColor()) {
+                    sender.sendText(MessageType.ERROR, "You can only surrender for your own side.");
+                    return;
+                }
+                if (rejectIfOver(sender)) return;
+                game.surrender(surrendering);
+                relay(opponent, frame);
+            }
+            default -> sender.sendText(MessageType.ERROR, "Unexpected " + frame.type() + " frame.");
+        }
+    }
+
+    private void handleMove(ClientSession sender, ClientSession opponent, Frame frame) throws IOException {
+        int packedMove = FrameCodec.readMove(frame);
+        if (rejectIfOver(sender)) return;
+        if (game.getCurrentPlayer().getColor() != sender.getColor()) {
+            sender.sendText(MessageType.ERROR, "It is not your turn.");
+            return;
+        }
+        Move move = game.findLegalMove(packedMove);
+        if (move == null) {
+            sender.sendText(MessageType.ERROR, "Illegal move " + PackedMove.toUci(packedMove) + ".");
+            return;
+        }
+        game.makeMove(move);
+        pendingDrawOfferBy = null;
+        if (moveCount == moveLog.length) {
+            moveLog = Arrays.copyOf(moveLog, moveCount * 2);
+        }
+        moveLog[moveCount++] = packedMove;
+
+        long positionHash = game.getCurrentPositionHash();
+        if (positionHash != FrameCodec.readPositionHash(frame)) {
+            // the move was legal here, so the server's position wins and only the sender is out of step
+            sender.sendText(MessageType.ERROR, "Position hash mismatch after " + PackedMove.toUci(packedMove) + ".");
+        }
+        byte[] payload = FrameCodec.movePayload(packedMove, positionHash);
+        opponent.send(MessageType.MOVE, payload);
+        broadcast(MessageType.MOVE, payload);
+    }
+
+    private void relay(ClientSession opponent, Frame frame) throws IOException {
+        opponent.send(frame.type(), frame.payload());
+        broadcast(frame.type(), frame.payload());
+    }
+
+    private void broadcast(MessageType type, byte[] payload) {
+        int sequence = nextBroadcastSequence++;
+        if (spectators.isEmpty()) return;
+
+        ByteBuffer encoded = FrameCodec.encode(new Frame(type, sequence, payload)).asReadOnlyBuffer();
+        for (ClientSession spectator : spectators.toArray(new ClientSession[0])) {
+            try {
+                if (spectator.getQueuedWriteCount() >= MAX_SPECTATOR_BACKLOG) {
+                    throw new IOException("spectator is more than " + MAX_SPECTATOR_BACKLOG + " frames behind");
+                }
+                spectator.sendShared(encoded);
+            } catch (IOException e) {
+                System.err.println("Dropping spectator " + spectator + " of room " + id + ": " + e.getMessage());
+                spectator.close();
+                spectators.remove(spectator);
+            }
+        }
+    }
+
+    private boolean rejectIfOver(ClientSession sender) throws IOException {
+        GameState state = game.getGameState();
+        if (state == GameState.ACTIVE || state == GameState.CHECK) return false;
+        sender.sendText(MessageType.ERROR, "The game is over (" + state + ").");
+        return true;
+    }
+
+    /**
+     * A spectator leaving only removes it. A player leaving or breaking the protocol ends the room: everyone
+     * else is disconnected too and sees the usual end-of-stream.
+     */
+    @Override
+    public void onClosed(ClientSession session) {
+        if (session != null && spectators.remove(session)) return;
+        if (closed) return;
+        closed = true;
+        white.close();
+        black.close();
+        for (ClientSession spectator : spectators) {
+            spectator.close();
+        }
+        spectators.clear();
+        worker.roomClosed(this);
+        System.err.println("Room " + id + " closed after " + moveCount + " plies (" + game.getGameState() + ").");
+    }
+
+    int getId() {
+        return id;
+    }
+
+    ServerWorker getWorker() {
+        return worker;
+    }
+
+    int getSpectatorCount() {
+        return spectators.size();
+    }
+}
@@ -0,0 +1,227 @@
+package org.group13.chessgame.server;
+
+import org.group13.chessgame.network.Frame;
+import org.group13.chessgame.network.FrameCodec;
+import org.group13.chessgame.network.MessageType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless game server for the LAN protocol. Clients connect exactly as they would to a hosting player and
+ * are paired first come, first served; each pair gets a {@link GameRoom} that validates every move.
+ * A client that sends SPECTATE right after connecting is attached to a running room as a watcher instead;
+ * players are only paired after {@link #PAIRING_GRACE_MILLIS} of silence so the two cannot be confused.
+ * <p>
+ * One acceptor thread owns the listening socket and the lobby of clients still waiting for an opponent.
+ * Paired rooms are spread round-robin over a fixed number of {@link ServerWorker} selector threads, so a
+ * handful of threads serve thousands of idle-most-of-the-time connections.
+ */
+public class GameServer implements Closeable, SessionListener {
+    public static final int DEFAULT_PORT = 5000;
+    public static final long PAIRING_GRACE_MILLIS = 150;
+
+    private final int requestedPort;
+    private final ServerWorker[] workers;
+    private final ArrayDeque<ClientSession> lobby = new ArrayDeque<>();
+    private final Map<Integer, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final List<Runnable> handoffs = new ArrayList<>();
+    private final Random random = new Random();
+    private ServerSocketChannel serverChannel;
+    private Selector acceptSelector;
+    private Thread acceptThread;
+    private volatile boolean running = false;
+    private int nextWorker = 0;
+    private int nextRoomId = 1;
+    private int latestRoomId = 0;
+
+    /**
+     * @param port        port to listen on, 0 for any free port (see {@link #getPort()}).
+     * @param workerCount number of selector threads serving the rooms.
+     */
+    public GameServer(int port, int workerCount) throws IOException {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("workerCount must be at least 1, got " + workerCount);
+        }
+        this.requestedPort = port;
+        this.workers = new ServerWorker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new ServerWorker("game-server-worker-" + i, rooms);
+        }
+    }
+
+    public void start() throws IOException {
+        acceptSelector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(requestedPort));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        for (ServerWorker worker : workers) {
+            worker.start();
+        }
+        acceptThread = new Thread(this::acceptLoop, "game-server-acceptor");
+        acceptThread.start();
+        System.out.println("Game server listening on port " + getPort() + " with " + workers.length + " worker(s).");
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getActiveRoomCount() {
+        return rooms.size();
+    }
+
+    private void acceptLoop() {
+        try {
+            while (running) {
+                long timeout = pairWaitingClients();
+                if (timeout > 0) {
+                    acceptSelector.select(timeout);
+                } else {
+                    acceptSelector.select();
+                }
+                Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        acceptClients();
+                    } else {
+                        ServerSelectors.dispatch(key);
+                    }
+                }
+                handoffs.forEach(Runnable::run);
+                handoffs.clear();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) System.err.println("Game server acceptor stopped: " + e.getMessage());
+        } finally {
+            ServerSelectors.closeAll(acceptSelector);
+        }
+    }
+
+    private void acceptClients() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            ClientSession session;
+            try {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                session = new ClientSession(channel);
+                session.register(acceptSelector, this);
+            } catch (IOException e) {
+                System.err.println("Could not accept connection: " + e.getMessage());
+                channel.close();
+                continue;
+            }
+            lobby.add(session);
+        }
+    }
+
+    /**
+     * Pairs lobby clients in arrival order once they have stayed silent for the grace period.
+     *
+     * @return milliseconds until the next pair becomes eligible, or 0 if there is none.
+     */
+    private long pairWaitingClients() {
+        long graceNanos = TimeUnit.MILLISECONDS.toNanos(PAIRING_GRACE_MILLIS);
+        while (lobby.size() >= 2) {
+            Iterator<ClientSession> waiting = lobby.iterator();
+            waiting.next();
+            long waitedNanos = System.nanoTime() - waiting.next().getConnectedAtNanos();
+            if (waitedNanos < graceNanos) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(graceNanos - waitedNanos));
+            }
+            ClientSession first = lobby.poll();
+            ClientSession second = lobby.poll();
+            first.detach();
+            second.detach();
+            ServerWorker worker = workers[nextWorker];
+            nextWorker = (nextWorker + 1) % workers.length;
+            int roomId = nextRoomId++;
+            GameRoom room = random.nextBoolean() ? new GameRoom(roomId, worker, first, second) : new GameRoom(roomId, worker, second, first);
+            worker.assign(room);
+            latestRoomId = roomId;
+        }
+        return 0;
+    }
+
+    /**
+     * The only frame a lobby client may send is SPECTATE; players stay silent until they have been paired.
+     */
+    @Override
+    public void onFrame(ClientSession session, Frame frame) throws IOException {
+        lobby.remove(session);
+        if (frame.type() != MessageType.SPECTATE) {
+            session.sendText(MessageType.ERROR, "Unexpected " + frame.type() + " frame before the game started.");
+            session.close();
+            return;
+        }
+        int roomId = FrameCodec.readRoomId(frame);
+        GameRoom room = rooms.get(roomId == 0 ? latestRoomId : roomId);
+        if (room == null) {
+            session.sendText(MessageType.ERROR, roomId == 0 ? "No game is being played." : "There is no game " + roomId + ".");
+            session.close();
+            return;
+        }
+        // hand over once the session's read loop has returned, so two threads never touch its buffers
+        session.detach();
+        handoffs.add(() -> room.getWorker().addSpectator(room, session));
+    }
+
+    @Override
+    public void onClosed(ClientSession session) {
+        lobby.remove(session);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!running) return;
+        running = false;
+        acceptSelector.wakeup();
+        try {
+            acceptThread.join();
+            for (ServerWorker worker : workers) {
+                worker.shutdown();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            serverChannel.close();
+        }
+    }
+
+    /**
+     * Usage: {@code GameServer [port] [workers]}; defaults to port 5000 and one worker per processor.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int workerCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        GameServer server = new GameServer(port, workerCount);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Error stopping game server: " + e.getMessage());
+            }
+        }));
+        server.start();
+    }
+}
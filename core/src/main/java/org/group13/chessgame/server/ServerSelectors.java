@@ -0,0 +1,43 @@
+package org.group13.chessgame.server;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Selector-loop plumbing shared by the acceptor and the workers.
+ */
+final class ServerSelectors {
+    private ServerSelectors() {
+    }
+
+    /**
+     * Lets the session behind {@code key} read or write; a failure closes it and tells its listener.
+     */
+    static void dispatch(SelectionKey key) {
+        ClientSession session = (ClientSession) key.attachment();
+        try {
+            if (key.isValid() && key.isWritable()) session.handleWritable();
+            if (key.isValid() && key.isReadable()) session.handleReadable();
+        } catch (IOException e) {
+            if (!session.isClosed()) {
+                System.err.println("Closing " + session + ": " + e.getMessage());
+            }
+            session.close();
+            session.getListener().onClosed(session);
+        }
+    }
+
+    static void closeAll(Selector selector) {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof ClientSession session) {
+                session.close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing selector: " + e.getMessage());
+        }
+    }
+}
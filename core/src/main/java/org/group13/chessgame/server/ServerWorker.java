@@ -0,0 +1,96 @@
+package org.group13.chessgame.server;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * One selector thread serving any number of rooms. Rooms and their spectators are handed over as tasks and
+ * registered on the worker's own thread, so everything inside a room runs single-threaded without locks.
+ */
+final class ServerWorker implements Runnable {
+    private final Selector selector;
+    private final Thread thread;
+    private final Map<Integer, GameRoom> rooms;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param rooms registry of open rooms shared with the server, updated as rooms open and close.
+     */
+    ServerWorker(String name, Map<Integer, GameRoom> rooms) throws IOException {
+        this.selector = Selector.open();
+        this.rooms = rooms;
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Called from the acceptor thread; the room's sessions must no longer be used there.
+     */
+    void assign(GameRoom room) {
+        rooms.put(room.getId(), room);
+        execute(() -> {
+            try {
+                room.open(selector);
+            } catch (IOException e) {
+                System.err.println("Could not open room " + room.getId() + ": " + e.getMessage());
+                room.onClosed(null);
+            }
+        });
+    }
+
+    /**
+     * Called from the acceptor thread with a session that has been detached from the lobby.
+     */
+    void addSpectator(GameRoom room, ClientSession spectator) {
+        execute(() -> room.addSpectator(spectator, selector));
+    }
+
+    void roomClosed(GameRoom room) {
+        rooms.remove(room.getId());
+    }
+
+    private void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    ServerSelectors.dispatch(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) System.err.println(thread.getName() + " stopped: " + e.getMessage());
+        } finally {
+            ServerSelectors.closeAll(selector);
+        }
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+}
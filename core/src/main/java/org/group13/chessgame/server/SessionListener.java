@@ -0,0 +1,15 @@
+package org.group13.chessgame.server;
+
+import org.group13.chessgame.network.Frame;
+
+import java.io.IOException;
+
+/**
+ * Receives what a {@link ClientSession} reads: the server lobby while a client waits for an opponent,
+ * then the {@link GameRoom} it was paired into.
+ */
+interface SessionListener {
+    void onFrame(ClientSession session, Frame frame) throws IOException;
+
+    void onClosed(ClientSession session);
+}
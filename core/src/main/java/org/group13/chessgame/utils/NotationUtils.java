@@ -0,0 +1,220 @@
+package org.group13.chessgame.utils;
+
+import org.group13.chessgame.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NotationUtils {
+
+    public static String squareToAlgebraic(Square square) {
+        if (square == null) return "";
+        char file = (char) ('a' + square.getCol());
+        int rank = Board.SIZE - square.getRow();
+        return "" + file + rank;
+    }
+
+    public static String moveToAlgebraic(Move move, Game game) {
+        if (move == null || game == null) return "";
+
+        // Castle
+        if (move.isCastlingMove()) {
+            return (move.getEndSquare().getCol() < move.getStartSquare().getCol() ? "O-O-O" : "O-O");
+        }
+
+        StringBuilder sb = new StringBuilder();
+        Piece pieceMoved = move.getPieceMoved();
+
+        // 1. Tên quân cờ
+        if (pieceMoved.getType() != PieceType.PAWN) {
+            sb.append(getPieceChar(pieceMoved.getType()));
+        }
+
+        // 2. Xử lý trường hợp có nhiều quân cờ cùng loại có thể đi đến ô đó
+        String disambiguation = calculateDisambiguation(move, game);
+        sb.append(disambiguation);
+
+        // 3. Ký hiệu ăn (x)
+        if (move.getPieceCaptured() != null) {
+            if (pieceMoved.getType() == PieceType.PAWN && disambiguation.isEmpty()) {
+                sb.append(squareToAlgebraic(move.getStartSquare()).charAt(0));
+            }
+            sb.append("x");
+        }
+
+        // 4. Ô đích
+        sb.append(squareToAlgebraic(move.getEndSquare()));
+
+        // 6. Phong cấp tốt
+        if (move.isPromotion()) {
+            sb.append("=").append(getPieceChar(move.getPromotionPieceType()));
+        }
+
+        return sb.toString();
+    }
+
+    private static String calculateDisambiguation(Move move, Game game) {
+        Piece pieceMoved = move.getPieceMoved();
+        Square fromSquare = move.getStartSquare();
+        Square toSquare = move.getEndSquare();
+
+        if (pieceMoved.getType() == PieceType.PAWN || pieceMoved.getType() == PieceType.KING) return "";
+
+        List<Square> ambiguousSources = new ArrayList<>();
+        List<Move> allLegalMovesForPlayer = game.getAllLegalMovesForPlayer(pieceMoved.getColor());
+        for (Move legalMove : allLegalMovesForPlayer) {
+            if (legalMove.getStartSquare() != fromSquare && legalMove.getPieceMoved().getType() == pieceMoved.getType() && legalMove.getEndSquare() == toSquare) {
+                ambiguousSources.add(legalMove.getStartSquare());
+            }
+        }
+
+        if (ambiguousSources.isEmpty()) return "";
+
+        boolean fileSufficient = true;
+        for (Square otherSq : ambiguousSources) {
+            if (otherSq.getCol() == fromSquare.getCol()) {
+                fileSufficient = false;
+                break;
+            }
+        }
+        if (fileSufficient) {
+            return String.valueOf(squareToAlgebraic(fromSquare).charAt(0));
+        }
+
+        boolean rankSufficient = true;
+        for (Square otherSq : ambiguousSources) {
+            if (otherSq.getRow() == fromSquare.getRow()) {
+                rankSufficient = false;
+                break;
+            }
+        }
+        if (rankSufficient) {
+            return String.valueOf(squareToAlgebraic(fromSquare).charAt(1));
+        }
+
+        return squareToAlgebraic(fromSquare);
+    }
+
+    /**
+     * SAN for a legal {@link PackedMove} played from an immutable {@link Position}, with + or # appended.
+     */
+    public static String toSan(Position position, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        StringBuilder sb = new StringBuilder();
+        if (PackedMove.isCastling(move)) {
+            sb.append(PackedMove.col(to) > PackedMove.col(from) ? "O-O" : "O-O-O");
+        } else {
+            PieceType type = Position.typeOf(position.pieceAt(from));
+            boolean capture = position.pieceAt(to) != Position.EMPTY || PackedMove.isEnPassant(move);
+            if (type == PieceType.PAWN) {
+                if (capture) sb.append(PackedMove.squareToAlgebraic(from).charAt(0));
+            } else {
+                sb.append(getPieceChar(type)).append(disambiguation(position, move, type));
+            }
+            if (capture) sb.append('x');
+            sb.append(PackedMove.squareToAlgebraic(to));
+            if (PackedMove.isPromotion(move)) {
+                sb.append('=').append(getPieceChar(PackedMove.promotion(move)));
+            }
+        }
+
+        Position next = position.makeMove(move);
+        if (next.isInCheck()) {
+            sb.append(next.getLegalMoves().length == 0 ? '#' : '+');
+        }
+        return sb.toString();
+    }
+
+    private static String disambiguation(Position position, int move, PieceType type) {
+        int from = PackedMove.from(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int other : position.getLegalMoves()) {
+            int otherFrom = PackedMove.from(other);
+            if (otherFrom == from || PackedMove.to(other) != PackedMove.to(move) || Position.typeOf(position.pieceAt(otherFrom)) != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= PackedMove.col(otherFrom) == PackedMove.col(from);
+            sameRank |= PackedMove.row(otherFrom) == PackedMove.row(from);
+        }
+        if (!ambiguous) return "";
+        String square = PackedMove.squareToAlgebraic(from);
+        if (!sameFile) return square.substring(0, 1);
+        if (!sameRank) return square.substring(1);
+        return square;
+    }
+
+    /**
+     * Resolves a SAN token such as {@code Nbd7}, {@code exd6}, {@code e8=Q+} or {@code O-O} against the legal moves
+     * of {@code position}. Check marks and !/? suffixes are ignored, and {@code 0-0} is accepted for castling.
+     *
+     * @return the legal move the token names, or {@link PackedMove#NONE} if it names none or more than one.
+     */
+    public static int parseSan(Position position, String san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) end--;
+        String token = san.substring(0, end).replace('0', 'O');
+
+        int[] legalMoves = position.getLegalMoves();
+        if (token.equals("O-O") || token.equals("O-O-O")) {
+            int targetCol = token.length() == 3 ? 6 : 2;
+            for (int move : legalMoves) {
+                if (PackedMove.isCastling(move) && PackedMove.col(PackedMove.to(move)) == targetCol) return move;
+            }
+            return PackedMove.NONE;
+        }
+
+        PieceType promotion = null;
+        int equals = token.indexOf('=');
+        if (equals >= 0 && equals == token.length() - 2) {
+            promotion = Piece.charToPieceType(token.charAt(equals + 1));
+            token = token.substring(0, equals);
+        } else if (token.length() > 2 && Character.isUpperCase(token.charAt(token.length() - 1)) && Character.isDigit(token.charAt(token.length() - 2))) {
+            promotion = Piece.charToPieceType(token.charAt(token.length() - 1));
+            token = token.substring(0, token.length() - 1);
+        }
+
+        PieceType type = PieceType.PAWN;
+        if (!token.isEmpty() && Character.isUpperCase(token.charAt(0))) {
+            type = Piece.charToPieceType(token.charAt(0));
+            token = token.substring(1);
+        }
+        token = token.replace("x", "").replace("-", "");
+        if (type == null || token.length() < 2) return PackedMove.NONE;
+
+        int to = PackedMove.algebraicToSquare(token.substring(token.length() - 2));
+        String qualifier = token.substring(0, token.length() - 2);
+        if (to < 0 || qualifier.length() > 2) return PackedMove.NONE;
+
+        int found = PackedMove.NONE;
+        for (int move : legalMoves) {
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) != to || Position.typeOf(position.pieceAt(from)) != type || PackedMove.promotion(move) != promotion) {
+                continue;
+            }
+            String fromSquare = PackedMove.squareToAlgebraic(from);
+            boolean matches = true;
+            for (char ch : qualifier.toCharArray()) {
+                matches &= ch == fromSquare.charAt(0) || ch == fromSquare.charAt(1);
+            }
+            if (!matches) continue;
+            if (found != PackedMove.NONE) return PackedMove.NONE;
+            found = move;
+        }
+        return found;
+    }
+
+    private static String getPieceChar(PieceType type) {
+        return switch (type) {
+            case PAWN -> "";
+            case ROOK -> "R";
+            case KNIGHT -> "N";
+            case BISHOP -> "B";
+            case QUEEN -> "Q";
+            case KING -> "K";
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package org.group13.chessgame.utils;
+
+import org.group13.chessgame.model.Game;
+import org.group13.chessgame.model.Move;
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.pgn.PgnHeaders;
+import org.group13.chessgame.pgn.PgnWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+public class PgnFormatter {
+
+    public static String formatGame(PgnHeaders headers, Position start, List<Move> moveHistory, Game.GameState finalState) {
+        StringWriter pgn = new StringWriter();
+        try {
+            writeGame(new PgnWriter(pgn), headers, start, moveHistory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringWriter does not throw
+        }
+        return pgn.toString();
+    }
+
+    /**
+     * Streams one game, with the NAG and comment of annotated moves, to {@code writer}. The SAN of each move is
+     * generated from the position it is played in, starting from {@code start}.
+     */
+    public static void writeGame(PgnWriter writer, PgnHeaders headers, Position start, List<Move> moveHistory) throws IOException {
+        // 1. Seven Tag Roster
+        writer.tags(headers);
+
+        // 2. Movetext
+        writer.startMovetext(start);
+        Position position = start;
+        for (Move move : moveHistory) {
+            int packed = PackedMove.fromMove(move);
+            writer.move(position, packed).nag(move.getNag());
+            position = position.makeMove(packed);
+            if (move.getComment() != null && !move.getComment().isBlank()) {
+                writer.comment(move.getComment());
+            }
+        }
+        writer.endGame(headers.getResult());
+    }
+}
@@ -0,0 +1,294 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.analysis.BatchAnalyzer;
+import org.group13.chessgame.analysis.BatchOptions;
+import org.group13.chessgame.analysis.EpdRecord;
+import org.group13.chessgame.engine.AlphaBetaSearch;
+import org.group13.chessgame.engine.Evaluation;
+import org.group13.chessgame.engine.SearchLimit;
+import org.group13.chessgame.model.PackedMove;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.pgn.PgnGame;
+import org.group13.chessgame.pgn.PgnReader;
+import org.group13.chessgame.utils.NotationUtils;
+import org.group13.chessgame.utils.PgnParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchAnalyzerTest {
+    private static final String GAMES = """
+            [Event "Two Knights"]
+            [White "A"]
+            [Black "B"]
+            [Result "1-0"]
+
+            1. e4 {king pawn} e5 2. Nf3 (2. f4 exf4 {gambit (declined?)}) Nc6 $1 3. Bc4 Nf6?? 4. Ng5 d5
+            5. exd5 Na5 6. Bb5+ c6 7. dxc6 bxc6 8. Qf3 1-0
+
+            [Event "Castling"]
+            [FEN "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1"]
+            [SetUp "1"]
+
+            1... O-O-O 2. 0-0 Rd2 *
+
+            [Event "Broken"]
+
+            1. e4 e4 *
+
+            [Event "After the broken one"]
+
+            1.d4 d5 1/2-1/2
+            """;
+
+    private static final String POSITIONS = """
+            6k1/5ppp/8/8/8/8/8/R5K1 w - - bm Ra8#; id "back rank";
+            4k3/8/8/3q4/8/8/3R4/4K3 w - - bm Rxd5; id "hanging queen";
+            """;
+
+    @Nested
+    @DisplayName("SAN on immutable positions")
+    class NotationTests {
+        @Test
+        @DisplayName("Every legal move survives a SAN round trip")
+        void testSanRoundTrip() {
+            for (String fen : List.of(Position.START_FEN, "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", "1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1")) {
+                Position position = Position.fromFen(fen);
+                for (int move : position.getLegalMoves()) {
+                    String san = NotationUtils.toSan(position, move);
+                    assertEquals(move, NotationUtils.parseSan(position, san), san + " in " + fen);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Disambiguation, promotion, castling and check marks")
+        void testSanDetails() {
+            Position rooks = Position.fromFen("7k/8/8/8/8/8/8/R4RK1 w - - 0 1");
+            int rookA1 = rooks.findLegalMove(PackedMove.algebraicToSquare("a1"), PackedMove.algebraicToSquare("d1"), null);
+            assertEquals("Rad1", NotationUtils.toSan(rooks, rookA1));
+            assertEquals(PackedMove.algebraicToSquare("f1"), PackedMove.from(NotationUtils.parseSan(rooks, "Rfd1")));
+            assertEquals(PackedMove.NONE, NotationUtils.parseSan(rooks, "Rd1"), "ambiguous");
+
+            Position promotion = Position.fromFen("1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+            int capturePromotion = NotationUtils.parseSan(promotion, "axb8=Q");
+            assertEquals("axb8=Q+", NotationUtils.toSan(promotion, capturePromotion));
+            assertEquals(capturePromotion, NotationUtils.parseSan(promotion, "axb8Q+"));
+
+            Position castling = Position.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+            assertTrue(PackedMove.isCastling(NotationUtils.parseSan(castling, "0-0-0")));
+            assertEquals("Rxa8+", NotationUtils.toSan(castling, NotationUtils.parseSan(castling, "Rxa8")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming PGN reader")
+    class PgnReaderTests {
+        @Test
+        @DisplayName("Reads the mainline of each game and skips comments, NAGs and variations")
+        void testReadsGames() throws IOException {
+            try (PgnReader reader = new PgnReader(new StringReader(GAMES))) {
+                PgnGame twoKnights = reader.next();
+                assertEquals("Two Knights", twoKnights.tag("Event"));
+                assertEquals(15, twoKnights.plyCount());
+                assertEquals("1-0", twoKnights.result());
+                Position[] positions = twoKnights.positions();
+                assertEquals("r1bqkb1r/p4ppp/2p2n2/nB2p1N1/8/5Q2/PPPP1PPP/RNB1K2R b KQkq - 1 8", positions[15].toFen());
+
+                PgnGame castling = reader.next();
+                assertEquals(PieceColor.BLACK, castling.startPosition().getSideToMove());
+                assertEquals(3, castling.plyCount());
+                assertEquals("*", castling.result());
+                assertEquals("2k4r/8/8/8/8/8/3r4/R4RK1 w - - 3 3", castling.positions()[3].toFen());
+
+                assertThrows(PgnParseException.class, reader::next);
+                PgnGame afterBroken = reader.next();
+                assertEquals("After the broken one", afterBroken.tag("Event"));
+                assertEquals(2, afterBroken.plyCount());
+                assertNull(reader.next());
+                assertEquals(4, reader.getGamesRead());
+            }
+        }
+
+        @Test
+        @DisplayName("A game with an invalid FEN tag is reported and the next game still parses")
+        void testInvalidFen() throws IOException {
+            String pgn = """
+                    [Event "Bad FEN"]
+                    [FEN "garbage"]
+
+                    1. e4 e5 2. Nf3 *
+
+                    [Event "Good"]
+
+                    1. d4 d5 *
+                    """;
+            try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+                PgnParseException e = assertThrows(PgnParseException.class, reader::next);
+                assertTrue(e.getMessage().contains("Invalid FEN"));
+                PgnGame good = reader.next();
+                assertEquals("Good", good.tag("Event"));
+                assertEquals(2, good.plyCount());
+                assertNull(reader.next());
+                assertEquals(2, reader.getGamesRead());
+            }
+        }
+
+        @Test
+        @DisplayName("Skipping a game consumes it without resolving its moves")
+        void testSkip() throws IOException {
+            try (PgnReader reader = new PgnReader(new StringReader(GAMES))) {
+                assertTrue(reader.skip());
+                assertTrue(reader.skip());
+                assertTrue(reader.skip(), "An illegal move does not matter to a skipped game");
+                assertEquals("After the broken one", reader.next().tag("Event"));
+                assertFalse(reader.skip());
+                assertEquals(4, reader.getGamesRead());
+            }
+        }
+
+        @Test
+        @DisplayName("EPD operations are parsed next to the position")
+        void testEpdRecord() {
+            EpdRecord record = EpdRecord.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - bm Rxd5; id \"hanging queen\"; hmvc 7;");
+            assertEquals("hanging queen", record.getId());
+            assertEquals("Rxd5", record.operations().get("bm"));
+            assertEquals(7, record.position().getHalfMoveClock());
+            assertThrows(IllegalArgumentException.class, () -> EpdRecord.parse("8/8/8 w"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Built-in search")
+    class SearchTests {
+        @Test
+        @DisplayName("Finds a mate in one and reports it as a mate score")
+        void testFindsMate() {
+            Position position = Position.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+            Evaluation evaluation = new AlphaBetaSearch().analyze(position, SearchLimit.depth(3));
+            assertEquals("Ra8#", NotationUtils.toSan(position, evaluation.bestMove()));
+            assertEquals(1, evaluation.mateIn());
+            assertEquals("#1", evaluation.formatForWhite(PieceColor.WHITE));
+            assertTrue(evaluation.nodes() > 0);
+        }
+
+        @Test
+        @DisplayName("Takes a hanging queen and scores the position from White's side")
+        void testWinsMaterial() {
+            Position position = Position.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+            Evaluation evaluation = new AlphaBetaSearch().analyze(position, new SearchLimit(3, 5000));
+            assertEquals("Rxd5", NotationUtils.toSan(position, evaluation.bestMove()));
+            assertTrue(evaluation.whiteCentipawns(PieceColor.WHITE) > 300);
+
+            Evaluation forBlack = new Evaluation(PackedMove.NONE, 120, 0, 1, 1);
+            assertEquals("-1.20", forBlack.formatForWhite(PieceColor.BLACK));
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch runs")
+    class BatchRunTests {
+        @TempDir
+        Path directory;
+
+        private Path write(String name, String content) throws IOException {
+            return Files.writeString(directory.resolve(name), content);
+        }
+
+        @Test
+        @DisplayName("Games and EPD positions are analysed in input order as JSON lines")
+        void testJsonLines() throws Exception {
+            Path games = write("games.pgn", GAMES);
+            Path positions = write("positions.epd", POSITIONS);
+            Path output = directory.resolve("out.jsonl");
+            BatchOptions options = BatchOptions.parse(new String[]{"--depth", "2", "--threads", "3", "--output", output.toString(), games.toString(), positions.toString()});
+
+            assertEquals(6, new BatchAnalyzer(options).run());
+            List<String> lines = Files.readAllLines(output);
+            assertEquals(6, lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                assertTrue(lines.get(i).startsWith("{\"index\":" + i + ","), lines.get(i));
+            }
+            assertTrue(lines.get(0).contains("\"tags\":{\"Event\":\"Two Knights\""));
+            assertTrue(lines.get(0).contains("{\"ply\":1,\"move\":\"e4\""));
+            assertTrue(lines.get(0).contains("{\"ply\":11,\"move\":\"Bb5+\""));
+            assertTrue(lines.get(2).contains("\"error\""));
+            assertTrue(lines.get(4).contains("\"id\":\"back rank\"") && lines.get(4).contains("\"solved\":true"));
+            assertTrue(lines.get(5).contains("\"best\":\"Rxd5\""));
+        }
+
+        @Test
+        @DisplayName("A resumed run truncates unfinished output and produces the same result")
+        void testResumeFromCheckpoint() throws Exception {
+            Path games = write("games.pgn", GAMES);
+            Path output = directory.resolve("out.jsonl");
+            Path checkpoint = directory.resolve("run.checkpoint");
+            String[] args = {"--depth", "1", "--threads", "2", "--output", output.toString(), "--checkpoint", checkpoint.toString(), games.toString()};
+            assertEquals(4, new BatchAnalyzer(BatchOptions.parse(args)).run());
+            String complete = Files.readString(output);
+
+            // pretend the run stopped after two items, with a third half written
+            String firstTwo = complete.substring(0, complete.indexOf('\n', complete.indexOf('\n') + 1) + 1);
+            Files.writeString(output, firstTwo + "{\"index\":2,\"tru");
+            Properties saved = new Properties();
+            try (Reader reader = Files.newBufferedReader(checkpoint)) {
+                saved.load(reader);
+            }
+            saved.setProperty("nextIndex", "2");
+            saved.setProperty("outputBytes", Integer.toString(firstTwo.getBytes(StandardCharsets.UTF_8).length));
+            try (Writer writer = Files.newBufferedWriter(checkpoint)) {
+                saved.store(writer, null);
+            }
+
+            assertEquals(2, new BatchAnalyzer(BatchOptions.parse(args)).run());
+            assertEquals(complete, Files.readString(output));
+
+            Files.writeString(games, GAMES + "\n1. e4 *\n");
+            assertThrows(IOException.class, () -> new BatchAnalyzer(BatchOptions.parse(args)).run(), "inputs changed since the checkpoint");
+        }
+
+        @Test
+        @DisplayName("Annotated PGN carries eval comments and the better move")
+        void testAnnotatedPgn() throws Exception {
+            Path positions = write("positions.epd", POSITIONS);
+            Path games = write("games.pgn", GAMES);
+            Path output = directory.resolve("out.pgn");
+            new BatchAnalyzer(BatchOptions.parse(new String[]{"--format", "pgn", "--depth", "2", "--output", output.toString(), games.toString(), positions.toString()})).run();
+
+            String pgn = Files.readString(output);
+            assertTrue(pgn.contains("[Annotator \"Built-in alpha-beta\"]"));
+            assertTrue(pgn.startsWith("[Event \"Two Knights\"]"));
+            assertTrue(pgn.contains("1. e4 {[%eval "));
+            assertTrue(pgn.contains("1... e5 {[%eval "));
+            assertTrue(pgn.contains("1... O-O-O {[%eval "));
+            assertTrue(pgn.contains("1. Ra8# {[%eval #1]} *"));
+            try (PgnReader reader = PgnReader.open(output)) {
+                assertEquals(15, reader.next().plyCount());
+            }
+        }
+
+        @Test
+        @DisplayName("Bad command lines are rejected")
+        void testOptions() {
+            assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse(new String[]{}));
+            assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse(new String[]{"--checkpoint", "c", "a.pgn"}));
+            assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse(new String[]{"--engine", "/usr/bin/stockfish", "a.pgn"}));
+            assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse(new String[]{"--depth", "zero", "a.pgn"}));
+            assertEquals(BatchOptions.DEFAULT_BUILTIN_DEPTH, BatchOptions.parse(new String[]{"a.pgn"}).limit().depth());
+        }
+    }
+}
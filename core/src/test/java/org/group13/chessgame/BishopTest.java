@@ -18,7 +18,7 @@ public class BishopTest {
     void setUp() {
         game = new Game();
         board = game.getBoard();
-        whiteBishop = new Bishop(PieceColor.WHITE);
+        whiteBishop = Bishop.of(PieceColor.WHITE);
     }
 
     private boolean containsMove(List<Move> moves, int startRow, int startCol, int endRow, int endCol) {
@@ -49,8 +49,8 @@ public class BishopTest {
     @DisplayName("Bishop blocked by ally and captures enemy")
     void bishopBlockedAndCaptures() {
         board.setPiece(4, 3, whiteBishop); // d4
-        board.setPiece(2, 1, new Pawn(PieceColor.WHITE));  // b6
-        board.setPiece(6, 5, new Pawn(PieceColor.BLACK)); // f2
+        board.setPiece(2, 1, Pawn.of(PieceColor.WHITE));  // b6
+        board.setPiece(6, 5, Pawn.of(PieceColor.BLACK)); // f2
 
         List<Move> moves = whiteBishop.getPseudoLegalMoves(game, 4, 3);
         assertEquals(10, moves.size());
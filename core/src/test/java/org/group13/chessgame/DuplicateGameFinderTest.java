@@ -0,0 +1,110 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.index.DuplicateGameFinder;
+import org.group13.chessgame.pgn.PgnGame;
+import org.group13.chessgame.pgn.PgnReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DuplicateGameFinderTest {
+    @TempDir
+    Path tempDir;
+
+    private static final String FIRST = """
+            [White "Carlsen, Magnus"]
+            [Black "Anand, Viswanathan"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1-0
+
+            [White "A"]
+
+            1. d4 d5 2. c4 e6 *
+
+            [White "Broken"]
+
+            1. e4 e4 *
+
+            [White "Magnus Carlsen"]
+            [Black "V. Anand"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 1/2-1/2
+
+            [White "Transposed"]
+
+            1. c4 e6 2. d4 d5 *
+
+            [White "Empty"]
+
+            *
+
+            """;
+
+    private static final String SECOND = """
+            [White "Empty"]
+
+            *
+
+            [White "A again"]
+
+            1. d4 d5 2. c4 e6 *
+
+            [White "From FEN"]
+            [SetUp "1"]
+            [FEN "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 *
+
+            [White "Shorter"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bb5 *
+
+            """;
+
+    @Test
+    @DisplayName("Games with the same moves are found across files, whatever their tags")
+    void testFind() throws Exception {
+        Path first = tempDir.resolve("first.pgn");
+        Path second = tempDir.resolve("second.pgn");
+        Files.writeString(first, FIRST);
+        Files.writeString(second, SECOND);
+
+        DuplicateGameFinder.Result result = new DuplicateGameFinder(3).find(List.of(first, second));
+        assertEquals(10, result.getGameCount());
+        assertEquals(3, result.getDuplicateCount());
+        assertEquals(0, result.getOriginal(3));
+        assertEquals(1, result.getOriginal(7));
+        assertEquals(0, result.getOriginal(8), "A FEN tag with the standard start is the same game");
+        assertEquals(-1, result.getOriginal(0));
+        assertFalse(result.isDuplicate(4), "Transpositions are different games");
+        assertFalse(result.isDuplicate(6), "Games without moves are never duplicates");
+        assertFalse(result.isDuplicate(9));
+        assertArrayEquals(new int[]{3, 7, 8}, result.getDuplicates().toArray());
+    }
+
+    @Test
+    @DisplayName("Cleaning writes the remaining games in order")
+    void testClean() throws Exception {
+        Path first = tempDir.resolve("first.pgn");
+        Path second = tempDir.resolve("second.pgn");
+        Path output = tempDir.resolve("clean.pgn");
+        Files.writeString(first, FIRST);
+        Files.writeString(second, SECOND);
+
+        new DuplicateGameFinder(2).clean(List.of(first, second), output);
+        List<String> whites = new ArrayList<>();
+        try (PgnReader reader = PgnReader.open(output)) {
+            PgnGame game;
+            while ((game = reader.next()) != null) whites.add(game.tag("White"));
+        }
+        assertEquals(List.of("Carlsen, Magnus", "A", "Transposed", "Empty", "Empty", "Shorter"), whites);
+        assertEquals(0, new DuplicateGameFinder(1).find(List.of(output)).getDuplicateCount());
+    }
+}
@@ -0,0 +1,123 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.model.Game;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.pgn.*;
+import org.group13.chessgame.utils.NotationUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EcoClassifierTest {
+    private static int[] line(String... sans) {
+        Position position = Position.startPosition();
+        int[] moves = new int[sans.length];
+        for (int i = 0; i < sans.length; i++) {
+            moves[i] = NotationUtils.parseSan(position, sans[i]);
+            position = position.makeMove(moves[i]);
+        }
+        return moves;
+    }
+
+    @Test
+    @DisplayName("The deepest named line of the bundled table wins")
+    void testStandardTable() {
+        EcoClassifier eco = EcoClassifier.standard();
+        assertTrue(eco.size() > 100);
+        Position start = Position.startPosition();
+        assertEquals(new EcoOpening("B90", "Sicilian Defense: Najdorf Variation"), eco.classify(start, line("e4", "c5", "Nf3", "d6", "d4", "cxd4", "Nxd4", "Nf6", "Nc3", "a6", "Be3")));
+        assertEquals("C60", eco.classify(start, line("e4", "e5", "Nf3", "Nc6", "Bb5", "Bc5")).eco(), "Leaving the table keeps the last name");
+        assertNull(eco.classify(start, new int[0]));
+    }
+
+    @Test
+    @DisplayName("Move-order transpositions reach the same entry")
+    void testTransposition() {
+        EcoClassifier eco = EcoClassifier.standard();
+        Position start = Position.startPosition();
+        // 1. Nf3 d5 2. d4 ends on a double push, whose en-passant file is in the position hash
+        assertEquals("Queen's Pawn Game: Zukertort Variation", eco.classify(start, line("Nf3", "d5", "d4")).name());
+        assertEquals("D43", eco.classify(start, line("c4", "e6", "Nc3", "d5", "d4", "Nf6", "Nf3", "c6")).eco());
+    }
+
+    @Test
+    @DisplayName("Custom tables skip bad lines and keep the first of duplicate lines")
+    void testLoad() throws Exception {
+        EcoClassifier eco = EcoClassifier.load(new StringReader("""
+                eco\tname\tpgn
+                # comment
+                X01\tFirst\t1. e4 e5
+                X02\tDuplicate\t1. e4 e5
+                X03\tIllegal\t1. e4 e4
+                X04\tMissing fields
+                X05\tKnight\t1. e4 e5 2. Nf3
+                """));
+        assertEquals(2, eco.size());
+        Position start = Position.startPosition();
+        assertEquals("First", eco.classify(start, line("e4", "e5")).name());
+        long state = eco.start(start.getHash());
+        int[] moves = line("e4", "e5", "Nf3");
+        Position position = start;
+        for (int move : moves) {
+            position = position.makeMove(move);
+            state = eco.advance(state, move, position.getHash());
+        }
+        assertEquals("X05", eco.opening(state).eco());
+        assertFalse(eco.inBook(eco.advance(state, line("e4", "e5", "Nf3", "Nc6")[3], 42L)));
+    }
+
+    @Test
+    @DisplayName("Game classifies as moves are made and follows undo")
+    void testGameIncremental() {
+        Game game = new Game();
+        game.initializeGame();
+        assertNull(game.getOpening());
+        for (String uci : new String[]{"d2d4", "g8f6", "c2c4", "e7e6", "b1c3", "f8b4"}) {
+            assertNotNull(game.makeMoveFromUCI(uci));
+        }
+        assertEquals("E20", game.getOpening().eco());
+        game.undo();
+        assertEquals("E00", game.getOpening().eco());
+        game.redo();
+        assertEquals("Nimzo-Indian Defense", game.getOpening().name());
+        game.seekToPly(2);
+        assertEquals("A45", game.getOpening().eco());
+    }
+
+    @Test
+    @DisplayName("The PGN reader tags games while parsing them")
+    void testReaderTagging() throws Exception {
+        String pgn = """
+                [White "A"]
+
+                1. e4 e6 2. d4 d5 3. Nc3 Bb4 *
+
+                [White "B"]
+                [ECO "Z99"]
+
+                1. e4 e6 *
+                """;
+        try (PgnReader reader = new PgnReader(new StringReader(pgn)).setEcoClassifier(EcoClassifier.standard())) {
+            PgnGame first = reader.next();
+            assertEquals("C15", first.tag("ECO"));
+            assertEquals("French Defense: Winawer Variation", first.tag("Opening"));
+            assertEquals("Z99", reader.next().tag("ECO"), "Existing tags are kept");
+        }
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            assertEquals("?", reader.next().tag("ECO"));
+        }
+
+        PgnHeaders headers = new PgnHeaders();
+        headers.setEco("C15");
+        headers.setOpening("French Defense: Winawer Variation");
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            writer.tags(headers);
+        }
+        assertTrue(out.toString().contains("[Result \"*\"]\n[ECO \"C15\"]\n[Opening \"French Defense: Winawer Variation\"]\n"));
+    }
+}
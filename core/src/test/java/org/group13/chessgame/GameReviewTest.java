@@ -0,0 +1,76 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.analysis.GameReview;
+import org.group13.chessgame.analysis.MoveClassification;
+import org.group13.chessgame.analysis.MoveReview;
+import org.group13.chessgame.analysis.ReviewReport;
+import org.group13.chessgame.engine.AlphaBetaSearch;
+import org.group13.chessgame.engine.EnginePool;
+import org.group13.chessgame.engine.SearchLimit;
+import org.group13.chessgame.model.Game;
+import org.group13.chessgame.model.Move;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.pgn.PgnHeaders;
+import org.group13.chessgame.utils.PgnFormatter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameReviewTest {
+    private EnginePool engines;
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engines = new EnginePool(2, AlphaBetaSearch::new);
+        game = new Game();
+        game.initializeGame();
+        for (String uci : new String[]{"e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6", "h5f7"}) {
+            assertNotNull(game.makeMoveFromUCI(uci), uci);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        engines.close();
+    }
+
+    @Test
+    @DisplayName("Allowing Scholar's mate is a blunder and the mate itself is the best move")
+    void testClassification() throws Exception {
+        ReviewReport report = new GameReview(engines, SearchLimit.depth(3)).review(game);
+
+        assertEquals(7, report.moves().size());
+        MoveReview nf6 = report.moves().get(5);
+        assertEquals(PieceColor.BLACK, nf6.mover());
+        assertEquals(MoveClassification.BLUNDER, nf6.classification());
+        assertTrue(nf6.centipawnLoss() > 300);
+        assertEquals(MoveClassification.BEST, report.moves().get(6).classification());
+        assertEquals("#0", report.moves().get(6).evalText());
+
+        assertEquals(1, report.count(PieceColor.BLACK, MoveClassification.BLUNDER));
+        assertTrue(report.getAccuracy(PieceColor.WHITE) > report.getAccuracy(PieceColor.BLACK));
+        assertTrue(report.getAverageCentipawnLoss(PieceColor.BLACK) > report.getAverageCentipawnLoss(PieceColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Annotations are written back to the moves and into the PGN")
+    void testAnnotate() throws Exception {
+        GameReview.annotate(game, new GameReview(engines, SearchLimit.depth(3)).review(game));
+
+        List<Move> moves = game.getPlayedMoveSequence();
+        assertEquals(MoveClassification.BLUNDER.getNag(), moves.get(5).getNag());
+        assertTrue(moves.get(5).getComment().startsWith("[%eval #"));
+        assertTrue(moves.get(5).getComment().contains("Blunder."));
+        assertEquals(0, moves.get(6).getNag());
+
+        String pgn = PgnFormatter.formatGame(new PgnHeaders(), game.getStartPosition(), moves, game.getGameState());
+        assertTrue(pgn.contains("Nf6 $4 {[%eval #"), pgn);
+        assertTrue(pgn.contains("4. Qxf7#"), pgn);
+    }
+}
@@ -0,0 +1,153 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.model.*;
+import org.group13.chessgame.network.*;
+import org.group13.chessgame.server.GameServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServerTest {
+    private GameServer server;
+    private GameConnection white;
+    private GameConnection black;
+
+    private GameConnection connect() throws IOException {
+        Socket socket = new Socket("localhost", server.getPort());
+        socket.setSoTimeout(5000);
+        return new GameConnection(socket);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new GameServer(0, 2);
+        server.start();
+        GameConnection first = connect();
+        GameConnection second = connect();
+        PieceColor firstColor = FrameCodec.readColor(first.receive());
+        PieceColor secondColor = FrameCodec.readColor(second.receive());
+        assertNotEquals(firstColor, secondColor);
+        white = (firstColor == PieceColor.WHITE) ? first : second;
+        black = (firstColor == PieceColor.WHITE) ? second : first;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        white.close();
+        black.close();
+        server.close();
+    }
+
+    private static int uci(String move) {
+        return PackedMove.of(PackedMove.algebraicToSquare(move.substring(0, 2)), PackedMove.algebraicToSquare(move.substring(2, 4)), null);
+    }
+
+    private static long hashAfter(String... moves) {
+        Game game = new Game();
+        game.initializeGame();
+        for (String move : moves) {
+            game.makeMove(game.findLegalMove(uci(move)));
+        }
+        return game.getCurrentPositionHash();
+    }
+
+    @Test
+    @DisplayName("Legal moves are forwarded to the opponent with the server's position hash")
+    void testForwardsLegalMove() throws IOException {
+        white.sendMove(uci("e2e4"), hashAfter("e2e4"));
+        Frame forwarded = black.receive();
+        assertEquals(MessageType.MOVE, forwarded.type());
+        assertEquals("e2e4", PackedMove.toUci(FrameCodec.readMove(forwarded)));
+        assertEquals(hashAfter("e2e4"), FrameCodec.readPositionHash(forwarded));
+        assertEquals(1, server.getActiveRoomCount());
+    }
+
+    @Test
+    @DisplayName("Illegal and out-of-turn moves are answered with ERROR and not forwarded")
+    void testRejectsInvalidMoves() throws IOException {
+        black.sendMove(uci("e7e5"), 0L);
+        assertEquals(MessageType.ERROR, black.receive().type());
+
+        white.sendMove(uci("e2e5"), 0L);
+        assertEquals(MessageType.ERROR, white.receive().type());
+
+        white.sendMove(uci("d2d4"), hashAfter("d2d4"));
+        Frame forwarded = black.receive();
+        assertEquals("d2d4", PackedMove.toUci(FrameCodec.readMove(forwarded)));
+    }
+
+    private GameConnection spectate(int roomId) throws IOException {
+        GameConnection spectator = connect();
+        spectator.sendSpectate(roomId);
+        return spectator;
+    }
+
+    @Test
+    @DisplayName("A late spectator gets the move log as a snapshot, then the live moves")
+    void testLateSpectatorCatchesUp() throws IOException {
+        white.sendMove(uci("e2e4"), hashAfter("e2e4"));
+        black.receive();
+        black.sendMove(uci("c7c5"), hashAfter("e2e4", "c7c5"));
+        white.receive();
+
+        try (GameConnection spectator = spectate(0)) {
+            Frame snapshot = spectator.receive();
+            assertEquals(MessageType.SNAPSHOT, snapshot.type());
+            int[] moves = FrameCodec.readSnapshotMoves(snapshot);
+            assertEquals(2, moves.length);
+            assertEquals("c7c5", PackedMove.toUci(moves[1]));
+            assertEquals(hashAfter("e2e4", "c7c5"), FrameCodec.readSnapshotHash(snapshot));
+            assertEquals(Game.GameState.ACTIVE, FrameCodec.readSnapshotState(snapshot));
+
+            white.sendMove(uci("g1f3"), hashAfter("e2e4", "c7c5", "g1f3"));
+            white.sendChat("hi");
+            Frame move = spectator.receive();
+            assertEquals("g1f3", PackedMove.toUci(FrameCodec.readMove(move)));
+            assertEquals("hi", FrameCodec.readText(spectator.receive()));
+        }
+    }
+
+    @Test
+    @DisplayName("Every spectator receives the same broadcast and leaving does not end the game")
+    void testFanOut() throws IOException {
+        GameConnection[] spectators = new GameConnection[20];
+        for (int i = 0; i < spectators.length; i++) {
+            spectators[i] = spectate(0);
+            assertEquals(0, FrameCodec.readSnapshotMoves(spectators[i].receive()).length);
+        }
+        white.sendMove(uci("d2d4"), hashAfter("d2d4"));
+        for (GameConnection spectator : spectators) {
+            assertEquals("d2d4", PackedMove.toUci(FrameCodec.readMove(spectator.receive())));
+            spectator.close();
+        }
+
+        black.receive();
+        black.sendMove(uci("d7d5"), hashAfter("d2d4", "d7d5"));
+        assertEquals("d7d5", PackedMove.toUci(FrameCodec.readMove(white.receive())));
+    }
+
+    @Test
+    @DisplayName("Spectating a room that does not exist is refused")
+    void testSpectateUnknownRoom() throws IOException {
+        try (GameConnection spectator = spectate(999)) {
+            assertEquals(MessageType.ERROR, spectator.receive().type());
+        }
+    }
+
+    @Test
+    @DisplayName("Chat is relayed and a disconnect closes the opponent's connection")
+    void testChatAndDisconnect() throws IOException {
+        white.sendChat("good luck");
+        assertEquals("good luck", FrameCodec.readText(black.receive()));
+
+        white.close();
+        assertThrows(EOFException.class, black::receive);
+    }
+}
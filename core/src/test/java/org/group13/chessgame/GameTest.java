@@ -36,14 +36,11 @@ public class GameTest {
     class AttackAndCheckTests {
 
         private static List<Game.PiecePlacement> getPiecePlacements() {
-            King whiteKing = new King(PieceColor.WHITE);
-            whiteKing.setHasMoved(true);
-            Rook whiteRook = new Rook(PieceColor.WHITE);
-            whiteRook.setHasMoved(true);
-            Bishop whiteBishop = new Bishop(PieceColor.WHITE);
+            King whiteKing = King.of(PieceColor.WHITE);
+            Rook whiteRook = Rook.of(PieceColor.WHITE);
+            Bishop whiteBishop = Bishop.of(PieceColor.WHITE);
 
-            King blackKing = new King(PieceColor.BLACK);
-            blackKing.setHasMoved(true);
+            King blackKing = King.of(PieceColor.BLACK);
 
             return List.of(new Game.PiecePlacement(7, 4, whiteKing, true), new Game.PiecePlacement(4, 4, whiteRook, true), new Game.PiecePlacement(3, 4, whiteBishop, false), new Game.PiecePlacement(0, 4, blackKing, true));
         }
@@ -51,13 +48,13 @@ public class GameTest {
         @Test
         @DisplayName("isSquareAttackedBy - Pawn attack")
         void testIsSquareAttackedByPawn() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(6, 3, new Pawn(PieceColor.WHITE))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(6, 3, Pawn.of(PieceColor.WHITE))), PieceColor.WHITE);
             assertTrue(game.isSquareAttackedBy(board.getSquare(5, 2), PieceColor.WHITE), "c3 should be attacked by White Pawn at d2");
             assertTrue(game.isSquareAttackedBy(board.getSquare(5, 4), PieceColor.WHITE), "e3 should be attacked by White Pawn at d2");
             assertFalse(game.isSquareAttackedBy(board.getSquare(5, 3), PieceColor.WHITE), "d3 should NOT be 'attacked' by White Pawn for check purposes");
             assertFalse(game.isSquareAttackedBy(board.getSquare(6, 2), PieceColor.WHITE), "c2 should not be attacked by White Pawn at d2");
 
-            board.setPiece(1, 3, new Pawn(PieceColor.BLACK));
+            board.setPiece(1, 3, Pawn.of(PieceColor.BLACK));
             assertTrue(game.isSquareAttackedBy(board.getSquare(2, 2), PieceColor.BLACK), "c6 should be attacked by Black Pawn at d7");
             assertTrue(game.isSquareAttackedBy(board.getSquare(2, 4), PieceColor.BLACK), "e6 should be attacked by Black Pawn at d7");
             assertFalse(game.isSquareAttackedBy(board.getSquare(2, 3), PieceColor.BLACK), "d6 should NOT be 'attacked' by Black Pawn");
@@ -66,19 +63,19 @@ public class GameTest {
         @Test
         @DisplayName("isSquareAttackedBy - Rook attack")
         void testIsSquareAttackedByRook() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, new Rook(PieceColor.WHITE))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, Rook.of(PieceColor.WHITE))), PieceColor.WHITE);
             assertTrue(game.isSquareAttackedBy(board.getSquare(0, 3), PieceColor.WHITE), "d8 should be attacked by Rook at d5");
             assertTrue(game.isSquareAttackedBy(board.getSquare(3, 7), PieceColor.WHITE), "h5 should be attacked by Rook at d5");
             assertFalse(game.isSquareAttackedBy(board.getSquare(2, 2), PieceColor.WHITE), "c6 should NOT be attacked by Rook at d5");
 
-            board.setPiece(3, 5, new Pawn(PieceColor.WHITE));
+            board.setPiece(3, 5, Pawn.of(PieceColor.WHITE));
             assertFalse(game.isSquareAttackedBy(board.getSquare(3, 6), PieceColor.WHITE), "g5 should NOT be attacked if f5 is blocked by ally");
         }
 
         @Test
         @DisplayName("isSquareAttackedBy - Knight attack")
         void testIsSquareAttackedByKnight() {
-            board.setPiece(3, 3, new Knight(PieceColor.WHITE));
+            board.setPiece(3, 3, Knight.of(PieceColor.WHITE));
             assertTrue(game.isSquareAttackedBy(board.getSquare(1, 2), PieceColor.WHITE), "c7 should be attacked by Knight at d5");
             assertTrue(game.isSquareAttackedBy(board.getSquare(5, 4), PieceColor.WHITE), "e3 should be attacked by Knight at d5");
             assertFalse(game.isSquareAttackedBy(board.getSquare(3, 4), PieceColor.WHITE), "e5 should NOT be attacked by Knight");
@@ -87,24 +84,24 @@ public class GameTest {
         @Test
         @DisplayName("isSquareAttackedBy - Bishop attack")
         void testIsSquareAttackedByBishop() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, new Bishop(PieceColor.WHITE))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, Bishop.of(PieceColor.WHITE))), PieceColor.WHITE);
             assertTrue(game.isSquareAttackedBy(board.getSquare(1, 1), PieceColor.WHITE), "b7 should be attacked by Bishop at d5");
             assertTrue(game.isSquareAttackedBy(board.getSquare(5, 5), PieceColor.WHITE), "f3 should be attacked by Bishop at d5");
             assertFalse(game.isSquareAttackedBy(board.getSquare(3, 4), PieceColor.WHITE), "e5 should NOT be attacked by Bishop");
 
-            board.setPiece(2, 2, new Knight(PieceColor.WHITE));
+            board.setPiece(2, 2, Knight.of(PieceColor.WHITE));
             assertFalse(game.isSquareAttackedBy(board.getSquare(1, 1), PieceColor.WHITE), "b7 should NOT be attacked if c6 is blocked by ally");
         }
 
         @Test
         @DisplayName("isSquareAttackedBy - Queen attack")
         void testIsSquareAttackedByQueen() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, new Queen(PieceColor.WHITE))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, Queen.of(PieceColor.WHITE))), PieceColor.WHITE);
             assertTrue(game.isSquareAttackedBy(board.getSquare(0, 3), PieceColor.WHITE), "d8 should be attacked by Queen at d5");
             assertTrue(game.isSquareAttackedBy(board.getSquare(1, 1), PieceColor.WHITE), "b7 should be attacked by Queen at d5");
             assertFalse(game.isSquareAttackedBy(board.getSquare(1, 2), PieceColor.WHITE), "c7 should NOT be attacked by Queen");
 
-            board.setPiece(3, 5, new Pawn(PieceColor.BLACK));
+            board.setPiece(3, 5, Pawn.of(PieceColor.BLACK));
             assertTrue(game.isSquareAttackedBy(board.getSquare(3, 5), PieceColor.WHITE), "f5 should be attacked (can be captured)");
             assertFalse(game.isSquareAttackedBy(board.getSquare(3, 6), PieceColor.WHITE), "g5 should NOT be attacked if f5 is blocked by enemy");
         }
@@ -112,7 +109,7 @@ public class GameTest {
         @Test
         @DisplayName("isSquareAttackedBy - King attack")
         void testIsSquareAttackedByKing() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, new King(PieceColor.WHITE))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, King.of(PieceColor.WHITE))), PieceColor.WHITE);
             assertTrue(game.isSquareAttackedBy(board.getSquare(2, 2), PieceColor.WHITE), "c6 should be attacked by King at d5");
             assertTrue(game.isSquareAttackedBy(board.getSquare(4, 4), PieceColor.WHITE), "e4 should be attacked by King at d5");
             assertFalse(game.isSquareAttackedBy(board.getSquare(1, 3), PieceColor.WHITE), "d7 should NOT be attacked by King");
@@ -121,7 +118,7 @@ public class GameTest {
         @Test
         @DisplayName("isKingInCheck - Simple Rook Check")
         void testKingInCheckSimpleRook() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 4, new King(PieceColor.BLACK)), new Game.PiecePlacement(0, 0, new Rook(PieceColor.WHITE))), PieceColor.BLACK);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 4, King.of(PieceColor.BLACK)), new Game.PiecePlacement(0, 0, Rook.of(PieceColor.WHITE))), PieceColor.BLACK);
 
             assertTrue(game.isKingInCheck(PieceColor.BLACK), "Black King at e8 should be in check by White Rook at a8.");
             assertFalse(game.isKingInCheck(PieceColor.WHITE), "White King (not on board) should not be in check.");
@@ -130,7 +127,7 @@ public class GameTest {
         @Test
         @DisplayName("isKingInCheck - King not in check")
         void testKingNotInCheck() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 4, new King(PieceColor.BLACK)), new Game.PiecePlacement(1, 0, new Rook(PieceColor.WHITE))), PieceColor.BLACK);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 4, King.of(PieceColor.BLACK)), new Game.PiecePlacement(1, 0, Rook.of(PieceColor.WHITE))), PieceColor.BLACK);
             assertFalse(game.isKingInCheck(PieceColor.BLACK), "Black King at e8 should NOT be in check by White Rook at a7.");
         }
 
@@ -160,11 +157,10 @@ public class GameTest {
     class LegalMoveTests {
 
         private static List<Game.PiecePlacement> getPiecePlacements() {
-            King whiteKing = new King(PieceColor.WHITE);
-            Bishop whiteBishop = new Bishop(PieceColor.WHITE);
-            King blackKing = new King(PieceColor.BLACK);
-            blackKing.setHasMoved(true);
-            Bishop blackBishop = new Bishop(PieceColor.BLACK);
+            King whiteKing = King.of(PieceColor.WHITE);
+            Bishop whiteBishop = Bishop.of(PieceColor.WHITE);
+            King blackKing = King.of(PieceColor.BLACK);
+            Bishop blackBishop = Bishop.of(PieceColor.BLACK);
 
             return List.of(new Game.PiecePlacement(7, 0, whiteKing), new Game.PiecePlacement(4, 3, whiteBishop), new Game.PiecePlacement(0, 4, blackKing, true), new Game.PiecePlacement(0, 7, blackBishop));
         }
@@ -172,10 +168,9 @@ public class GameTest {
         @Test
         @DisplayName("King cannot move into check")
         void kingCannotMoveIntoCheck() {
-            King whiteKing = new King(PieceColor.WHITE);
-            King blackKing = new King(PieceColor.BLACK);
-            blackKing.setHasMoved(true);
-            Rook blackRook = new Rook(PieceColor.BLACK);
+            King whiteKing = King.of(PieceColor.WHITE);
+            King blackKing = King.of(PieceColor.BLACK);
+            Rook blackRook = Rook.of(PieceColor.BLACK);
 
             List<Game.PiecePlacement> placements = List.of(new Game.PiecePlacement(7, 4, whiteKing, false), new Game.PiecePlacement(0, 4, blackKing, true), new Game.PiecePlacement(6, 0, blackRook, false));
             game.setupBoardForTest(placements, PieceColor.WHITE);
@@ -196,11 +191,10 @@ public class GameTest {
         @Test
         @DisplayName("Pinned piece cannot move if it exposes King to check")
         void pinnedPieceCannotMove() {
-            King whiteKing = new King(PieceColor.WHITE);
-            Knight whiteKnight = new Knight(PieceColor.WHITE);
-            King blackKing = new King(PieceColor.BLACK);
-            blackKing.setHasMoved(true);
-            Rook blackRook = new Rook(PieceColor.BLACK);
+            King whiteKing = King.of(PieceColor.WHITE);
+            Knight whiteKnight = Knight.of(PieceColor.WHITE);
+            King blackKing = King.of(PieceColor.BLACK);
+            Rook blackRook = Rook.of(PieceColor.BLACK);
 
             List<Game.PiecePlacement> placements = List.of(new Game.PiecePlacement(7, 4, whiteKing), new Game.PiecePlacement(7, 1, whiteKnight), new Game.PiecePlacement(0, 4, blackKing, true), new Game.PiecePlacement(7, 0, blackRook));
             game.setupBoardForTest(placements, PieceColor.WHITE);
@@ -210,7 +204,7 @@ public class GameTest {
             long knightMovesCount = whiteLegalMoves.stream().filter(m -> m.getPieceMoved().getType() == PieceType.KNIGHT && m.getStartSquare().getRow() == 7 && m.getStartSquare().getCol() == 1).count();
             assertEquals(0, knightMovesCount, "Pinned Knight at b1 should have 0 legal moves.");
 
-            board.setPiece(6, 2, new Pawn(PieceColor.WHITE)); // Pc2
+            board.setPiece(6, 2, Pawn.of(PieceColor.WHITE)); // Pc2
             whiteLegalMoves = game.getAllLegalMovesForPlayer(PieceColor.WHITE);
 
             knightMovesCount = whiteLegalMoves.stream().filter(m -> m.getPieceMoved().getType() == PieceType.KNIGHT && m.getStartSquare().getRow() == 7 && m.getStartSquare().getCol() == 1).count();
@@ -268,10 +262,9 @@ public class GameTest {
         @Test
         @DisplayName("Simple Stalemate")
         void simpleStalemate() {
-            King blackKing = new King(PieceColor.BLACK);
-            King whiteKing = new King(PieceColor.WHITE);
-            whiteKing.setHasMoved(true);
-            Queen whiteQueen = new Queen(PieceColor.WHITE);
+            King blackKing = King.of(PieceColor.BLACK);
+            King whiteKing = King.of(PieceColor.WHITE);
+            Queen whiteQueen = Queen.of(PieceColor.WHITE);
 
             List<Game.PiecePlacement> placements = List.of(new Game.PiecePlacement(0, 0, blackKing), new Game.PiecePlacement(2, 0, whiteKing, true), new Game.PiecePlacement(1, 3, whiteQueen));
             game.setupBoardForTest(placements, PieceColor.WHITE);
@@ -295,7 +288,7 @@ public class GameTest {
         @DisplayName("Back Rank Mate")
         void backRankMate() {
             // White: Ke1, Ra8. Black: Kg8, Pawns f7,g7,h7
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(7, 4, new King(PieceColor.WHITE)), new Game.PiecePlacement(0, 0, new Rook(PieceColor.WHITE)), new Game.PiecePlacement(0, 6, new King(PieceColor.BLACK)), new Game.PiecePlacement(1, 5, new Pawn(PieceColor.BLACK)), new Game.PiecePlacement(1, 6, new Pawn(PieceColor.BLACK)), new Game.PiecePlacement(1, 7, new Pawn(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(7, 4, King.of(PieceColor.WHITE)), new Game.PiecePlacement(0, 0, Rook.of(PieceColor.WHITE)), new Game.PiecePlacement(0, 6, King.of(PieceColor.BLACK)), new Game.PiecePlacement(1, 5, Pawn.of(PieceColor.BLACK)), new Game.PiecePlacement(1, 6, Pawn.of(PieceColor.BLACK)), new Game.PiecePlacement(1, 7, Pawn.of(PieceColor.BLACK))), PieceColor.WHITE);
 
             Move ra8e8 = findMove(game.getAllLegalMovesForPlayer(PieceColor.WHITE), 0, 0, 0, 4).orElseThrow(() -> new AssertionError("Move Ra8-e8 not found."));
             assertNotNull(game.makeMove(ra8e8));
@@ -308,7 +301,7 @@ public class GameTest {
         @DisplayName("Queen and King vs King Checkmate")
         void queenKingVsKingCheckmate() {
             // White: Kc1, Qc2. Black: Ka1
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(7, 2, new King(PieceColor.WHITE)), new Game.PiecePlacement(6, 2, new Queen(PieceColor.WHITE)), new Game.PiecePlacement(7, 0, new King(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(7, 2, King.of(PieceColor.WHITE)), new Game.PiecePlacement(6, 2, Queen.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 0, King.of(PieceColor.BLACK))), PieceColor.WHITE);
 
             Move qc2b2 = findMove(game.getAllLegalMovesForPlayer(PieceColor.WHITE), 6, 2, 6, 1).orElseThrow(() -> new AssertionError("Move Qc2-b2 not found."));
             assertNotNull(game.makeMove(qc2b2));
@@ -322,14 +315,19 @@ public class GameTest {
     class CastlingTests {
 
         private void setupInitialKingsAndRooks() {
-            King whiteKing = new King(PieceColor.WHITE);
-            Rook whiteRooka1 = new Rook(PieceColor.WHITE);
-            Rook whiteRookh1 = new Rook(PieceColor.WHITE);
-            King blackKing = new King(PieceColor.BLACK);
-            Rook blackRooka8 = new Rook(PieceColor.BLACK);
-            Rook blackRookh8 = new Rook(PieceColor.BLACK);
-
-            List<Game.PiecePlacement> placements = List.of(new Game.PiecePlacement(7, 4, whiteKing), new Game.PiecePlacement(7, 0, whiteRooka1), new Game.PiecePlacement(7, 7, whiteRookh1), new Game.PiecePlacement(0, 4, blackKing), new Game.PiecePlacement(0, 0, blackRooka8), new Game.PiecePlacement(0, 7, blackRookh8));
+            setupInitialKingsAndRooks(false, false);
+        }
+
+        // castling rights are position state, taken from the pieces' moved flags when the board is set up
+        private void setupInitialKingsAndRooks(boolean whiteKingMoved, boolean whiteRookh1Moved) {
+            King whiteKing = King.of(PieceColor.WHITE);
+            Rook whiteRooka1 = Rook.of(PieceColor.WHITE);
+            Rook whiteRookh1 = Rook.of(PieceColor.WHITE);
+            King blackKing = King.of(PieceColor.BLACK);
+            Rook blackRooka8 = Rook.of(PieceColor.BLACK);
+            Rook blackRookh8 = Rook.of(PieceColor.BLACK);
+
+            List<Game.PiecePlacement> placements = List.of(new Game.PiecePlacement(7, 4, whiteKing, whiteKingMoved), new Game.PiecePlacement(7, 0, whiteRooka1), new Game.PiecePlacement(7, 7, whiteRookh1, whiteRookh1Moved), new Game.PiecePlacement(0, 4, blackKing), new Game.PiecePlacement(0, 0, blackRooka8), new Game.PiecePlacement(0, 7, blackRookh8));
             game.setupBoardForTest(placements, PieceColor.WHITE);
         }
 
@@ -351,8 +349,7 @@ public class GameTest {
             assertNotNull(game.makeMove(castling));
             assertSame(PieceType.KING, board.getPiece(7, 6).getType(), "King should be on g1 after O-O.");
             assertSame(PieceType.ROOK, board.getPiece(7, 5).getType(), "Rook should be on f1 after O-O.");
-            assertTrue(board.getPiece(7, 6).hasMoved(), "King should be marked as moved after O-O.");
-            assertTrue(board.getPiece(7, 5).hasMoved(), "Rook should be marked as moved after O-O.");
+            assertEquals(Position.BLACK_KINGSIDE | Position.BLACK_QUEENSIDE, game.getCastlingRights(), "White should lose both castling rights after O-O.");
             assertNull(board.getPiece(7, 4), "e1 should be empty.");
             assertNull(board.getPiece(7, 7), "h1 should be empty.");
         }
@@ -374,17 +371,38 @@ public class GameTest {
             assertNotNull(game.makeMove(castling));
             assertSame(PieceType.KING, board.getPiece(7, 2).getType(), "King should be on c1 after O-O-O.");
             assertSame(PieceType.ROOK, board.getPiece(7, 3).getType(), "Rook should be on d1 after O-O-O.");
-            assertTrue(board.getPiece(7, 2).hasMoved());
-            assertTrue(board.getPiece(7, 3).hasMoved());
+            assertEquals(Position.BLACK_KINGSIDE | Position.BLACK_QUEENSIDE, game.getCastlingRights());
         }
 
 
+        @Test
+        @DisplayName("Castling rights and the en-passant square follow moves, undo and FEN")
+        void castlingStateFollowsMoves() {
+            game.initializeGame();
+            assertEquals(Position.START_FEN, game.getFen());
+            for (String uci : new String[]{"e2e4", "a7a5", "h2h4", "a8a6", "h1h3"}) {
+                assertNotNull(game.makeMoveFromUCI(uci));
+            }
+            assertEquals(Position.BLACK_KINGSIDE | Position.WHITE_QUEENSIDE, game.getCastlingRights());
+            assertEquals(-1, game.getEnPassantSquare());
+            assertEquals("1nbqkbnr/1ppppppp/r7/p7/4P2P/7R/PPPP1PP1/RNBQKBN1 b Qk - 2 3", game.getFen());
+            assertEquals(game.toPosition().getHash(), game.getCurrentPositionHash());
+
+            game.undo();
+            game.undo();
+            assertEquals(Position.ALL_CASTLING, game.getCastlingRights());
+            assertEquals(PackedMove.square(5, 7), game.getEnPassantSquare());
+            assertTrue(game.getFen().endsWith(" b KQkq h3 0 2"));
+            game.seekToPly(0);
+            assertEquals(Position.START_FEN, game.getFen());
+            game.seekToPly(5);
+            assertEquals(Position.BLACK_KINGSIDE | Position.WHITE_QUEENSIDE, game.getCastlingRights());
+        }
+
         @Test
         @DisplayName("Cannot castle if King has moved")
         void cannotCastleIfKingMoved() {
-            setupInitialKingsAndRooks();
-            King whiteKing = (King) board.getPiece(7, 4);
-            whiteKing.setHasMoved(true);
+            setupInitialKingsAndRooks(true, false);
 
             List<Move> whiteMoves = game.getAllLegalMovesForPlayer(PieceColor.WHITE);
             assertFalse(whiteMoves.stream().anyMatch(Move::isCastlingMove), "Should not be able to castle if King has moved.");
@@ -393,9 +411,7 @@ public class GameTest {
         @Test
         @DisplayName("Cannot castle if Rook has moved")
         void cannotCastleIfRookMoved() {
-            setupInitialKingsAndRooks();
-            Rook kingsideRook = (Rook) board.getPiece(7, 7);
-            kingsideRook.setHasMoved(true);
+            setupInitialKingsAndRooks(false, true);
 
             List<Move> whiteMoves = game.getAllLegalMovesForPlayer(PieceColor.WHITE);
             Optional<Move> ooMove = whiteMoves.stream().filter(Move::isCastlingMove).filter(m -> m.getEndSquare().getCol() == 6).findFirst();
@@ -407,7 +423,7 @@ public class GameTest {
         @DisplayName("Cannot castle if path is blocked (Kingside)")
         void cannotCastleIfPathBlockedKingside() {
             setupInitialKingsAndRooks();
-            board.setPiece(7, 5, new Knight(PieceColor.WHITE));
+            board.setPiece(7, 5, Knight.of(PieceColor.WHITE));
 
             List<Move> whiteMoves = game.getAllLegalMovesForPlayer(PieceColor.WHITE);
             Optional<Move> ooMove = whiteMoves.stream().filter(Move::isCastlingMove).filter(m -> m.getEndSquare().getCol() == 6).findFirst();
@@ -418,7 +434,7 @@ public class GameTest {
         @DisplayName("Cannot castle if King is in check")
         void cannotCastleIfKingInCheck() {
             setupInitialKingsAndRooks();
-            board.setPiece(6, 4, new Rook(PieceColor.BLACK));
+            board.setPiece(6, 4, Rook.of(PieceColor.BLACK));
 
             assertTrue(game.isKingInCheck(PieceColor.WHITE), "White King should be in check.");
 
@@ -430,7 +446,7 @@ public class GameTest {
         @DisplayName("Cannot castle through an attacked square (Kingside f1)")
         void cannotCastleThroughAttackedSquareKingside() {
             setupInitialKingsAndRooks();
-            board.setPiece(0, 5, new Rook(PieceColor.BLACK));
+            board.setPiece(0, 5, Rook.of(PieceColor.BLACK));
 
             assertTrue(game.isSquareAttackedBy(board.getSquare(7, 5), PieceColor.BLACK), "f1 should be attacked by Black Rook at f8.");
 
@@ -443,7 +459,7 @@ public class GameTest {
         @DisplayName("Cannot castle into an attacked square (Kingside g1)")
         void cannotCastleIntoAttackedSquareKingside() {
             setupInitialKingsAndRooks();
-            board.setPiece(0, 6, new Rook(PieceColor.BLACK));
+            board.setPiece(0, 6, Rook.of(PieceColor.BLACK));
 
             assertTrue(game.isSquareAttackedBy(board.getSquare(7, 6), PieceColor.BLACK), "g1 should be attacked by Black Rook at g8.");
 
@@ -461,8 +477,7 @@ public class GameTest {
 
             Piece originalKing = board.getPiece(7, 4);
             Piece originalRook = board.getPiece(7, 7);
-            assertFalse(originalKing.hasMoved());
-            assertFalse(originalRook.hasMoved());
+            assertEquals(Position.ALL_CASTLING, game.getCastlingRights());
 
             assertNotNull(game.makeMove(ooMove));
 
@@ -472,8 +487,7 @@ public class GameTest {
             assertSame(originalRook, board.getPiece(7, 7), "Rook should be back on h1.");
             assertNull(board.getPiece(7, 6), "g1 should be empty.");
             assertNull(board.getPiece(7, 5), "f1 should be empty.");
-            assertFalse(board.getPiece(7, 4).hasMoved(), "King's hasMoved should be false after undo.");
-            assertFalse(board.getPiece(7, 7).hasMoved(), "Rook's hasMoved should be false after undo.");
+            assertEquals(Position.ALL_CASTLING, game.getCastlingRights(), "Castling rights should be restored after undo.");
             assertEquals(PieceColor.WHITE, game.getCurrentPlayer().getColor(), "Should be White's turn again after undoing White's move.");
         }
 
@@ -481,7 +495,7 @@ public class GameTest {
         @DisplayName("Cannot castle Queenside if path (b1,c1,d1) is blocked")
         void cannotCastleIfPathBlockedQueenside() {
             setupInitialKingsAndRooks();
-            board.setPiece(7, 2, new Knight(PieceColor.WHITE));
+            board.setPiece(7, 2, Knight.of(PieceColor.WHITE));
 
             List<Move> whiteMoves = game.getAllLegalMovesForPlayer(PieceColor.WHITE);
             Optional<Move> oooMove = whiteMoves.stream().filter(Move::isCastlingMove).filter(m -> m.getEndSquare().getCol() == 2).findFirst();
@@ -492,7 +506,7 @@ public class GameTest {
         @DisplayName("Cannot castle Queenside through an attacked square (d1)")
         void cannotCastleThroughAttackedSquareQueensideD1() {
             setupInitialKingsAndRooks();
-            board.setPiece(0, 3, new Rook(PieceColor.BLACK));
+            board.setPiece(0, 3, Rook.of(PieceColor.BLACK));
 
             assertTrue(game.isSquareAttackedBy(board.getSquare(7, 3), PieceColor.BLACK), "d1 should be attacked by Black Rook at d8.");
 
@@ -505,7 +519,7 @@ public class GameTest {
         @DisplayName("Cannot castle Queenside through an attacked square (c1 - landing)")
         void cannotCastleIntoAttackedSquareQueensideC1() {
             setupInitialKingsAndRooks();
-            board.setPiece(0, 2, new Rook(PieceColor.BLACK));
+            board.setPiece(0, 2, Rook.of(PieceColor.BLACK));
 
             assertTrue(game.isSquareAttackedBy(board.getSquare(7, 2), PieceColor.BLACK), "c1 should be attacked by Black Rook at c8.");
 
@@ -523,8 +537,7 @@ public class GameTest {
 
             Piece originalKing = board.getPiece(7, 4);
             Piece originalRook = board.getPiece(7, 0);
-            assertFalse(originalKing.hasMoved());
-            assertFalse(originalRook.hasMoved());
+            assertEquals(Position.ALL_CASTLING, game.getCastlingRights());
 
             assertNotNull(game.makeMove(oooMove));
 
@@ -534,8 +547,7 @@ public class GameTest {
             assertSame(originalRook, board.getPiece(7, 0), "Rook should be back on a1.");
             assertNull(board.getPiece(7, 2), "c1 should be empty.");
             assertNull(board.getPiece(7, 3), "d1 should be empty.");
-            assertFalse(board.getPiece(7, 4).hasMoved(), "King's hasMoved should be false after undo.");
-            assertFalse(board.getPiece(7, 0).hasMoved(), "Rook's hasMoved should be false after undo.");
+            assertEquals(Position.ALL_CASTLING, game.getCastlingRights(), "Castling rights should be restored after undo.");
             assertEquals(PieceColor.WHITE, game.getCurrentPlayer().getColor(), "Should be White's turn again.");
             assertEquals(Game.GameState.ACTIVE, game.getGameState());
         }
@@ -578,8 +590,8 @@ public class GameTest {
         @Test
         @DisplayName("White Pawn can perform en passant capture")
         void whitePawnEnPassantLegal() {
-            Pawn whitePawnD5 = new Pawn(PieceColor.WHITE);
-            Pawn blackPawnC7 = new Pawn(PieceColor.BLACK);
+            Pawn whitePawnD5 = Pawn.of(PieceColor.WHITE);
+            Pawn blackPawnC7 = Pawn.of(PieceColor.BLACK);
 
             game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, whitePawnD5), new Game.PiecePlacement(1, 2, blackPawnC7)), PieceColor.BLACK);
 
@@ -609,10 +621,10 @@ public class GameTest {
         @Test
         @DisplayName("En passant is not legal if not immediately after opponent's two-square pawn move")
         void enPassantNotLegalIfNotImmediate() {
-            Pawn whitePawnD5 = new Pawn(PieceColor.WHITE);
-            Pawn blackPawnC7 = new Pawn(PieceColor.BLACK);
-            Pawn whitePawnH2 = new Pawn(PieceColor.WHITE);
-            Pawn blackPawnA7 = new Pawn(PieceColor.BLACK);
+            Pawn whitePawnD5 = Pawn.of(PieceColor.WHITE);
+            Pawn blackPawnC7 = Pawn.of(PieceColor.BLACK);
+            Pawn whitePawnH2 = Pawn.of(PieceColor.WHITE);
+            Pawn blackPawnA7 = Pawn.of(PieceColor.BLACK);
 
 
             List<Game.PiecePlacement> placements = List.of(new Game.PiecePlacement(3, 3, whitePawnD5), new Game.PiecePlacement(1, 2, blackPawnC7), new Game.PiecePlacement(6, 7, whitePawnH2), new Game.PiecePlacement(1, 0, blackPawnA7));
@@ -636,8 +648,8 @@ public class GameTest {
         @Test
         @DisplayName("En passant not legal if opponent pawn moved one square")
         void enPassantNotLegalIfOpponentOneSquareMove() {
-            Pawn whitePawnD5 = new Pawn(PieceColor.WHITE);
-            Pawn blackPawnC6 = new Pawn(PieceColor.BLACK);
+            Pawn whitePawnD5 = Pawn.of(PieceColor.WHITE);
+            Pawn blackPawnC6 = Pawn.of(PieceColor.BLACK);
             game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, whitePawnD5), new Game.PiecePlacement(2, 2, blackPawnC6)), PieceColor.BLACK);
 
             Move blackPawnMove = findMove(game.getAllLegalMovesForPlayer(PieceColor.BLACK), 2, 2, 3, 2).get(); // c5
@@ -651,8 +663,8 @@ public class GameTest {
         @Test
         @DisplayName("Undo En Passant capture")
         void undoEnPassantCapture() {
-            Pawn whitePawnD5 = new Pawn(PieceColor.WHITE);
-            Pawn blackPawnC7 = new Pawn(PieceColor.BLACK);
+            Pawn whitePawnD5 = Pawn.of(PieceColor.WHITE);
+            Pawn blackPawnC7 = Pawn.of(PieceColor.BLACK);
             game.setupBoardForTest(List.of(new Game.PiecePlacement(3, 3, whitePawnD5), new Game.PiecePlacement(1, 2, blackPawnC7)), PieceColor.BLACK);
 
             Move blackPawnMoveToC5 = findMove(game.getAllLegalMovesForPlayer(PieceColor.BLACK), 1, 2, 3, 2).get();
@@ -675,8 +687,8 @@ public class GameTest {
         @Test
         @DisplayName("Black Pawn can perform en passant capture")
         void blackPawnEnPassantLegal() {
-            Pawn blackPawnD4 = new Pawn(PieceColor.BLACK);
-            Pawn whitePawnC2 = new Pawn(PieceColor.WHITE);
+            Pawn blackPawnD4 = Pawn.of(PieceColor.BLACK);
+            Pawn whitePawnC2 = Pawn.of(PieceColor.WHITE);
             game.setupBoardForTest(List.of(new Game.PiecePlacement(4, 3, blackPawnD4), new Game.PiecePlacement(6, 2, whitePawnC2)), PieceColor.WHITE);
 
             Move whitePawnMove = findMove(game.getAllLegalMovesForPlayer(PieceColor.WHITE), 6, 2, 4, 2).orElseThrow(() -> new AssertionError("White pawn c2-c4 move not found"));
@@ -702,10 +714,10 @@ public class GameTest {
         @Test
         @DisplayName("En passant is correctly invalidated by a subsequent move")
         void enPassantInvalidatedByNextPly() {
-            Pawn whitePawnE5 = new Pawn(PieceColor.WHITE);
-            Pawn blackPawnD7 = new Pawn(PieceColor.BLACK);
-            King whiteKingE1 = new King(PieceColor.WHITE);
-            King blackKingE8 = new King(PieceColor.BLACK);
+            Pawn whitePawnE5 = Pawn.of(PieceColor.WHITE);
+            Pawn blackPawnD7 = Pawn.of(PieceColor.BLACK);
+            King whiteKingE1 = King.of(PieceColor.WHITE);
+            King blackKingE8 = King.of(PieceColor.BLACK);
 
             List<Game.PiecePlacement> placements = List.of(new Game.PiecePlacement(3, 4, whitePawnE5), new Game.PiecePlacement(1, 3, blackPawnD7), new Game.PiecePlacement(7, 4, whiteKingE1), new Game.PiecePlacement(0, 4, blackKingE8));
             game.setupBoardForTest(placements, PieceColor.BLACK);
@@ -733,8 +745,7 @@ public class GameTest {
         @Test
         @DisplayName("White Pawn promotes to Queen (no capture)")
         void whitePawnPromotesToQueenNoCapture() {
-            Pawn whitePawnA7 = new Pawn(PieceColor.WHITE);
-            whitePawnA7.setHasMoved(true);
+            Pawn whitePawnA7 = Pawn.of(PieceColor.WHITE);
             game.setupBoardForTest(List.of(new Game.PiecePlacement(1, 0, whitePawnA7, true)), PieceColor.WHITE);
 
             List<Move> whiteMoves = game.getAllLegalMovesForPlayer(PieceColor.WHITE);
@@ -748,16 +759,15 @@ public class GameTest {
             assertNotNull(pieceAtA8);
             assertEquals(PieceType.QUEEN, pieceAtA8.getType(), "Piece at a8 should be a Queen.");
             assertEquals(PieceColor.WHITE, pieceAtA8.getColor());
-            assertTrue(pieceAtA8.hasMoved(), "Promoted Queen should be marked as moved.");
+            assertSame(Queen.of(PieceColor.WHITE), pieceAtA8, "Promotion should place the shared white Queen.");
             assertNull(board.getPiece(1, 0), "a7 should be empty.");
         }
 
         @Test
         @DisplayName("White Pawn promotes to Knight with capture")
         void whitePawnPromotesToKnightWithCapture() {
-            Pawn whitePawnB7 = new Pawn(PieceColor.WHITE);
-            Rook blackRookC8 = new Rook(PieceColor.BLACK);
-            whitePawnB7.setHasMoved(true);
+            Pawn whitePawnB7 = Pawn.of(PieceColor.WHITE);
+            Rook blackRookC8 = Rook.of(PieceColor.BLACK);
             game.setupBoardForTest(List.of(new Game.PiecePlacement(1, 1, whitePawnB7, true), new Game.PiecePlacement(0, 2, blackRookC8)), PieceColor.WHITE);
 
             List<Move> whiteMoves = game.getAllLegalMovesForPlayer(PieceColor.WHITE);
@@ -778,8 +788,7 @@ public class GameTest {
         @Test
         @DisplayName("Undo Pawn Promotion (no capture)")
         void undoPawnPromotionNoCapture() {
-            Pawn whitePawnA7 = new Pawn(PieceColor.WHITE);
-            whitePawnA7.setHasMoved(true);
+            Pawn whitePawnA7 = Pawn.of(PieceColor.WHITE);
             game.setupBoardForTest(List.of(new Game.PiecePlacement(1, 0, whitePawnA7, true)), PieceColor.WHITE);
 
             Move promotionMove = findPromotionMove(game.getAllLegalMovesForPlayer(PieceColor.WHITE), 1, 0, 0, 0, PieceType.QUEEN).get();
@@ -790,9 +799,8 @@ public class GameTest {
             Piece pieceAtA7 = board.getPiece(1, 0);
             assertNotNull(pieceAtA7);
             assertEquals(PieceType.PAWN, pieceAtA7.getType(), "Should be a Pawn back at a7.");
-            // assertSame(whitePawnA7, pieceAtA7);
+            assertSame(whitePawnA7, pieceAtA7);
             assertEquals(PieceColor.WHITE, pieceAtA7.getColor());
-            assertTrue(pieceAtA7.hasMoved(), "Pawn's original hasMoved status should be restored.");
             assertNull(board.getPiece(0, 0), "a8 should be empty after undo.");
             assertEquals(PieceColor.WHITE, game.getCurrentPlayer().getColor());
         }
@@ -800,8 +808,7 @@ public class GameTest {
         @Test
         @DisplayName("Black Pawn promotes to Rook")
         void blackPawnPromotesToRook() {
-            Pawn blackPawnH2 = new Pawn(PieceColor.BLACK);
-            blackPawnH2.setHasMoved(true);
+            Pawn blackPawnH2 = Pawn.of(PieceColor.BLACK);
             game.setupBoardForTest(List.of(new Game.PiecePlacement(6, 7, blackPawnH2, true)), PieceColor.BLACK);
 
             List<Move> blackMoves = game.getAllLegalMovesForPlayer(PieceColor.BLACK);
@@ -826,7 +833,7 @@ public class GameTest {
         @DisplayName("Game is drawn after 50 moves (100 plies) without pawn move or capture")
         void testFiftyMoveDraw() {
             // White: Ka1, Qb2. Black: Kc8
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(7, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(6, 1, new Queen(PieceColor.WHITE)), new Game.PiecePlacement(0, 2, new King(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(7, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(6, 1, Queen.of(PieceColor.WHITE)), new Game.PiecePlacement(0, 2, King.of(PieceColor.BLACK))), PieceColor.WHITE);
             assertEquals(0, game.getHalfMoveClock());
 
             for (int i = 0; i < 99; i++) {
@@ -891,7 +898,7 @@ public class GameTest {
         @Test
         @DisplayName("King vs King is a draw")
         void kingVsKing() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, new King(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, King.of(PieceColor.BLACK))), PieceColor.WHITE);
             game._test_triggerUpdateGameState();
             assertEquals(Game.GameState.INSUFFICIENT_MATERIAL_DRAW, game.getGameState());
         }
@@ -899,7 +906,7 @@ public class GameTest {
         @Test
         @DisplayName("King vs King and Knight is a draw")
         void kingVsKingAndKnight() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, new King(PieceColor.BLACK)), new Game.PiecePlacement(7, 6, new Knight(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, King.of(PieceColor.BLACK)), new Game.PiecePlacement(7, 6, Knight.of(PieceColor.BLACK))), PieceColor.WHITE);
             game._test_triggerUpdateGameState();
             assertEquals(Game.GameState.INSUFFICIENT_MATERIAL_DRAW, game.getGameState());
         }
@@ -907,7 +914,7 @@ public class GameTest {
         @Test
         @DisplayName("King vs King and Bishop is a draw")
         void kingVsKingAndBishop() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, new King(PieceColor.BLACK)), new Game.PiecePlacement(7, 5, new Bishop(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, King.of(PieceColor.BLACK)), new Game.PiecePlacement(7, 5, Bishop.of(PieceColor.BLACK))), PieceColor.WHITE);
             game._test_triggerUpdateGameState();
             assertEquals(Game.GameState.INSUFFICIENT_MATERIAL_DRAW, game.getGameState());
         }
@@ -915,7 +922,7 @@ public class GameTest {
         @Test
         @DisplayName("King and Bishop vs King and Bishop (same color squares) is a draw")
         void kingAndBishopVsKingAndBishopSameColor() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(0, 1, new Bishop(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, new King(PieceColor.BLACK)), new Game.PiecePlacement(7, 6, new Bishop(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(0, 1, Bishop.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, King.of(PieceColor.BLACK)), new Game.PiecePlacement(7, 6, Bishop.of(PieceColor.BLACK))), PieceColor.WHITE);
             game._test_triggerUpdateGameState();
             assertEquals(Game.GameState.INSUFFICIENT_MATERIAL_DRAW, game.getGameState());
         }
@@ -923,7 +930,7 @@ public class GameTest {
         @Test
         @DisplayName("King and Bishop vs King and Bishop (different color squares) is NOT necessarily a draw by this rule")
         void kingAndBishopVsKingAndBishopDifferentColor() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(0, 1, new Bishop(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, new King(PieceColor.BLACK)), new Game.PiecePlacement(7, 5, new Bishop(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(0, 1, Bishop.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, King.of(PieceColor.BLACK)), new Game.PiecePlacement(7, 5, Bishop.of(PieceColor.BLACK))), PieceColor.WHITE);
             game._test_triggerUpdateGameState();
             assertNotEquals(Game.GameState.INSUFFICIENT_MATERIAL_DRAW, game.getGameState(), "Game should not be a draw by insufficient material.");
         }
@@ -932,7 +939,7 @@ public class GameTest {
         @Test
         @DisplayName("King and Pawn vs King is NOT a draw by insufficient material")
         void kingAndPawnVsKing() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(1, 0, new Pawn(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, new King(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(1, 0, Pawn.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, King.of(PieceColor.BLACK))), PieceColor.WHITE);
             game._test_triggerUpdateGameState();
             assertNotEquals(Game.GameState.INSUFFICIENT_MATERIAL_DRAW, game.getGameState(), "Game should not be a draw by insufficient material.");
         }
@@ -940,7 +947,7 @@ public class GameTest {
         @Test
         @DisplayName("King and Rook vs King is NOT a draw by insufficient material")
         void kingAndRookVsKing() {
-            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, new King(PieceColor.WHITE)), new Game.PiecePlacement(1, 0, new Rook(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, new King(PieceColor.BLACK))), PieceColor.WHITE);
+            game.setupBoardForTest(List.of(new Game.PiecePlacement(0, 0, King.of(PieceColor.WHITE)), new Game.PiecePlacement(1, 0, Rook.of(PieceColor.WHITE)), new Game.PiecePlacement(7, 7, King.of(PieceColor.BLACK))), PieceColor.WHITE);
             game._test_triggerUpdateGameState();
             assertNotEquals(Game.GameState.INSUFFICIENT_MATERIAL_DRAW, game.getGameState(), "Game should not be a draw by insufficient material.");
         }
@@ -1000,6 +1007,47 @@ public class GameTest {
             assertEquals(Game.GameState.THREEFOLD_REPETITION_DRAW, game.getGameState());
         }
 
+        @Test
+        @DisplayName("Two-fold detection follows moves, undo and irreversible moves")
+        void testTwoFoldDetection() {
+            game.initializeGame();
+            assertFalse(game.isRepetition());
+            makeSpecificMove(game, 7, 6, 5, 5); // Nf3
+            makeSpecificMove(game, 0, 6, 2, 5); // Nf6
+            makeSpecificMove(game, 5, 5, 7, 6); // Ng1
+            assertFalse(game.isRepetition());
+            makeSpecificMove(game, 2, 5, 0, 6); // Ng8
+            assertTrue(game.isRepetition());
+            assertEquals(2, game.getRepetitionCount());
+            game.undo();
+            assertFalse(game.isRepetition());
+            game.redo();
+            assertTrue(game.isRepetition());
+
+            makeSpecificMove(game, 6, 4, 4, 4); // e4
+            assertFalse(game.isRepetition());
+            assertEquals(1, game.getRepetitionCount());
+        }
+
+        @Test
+        @DisplayName("RepetitionHistory only scans back within the halfmove clock")
+        void testRepetitionHistoryWindow() {
+            RepetitionHistory history = new RepetitionHistory();
+            history.reset(1L, 0);
+            history.push(2L, 1);
+            history.push(1L, 2);
+            assertTrue(history.isRepetition());
+            history.pop();
+            history.push(1L, 1);
+            assertFalse(history.isRepetition(), "A clock of 1 rules out the position two plies back");
+            history.push(2L, 2);
+            history.push(1L, 3);
+            assertEquals(2, history.getRepetitionCount());
+            assertEquals(4, history.getPly());
+            history.reset(5L, 0);
+            assertThrows(IllegalStateException.class, history::pop);
+        }
+
         @Test
         @DisplayName("Repetition with different castling rights does not count as same position")
         void testRepetitionDifferentCastlingRights() {
@@ -1064,4 +1112,318 @@ public class GameTest {
             assertNull(game.getPositionHistoryCount().get(hashAfterE4), "Count for hashAfterE4 should be null (or 0 if we don't remove keys).");
         }
     }
+
+    @Nested
+    @DisplayName("History Seek Tests")
+    class HistorySeekTests {
+        private final List<Position> positions = new java.util.ArrayList<>();
+        private final List<Long> hashes = new java.util.ArrayList<>();
+        private final List<Integer> captureCounts = new java.util.ArrayList<>();
+
+        private void record() {
+            positions.add(game.toPosition());
+            hashes.add(game.getCurrentPositionHash());
+            captureCounts.add(game.getCapturedPieces(PieceColor.WHITE).size() + game.getCapturedPieces(PieceColor.BLACK).size());
+        }
+
+        private void playLine(int plies) {
+            record();
+            for (int ply = 0; ply < plies && game.getGameState() != Game.GameState.WHITE_WINS_CHECKMATE && game.getGameState() != Game.GameState.BLACK_WINS_CHECKMATE && game.getGameState() != Game.GameState.STALEMATE_DRAW; ply++) {
+                List<Move> legalMoves = game.getAllLegalMovesForPlayer(game.getCurrentPlayer().getColor());
+                Move capture = legalMoves.stream().filter(m -> m.getPieceCaptured() != null).findFirst().orElse(null);
+                Move chosen = (capture != null && ply % 3 == 0) ? capture : legalMoves.get((ply * 7) % legalMoves.size());
+                assertNotNull(game.makeMove(chosen));
+                record();
+            }
+        }
+
+        private void assertAtPly(int ply) {
+            assertEquals(ply, game.getUndoStack().size());
+            assertEquals(positions.get(ply), game.toPosition(), "Board after seeking to ply " + ply);
+            assertEquals(hashes.get(ply).longValue(), game.getCurrentPositionHash(), "Hash after seeking to ply " + ply);
+            assertEquals(captureCounts.get(ply).intValue(), game.getCapturedPieces(PieceColor.WHITE).size() + game.getCapturedPieces(PieceColor.BLACK).size());
+            assertEquals(positions.get(ply).getLegalMoves().length, game.getAllLegalMovesForPlayer(game.getCurrentPlayer().getColor()).size());
+        }
+
+        @Test
+        @DisplayName("Seeking back and forth across checkpoints restores every position")
+        void testSeekMatchesPlayedPositions() {
+            playLine(70);
+            int lastPly = positions.size() - 1;
+            assertTrue(lastPly > 40, "Line should be long enough to cross several checkpoints");
+
+            int[] targets = {0, lastPly, 3, 33, 17, 16, lastPly - 1, 1, 48, 32, 0};
+            for (int target : targets) {
+                assertTrue(game.seekToPly(target));
+                assertAtPly(target);
+            }
+            assertFalse(game.seekToPly(lastPly + 1));
+            assertFalse(game.seekToPly(-1));
+        }
+
+        @Test
+        @DisplayName("Position history counts survive a seek round trip")
+        void testSeekKeepsRepetitionCounts() {
+            playLine(40);
+            java.util.Map<Long, Integer> countsAtEnd = new java.util.HashMap<>(game.getPositionHistoryCount());
+            game.seekToPly(2);
+            assertEquals(1, game.getPositionHistoryCount().get(hashes.get(0)));
+            assertNull(game.getPositionHistoryCount().get(hashes.get(30)));
+            game.seekToPly(positions.size() - 1);
+            assertEquals(countsAtEnd, game.getPositionHistoryCount());
+        }
+
+        @Test
+        @DisplayName("A new move after seeking back discards the checkpoints of the old line")
+        void testNewMoveAfterSeekTruncatesCheckpoints() {
+            playLine(40);
+            game.seekToPly(20);
+            List<Move> legalMoves = game.getAllLegalMovesForPlayer(game.getCurrentPlayer().getColor());
+            Move alternative = legalMoves.stream().filter(m -> !m.isEquivalent(game.getRedoStack().peek())).findFirst().orElseThrow();
+            game.makeMove(alternative);
+            assertFalse(game.canRedo());
+            Position afterAlternative = game.toPosition();
+
+            for (int i = 0; i < 20; i++) {
+                List<Move> moves = game.getAllLegalMovesForPlayer(game.getCurrentPlayer().getColor());
+                if (moves.isEmpty()) break;
+                game.makeMove(moves.getFirst());
+            }
+            game.seekToPly(0);
+            game.seekToPly(21);
+            assertEquals(afterAlternative, game.toPosition());
+            game.seekToPly(0);
+            assertEquals(positions.getFirst(), game.toPosition());
+        }
+    }
+
+    @Nested
+    @DisplayName("Move Tree Tests")
+    class MoveTreeTests {
+
+        @Test
+        @DisplayName("Exploring a sideline keeps the old line, and goToNode brings it back")
+        void testSidelineKeepsRedoLine() {
+            for (String uci : new String[]{"e2e4", "e7e5", "g1f3", "b8c6", "f1b5"}) {
+                assertNotNull(game.makeMoveFromUCI(uci));
+            }
+            int ruyLopez = game.getCurrentNode();
+            game.seekToPly(4);
+            int italianBranch = game.getCurrentNode();
+            assertNotNull(game.makeMoveFromUCI("f1c4"));
+            assertFalse(game.canRedo());
+            int italian = game.getCurrentNode();
+
+            GameTree tree = game.getMoveTree();
+            assertEquals(7, tree.size());
+            assertArrayEquals(new int[]{ruyLopez, italian}, tree.getChildren(italianBranch));
+            assertTrue(tree.isMainLine(ruyLopez));
+            assertFalse(tree.isMainLine(italian));
+            assertEquals(game.getCurrentPositionHash(), tree.getHash(italian));
+            assertEquals(game.toPosition(), tree.positionAt(italian));
+
+            assertTrue(game.goToNode(ruyLopez));
+            assertEquals(ruyLopez, game.getCurrentNode());
+            assertEquals("b5", game.getUndoStack().peek().getEndSquare().toString().toLowerCase());
+            assertEquals(tree.positionAt(ruyLopez), game.toPosition());
+            assertEquals(7, tree.size(), "Replaying a known line must not add nodes");
+
+            assertTrue(game.goToNode(tree.getParent(tree.getParent(ruyLopez))));
+            assertEquals(3, game.getUndoStack().size());
+            assertEquals(2, game.getRedoStack().size());
+        }
+
+        @Test
+        @DisplayName("Removed nodes and their descendants are no longer reachable")
+        void testRemovedSubtree() {
+            for (String uci : new String[]{"e2e4", "e7e5", "g1f3", "b8c6"}) {
+                assertNotNull(game.makeMoveFromUCI(uci));
+            }
+            int knightsNode = game.getCurrentNode();
+            GameTree tree = game.getMoveTree();
+            int nf3 = tree.getParent(knightsNode);
+            game.seekToPly(2);
+            assertNotNull(game.makeMoveFromUCI("d2d4"));
+            int centerGame = game.getCurrentNode();
+
+            tree.remove(nf3);
+            assertFalse(tree.contains(nf3));
+            assertFalse(tree.contains(knightsNode));
+            assertTrue(tree.contains(centerGame));
+            assertFalse(game.goToNode(knightsNode));
+            assertFalse(game.goToNode(nf3));
+            assertEquals(centerGame, game.getCurrentNode());
+            assertThrows(IllegalArgumentException.class, () -> tree.pathTo(knightsNode));
+            assertThrows(IllegalArgumentException.class, () -> tree.addChild(knightsNode, PackedMove.of(PackedMove.algebraicToSquare("f1"), PackedMove.algebraicToSquare("b5")), 0L));
+            assertThrows(IllegalArgumentException.class, () -> tree.cursor().moveTo(knightsNode));
+        }
+
+        @Test
+        @DisplayName("The cursor steps, jumps and adds variations without touching a Game")
+        void testCursor() {
+            GameTree tree = new GameTree(Position.startPosition());
+            GameTree.Cursor cursor = tree.cursor();
+            Position start = cursor.position();
+            assertTrue(cursor.play(PackedMove.of(PackedMove.algebraicToSquare("e2"), PackedMove.algebraicToSquare("e4"))));
+            assertTrue(cursor.play(PackedMove.of(PackedMove.algebraicToSquare("c7"), PackedMove.algebraicToSquare("c5"))));
+            int sicilian = cursor.node();
+            assertFalse(cursor.play(PackedMove.of(PackedMove.algebraicToSquare("e1"), PackedMove.algebraicToSquare("e3"))));
+            assertTrue(cursor.back());
+            assertTrue(cursor.play(PackedMove.of(PackedMove.algebraicToSquare("e7"), PackedMove.algebraicToSquare("e5"))));
+            int open = cursor.node();
+            assertEquals(2, cursor.ply());
+            assertArrayEquals(new int[]{sicilian, open}, cursor.variations());
+            assertEquals(cursor.position().getHash(), tree.getHash(open));
+
+            cursor.moveTo(sicilian);
+            assertEquals(tree.positionAt(sicilian), cursor.position());
+            cursor.toStart();
+            assertEquals(start, cursor.position());
+            assertFalse(cursor.back());
+            cursor.toEnd();
+            assertEquals(sicilian, cursor.node());
+
+            tree.promote(open);
+            cursor.toStart();
+            cursor.toEnd();
+            assertEquals(open, cursor.node());
+            tree.setNag(open, 1);
+            tree.setComment(open, "classical");
+            assertEquals(1, tree.getNag(open));
+            assertEquals("classical", tree.getComment(open));
+
+            tree.remove(sicilian);
+            assertArrayEquals(new int[]{open}, cursor.variations());
+            assertThrows(IllegalArgumentException.class, () -> cursor.moveTo(sicilian));
+        }
+
+        @Test
+        @DisplayName("Thousands of variations stay navigable")
+        void testManyVariations() {
+            GameTree tree = new GameTree(Position.startPosition());
+            GameTree.Cursor cursor = tree.cursor();
+            java.util.Random random = new java.util.Random(7);
+            for (int line = 0; line < 300; line++) {
+                cursor.toStart();
+                for (int ply = 0; ply < 12; ply++) {
+                    int[] legal = cursor.position().getLegalMoves();
+                    if (legal.length == 0) break;
+                    cursor.play(legal[random.nextInt(Math.min(3, legal.length))]);
+                }
+            }
+            assertTrue(tree.size() > 1000);
+            for (int node = tree.size() - 1; node > 0; node -= 97) {
+                cursor.moveTo(node);
+                assertEquals(tree.getHash(node), cursor.position().getHash());
+                assertEquals(tree.getPly(node), cursor.ply());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Game Clock Tests")
+    class ClockTests {
+        private final long[] now = {0L};
+
+        private GameClock startClock(TimeControl timeControl) {
+            GameClock clock = new GameClock(timeControl, () -> now[0]);
+            game.setClock(clock);
+            clock.start(PieceColor.WHITE);
+            return clock;
+        }
+
+        private void play(PieceColor color, int startR, int startC, int endR, int endC, long thinkMillis) {
+            now[0] += thinkMillis * 1_000_000L;
+            assertNotNull(game.makeMove(findMove(game.getAllLegalMovesForPlayer(color), startR, startC, endR, endC).get()));
+        }
+
+        @Test
+        @DisplayName("Fischer increment is added after every move and moves are timestamped")
+        void testFischerIncrement() {
+            GameClock clock = startClock(TimeControl.fischer(60, 2));
+            play(PieceColor.WHITE, 6, 4, 4, 4, 5_000); // e4
+            play(PieceColor.BLACK, 1, 4, 3, 4, 1_000); // e5
+
+            assertEquals(57_000, clock.getRemainingMillis(PieceColor.WHITE));
+            assertEquals(61_000, clock.getRemainingMillis(PieceColor.BLACK));
+            assertEquals(2, clock.getMoveCount());
+            assertEquals(6_000, clock.getMoveTimestampMillis(1));
+            assertEquals(1_000, clock.getMoveTimeMillis(1));
+            assertEquals(PieceColor.WHITE, clock.getRunningColor());
+        }
+
+        @Test
+        @DisplayName("Browsing a sideline of the move tree leaves the clock alone")
+        void testGoToNodeKeepsClock() {
+            GameClock clock = startClock(TimeControl.fischer(60, 2));
+            play(PieceColor.WHITE, 6, 4, 4, 4, 5_000); // e4
+            play(PieceColor.BLACK, 1, 4, 3, 4, 1_000); // e5
+            play(PieceColor.WHITE, 7, 6, 5, 5, 2_000); // Nf3
+            int nf3 = game.getCurrentNode();
+            game.seekToPly(2);
+            play(PieceColor.WHITE, 6, 3, 4, 3, 3_000); // d4
+            long white = clock.getRemainingMillis(PieceColor.WHITE);
+            long black = clock.getRemainingMillis(PieceColor.BLACK);
+            int moveCount = clock.getMoveCount();
+
+            now[0] += 4_000_000_000L;
+            assertTrue(game.goToNode(nf3));
+            assertEquals(nf3, game.getCurrentNode());
+            assertEquals(moveCount, clock.getMoveCount());
+            assertEquals(white, clock.getRemainingMillis(PieceColor.WHITE));
+            assertEquals(black - 4_000, clock.getRemainingMillis(PieceColor.BLACK), "Only Black's running time passes");
+        }
+
+        @Test
+        @DisplayName("Bronstein delay never gives back more than the move took")
+        void testBronsteinDelay() {
+            GameClock clock = startClock(TimeControl.bronstein(60, 3));
+            play(PieceColor.WHITE, 6, 4, 4, 4, 1_000);
+            play(PieceColor.BLACK, 1, 4, 3, 4, 10_000);
+
+            assertEquals(60_000, clock.getRemainingMillis(PieceColor.WHITE));
+            assertEquals(53_000, clock.getRemainingMillis(PieceColor.BLACK));
+        }
+
+        @Test
+        @DisplayName("Lag compensation credits the mover, capped at one second and at the move time")
+        void testLagCompensation() {
+            GameClock clock = startClock(TimeControl.fischer(60, 0));
+            play(PieceColor.WHITE, 6, 4, 4, 4, 5_000);
+            assertEquals(300_000_000L, clock.compensateLag(PieceColor.WHITE, 300_000_000L));
+            assertEquals(55_300, clock.getRemainingMillis(PieceColor.WHITE));
+            assertEquals(4_700, clock.getMoveTimeMillis(0));
+
+            play(PieceColor.BLACK, 1, 4, 3, 4, 500);
+            assertEquals(500_000_000L, clock.compensateLag(PieceColor.BLACK, 5_000_000_000L));
+            assertEquals(60_000, clock.getRemainingMillis(PieceColor.BLACK));
+            assertEquals(0, clock.compensateLag(PieceColor.WHITE, 300_000_000L), "only the side that just moved is credited");
+        }
+
+        @Test
+        @DisplayName("Running out of time ends the game for the side to move")
+        void testTimeout() {
+            GameClock clock = startClock(TimeControl.fischer(10, 0));
+            play(PieceColor.WHITE, 6, 4, 4, 4, 1_000);
+            now[0] += 9_999_000_000L;
+            assertFalse(game.checkTimeout());
+            now[0] += 1_000_000L;
+            assertTrue(game.checkTimeout());
+            assertEquals(Game.GameState.BLACK_OUT_OF_TIME, game.getGameState());
+            assertFalse(clock.isRunning());
+            assertTrue(game.getAllLegalMovesForPlayer(PieceColor.BLACK).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Time controls parse base+increment and base'd'delay")
+        void testParseTimeControl() {
+            assertEquals(TimeControl.fischer(300, 3), TimeControl.parse("300+3"));
+            assertEquals(TimeControl.bronstein(180, 2), TimeControl.parse(" 180d2 "));
+            assertEquals(TimeControl.fischer(600, 0), TimeControl.parse("600"));
+            assertEquals("300+3", TimeControl.parse("300+3").toString());
+            assertThrows(IllegalArgumentException.class, () -> TimeControl.parse("5 minutes"));
+            assertEquals("0:09.5", GameClock.format(9_500));
+            assertEquals("5:03", GameClock.format(303_000));
+        }
+    }
 }
@@ -0,0 +1,178 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.index.GameIdBitmap;
+import org.group13.chessgame.index.HeaderStore;
+import org.group13.chessgame.pgn.PgnHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeaderStoreTest {
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Game id bitmaps")
+    class BitmapTests {
+        @Test
+        @DisplayName("Set operations agree with TreeSet on sparse and dense chunks")
+        void testAgainstTreeSet() {
+            Random random = new Random(7);
+            TreeSet<Integer> a = new TreeSet<>();
+            TreeSet<Integer> b = new TreeSet<>();
+            // chunk 0 dense in both, chunk 1 sparse in a and dense in b, chunk 3 only in a
+            for (int i = 0; i < 20000; i++) a.add(random.nextInt(65536));
+            for (int i = 0; i < 20000; i++) b.add(random.nextInt(65536));
+            for (int i = 0; i < 300; i++) a.add(65536 + random.nextInt(65536));
+            for (int i = 0; i < 9000; i++) b.add(65536 + random.nextInt(65536));
+            for (int i = 0; i < 50; i++) a.add(3 * 65536 + random.nextInt(65536));
+
+            GameIdBitmap bitmapA = GameIdBitmap.of(shuffled(a, random));
+            GameIdBitmap bitmapB = GameIdBitmap.of(shuffled(b, random));
+            assertArrayEquals(toArray(a), bitmapA.toArray());
+            assertEquals(b.size(), bitmapB.cardinality());
+
+            TreeSet<Integer> and = new TreeSet<>(a);
+            and.retainAll(b);
+            TreeSet<Integer> or = new TreeSet<>(a);
+            or.addAll(b);
+            TreeSet<Integer> andNot = new TreeSet<>(a);
+            andNot.removeAll(b);
+            assertArrayEquals(toArray(and), bitmapA.and(bitmapB).toArray());
+            assertArrayEquals(toArray(and), bitmapB.and(bitmapA).toArray());
+            assertArrayEquals(toArray(or), bitmapA.or(bitmapB).toArray());
+            assertArrayEquals(toArray(andNot), bitmapA.andNot(bitmapB).toArray());
+            assertEquals(a.size(), bitmapA.cardinality(), "Operands are left unchanged");
+
+            assertTrue(bitmapA.contains(a.last()));
+            assertFalse(bitmapA.contains(2 * 65536));
+            assertFalse(bitmapA.contains(-1));
+            assertTrue(new GameIdBitmap().and(bitmapA).isEmpty());
+        }
+
+        private int[] shuffled(Set<Integer> ids, Random random) {
+            List<Integer> list = new ArrayList<>(ids);
+            Collections.shuffle(list, random);
+            return list.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private int[] toArray(Set<Integer> ids) {
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private HeaderStore sampleStore() {
+        HeaderStore.Builder builder = new HeaderStore.Builder();
+        builder.add(Map.of("White", "Carlsen", "Black", "Nakamura", "Event", "Blitz", "Date", "2019.05.20", "Result", "1-0"));
+        builder.add(Map.of("White", "Nakamura", "Black", "Carlsen", "Event", "Blitz", "Date", "2020.01.02", "Result", "1/2-1/2"));
+        builder.add(Map.of("White", "Caruana", "Black", "Carlsen", "Event", "Classic", "Date", "2020.??.??", "Result", "0-1"));
+        builder.add(Map.of("White", "Caruana", "Black", "Nakamura", "Event", "Classic", "Date", "2021.11.30", "Result", "1-0"));
+        PgnHeaders headers = new PgnHeaders();
+        headers.setWhite("Carlsen");
+        headers.setDate("????.??.??");
+        builder.add(headers);
+        return builder.build();
+    }
+
+    @Test
+    @DisplayName("Columns decode back to the original tags")
+    void testColumns() {
+        HeaderStore store = sampleStore();
+        assertEquals(5, store.size());
+        assertEquals("Caruana", store.getWhite(2));
+        assertEquals("Carlsen", store.getBlack(2));
+        assertEquals("Classic", store.getEvent(3));
+        assertEquals("2020.??.??", store.getDate(2));
+        assertEquals("1/2-1/2", store.getResult(1));
+        assertEquals("????.??.??", store.getDate(4));
+        assertEquals("*", store.getResult(4));
+        assertEquals("Black", store.getBlack(4));
+        assertEquals("Nakamura", store.toHeaders(0).getBlack());
+    }
+
+    @Test
+    @DisplayName("Filters combine by intersection")
+    void testQueries() {
+        HeaderStore store = sampleStore();
+        assertArrayEquals(new int[]{0, 1, 2, 4}, store.query().player("Carlsen").ids());
+        assertArrayEquals(new int[]{0, 4}, store.query().white("Carlsen").ids());
+        assertArrayEquals(new int[]{1}, store.query().player("Carlsen").event("Blitz").result("1/2-1/2").ids());
+        assertArrayEquals(new int[]{3}, store.query().black("Nakamura").result("1-0").event("Classic").ids());
+        assertEquals(0, store.query().player("Kasparov").count());
+        assertEquals(5, store.query().count());
+        assertThrows(IllegalArgumentException.class, () -> store.query().result("1-1"));
+    }
+
+    @Test
+    @DisplayName("Date ranges include both ends and treat unknown parts as the whole period")
+    void testDateRanges() {
+        HeaderStore store = sampleStore();
+        assertArrayEquals(new int[]{1, 2}, store.query().dateBetween("2020.??.??", "2020.??.??").ids());
+        // a stored date with unknown parts sorts at the start of its period
+        assertArrayEquals(new int[]{0, 1, 2}, store.query().dateBetween("2019.05.20", "2020.01.02").ids());
+        assertArrayEquals(new int[]{1, 3}, store.query().dateBetween("2020.01.01", null).ids());
+        assertArrayEquals(new int[]{0, 4}, store.query().dateBetween(null, "2019.12.31").ids());
+        assertArrayEquals(new int[]{2}, store.query().player("Carlsen").result("0-1").dateBetween("2020.??.??", "2021.12.31").ids());
+        assertArrayEquals(new int[]{1, 2}, store.query().player("Carlsen").dateBetween("2020.??.??", null).ids());
+        assertEquals(0, store.query().dateBetween("2022.01.01", "2021.01.01").count());
+    }
+
+    @Test
+    @DisplayName("A saved store loads with the same columns and indexes")
+    void testSaveAndLoad() throws Exception {
+        HeaderStore.Builder builder = new HeaderStore.Builder();
+        Random random = new Random(3);
+        String[] names = {"Anand", "Kramnik", "Topalov", "Gelfand", "Aronian"};
+        String[] results = {"1-0", "0-1", "1/2-1/2", "*"};
+        for (int i = 0; i < 70000; i++) {
+            builder.add(Map.of("White", names[random.nextInt(5)], "Black", names[random.nextInt(5)], "Event", "Event " + random.nextInt(20), "Date", (1990 + random.nextInt(30)) + ".06.01", "Result", results[random.nextInt(4)]));
+        }
+        HeaderStore store = builder.build();
+        Path file = tempDir.resolve("headers.bin");
+        store.save(file);
+        HeaderStore loaded = HeaderStore.load(file);
+
+        assertEquals(store.size(), loaded.size());
+        assertArrayEquals(store.query().player("Anand").result("1-0").ids(), loaded.query().player("Anand").result("1-0").ids());
+        int[] nineties = loaded.query().white("Kramnik").dateBetween("1990.01.01", "1999.12.31").ids();
+        assertTrue(nineties.length > 1000);
+        for (int id : nineties) {
+            assertEquals("Kramnik", loaded.getWhite(id));
+            assertTrue(loaded.getDate(id).startsWith("199"));
+        }
+        assertEquals(store.getEvent(69999), loaded.getEvent(69999));
+        assertEquals(store.query().dateBetween("2000.01.01", "2005.12.31").count(), loaded.query().dateBetween("2000.01.01", "2005.12.31").count());
+    }
+
+    @Test
+    @DisplayName("Reading PGN numbers games like the position index")
+    void testFromPgn() throws Exception {
+        Path pgn = tempDir.resolve("games.pgn");
+        Files.writeString(pgn, """
+                [White "Tal"]
+                [Result "1-0"]
+
+                1. e4 1-0
+
+                [White "Broken"]
+
+                1. e4 e4 *
+
+                [White "Petrosian"]
+                [Result "1/2-1/2"]
+
+                1. d4 1/2-1/2
+                """);
+        HeaderStore store = HeaderStore.fromPgn(List.of(pgn));
+        assertEquals(3, store.size());
+        assertEquals("?", store.getWhite(1));
+        assertArrayEquals(new int[]{2}, store.query().white("Petrosian").ids());
+    }
+}
@@ -18,7 +18,7 @@ public class KingTest {
     void setUp() {
         game = new Game();
         board = game.getBoard();
-        whiteKing = new King(PieceColor.WHITE);
+        whiteKing = King.of(PieceColor.WHITE);
     }
 
     private boolean containsMove(List<Move> moves, int startRow, int startCol, int endRow, int endCol) {
@@ -50,8 +50,8 @@ public class KingTest {
     @DisplayName("King blocked by ally pieces")
     void kingBlockedByAlly() {
         board.setPiece(4, 3, whiteKing); // d4
-        board.setPiece(3, 3, new Pawn(PieceColor.WHITE)); // d5
-        board.setPiece(4, 2, new Pawn(PieceColor.WHITE)); // c4
+        board.setPiece(3, 3, Pawn.of(PieceColor.WHITE)); // d5
+        board.setPiece(4, 2, Pawn.of(PieceColor.WHITE)); // c4
 
         List<Move> moves = whiteKing.getPseudoLegalMoves(game, 4, 3);
         assertEquals(6, moves.size());
@@ -64,8 +64,8 @@ public class KingTest {
     @DisplayName("King captures enemy pieces")
     void kingCapturesEnemy() {
         board.setPiece(4, 3, whiteKing); // d4
-        board.setPiece(3, 3, new Pawn(PieceColor.BLACK)); // d5
-        board.setPiece(4, 2, new Pawn(PieceColor.BLACK)); // c4
+        board.setPiece(3, 3, Pawn.of(PieceColor.BLACK)); // d5
+        board.setPiece(4, 2, Pawn.of(PieceColor.BLACK)); // c4
 
         List<Move> moves = whiteKing.getPseudoLegalMoves(game, 4, 3);
         assertEquals(8, moves.size());
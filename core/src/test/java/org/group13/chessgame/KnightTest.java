@@ -18,7 +18,7 @@ public class KnightTest {
     void setUp() {
         game = new Game();
         board = game.getBoard();
-        whiteKnight = new Knight(PieceColor.WHITE);
+        whiteKnight = Knight.of(PieceColor.WHITE);
     }
 
     private boolean containsMove(List<Move> moves, int startRow, int startCol, int endRow, int endCol) {
@@ -49,8 +49,8 @@ public class KnightTest {
     @DisplayName("Knight blocked by ally pieces")
     void knightBlockedByAlly() {
         board.setPiece(4, 3, whiteKnight); // d4
-        board.setPiece(2, 2, new Pawn(PieceColor.WHITE)); // c6
-        board.setPiece(6, 4, new Pawn(PieceColor.WHITE)); // e2
+        board.setPiece(2, 2, Pawn.of(PieceColor.WHITE)); // c6
+        board.setPiece(6, 4, Pawn.of(PieceColor.WHITE)); // e2
 
         List<Move> moves = whiteKnight.getPseudoLegalMoves(game, 4, 3);
         assertEquals(6, moves.size(), "Knight should have 6 moves if 2 targets are blocked by allies.");
@@ -63,8 +63,8 @@ public class KnightTest {
     @DisplayName("Knight captures enemy pieces")
     void knightCapturesEnemy() {
         board.setPiece(4, 3, whiteKnight); // d4
-        board.setPiece(2, 2, new Pawn(PieceColor.BLACK)); // c6
-        board.setPiece(6, 4, new Pawn(PieceColor.BLACK)); // e2
+        board.setPiece(2, 2, Pawn.of(PieceColor.BLACK)); // c6
+        board.setPiece(6, 4, Pawn.of(PieceColor.BLACK)); // e2
 
         List<Move> moves = whiteKnight.getPseudoLegalMoves(game, 4, 3);
         assertEquals(8, moves.size());
@@ -0,0 +1,284 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.model.*;
+import org.group13.chessgame.network.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NetworkProtocolTest {
+    private static byte[] streamBytes(Frame... frames) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Frame frame : frames) {
+            FrameCodec.write(out, frame);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Move frames round trip through buffers and streams with identical bytes")
+    void testMoveFrameRoundTrip() throws IOException {
+        int promotion = PackedMove.of(PackedMove.algebraicToSquare("b7"), PackedMove.algebraicToSquare("a8"), PieceType.KNIGHT);
+        Frame frame = new Frame(MessageType.MOVE, 41, FrameCodec.movePayload(promotion, 0x1234_5678_9ABC_DEF0L));
+
+        ByteBuffer encoded = FrameCodec.encode(frame);
+        assertEquals(FrameCodec.HEADER_SIZE + FrameCodec.MOVE_PAYLOAD_SIZE, encoded.remaining());
+        byte[] encodedBytes = new byte[encoded.remaining()];
+        encoded.duplicate().get(encodedBytes);
+        assertArrayEquals(streamBytes(frame), encodedBytes);
+
+        Frame decoded = FrameCodec.decode(encoded);
+        assertNotNull(decoded);
+        assertEquals(MessageType.MOVE, decoded.type());
+        assertEquals(41, decoded.sequence());
+        assertEquals(promotion, FrameCodec.readMove(decoded));
+        assertEquals(0x1234_5678_9ABC_DEF0L, FrameCodec.readPositionHash(decoded));
+        assertEquals("b7a8n", PackedMove.toUci(FrameCodec.readMove(decoded)));
+    }
+
+    @Test
+    @DisplayName("Buffer decoding waits for a complete frame without consuming bytes")
+    void testPartialFrame() throws IOException {
+        byte[] bytes = streamBytes(new Frame(MessageType.CHAT, 0, FrameCodec.textPayload("xin chào")));
+        ByteBuffer partial = ByteBuffer.wrap(bytes, 0, bytes.length - 1);
+        assertNull(FrameCodec.decode(partial));
+        assertEquals(0, partial.position());
+
+        Frame decoded = FrameCodec.decode(ByteBuffer.wrap(bytes));
+        assertEquals("xin chào", FrameCodec.readText(decoded));
+    }
+
+    @Test
+    @DisplayName("Unknown versions and malformed payloads are rejected")
+    void testRejectsBadFrames() throws IOException {
+        byte[] bytes = streamBytes(new Frame(MessageType.OFFER_DRAW, 0, FrameCodec.emptyPayload()));
+        bytes[0] = (byte) (FrameCodec.VERSION + 1);
+        assertThrows(NetworkProtocolException.class, () -> FrameCodec.decode(ByteBuffer.wrap(bytes)));
+
+        Frame shortMove = new Frame(MessageType.MOVE, 0, new byte[]{12, 28});
+        assertThrows(NetworkProtocolException.class, () -> FrameCodec.readMove(shortMove));
+
+        assertEquals(FrameCodec.MAX_PAYLOAD_SIZE, new Frame(MessageType.CHAT, 0, new byte[FrameCodec.MAX_PAYLOAD_SIZE]).payloadSize());
+        assertThrows(IllegalArgumentException.class, () -> new Frame(MessageType.CHAT, 0, new byte[FrameCodec.MAX_PAYLOAD_SIZE + 1]));
+    }
+
+    @Test
+    @DisplayName("Connections number their frames, drop duplicates and reject gaps")
+    void testSequenceChecks() throws IOException {
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        GameConnection sender = new GameConnection(new ByteArrayInputStream(new byte[0]), sent);
+        sender.sendColorAssignment(PieceColor.BLACK);
+        sender.sendChat("hello");
+        sender.sendSignal(MessageType.OFFER_DRAW);
+
+        GameConnection receiver = new GameConnection(new ByteArrayInputStream(sent.toByteArray()), OutputStream.nullOutputStream());
+        assertEquals(PieceColor.BLACK, FrameCodec.readColor(receiver.receive()));
+        assertEquals("hello", FrameCodec.readText(receiver.receive()));
+        assertEquals(MessageType.OFFER_DRAW, receiver.receive().type());
+
+        Frame first = new Frame(MessageType.CHAT, 0, FrameCodec.textPayload("a"));
+        Frame second = new Frame(MessageType.CHAT, 1, FrameCodec.textPayload("b"));
+        GameConnection withDuplicate = new GameConnection(new ByteArrayInputStream(streamBytes(first, first, second)), OutputStream.nullOutputStream());
+        assertEquals("a", FrameCodec.readText(withDuplicate.receive()));
+        assertEquals("b", FrameCodec.readText(withDuplicate.receive()));
+
+        Frame skipped = new Frame(MessageType.CHAT, 2, FrameCodec.textPayload("c"));
+        GameConnection withGap = new GameConnection(new ByteArrayInputStream(streamBytes(first, skipped)), OutputStream.nullOutputStream());
+        withGap.receive();
+        assertThrows(NetworkProtocolException.class, withGap::receive);
+    }
+
+    private static Socket[] socketPair() throws IOException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            Socket client = new Socket("localhost", server.getLocalPort());
+            Socket accepted = server.accept();
+            client.setSoTimeout(5000);
+            accepted.setSoTimeout(5000);
+            return new Socket[]{client, accepted};
+        }
+    }
+
+    private static Future<Integer> resumeAsync(GameConnection connection, Socket socket, long hash, int plies) {
+        FutureTask<Integer> task = new FutureTask<>(() -> connection.resume(socket, hash, plies));
+        new Thread(task).start();
+        return task;
+    }
+
+    @Test
+    @DisplayName("Journals keep unacknowledged frames and drop the acknowledged prefix")
+    void testFrameJournal() throws IOException {
+        FrameJournal journal = new FrameJournal();
+        for (int i = 0; i < 5; i++) {
+            journal.append(new Frame(MessageType.CHAT, i, FrameCodec.textPayload("m" + i)));
+        }
+        assertEquals(2, journal.framesAfter(2).size());
+        assertEquals(3, journal.framesAfter(2).get(0).sequence());
+        assertTrue(journal.framesAfter(4).isEmpty());
+
+        journal.discardThrough(2);
+        assertEquals(2, journal.size());
+        assertEquals(2, journal.framesAfter(2).size());
+        assertThrows(NetworkProtocolException.class, () -> journal.framesAfter(0));
+        assertThrows(IllegalArgumentException.class, () -> journal.append(new Frame(MessageType.CHAT, 7, FrameCodec.emptyPayload())));
+    }
+
+    @Test
+    @DisplayName("Resuming replays only the frames the peer never received")
+    void testResumeReplaysMissingTail() throws Exception {
+        Socket[] first = socketPair();
+        GameConnection a = new GameConnection(first[0]);
+        GameConnection b = new GameConnection(first[1]);
+        a.sendChat("one");
+        assertEquals("one", FrameCodec.readText(b.receive()));
+        b.sendChat("hi");
+        assertEquals("hi", FrameCodec.readText(a.receive()));
+        first[0].close();
+        first[1].close();
+
+        // sent into the dead socket: journaled, delivered after the resume
+        a.setReconnector(() -> null);
+        a.sendChat("two");
+        a.sendChat("three");
+
+        Socket[] second = socketPair();
+        Future<Integer> aReplayed = resumeAsync(a, second[0], 42L, 10);
+        Future<Integer> bReplayed = resumeAsync(b, second[1], 42L, 10);
+        assertEquals(2, aReplayed.get().intValue());
+        assertEquals(0, bReplayed.get().intValue());
+
+        assertEquals("two", FrameCodec.readText(b.receive()));
+        assertEquals("three", FrameCodec.readText(b.receive()));
+        b.sendChat("back");
+        assertEquals("back", FrameCodec.readText(a.receive()));
+        a.close();
+        b.close();
+    }
+
+    @Test
+    @DisplayName("Sending does not wait for a resume handshake in progress")
+    void testSendDuringResume() throws Exception {
+        Socket[] first = socketPair();
+        GameConnection a = new GameConnection(first[0]);
+        GameConnection b = new GameConnection(first[1]);
+        a.sendChat("one");
+        assertEquals("one", FrameCodec.readText(b.receive()));
+        first[0].close();
+        first[1].close();
+        a.setReconnector(() -> null);
+
+        Socket[] second = socketPair();
+        Future<Integer> aReplayed = resumeAsync(a, second[0], 42L, 10);
+        Thread.sleep(200);
+        // the peer has not answered yet; with the lock held through the handshake this would block
+        a.sendChat("during");
+        Future<Integer> bReplayed = resumeAsync(b, second[1], 42L, 10);
+        assertEquals(1, aReplayed.get().intValue());
+        assertEquals(0, bReplayed.get().intValue());
+        assertEquals("during", FrameCodec.readText(b.receive()));
+        a.close();
+        b.close();
+    }
+
+    @Test
+    @DisplayName("Resuming fails when both sides are at the same ply with different positions")
+    void testResumeRejectsDivergedPositions() throws Exception {
+        Socket[] sockets = socketPair();
+        GameConnection a = new GameConnection(new ByteArrayInputStream(new byte[0]), OutputStream.nullOutputStream());
+        GameConnection b = new GameConnection(new ByteArrayInputStream(new byte[0]), OutputStream.nullOutputStream());
+        Future<Integer> aResult = resumeAsync(a, sockets[0], 1L, 4);
+        Future<Integer> bResult = resumeAsync(b, sockets[1], 2L, 4);
+        ExecutionException failure = assertThrows(ExecutionException.class, aResult::get);
+        assertInstanceOf(NetworkProtocolException.class, failure.getCause());
+        assertThrows(ExecutionException.class, bResult::get);
+        sockets[0].close();
+        sockets[1].close();
+    }
+
+    @Test
+    @DisplayName("Time controls and heartbeat clock readings survive the wire format")
+    void testTimeControlAndHeartbeatPayloads() throws IOException {
+        TimeControl timeControl = TimeControl.bronstein(180, 2);
+        assertEquals(timeControl, FrameCodec.readTimeControl(new Frame(MessageType.TIME_CONTROL, 0, FrameCodec.timeControlPayload(timeControl))));
+
+        Frame ping = new Frame(MessageType.PING, 3, FrameCodec.heartbeatPayload(123_456_789L, 60_000, -1, 41));
+        assertEquals(123_456_789L, FrameCodec.readHeartbeatTimestamp(ping));
+        assertEquals(60_000, FrameCodec.readHeartbeatClock(ping, PieceColor.WHITE));
+        assertEquals(-1, FrameCodec.readHeartbeatClock(ping, PieceColor.BLACK));
+        assertEquals(41, FrameCodec.readHeartbeatAcknowledged(ping));
+    }
+
+    @Test
+    @DisplayName("Heartbeats measure the round trip without disturbing the frame sequence")
+    void testHeartbeatMeasuresRoundTrip() throws Exception {
+        Socket[] sockets = socketPair();
+        GameConnection a = new GameConnection(sockets[0]);
+        GameConnection b = new GameConnection(sockets[1]);
+        FutureTask<Frame> bReceives = new FutureTask<>(b::receive);
+        new Thread(bReceives).start();
+
+        a.startHeartbeat(java.time.Duration.ofMillis(20));
+        // a's receive consumes the PONGs and returns the first sequenced frame
+        FutureTask<Frame> aReceives = new FutureTask<>(a::receive);
+        new Thread(aReceives).start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (a.getMetrics().getSampleCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(a.getMetrics().getSampleCount() >= 3);
+        assertTrue(a.getMetrics().getSmoothedRoundTripMillis() > 0);
+        assertTrue(a.getMetrics().getOneWayDelayNanos() > 0);
+
+        a.sendChat("after pings");
+        assertEquals("after pings", FrameCodec.readText(bReceives.get()));
+        b.sendChat("reply");
+        assertEquals("reply", FrameCodec.readText(aReceives.get()));
+        a.close();
+        b.close();
+    }
+
+    @Test
+    @DisplayName("Heartbeats acknowledge received frames, so the journal does not grow with the game")
+    void testHeartbeatTrimsJournal() throws Exception {
+        Socket[] sockets = socketPair();
+        GameConnection a = new GameConnection(sockets[0]);
+        GameConnection b = new GameConnection(sockets[1]);
+        for (int i = 0; i < 3; i++) {
+            a.sendChat("m" + i);
+            assertEquals("m" + i, FrameCodec.readText(b.receive()));
+        }
+        assertEquals(3, a.getUnacknowledgedCount());
+
+        // b's PINGs carry the acknowledgement; a's receive handles them until b's next frame
+        b.startHeartbeat(java.time.Duration.ofMillis(20));
+        FutureTask<Frame> aReceives = new FutureTask<>(a::receive);
+        new Thread(aReceives).start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (a.getUnacknowledgedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, a.getUnacknowledgedCount());
+
+        b.sendChat("done");
+        assertEquals("done", FrameCodec.readText(aReceives.get()));
+        a.close();
+        b.close();
+    }
+
+    @Test
+    @DisplayName("Zobrist keys are the same for every table, so peers can compare position hashes")
+    void testZobristKeysAreDeterministic() {
+        ZobristTable table = new ZobristTable();
+        assertEquals(ZobristTable.shared().getPieceKey(PieceType.KING, PieceColor.BLACK, 0, 4), table.getPieceKey(PieceType.KING, PieceColor.BLACK, 0, 4));
+        assertEquals(ZobristTable.shared().getBlackToMoveKey(), table.getBlackToMoveKey());
+    }
+}
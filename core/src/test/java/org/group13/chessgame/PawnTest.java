@@ -36,7 +36,7 @@ public class PawnTest {
         @Test
         @DisplayName("Initial move: one and two steps forward")
         void initialMove() {
-            whitePawn = new Pawn(PieceColor.WHITE);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(6, 3, whitePawn); // d2
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 6, 3);
@@ -49,9 +49,9 @@ public class PawnTest {
         @Test
         @DisplayName("Initial move blocked one step forward")
         void initialMoveBlockedOneStep() {
-            whitePawn = new Pawn(PieceColor.WHITE);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(6, 3, whitePawn); // d2
-            board.setPiece(5, 3, new Pawn(PieceColor.BLACK)); // d3
+            board.setPiece(5, 3, Pawn.of(PieceColor.BLACK)); // d3
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 6, 3);
             assertEquals(0, moves.size(), "Should have 0 moves if one step forward is blocked.");
@@ -60,9 +60,9 @@ public class PawnTest {
         @Test
         @DisplayName("Initial move blocked two steps forward")
         void initialMoveBlockedTwoSteps() {
-            whitePawn = new Pawn(PieceColor.WHITE);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(6, 3, whitePawn); // d2
-            board.setPiece(4, 3, new Pawn(PieceColor.BLACK)); // d4
+            board.setPiece(4, 3, Pawn.of(PieceColor.BLACK)); // d4
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 6, 3);
             assertEquals(1, moves.size(), "Should have 1 move (one step) if two steps forward is blocked.");
@@ -72,8 +72,7 @@ public class PawnTest {
         @Test
         @DisplayName("Non-initial move: one step forward")
         void nonInitialMoveOneStep() {
-            whitePawn = new Pawn(PieceColor.WHITE);
-            whitePawn.setHasMoved(true);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(5, 3, whitePawn); // d3
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 5, 3);
@@ -84,11 +83,10 @@ public class PawnTest {
         @Test
         @DisplayName("Capture diagonally left and right")
         void captureDiagonally() {
-            whitePawn = new Pawn(PieceColor.WHITE);
-            whitePawn.setHasMoved(true);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(3, 3, whitePawn); // d5
-            board.setPiece(2, 2, new Pawn(PieceColor.BLACK)); // c6
-            board.setPiece(2, 4, new Pawn(PieceColor.BLACK)); // e6
+            board.setPiece(2, 2, Pawn.of(PieceColor.BLACK)); // c6
+            board.setPiece(2, 4, Pawn.of(PieceColor.BLACK)); // e6
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 3, 3);
             assertEquals(3, moves.size(), "Should have 3 moves (1 forward, 2 captures).");
@@ -100,10 +98,9 @@ public class PawnTest {
         @Test
         @DisplayName("Cannot capture ally piece")
         void cannotCaptureAlly() {
-            whitePawn = new Pawn(PieceColor.WHITE);
-            whitePawn.setHasMoved(true);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(3, 3, whitePawn); // d5
-            board.setPiece(2, 2, new Rook(PieceColor.WHITE)); // Rc6
+            board.setPiece(2, 2, Rook.of(PieceColor.WHITE)); // Rc6
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 3, 3);
             assertEquals(1, moves.stream().filter(m -> !m.isPromotion()).count());
@@ -114,7 +111,7 @@ public class PawnTest {
         @Test
         @DisplayName("Promotion to Queen, Rook, Bishop, Knight")
         void promotion() {
-            whitePawn = new Pawn(PieceColor.WHITE);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(1, 0, whitePawn); // a7
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 1, 0);
@@ -130,9 +127,9 @@ public class PawnTest {
         @Test
         @DisplayName("Promotion with capture")
         void promotionWithCapture() {
-            whitePawn = new Pawn(PieceColor.WHITE);
+            whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(1, 0, whitePawn); // a7
-            board.setPiece(0, 1, new Rook(PieceColor.BLACK)); // Rb8
+            board.setPiece(0, 1, Rook.of(PieceColor.BLACK)); // Rb8
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 1, 0);
 
@@ -157,7 +154,7 @@ public class PawnTest {
         @Test
         @DisplayName("Initial move: one and two steps forward")
         void initialMove() {
-            blackPawn = new Pawn(PieceColor.BLACK);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(1, 3, blackPawn); // d7
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 1, 3);
@@ -169,9 +166,9 @@ public class PawnTest {
         @Test
         @DisplayName("Initial move blocked one step forward")
         void initialMoveBlockedOneStep() {
-            blackPawn = new Pawn(PieceColor.BLACK);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(1, 3, blackPawn); // d7
-            board.setPiece(2, 3, new Pawn(PieceColor.WHITE)); // d6
+            board.setPiece(2, 3, Pawn.of(PieceColor.WHITE)); // d6
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 1, 3);
             assertEquals(0, moves.size(), "Should have 0 moves if one step forward is blocked.");
@@ -180,9 +177,9 @@ public class PawnTest {
         @Test
         @DisplayName("Initial move blocked two steps forward")
         void initialMoveBlockedTwoSteps() {
-            blackPawn = new Pawn(PieceColor.BLACK);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(1, 3, blackPawn); // d7
-            board.setPiece(3, 3, new Pawn(PieceColor.WHITE)); // d5
+            board.setPiece(3, 3, Pawn.of(PieceColor.WHITE)); // d5
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 1, 3);
             assertEquals(1, moves.size(), "Should have 1 move (one step) if two steps forward is blocked.");
@@ -192,8 +189,7 @@ public class PawnTest {
         @Test
         @DisplayName("Non-initial move: one step forward")
         void nonInitialMoveOneStep() {
-            blackPawn = new Pawn(PieceColor.BLACK);
-            blackPawn.setHasMoved(true);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(2, 3, blackPawn); // d6
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 2, 3);
@@ -204,11 +200,10 @@ public class PawnTest {
         @Test
         @DisplayName("Capture diagonally left and right")
         void captureDiagonally() {
-            blackPawn = new Pawn(PieceColor.BLACK);
-            blackPawn.setHasMoved(true);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(4, 3, blackPawn); // d5
-            board.setPiece(5, 2, new Pawn(PieceColor.WHITE)); // c6
-            board.setPiece(5, 4, new Pawn(PieceColor.WHITE)); // e6
+            board.setPiece(5, 2, Pawn.of(PieceColor.WHITE)); // c6
+            board.setPiece(5, 4, Pawn.of(PieceColor.WHITE)); // e6
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 4, 3);
             assertEquals(3, moves.size(), "Should have 3 moves (1 forward, 2 captures).");
@@ -220,10 +215,9 @@ public class PawnTest {
         @Test
         @DisplayName("Cannot capture ally piece")
         void cannotCaptureAlly() {
-            blackPawn = new Pawn(PieceColor.BLACK);
-            blackPawn.setHasMoved(true);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(4, 3, blackPawn); // d5
-            board.setPiece(5, 2, new Rook(PieceColor.BLACK)); // Rc6
+            board.setPiece(5, 2, Rook.of(PieceColor.BLACK)); // Rc6
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 4, 3);
             assertEquals(1, moves.stream().filter(m -> !m.isPromotion()).count());
@@ -234,7 +228,7 @@ public class PawnTest {
         @Test
         @DisplayName("Promotion to Queen, Rook, Bishop, Knight")
         void promotion() {
-            blackPawn = new Pawn(PieceColor.BLACK);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(6, 0, blackPawn); // a2
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 6, 0);
@@ -250,9 +244,9 @@ public class PawnTest {
         @Test
         @DisplayName("Promotion with capture")
         void promotionWithCapture() {
-            blackPawn = new Pawn(PieceColor.BLACK);
+            blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(6, 0, blackPawn); // a2
-            board.setPiece(7, 1, new Rook(PieceColor.WHITE)); // Rb1
+            board.setPiece(7, 1, Rook.of(PieceColor.WHITE)); // Rb1
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 6, 0);
 
@@ -275,17 +269,15 @@ public class PawnTest {
         @Test
         @DisplayName("White Pawn can perform en passant capture")
         void whitePawnEnPassant() {
-            Pawn whitePawn = new Pawn(PieceColor.WHITE);
+            Pawn whitePawn = Pawn.of(PieceColor.WHITE);
             board.setPiece(3, 3, whitePawn); // d5
-            whitePawn.setHasMoved(true);
 
-            Pawn blackPawnOriginal = new Pawn(PieceColor.BLACK);
+            Pawn blackPawnOriginal = Pawn.of(PieceColor.BLACK);
 
             Square blackPawnEndSquare = board.getSquare(3, 2);
             board.setPiece(blackPawnEndSquare.getRow(), blackPawnEndSquare.getCol(), blackPawnOriginal);
 
-            Move blackLastMove = new Move(new Square(1, 2), blackPawnEndSquare, blackPawnOriginal, false);// c7-c5
-            game.getUndoStack().push(blackLastMove);
+            game.setEnPassantSquareForTest(PackedMove.square(2, 2)); // after c7-c5
 
             List<Move> moves = whitePawn.getPseudoLegalMoves(game, 3, 3);
 
@@ -298,16 +290,15 @@ public class PawnTest {
         @Test
         @DisplayName("Black Pawn can perform en passant capture")
         void blackPawnEnPassant() {
-            Pawn blackPawn = new Pawn(PieceColor.BLACK);
+            Pawn blackPawn = Pawn.of(PieceColor.BLACK);
             board.setPiece(4, 3, blackPawn); // d4
 
-            Pawn whitePawnOriginal = new Pawn(PieceColor.WHITE);
+            Pawn whitePawnOriginal = Pawn.of(PieceColor.WHITE);
 
             Square whitePawnEndSquare = board.getSquare(4, 2);
             board.setPiece(whitePawnEndSquare.getRow(), whitePawnEndSquare.getCol(), whitePawnOriginal);
 
-            Move whiteLastMove = new Move(new Square(6, 2), whitePawnEndSquare, whitePawnOriginal, false);// c2-c4
-            game.getUndoStack().push(whiteLastMove);
+            game.setEnPassantSquareForTest(PackedMove.square(5, 2)); // after c2-c4
 
             List<Move> moves = blackPawn.getPseudoLegalMoves(game, 4, 3);
 
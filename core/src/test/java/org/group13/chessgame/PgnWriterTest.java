@@ -0,0 +1,132 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.model.Game;
+import org.group13.chessgame.model.Move;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.pgn.PgnGame;
+import org.group13.chessgame.pgn.PgnHeaders;
+import org.group13.chessgame.pgn.PgnReader;
+import org.group13.chessgame.pgn.PgnWriter;
+import org.group13.chessgame.utils.NotationUtils;
+import org.group13.chessgame.utils.PgnFormatter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnWriterTest {
+
+    @Test
+    @DisplayName("Comments, NAGs and nested variations get export-format move numbers")
+    void testAnnotatedMovetext() throws Exception {
+        StringWriter out = new StringWriter();
+        PgnWriter writer = new PgnWriter(out);
+        writer.tag("Event", "Annotated").tag("Result", "1-0");
+        writer.move("e4").nag(1).comment("best by test").move("e5");
+        writer.move("Nf3").startVariation().move("f4").move("exf4").startVariation().move("d5").endVariation().move("Nf3").endVariation();
+        writer.move("Nc6").eval("0.35", null);
+        writer.endGame("1-0");
+
+        assertEquals("""
+                [Event "Annotated"]
+                [Result "1-0"]
+
+                1. e4 $1 {best by test} 1... e5 2. Nf3 (2. f4 exf4 (2... d5) 3. Nf3) 2... Nc6
+                {[%eval 0.35]} 1-0
+
+                """, out.toString());
+    }
+
+    @Test
+    @DisplayName("Tag values are escaped and invalid tag names are rejected")
+    void testTags() throws Exception {
+        StringWriter out = new StringWriter();
+        PgnWriter writer = new PgnWriter(out);
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("White", "O\"Neil \\ Jr");
+        tags.put("WhiteElo", "2400");
+        writer.tags(tags);
+        assertThrows(IllegalArgumentException.class, () -> writer.tag("Bad Tag", "x"));
+        writer.endGame(null);
+
+        assertEquals("[White \"O\\\"Neil \\\\ Jr\"]\n[WhiteElo \"2400\"]\n\n*\n\n", out.toString());
+        assertThrows(IllegalStateException.class, () -> new PgnWriter(new StringWriter()).move("e4").tag("Event", "late"));
+    }
+
+    @Test
+    @DisplayName("Misplaced variations are rejected")
+    void testVariationState() throws Exception {
+        PgnWriter writer = new PgnWriter(new StringWriter());
+        assertThrows(IllegalStateException.class, writer::startVariation);
+        assertThrows(IllegalStateException.class, writer::endVariation);
+        writer.move("d4").startVariation();
+        assertThrows(IllegalStateException.class, writer::startVariation);
+        assertThrows(IllegalStateException.class, () -> writer.endGame("*"));
+    }
+
+    @Test
+    @DisplayName("Long games wrap and read back move for move")
+    void testRoundTrip() throws Exception {
+        Position start = Position.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int[] moves = new int[60];
+        try (PgnWriter writer = new PgnWriter(bytes)) {
+            for (int game = 0; game < 3; game++) {
+                writer.tag("Event", "Game " + game).tag("SetUp", "1").tag("FEN", start.toFen()).startMovetext(start);
+                Position position = start;
+                for (int ply = 0; ply < moves.length && position.getLegalMoves().length > 0; ply++) {
+                    int[] legal = position.getLegalMoves();
+                    moves[ply] = legal[(ply * 7 + game) % legal.length];
+                    writer.move(position, moves[ply]).comment("ply " + ply + " of a fairly long comment that has to wrap");
+                    position = position.makeMove(moves[ply]);
+                }
+                writer.endGame("*");
+            }
+            assertEquals(3, writer.getGamesWritten());
+        }
+
+        String pgn = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(pgn.lines().allMatch(line -> line.length() <= PgnWriter.DEFAULT_LINE_LENGTH), pgn);
+        assertTrue(pgn.contains("3. " + NotationUtils.toSan(start, new PgnReader(new StringReader(pgn)).next().moves()[0])));
+
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            PgnGame game;
+            int games = 0;
+            while ((game = reader.next()) != null) {
+                assertEquals("Game " + games, game.tag("Event"));
+                assertTrue(game.plyCount() > 0);
+                if (games == 2) {
+                    for (int ply = 0; ply < game.plyCount(); ply++) {
+                        assertEquals(moves[ply], game.moves()[ply]);
+                    }
+                }
+                assertEquals(PieceColor.WHITE, game.startPosition().getSideToMove());
+                games++;
+            }
+            assertEquals(3, games);
+        }
+    }
+
+    @Test
+    @DisplayName("The formatter generates SAN from the positions, not from the moves' stored notation")
+    void testFormatterGeneratesSan() {
+        Game game = new Game();
+        game.initializeGame();
+        for (String uci : new String[]{"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "e1g1"}) {
+            assertNotNull(game.makeMoveFromUCI(uci), uci);
+        }
+        List<Move> moves = game.getPlayedMoveSequence();
+        moves.forEach(move -> move.setStandardAlgebraicNotation(null));
+        String pgn = PgnFormatter.formatGame(new PgnHeaders(), game.getStartPosition(), moves, game.getGameState());
+        assertTrue(pgn.contains("1. e4 e5 2. Nf3 Nc6 3. Bc4 Nf6 4. O-O *"), pgn);
+    }
+}
@@ -0,0 +1,183 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.index.OpeningMove;
+import org.group13.chessgame.index.OpeningTable;
+import org.group13.chessgame.index.OpeningTableBuilder;
+import org.group13.chessgame.index.PositionIndex;
+import org.group13.chessgame.index.PositionIndexBuilder;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.model.ZobristTable;
+import org.group13.chessgame.pgn.PgnWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionIndexTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Writes random games and returns, for every position reached, the expected postings as {gameId, ply}.
+     */
+    private Map<Long, List<PositionIndex.Posting>> writeRandomGames(Path file, int games, long seed) throws IOException {
+        Map<Long, List<PositionIndex.Posting>> expected = new HashMap<>();
+        Random random = new Random(seed);
+        try (PgnWriter writer = PgnWriter.open(file)) {
+            for (int game = 0; game < games; game++) {
+                writer.tag("Event", "Random " + game);
+                Position position = Position.startPosition();
+                expected.computeIfAbsent(position.getHash(), k -> new ArrayList<>()).add(new PositionIndex.Posting(game, 0));
+                for (int ply = 1; ply <= 30; ply++) {
+                    int[] legal = position.getLegalMoves();
+                    if (legal.length == 0) break;
+                    // few choices early on, so games share their first positions
+                    int move = legal[random.nextInt(Math.min(legal.length, ply < 6 ? 2 : legal.length))];
+                    writer.move(position, move);
+                    position = position.makeMove(move);
+                    expected.computeIfAbsent(position.getHash(), k -> new ArrayList<>()).add(new PositionIndex.Posting(game, ply));
+                }
+                writer.endGame("*");
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    @DisplayName("Every position of every game is found at the right game and ply")
+    void testLookupsMatchReplay() throws Exception {
+        Path pgn = tempDir.resolve("games.pgn");
+        Map<Long, List<PositionIndex.Posting>> expected = writeRandomGames(pgn, 150, 42);
+        Path indexFile = tempDir.resolve("games.pidx");
+
+        // tiny runs force many spills and a real merge
+        assertEquals(150, new PositionIndexBuilder(3, 97).build(List.of(pgn), indexFile));
+
+        try (PositionIndex index = PositionIndex.open(indexFile)) {
+            assertEquals(150, index.getGameCount());
+            assertEquals(expected.size(), index.getPositionCount());
+            assertEquals(expected.values().stream().mapToInt(List::size).sum(), index.getPostingCount());
+            for (Map.Entry<Long, List<PositionIndex.Posting>> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), index.find(entry.getKey()));
+                assertEquals(entry.getValue().size(), index.count(entry.getKey()));
+            }
+            List<PositionIndex.Posting> start = index.find(Position.startPosition());
+            assertEquals(150, start.size());
+            assertEquals(new PositionIndex.Posting(149, 0), start.getLast());
+            assertArrayEquals(new int[0], index.findGames(Position.fromFen("8/8/8/8/8/8/8/K6k w - - 0 1").getHash()));
+            assertTrue(index.find(Long.MIN_VALUE).isEmpty());
+            assertTrue(index.find(Long.MAX_VALUE).isEmpty());
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count(), "Run files and the temporary index must be cleaned up");
+        }
+    }
+
+    @Test
+    @DisplayName("Game numbers continue across files and survive unreadable games")
+    void testGameNumbering() throws Exception {
+        Path first = tempDir.resolve("first.pgn");
+        Files.writeString(first, """
+                [Event "Ok"]
+
+                1. Nf3 Nf6 2. Nc3 *
+
+                [Event "Broken"]
+
+                1. e4 e4 *
+                """);
+        Path second = tempDir.resolve("second.pgn");
+        Files.writeString(second, """
+                [Event "Transposition"]
+
+                1. Nc3 Nf6 2. Nf3 *
+                """);
+        Path indexFile = tempDir.resolve("small.pidx");
+        assertEquals(3, new PositionIndexBuilder(2).build(List.of(first, second), indexFile));
+
+        Position transposed = Position.fromFen("rnbqkb1r/pppppppp/5n2/8/8/2N2N2/PPPPPPPP/R1BQKB1R b KQkq - 3 2");
+        try (PositionIndex index = PositionIndex.open(indexFile)) {
+            assertEquals(List.of(new PositionIndex.Posting(0, 3), new PositionIndex.Posting(2, 3)), index.find(transposed));
+            assertArrayEquals(new int[]{0, 2}, index.findGames(Position.startPosition().getHash()));
+        }
+    }
+
+    @Test
+    @DisplayName("An index written with other Zobrist keys is refused")
+    void testKeySetFingerprint() throws Exception {
+        Path pgn = tempDir.resolve("one.pgn");
+        Files.writeString(pgn, "1. d4 *\n");
+        Path indexFile = tempDir.resolve("one.pidx");
+        new PositionIndexBuilder(1).build(List.of(pgn), indexFile);
+
+        try (RandomAccessFile file = new RandomAccessFile(indexFile.toFile(), "rw")) {
+            file.seek(12);
+            file.writeLong(~ZobristTable.shared().getFingerprint());
+        }
+        IOException error = assertThrows(IOException.class, () -> PositionIndex.open(indexFile));
+        assertTrue(error.getMessage().contains("Zobrist"));
+        assertEquals(new ZobristTable().getFingerprint(), ZobristTable.shared().getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Opening statistics count results and ratings per continuation")
+    void testOpeningTable() throws Exception {
+        Path pgn = tempDir.resolve("openings.pgn");
+        Files.writeString(pgn, """
+                [WhiteElo "2400"]
+                [BlackElo "2200"]
+                [Result "1-0"]
+
+                1. e4 e5 2. Nf3 1-0
+
+                [WhiteElo "2000"]
+                [Result "1/2-1/2"]
+
+                1. e4 c5 1/2-1/2
+
+                [Result "0-1"]
+
+                1. d4 d5 0-1
+
+                [Result "*"]
+
+                1. e4 e5 *
+
+                [Result "0-1"]
+
+                1. Nf3 Nf6 2. e4 0-1
+                """);
+        Path tableFile = tempDir.resolve("openings.book");
+        assertEquals(5, new OpeningTableBuilder(2, 3).build(List.of(pgn), tableFile));
+
+        try (OpeningTable table = OpeningTable.open(tableFile)) {
+            assertEquals(5, table.getGameCount());
+            assertEquals(3, table.getMaxPly());
+            List<OpeningMove> moves = table.lookup(Position.startPosition());
+            assertEquals(List.of("e4", "Nf3", "d4"), moves.stream().map(OpeningMove::san).toList());
+            OpeningMove e4 = moves.getFirst();
+            assertEquals(2, e4.games(), "The unfinished game is not counted");
+            assertEquals(1, e4.whiteWins());
+            assertEquals(1, e4.draws());
+            assertEquals(50.0, e4.whitePercent());
+            assertEquals(2150, e4.averageRating());
+            assertEquals(0, moves.get(2).averageRating());
+            assertEquals(100.0, moves.get(2).blackPercent());
+
+            Position afterE4 = Position.startPosition().makeMove(e4.move());
+            assertEquals(List.of("c5", "e5"), table.lookup(afterE4).stream().map(OpeningMove::san).sorted().toList());
+            // 2. e4 is the third ply of its game, the last one counted
+            Position afterNf6 = Position.fromFen("rnbqkb1r/pppppppp/5n2/8/8/5N2/PPPPPPPP/RNBQKB1R w KQkq - 2 2");
+            assertEquals(List.of("e4"), table.lookup(afterNf6).stream().map(OpeningMove::san).toList());
+            assertTrue(table.lookup(afterNf6.makeMove(table.lookup(afterNf6).getFirst().move())).isEmpty());
+            assertTrue(table.lookup(Position.fromFen("8/8/8/8/8/8/8/K6k w - - 0 1")).isEmpty());
+        }
+    }
+}
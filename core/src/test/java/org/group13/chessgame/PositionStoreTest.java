@@ -0,0 +1,181 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.index.PositionStore;
+import org.group13.chessgame.model.Position;
+import org.group13.chessgame.model.PositionCodec;
+import org.group13.chessgame.model.ReplayCursor;
+import org.group13.chessgame.pgn.PgnWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionStoreTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<Position> randomPositions(int games, long seed) {
+        List<Position> positions = new ArrayList<>();
+        Random random = new Random(seed);
+        for (int game = 0; game < games; game++) {
+            Position position = Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            if (game % 2 == 0) position = Position.startPosition();
+            positions.add(position);
+            for (int ply = 0; ply < 40; ply++) {
+                int[] legal = position.getLegalMoves();
+                if (legal.length == 0) break;
+                position = position.makeMove(legal[random.nextInt(Math.min(legal.length, ply < 4 ? 2 : legal.length))]);
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+
+    @Test
+    @DisplayName("The 24-byte encoding round-trips and tells positions apart exactly")
+    void testCodec() {
+        long[] key = new long[PositionCodec.LONGS];
+        long[] other = new long[PositionCodec.LONGS];
+        for (Position position : randomPositions(40, 5)) {
+            PositionCodec.encode(position, key, 0);
+            Position decoded = PositionCodec.decode(key, 0);
+            assertEquals(position, decoded);
+            assertEquals(position.getHash(), decoded.getHash());
+        }
+        // same placement, different side to move, castling rights or en-passant square
+        String[] fens = {
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b Kkq - 0 1",
+        };
+        Set<List<Long>> encodings = new HashSet<>();
+        for (String fen : fens) {
+            PositionCodec.encode(Position.fromFen(fen), key, 0);
+            assertTrue(encodings.add(List.of(key[0], key[1], key[2])), fen);
+            assertEquals(fen, PositionCodec.decode(key, 0).toFen());
+        }
+        ReplayCursor cursor = new ReplayCursor().reset(Position.fromFen(fens[0]), new int[0]);
+        PositionCodec.encode(cursor, other, 0);
+        PositionCodec.encode(Position.fromFen(fens[0]), key, 0);
+        assertArrayEquals(key, other);
+    }
+
+    @Test
+    @DisplayName("Counts occurrences and agrees with a HashMap")
+    void testCounts() {
+        List<Position> positions = randomPositions(60, 9);
+        Map<Position, Long> expected = new HashMap<>();
+        PositionStore store = PositionStore.allocate(positions.size());
+        for (Position position : positions) {
+            boolean added = store.add(position);
+            assertEquals(!expected.containsKey(position), added);
+            expected.merge(position, 1L, Long::sum);
+        }
+        assertEquals(expected.size(), store.size());
+        for (Map.Entry<Position, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().longValue(), store.get(entry.getKey()));
+        }
+        assertFalse(store.contains(Position.fromFen("8/8/8/8/8/8/8/K6k w - - 0 1")));
+
+        long[] total = {0};
+        store.forEach((key, count) -> {
+            assertEquals(expected.get(PositionCodec.decode(key, 0)).longValue(), count);
+            total[0] += count;
+        });
+        assertEquals(positions.size(), total[0]);
+    }
+
+    @Test
+    @DisplayName("Concurrent inserts of overlapping positions lose no count")
+    void testConcurrentInserts() throws Exception {
+        List<Position> positions = randomPositions(100, 13);
+        long[][] keys = new long[positions.size()][PositionCodec.LONGS];
+        for (int i = 0; i < keys.length; i++) PositionCodec.encode(positions.get(i), keys[i], 0);
+        long distinct = new HashSet<>(positions).size();
+
+        PositionStore store = PositionStore.allocate(distinct);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (long[] key : keys) store.add(key, 0, 1);
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(distinct, store.size());
+        Map<Position, Long> expected = new HashMap<>();
+        for (Position position : positions) expected.merge(position, 4L, Long::sum);
+        for (Map.Entry<Position, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().longValue(), store.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    @DisplayName("A full store rejects new positions but still counts known ones")
+    void testFull() {
+        PositionStore store = PositionStore.allocate(1);
+        List<Position> positions = randomPositions(2, 3);
+        long capacity = store.capacity();
+        for (int i = 0; i < capacity; i++) store.add(positions.get(i));
+        assertThrows(IllegalStateException.class, () -> store.add(positions.get((int) capacity)));
+        assertFalse(store.add(positions.get(0)));
+        assertEquals(2, store.get(positions.get(0)));
+    }
+
+    private static Map<Position, Long> writeRandomGames(Path pgn, int games) throws IOException {
+        Map<Position, Long> expected = new HashMap<>();
+        Random random = new Random(21);
+        try (PgnWriter writer = PgnWriter.open(pgn)) {
+            for (int game = 0; game < games; game++) {
+                Position position = Position.startPosition();
+                expected.merge(position, 1L, Long::sum);
+                for (int ply = 1; ply <= 20; ply++) {
+                    int[] legal = position.getLegalMoves();
+                    int move = legal[random.nextInt(Math.min(legal.length, ply < 5 ? 2 : legal.length))];
+                    writer.move(position, move);
+                    position = position.makeMove(move);
+                    expected.merge(position, 1L, Long::sum);
+                }
+                writer.endGame("*");
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    @DisplayName("A mapped store counts the positions of PGN files on several threads")
+    void testMappedStoreFromPgn() throws Exception {
+        Path pgn = tempDir.resolve("games.pgn");
+        Map<Position, Long> expected = writeRandomGames(pgn, 80);
+        try (PositionStore store = PositionStore.map(tempDir.resolve("positions.bin"), 4000)) {
+            assertEquals(80, store.addGames(List.of(pgn), 3));
+            assertEquals(expected.size(), store.size());
+            for (Map.Entry<Position, Long> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().longValue(), store.get(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A store filling up during a scan fails the scan instead of hanging it")
+    void testFullDuringScan() throws Exception {
+        Path pgn = tempDir.resolve("games.pgn");
+        writeRandomGames(pgn, 200);
+        PositionStore store = PositionStore.allocate(100);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> store.addGames(List.of(pgn), 2));
+        assertEquals("Position store is full", e.getMessage());
+    }
+}
@@ -0,0 +1,159 @@
+package org.group13.chessgame;
+
+import org.group13.chessgame.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionTest {
+    private static long perft(Position position, int depth) {
+        if (depth == 0) return 1;
+        int[] moves = position.getLegalMoves();
+        if (depth == 1) return moves.length;
+        long nodes = 0;
+        for (int move : moves) {
+            nodes += perft(position.makeMove(move), depth - 1);
+        }
+        return nodes;
+    }
+
+    @Test
+    @DisplayName("Move generation matches known perft counts")
+    void testPerft() {
+        assertEquals(20, perft(Position.startPosition(), 1));
+        assertEquals(8902, perft(Position.startPosition(), 3));
+        // castling, en passant and promotions all appear within two plies here
+        assertEquals(2039, perft(Position.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"), 2));
+        assertEquals(2812, perft(Position.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"), 3));
+    }
+
+    @Test
+    @DisplayName("FEN round trip")
+    void testFenRoundTrip() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq e3 3 17";
+        assertEquals(fen, Position.fromFen(fen).toFen());
+        assertEquals(Position.START_FEN, Position.startPosition().toFen());
+    }
+
+    @Test
+    @DisplayName("makeMove returns a new snapshot and leaves the original untouched")
+    void testMakeMoveIsImmutable() {
+        Position start = Position.startPosition();
+        int e4 = start.findLegalMove(PackedMove.square(6, 4), PackedMove.square(4, 4), null);
+        assertNotEquals(PackedMove.NONE, e4);
+        assertTrue(PackedMove.isDoublePush(e4));
+
+        Position afterE4 = start.makeMove(e4);
+        assertEquals(Position.START_FEN, start.toFen());
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", afterE4.toFen());
+        assertEquals(PieceColor.BLACK, afterE4.getSideToMove());
+    }
+
+    @Test
+    @DisplayName("Snapshot from Game agrees with the game's FEN and hash")
+    void testGameSnapshotMatchesGame() {
+        Game game = new Game();
+        game.initializeGame();
+        Position position = game.toPosition();
+        assertEquals(game.getCurrentPositionHash(), position.getHash());
+
+        String[] line = {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "e1g1", "f8c5"};
+        for (String uci : line) {
+            assertNotNull(game.makeMoveFromUCI(uci), "Move " + uci + " should be legal");
+            int from = PackedMove.algebraicToSquare(uci.substring(0, 2));
+            int to = PackedMove.algebraicToSquare(uci.substring(2, 4));
+            position = position.makeMove(position.findLegalMove(from, to, null));
+
+            assertEquals(Position.fromFen(game.getFen()).toFen(), position.toFen(), "FEN after " + uci);
+            assertEquals(game.getCurrentPositionHash(), position.getHash(), "Incremental hash after " + uci);
+            assertEquals(game.toPosition(), position);
+        }
+        assertEquals(game.getAllLegalMovesForPlayer(game.getCurrentPlayer().getColor()).size(), position.getLegalMoves().length);
+    }
+
+    @Test
+    @DisplayName("Promotion and en passant through makeMove")
+    void testSpecialMoves() {
+        Position position = Position.fromFen("8/P6k/8/3pP3/8/8/8/K7 w - d6 0 1");
+        int enPassant = position.findLegalMove(PackedMove.square(3, 4), PackedMove.square(2, 3), null);
+        assertTrue(PackedMove.isEnPassant(enPassant));
+        Position afterCapture = position.makeMove(enPassant);
+        assertEquals(Position.EMPTY, afterCapture.pieceAt(3, 3), "Captured pawn should be removed from d5");
+
+        int promotion = position.findLegalMove(PackedMove.square(1, 0), PackedMove.square(0, 0), PieceType.KNIGHT);
+        Position afterPromotion = position.makeMove(promotion);
+        assertEquals(Position.code(PieceType.KNIGHT, PieceColor.WHITE), afterPromotion.pieceAt(0, 0));
+        assertEquals(Position.fromFen(afterPromotion.toFen()).getHash(), afterPromotion.getHash());
+    }
+
+    @Test
+    @DisplayName("A replay cursor reaches the same positions as makeMove")
+    void testReplayCursorMatchesPositions() {
+        Random random = new Random(11);
+        ReplayCursor cursor = new ReplayCursor();
+        // the kiwipete position reaches castling, en passant and promotions quickly
+        for (String fen : new String[]{Position.START_FEN, "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"}) {
+            for (int game = 0; game < 20; game++) {
+                Position[] positions = new Position[121];
+                int[] moves = new int[120];
+                positions[0] = Position.fromFen(fen);
+                int length = 0;
+                while (length < moves.length) {
+                    int[] legal = positions[length].getLegalMoves();
+                    if (legal.length == 0) break;
+                    moves[length] = legal[random.nextInt(legal.length)];
+                    positions[length + 1] = positions[length].makeMove(moves[length]);
+                    length++;
+                }
+
+                cursor.reset(positions[0], moves, length);
+                int[] visited = {0};
+                cursor.forEach(c -> {
+                    Position expected = positions[c.getPly()];
+                    assertEquals(expected.getHash(), c.getHash());
+                    assertEquals(expected.getSideToMove(), c.getSideToMove());
+                    assertEquals(expected.toFen(), c.toPosition().toFen());
+                    assertEquals(material(expected, 0) - material(expected, 1), c.getMaterialBalance());
+                    visited[0]++;
+                });
+                assertEquals(length + 1, visited[0]);
+                assertFalse(cursor.next());
+            }
+        }
+    }
+
+    private static int material(Position position, int side) {
+        int[] values = {1, 5, 3, 3, 9, 0};
+        int total = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int code = position.pieceAt(sq);
+            if (code != Position.EMPTY && Position.colorOf(code).ordinal() == side) total += values[Position.typeOf(code).ordinal()];
+        }
+        return total;
+    }
+
+    @Test
+    @DisplayName("A replay cursor streams its hashes and can be reused")
+    void testReplayCursorStream() {
+        Position start = Position.startPosition();
+        int e4 = start.findLegalMove(PackedMove.square(6, 4), PackedMove.square(4, 4), null);
+        Position afterE4 = start.makeMove(e4);
+        int e5 = afterE4.findLegalMove(PackedMove.square(1, 4), PackedMove.square(3, 4), null);
+        int[] moves = {e4, e5};
+
+        ReplayCursor cursor = new ReplayCursor().reset(start, moves);
+        assertArrayEquals(new long[]{start.getHash(), afterE4.getHash(), afterE4.makeMove(e5).getHash()}, cursor.hashes().toArray());
+        assertEquals(2, cursor.getPly());
+        assertEquals(e5, cursor.getLastMove());
+        assertEquals(39, cursor.getMaterial(PieceColor.BLACK));
+
+        cursor.reset(start, moves, 1);
+        assertEquals(e4, cursor.peekMove());
+        assertEquals(2, cursor.stream().count());
+        assertEquals(PieceColor.BLACK, cursor.getSideToMove());
+        assertThrows(IllegalArgumentException.class, () -> cursor.reset(start, moves, 3));
+    }
+}
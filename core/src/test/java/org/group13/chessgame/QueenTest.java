@@ -18,7 +18,7 @@ public class QueenTest {
     void setUp() {
         game = new Game();
         board = game.getBoard();
-        whiteQueen = new Queen(PieceColor.WHITE);
+        whiteQueen = Queen.of(PieceColor.WHITE);
     }
 
     @Test
@@ -33,10 +33,10 @@ public class QueenTest {
     @DisplayName("Queen blocked and captures")
     void queenBlockedAndCaptures() {
         board.setPiece(4, 3, whiteQueen); // d4
-        board.setPiece(4, 5, new Pawn(PieceColor.WHITE)); // f4
-        board.setPiece(2, 3, new Pawn(PieceColor.BLACK)); // d6
-        board.setPiece(2, 1, new Pawn(PieceColor.WHITE));  // b6
-        board.setPiece(6, 5, new Pawn(PieceColor.BLACK)); // f2
+        board.setPiece(4, 5, Pawn.of(PieceColor.WHITE)); // f4
+        board.setPiece(2, 3, Pawn.of(PieceColor.BLACK)); // d6
+        board.setPiece(2, 1, Pawn.of(PieceColor.WHITE));  // b6
+        board.setPiece(6, 5, Pawn.of(PieceColor.BLACK)); // f2
 
         List<Move> moves = whiteQueen.getPseudoLegalMoves(game, 4, 3);
         assertEquals(19, moves.size());
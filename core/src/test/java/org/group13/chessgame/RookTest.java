@@ -18,7 +18,7 @@ public class RookTest {
     void setUp() {
         game = new Game();
         board = game.getBoard();
-        whiteRook = new Rook(PieceColor.WHITE);
+        whiteRook = Rook.of(PieceColor.WHITE);
     }
 
     private boolean containsMove(List<Move> moves, int startRow, int startCol, int endRow, int endCol) {
@@ -42,8 +42,8 @@ public class RookTest {
     @DisplayName("Rook blocked by ally pieces")
     void rookBlockedByAlly() {
         board.setPiece(4, 3, whiteRook); // d4
-        board.setPiece(4, 5, new Pawn(PieceColor.WHITE)); // f4
-        board.setPiece(2, 3, new Pawn(PieceColor.WHITE)); // d6
+        board.setPiece(4, 5, Pawn.of(PieceColor.WHITE)); // f4
+        board.setPiece(2, 3, Pawn.of(PieceColor.WHITE)); // d6
 
         List<Move> moves = whiteRook.getPseudoLegalMoves(game, 4, 3);
         assertEquals(8, moves.size());
@@ -57,8 +57,8 @@ public class RookTest {
     @DisplayName("Rook captures enemy pieces")
     void rookCapturesEnemy() {
         board.setPiece(4, 3, whiteRook); // d4
-        board.setPiece(4, 5, new Pawn(PieceColor.BLACK)); // f4
-        board.setPiece(2, 3, new Pawn(PieceColor.BLACK)); // d6
+        board.setPiece(4, 5, Pawn.of(PieceColor.BLACK)); // f4
+        board.setPiece(2, 3, Pawn.of(PieceColor.BLACK)); // d6
 
         List<Move> moves = whiteRook.getPseudoLegalMoves(game, 4, 3);
         assertEquals(10, moves.size());
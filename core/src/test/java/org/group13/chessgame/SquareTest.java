@@ -22,7 +22,7 @@ public class SquareTest {
     @Test
     void testSetAndGetPiece() {
         Square square = new Square(0, 0);
-        Piece whitePawn = new Pawn(PieceColor.WHITE);
+        Piece whitePawn = Pawn.of(PieceColor.WHITE);
         square.setPiece(whitePawn);
 
         assertFalse(square.isEmpty());
@@ -33,7 +33,7 @@ public class SquareTest {
     @Test
     void testHasEnemyOrAllyPiece() {
         Square square = new Square(0, 0);
-        Piece whitePawn = new Pawn(PieceColor.WHITE);
+        Piece whitePawn = Pawn.of(PieceColor.WHITE);
         square.setPiece(whitePawn);
 
         assertTrue(square.hasAllyPiece(PieceColor.WHITE));
@@ -1,12 +1,12 @@
 module org.group13.chessgame {
+    requires org.group13.chessgame.core;
     requires javafx.controls;
     requires javafx.fxml;
 
     requires org.controlsfx.controls;
     requires javafx.media;
-    requires chesslib;
 
     opens org.group13.chessgame to javafx.fxml, javafx.graphics;
     opens org.group13.chessgame.controller to javafx.fxml;
     exports org.group13.chessgame;
-}
\ No newline at end of file
+}
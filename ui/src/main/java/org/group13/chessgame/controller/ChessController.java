@@ -1,6 +1,9 @@
 package org.group13.chessgame.controller;
 
+import javafx.animation.Animation;
 import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.animation.TranslateTransition;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -28,12 +31,21 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import org.group13.chessgame.engine.UciService;
+import org.group13.chessgame.index.OpeningMove;
+import org.group13.chessgame.index.OpeningTable;
 import org.group13.chessgame.model.*;
+import org.group13.chessgame.network.Frame;
+import org.group13.chessgame.network.FrameCodec;
+import org.group13.chessgame.network.GameConnection;
+import org.group13.chessgame.network.MessageType;
+import org.group13.chessgame.network.NetworkProtocolException;
+import org.group13.chessgame.pgn.EcoOpening;
 import org.group13.chessgame.pgn.PgnHeaders;
 import org.group13.chessgame.utils.PgnFormatter;
 import org.group13.chessgame.utils.PgnParseException;
 import org.group13.chessgame.utils.PgnParser;
-import org.group13.chessgame.utils.PieceImageProvider;
+import org.group13.chessgame.view.CanvasBoardView;
+import org.group13.chessgame.view.PieceImageProvider;
 
 import java.io.*;
 import java.net.Socket;
@@ -41,6 +53,8 @@ import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class ChessController {
     private static final int BOARD_DISPLAY_SIZE = 600;
@@ -52,17 +66,14 @@ public class ChessController {
     private static final int PIECE_IMAGE_VIEW_INDEX = 4;
     private static final int MOVE_INDICATOR_INDEX = 5;
     // --- Network Communication Codes (Re-introducing for clarity) ---
-    private static final int NETWORK_MOVE_CODE = 0;
-    private static final int NETWORK_SURRENDER_WHITE_CODE = 1;
-    private static final int NETWORK_SURRENDER_BLACK_CODE = 2;
-    private static final int NETWORK_CHAT_CODE = 3;
-    private static final int NETWORK_OFFER_DRAW_CODE = 4;
-    private static final int NETWORK_ACCEPT_OFFER_DRAW_CODE = 5;
-    private static final int NETWORK_COLOR_ASSIGNMENT_CODE = 6;
-
     private final List<Piece> whiteCapturedPieces = new ArrayList<>();
     private final List<Piece> blackCapturedPieces = new ArrayList<>();
     private final ObservableList<MovePairDisplay> moveHistoryObservableList = FXCollections.observableArrayList();
+    private final MoveHistoryModel moveHistoryModel = new MoveHistoryModel(moveHistoryObservableList);
+    // order of the captured-piece icons, most valuable first; the rendered counts are indexed by PieceType ordinal
+    private static final PieceType[] CAPTURED_PIECE_ORDER = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN, PieceType.KING};
+    private final int[] renderedCapturedByWhite = new int[PieceType.values().length];
+    private final int[] renderedCapturedByBlack = new int[PieceType.values().length];
     private final ObservableList<String> chatHistoryObservableList = FXCollections.observableArrayList();
     private int currentPlyPointer = -1;
     @FXML
@@ -86,6 +97,10 @@ public class ChessController {
     @FXML
     private Label whitePlayerNameLabel;
     @FXML
+    private Label whiteClockLabel;
+    @FXML
+    private Label blackClockLabel;
+    @FXML
     private FlowPane capturedByWhiteArea;
     @FXML
     private GridPane boardGridPane;
@@ -94,6 +109,8 @@ public class ChessController {
     @FXML
     private Label statusLabel;
     @FXML
+    private Label networkStatsLabel;
+    @FXML
     private ListView<MovePairDisplay> moveHistoryListView;
     @FXML
     private Button undoMoveButton;
@@ -125,10 +142,24 @@ public class ChessController {
     private TextField chatInputField;
     @FXML
     private TabPane infoTabPane;
+    @FXML
+    private Label openingExplorerLabel;
+    @FXML
+    private ListView<OpeningMove> openingExplorerListView;
+    @FXML
+    private CheckMenuItem canvasBoardMenuItem;
 
     private Game gameModel;
     private UciService uciService;
+    // preprocessed opening statistics; lookups are a binary search in a mapped file, cheap enough for every move
+    private OpeningTable openingTable;
     private StackPane[][] squarePanes;
+    // Position piece code drawn on each view square, so refreshBoardView only touches squares that changed
+    private final byte[][] renderedPieceCodes = new byte[Board.SIZE][Board.SIZE];
+    // non-null while the board is drawn by a single canvas instead of squarePanes
+    private CanvasBoardView canvasBoardView;
+    private int canvasPressedSquare = -1;
+    private boolean canvasDragging = false;
 
     private Square selectedSquare = null;
     private List<Move> availableMovesForSelectedPiece = new ArrayList<>();
@@ -145,9 +176,12 @@ public class ChessController {
     // Network related variables
     private PieceColor myColor;
     private boolean isLanGameActive = false;
+    // watching a game server room: moves arrive from the broadcast and nothing is sent back
+    private boolean isSpectating = false;
+    // repaints the clocks and network stats and checks for a flag fall while a timed LAN game runs
+    private Timeline clockTimeline;
     private Socket gameSocket; // This will be the socket for the actual game communication
-    private DataInputStream dataInputStream;
-    private DataOutputStream dataOutputStream;
+    private GameConnection gameConnection;
     private Task<Void> networkListenerTask; // Task to listen for incoming moves
     private boolean isPlayingPvp = false;
 
@@ -172,11 +206,14 @@ public class ChessController {
 
             // After the host game dialog closes, check if a connection was made
             if (hostGameController.isServerStartedSuccessfully()) {
-                gameSocket = hostGameController.getClientSocket();
+                GameConnection connection = hostGameController.getConnection();
                 myColor = hostGameController.getFinalHostColor();
-                if (gameSocket != null && !gameSocket.isClosed()) {
+                if (connection != null && !connection.isClosed()) {
                     System.out.println("ChessController: Host server successfully started and client connected. Game ready!");
-                    initializeGameWithNetwork(gameSocket, true);
+                    initializeGameWithNetwork(connection, true);
+                    if (hostGameController.getTimeControl() != null) {
+                        startClock(hostGameController.getTimeControl());
+                    }
                 } else {
                     System.err.println("ChessController: Host dialog closed, but no valid client socket.");
                     showAlert("Connection Error", "Host server started, but failed to establish client connection.", Alert.AlertType.ERROR);
@@ -212,12 +249,14 @@ public class ChessController {
             joinGameStage.showAndWait(); // Wait for the dialog to close
 
             // After the join game dialog closes, check if a connection was made
-            if (joinGameController.isConnectedSuccessfully()) {
-                gameSocket = joinGameController.getClientSocket();
+            if (joinGameController.isConnectedSuccessfully() && joinGameController.isSpectating()) {
+                initializeSpectatorGame(joinGameController.getConnection(), joinGameController.getSnapshot());
+            } else if (joinGameController.isConnectedSuccessfully()) {
+                GameConnection connection = joinGameController.getConnection();
                 myColor = joinGameController.getMyColor();
-                if (gameSocket != null && !gameSocket.isClosed()) {
+                if (connection != null && !connection.isClosed()) {
                     System.out.println("ChessController: Successfully connected to host. Game ready!");
-                    initializeGameWithNetwork(gameSocket, false);
+                    initializeGameWithNetwork(connection, false);
                 } else {
                     System.err.println("ChessController: Join dialog closed, but no valid client socket.");
                     showAlert("Connection Error", "Successfully connected, but no valid client socket.", Alert.AlertType.ERROR);
@@ -247,24 +286,17 @@ public class ChessController {
     }
 
     @FXML
-    public void initializeGameWithNetwork(Socket gameSocket, boolean isHost) {
+    public void initializeGameWithNetwork(GameConnection connection, boolean isHost) {
         // Close any previous network connections if active
 //        closeNetworkConnections();
 
 //        chatHistoryTab.setDisable(false);
-        this.gameSocket = gameSocket;
+        this.gameConnection = connection;
+        this.gameSocket = connection.getSocket();
         this.isLanGameActive = true;
-
-        try {
-            this.dataOutputStream = new DataOutputStream(gameSocket.getOutputStream());
-            this.dataInputStream = new DataInputStream(gameSocket.getInputStream());
-        } catch (IOException e) {
-            e.printStackTrace();
-            showAlert("Network Error", "Failed to setup network streams: " + e.getMessage(), Alert.AlertType.ERROR);
-            // TODO: handle if failed to setup network streams
-//            resetToLocalGame();
-            return;
-        }
+        this.isSpectating = false;
+        chatInputField.setDisable(false);
+        connection.startHeartbeat(GameConnection.DEFAULT_HEARTBEAT_INTERVAL);
 
         // Start listening for opponent's moves
         startNetworkListener();
@@ -302,27 +334,42 @@ public class ChessController {
         System.out.println("Network game started! My color: " + myColor);
     }
 
-    // Helper to find a legal move by its Standard Algebraic Notation (SAN)
-    // This is a simplified placeholder. A robust network game would send coordinates.
-    private Move findMoveBySAN(String san) {
-        List<Move> legalMoves = gameModel.getAllLegalMovesForPlayer(gameModel.getCurrentPlayer().getColor());
-        for (Move move : legalMoves) {
-            // Need to compute SAN for each legal move and compare.
-            // This can be computationally expensive if done repeatedly.
-            // A better network protocol sends exact coordinates.
-            String currentMoveSan = org.group13.chessgame.utils.NotationUtils.moveToAlgebraic(move, gameModel); // Re-compute SAN
-            if (currentMoveSan.equals(san)) {
-                return move;
+    // Watch a game server room: catch up from the snapshot, then follow the broadcast with the board locked
+    private void initializeSpectatorGame(GameConnection connection, Frame snapshot) {
+        myColor = null;
+        initializeGameWithNetwork(connection, false);
+        isSpectating = true;
+        chatInputField.setDisable(true);
+
+        try {
+            for (int packedMove : FrameCodec.readSnapshotMoves(snapshot)) {
+                Move move = gameModel.findLegalMove(packedMove);
+                if (move == null) {
+                    throw new NetworkProtocolException("Snapshot move " + PackedMove.toUci(packedMove) + " is not legal");
+                }
+                gameModel.makeMove(move);
+            }
+            Game.GameState snapshotState = FrameCodec.readSnapshotState(snapshot);
+            if (snapshotState == Game.GameState.DRAW_BY_AGREEMENT || snapshotState == Game.GameState.WHITE_SURRENDERS || snapshotState == Game.GameState.BLACK_SURRENDERS) {
+                gameModel.setGameState(snapshotState);
             }
-            // For promotions, SAN might look like "e8=Q"
-            if (move.isPromotion() && san.equals(currentMoveSan + "=" + move.getPromotionPieceType().name().charAt(0))) {
-                return move;
+            if (gameModel.getCurrentPositionHash() != FrameCodec.readSnapshotHash(snapshot)) {
+                showAlert("Network Error", "The replayed game does not match the server's position.", Alert.AlertType.ERROR);
             }
+        } catch (NetworkProtocolException e) {
+            System.err.println("Invalid snapshot: " + e.getMessage());
+            showAlert("Network Error", "Could not replay the game so far: " + e.getMessage(), Alert.AlertType.ERROR);
         }
-        return null;
-    }
 
+        whitePlayerNameLabel.setText("White");
+        blackPlayerNameLabel.setText("Black");
+        currentPlyPointer = gameModel.getUndoStack().size() - 1;
+        updateAllUIStates();
+        updateStatusLabel("Watching game (" + gameModel.getUndoStack().size() + " moves played)");
+    }
 
+    // Helper to find a legal move by its Standard Algebraic Notation (SAN)
+    // This is a simplified placeholder. A robust network game would send coordinates.
     // New: Starts a background task to listen for network moves
     private void startNetworkListener() {
         if (networkListenerTask != null && networkListenerTask.isRunning()) {
@@ -332,118 +379,148 @@ public class ChessController {
         networkListenerTask = new Task<Void>() {
             @Override
             protected Void call() throws Exception {
-                try {
-                    while (!isCancelled() && gameSocket != null && !gameSocket.isClosed()) {
-                        // Read the move from the opponent as a string (e.g., SAN or FEN)
-                        int messageType = dataInputStream.readInt();
-                        if (messageType == NETWORK_OFFER_DRAW_CODE) {
-                            Platform.runLater(() -> {
-                                Alert confirmation = new Alert(Alert.AlertType.CONFIRMATION);
-                                confirmation.setTitle("Draw offer");
-                                confirmation.setHeaderText(null);
-                                confirmation.setContentText("Do you to accept opponent's draw offer?");
-                                Optional<ButtonType> result = confirmation.showAndWait();
-
-                                if (result.isPresent() && result.get() == ButtonType.OK) {
+                while (true) {
+                    try {
+                        while (!isCancelled() && gameSocket != null && !gameSocket.isClosed()) {
+                            Frame frame = gameConnection.receive();
+                            MessageType messageType = frame.type();
+                            if (messageType == MessageType.OFFER_DRAW) {
+                                Platform.runLater(() -> {
+                                    Alert confirmation = new Alert(Alert.AlertType.CONFIRMATION);
+                                    confirmation.setTitle("Draw offer");
+                                    confirmation.setHeaderText(null);
+                                    confirmation.setContentText("Do you to accept opponent's draw offer?");
+                                    Optional<ButtonType> result = confirmation.showAndWait();
+
+                                    if (result.isPresent() && result.get() == ButtonType.OK) {
+                                        gameModel.setGameState(Game.GameState.DRAW_BY_AGREEMENT);
+                                        updateStatusBasedOnGameState();
+                                        try {
+                                            gameConnection.sendSignal(MessageType.ACCEPT_DRAW);
+                                        } catch (IOException e) {
+                                            e.printStackTrace();
+                                        }
+                                    }
+                                });
+                            } else if (messageType == MessageType.ACCEPT_DRAW) {
+                                Platform.runLater(() -> {
                                     gameModel.setGameState(Game.GameState.DRAW_BY_AGREEMENT);
                                     updateStatusBasedOnGameState();
+                                });
+                            } else if (messageType == MessageType.MOVE) {
+                                int opponentPackedMove = FrameCodec.readMove(frame);
+                                long opponentPositionHash = FrameCodec.readPositionHash(frame);
+                                System.out.println("Received move from opponent: " + PackedMove.toUci(opponentPackedMove));
+
+                                // Apply the move on the JavaFX Application Thread
+                                Platform.runLater(() -> {
                                     try {
-                                        dataOutputStream.writeInt(NETWORK_ACCEPT_OFFER_DRAW_CODE);
-                                        dataOutputStream.flush();
-                                    } catch (IOException e) {
+                                        Move opponentMove = gameModel.findLegalMove(opponentPackedMove);
+                                        if (opponentMove != null) {
+                                            performMoveLogic(opponentMove); // Apply the move
+                                            if (gameModel.getClock() != null) {
+                                                // the move spent about half a round trip on the wire; that is not the opponent's thinking time
+                                                gameModel.getClock().compensateLag(opponentMove.getPieceMoved().getColor(), gameConnection.getMetrics().getOneWayDelayNanos());
+                                            }
+                                            if (gameModel.getCurrentPositionHash() != opponentPositionHash) {
+                                                System.err.println("Position hash mismatch after " + PackedMove.toUci(opponentPackedMove) + ": boards are out of sync.");
+                                                showAlert("Network Error", "Your board no longer matches the opponent's board.", Alert.AlertType.ERROR);
+                                            }
+                                            updateStatusLabel(isSpectating ? "Played: " + opponentMove.getStandardAlgebraicNotation() : "Opponent played: " + opponentMove.getStandardAlgebraicNotation() + ". Your turn.");
+                                            updateStatusBasedOnGameState();
+                                        } else {
+                                            System.err.println("Failed to find opponent's move: " + PackedMove.toUci(opponentPackedMove));
+                                            showAlert("Network Error", "Received invalid move from opponent.", Alert.AlertType.ERROR);
+                                        }
+                                    } catch (Exception e) {
                                         e.printStackTrace();
+                                        showAlert("Network Error", "Error applying opponent's move: " + e.getMessage(), Alert.AlertType.ERROR);
                                     }
-                                }
-                            });
-                        } else if (messageType == NETWORK_ACCEPT_OFFER_DRAW_CODE) {
-                            Platform.runLater(() -> {
-                                gameModel.setGameState(Game.GameState.DRAW_BY_AGREEMENT);
-                                updateStatusBasedOnGameState();
-                            });
-                        } else if (messageType == NETWORK_MOVE_CODE) {
-                            String opponentMoveSan = dataInputStream.readUTF();
-                            System.out.println("Received move from opponent: " + opponentMoveSan);
+                                });
+                            } else if (messageType == MessageType.SURRENDER_WHITE) {
+                                Platform.runLater(() -> {
+                                    updateStatusBasedOnGameState();
+                                    surrenderButton.setDisable(true);
+                                    gameModel.surrender(PieceColor.WHITE);
+                                    System.out.println("Surrender initiated by " + PieceColor.WHITE);
 
-                            // Apply the move on the JavaFX Application Thread
-                            Platform.runLater(() -> {
-                                try {
-                                    Move opponentMove = findMoveBySAN(opponentMoveSan);
-                                    if (opponentMove != null) {
-                                        performMoveLogic(opponentMove); // Apply the move
-                                        updateStatusLabel("Opponent played: " + opponentMoveSan + ". Your turn.");
-                                        updateStatusBasedOnGameState();
-                                    } else {
-                                        System.err.println("Failed to parse or find opponent's move: " + opponentMoveSan);
-                                        showAlert("Network Error", "Received invalid move from opponent.", Alert.AlertType.ERROR);
-                                    }
-                                } catch (Exception e) {
-                                    e.printStackTrace();
-                                    showAlert("Network Error", "Error applying opponent's move: " + e.getMessage(), Alert.AlertType.ERROR);
-                                }
-                            });
-                        } else if (messageType == NETWORK_SURRENDER_WHITE_CODE) {
-                            Platform.runLater(() -> {
-                                updateStatusBasedOnGameState();
-                                surrenderButton.setDisable(true);
-                                gameModel.surrender(PieceColor.WHITE);
-                                System.out.println("Surrender initiated by " + PieceColor.WHITE);
-
-                                // Cập nhật giao diện
-                                updateStatusBasedOnGameState();
-                                updateTurnLabel();
-                                refreshBoardView();
-                                boardGridPane.setMouseTransparent(true); // Khóa bàn cờ
-                                undoMoveButton.setDisable(true);
-                                surrenderButton.setDisable(true);
-
-                                // Phát âm thanh
-                                playSound(endGameSoundPlayer);
-//                                closeNetworkConnections();
-                            });
+                                    // Cập nhật giao diện
+                                    updateStatusBasedOnGameState();
+                                    updateTurnLabel();
+                                    refreshBoardView();
+                                    boardGridPane.setMouseTransparent(true); // Khóa bàn cờ
+                                    undoMoveButton.setDisable(true);
+                                    surrenderButton.setDisable(true);
+
+                                    // Phát âm thanh
+                                    playSound(endGameSoundPlayer);
+    //                                closeNetworkConnections();
+                                });
+
+                            } else if (messageType == MessageType.SURRENDER_BLACK) {
+                                Platform.runLater(() -> {
+                                    updateStatusBasedOnGameState();
+                                    surrenderButton.setDisable(true);
+                                    gameModel.surrender(PieceColor.BLACK);
+                                    System.out.println("Surrender initiated by " + PieceColor.BLACK);
 
-                        } else if (messageType == NETWORK_SURRENDER_BLACK_CODE) {
-                            Platform.runLater(() -> {
-                                updateStatusBasedOnGameState();
-                                surrenderButton.setDisable(true);
-                                gameModel.surrender(PieceColor.BLACK);
-                                System.out.println("Surrender initiated by " + PieceColor.BLACK);
-
-                                // Cập nhật giao diện
-                                updateStatusBasedOnGameState();
-                                updateTurnLabel();
-                                refreshBoardView();
-                                boardGridPane.setMouseTransparent(true); // Khóa bàn cờ
-                                undoMoveButton.setDisable(true);
-                                surrenderButton.setDisable(true);
-
-                                // Phát âm thanh
-                                playSound(endGameSoundPlayer);
-//                                closeNetworkConnections();
-                            });
-                        } else if (messageType == NETWORK_CHAT_CODE) {
-                            String messageContent = dataInputStream.readUTF();
-                            chatHistoryListView.getItems().add(messageContent);
-                            chatHistoryListView.refresh();
+                                    // Cập nhật giao diện
+                                    updateStatusBasedOnGameState();
+                                    updateTurnLabel();
+                                    refreshBoardView();
+                                    boardGridPane.setMouseTransparent(true); // Khóa bàn cờ
+                                    undoMoveButton.setDisable(true);
+                                    surrenderButton.setDisable(true);
+
+                                    // Phát âm thanh
+                                    playSound(endGameSoundPlayer);
+    //                                closeNetworkConnections();
+                                });
+                            } else if (messageType == MessageType.CHAT) {
+                                String messageContent = FrameCodec.readText(frame);
+                                chatHistoryListView.getItems().add(messageContent);
+                                chatHistoryListView.refresh();
+                            } else if (messageType == MessageType.TIME_CONTROL) {
+                                TimeControl timeControl = FrameCodec.readTimeControl(frame);
+                                Platform.runLater(() -> startClock(timeControl));
+                            } else if (messageType == MessageType.ERROR) {
+                                String reason = FrameCodec.readText(frame);
+                                Platform.runLater(() -> {
+                                    System.err.println("Server rejected a frame: " + reason);
+                                    showAlert("Server Error", reason, Alert.AlertType.ERROR);
+                                });
+                            }
                         }
-                    }
-                } catch (EOFException e) {
-                    Platform.runLater(() -> {
-                        System.out.println("Opponent disconnected (EOF).");
-                        showAlert("Disconnected", "Opponent disconnected from the game.", Alert.AlertType.INFORMATION);
-                        // TODO: handle logic when opponent disconnected from the game
-//                        resetToLocalGame();
-                    });
-                } catch (IOException e) {
-                    if (!isCancelled()) { // Only report if not intentionally cancelled
+                        if (!isCancelled() && gameSocket != null && gameSocket.isClosed()) {
+                            // the heartbeat closed a silent socket between two reads
+                            throw new EOFException("Connection closed after the peer stopped answering");
+                        }
+                    } catch (NetworkProtocolException e) {
                         Platform.runLater(() -> {
-                            System.err.println("Network listener error: " + e.getMessage());
+                            System.err.println("Network protocol error: " + e.getMessage());
                             showAlert("Network Error", "Network communication error: " + e.getMessage(), Alert.AlertType.ERROR);
-                            // TODO: handle logic when network communication is error.
+                        });
+                    } catch (EOFException e) {
+                        if (!isCancelled() && resumeConnection()) continue;
+                        Platform.runLater(() -> {
+                            System.out.println("Opponent disconnected (EOF).");
+                            showAlert("Disconnected", "Opponent disconnected from the game.", Alert.AlertType.INFORMATION);
+                            // TODO: handle logic when opponent disconnected from the game
 //                            resetToLocalGame();
                         });
+                    } catch (IOException e) {
+                        if (!isCancelled() && resumeConnection()) continue;
+                        if (!isCancelled()) { // Only report if not intentionally cancelled
+                            Platform.runLater(() -> {
+                                System.err.println("Network listener error: " + e.getMessage());
+                                showAlert("Network Error", "Network communication error: " + e.getMessage(), Alert.AlertType.ERROR);
+                                // TODO: handle logic when network communication is error.
+//                                resetToLocalGame();
+                            });
+                        }
                     }
+                    return null;
                 }
-                return null;
             }
         };
 
@@ -460,6 +537,81 @@ public class ChessController {
         listenerThread.start();
     }
 
+    private void startClock(TimeControl timeControl) {
+        stopClock();
+        GameClock clock = new GameClock(timeControl);
+        gameModel.setClock(clock);
+        if (gameConnection != null) gameConnection.setClock(clock);
+        clock.start(gameModel.getCurrentPlayer().getColor());
+
+        for (Label clockLabel : new Label[]{whiteClockLabel, blackClockLabel, networkStatsLabel}) {
+            clockLabel.setVisible(true);
+            clockLabel.setManaged(true);
+        }
+        clockTimeline = new Timeline(new KeyFrame(Duration.millis(100), e -> updateClockLabels()));
+        clockTimeline.setCycleCount(Animation.INDEFINITE);
+        clockTimeline.play();
+        updateClockLabels();
+        System.out.println("Clock started: " + timeControl);
+    }
+
+    private void stopClock() {
+        if (clockTimeline != null) {
+            clockTimeline.stop();
+            clockTimeline = null;
+        }
+        gameModel.setClock(null);
+        if (gameConnection != null) gameConnection.setClock(null);
+        for (Label clockLabel : new Label[]{whiteClockLabel, blackClockLabel, networkStatsLabel}) {
+            clockLabel.setVisible(false);
+            clockLabel.setManaged(false);
+        }
+    }
+
+    private void updateClockLabels() {
+        GameClock clock = gameModel.getClock();
+        if (clock == null) return;
+        if (gameModel.checkTimeout()) {
+            updateAllUIStates();
+            boardGridPane.setMouseTransparent(true);
+            playSound(endGameSoundPlayer);
+        }
+        whiteClockLabel.setText(GameClock.format(clock.getRemainingMillis(PieceColor.WHITE)));
+        blackClockLabel.setText(GameClock.format(clock.getRemainingMillis(PieceColor.BLACK)));
+        if (gameConnection != null && gameConnection.getMetrics().getSampleCount() > 0) {
+            networkStatsLabel.setText(gameConnection.getMetrics().toString());
+        }
+    }
+
+    // Called on the listener thread once the socket dropped: freeze the board, reconnect and replay what the
+    // opponent missed. Returns false if the game cannot continue, so the caller reports the disconnect.
+    private boolean resumeConnection() {
+        if (gameConnection == null || !gameConnection.canResume()) return false;
+        FutureTask<long[]> freezeBoard = new FutureTask<>(() -> {
+            boardGridPane.setMouseTransparent(true);
+            updateStatusLabel("Connection lost. Reconnecting...");
+            return new long[]{gameModel.getCurrentPositionHash(), gameModel.getUndoStack().size()};
+        });
+        Platform.runLater(freezeBoard);
+        try {
+            long[] position = freezeBoard.get();
+            int replayed = gameConnection.resume(position[0], (int) position[1]);
+            gameSocket = gameConnection.getSocket();
+            System.out.println("Reconnected to opponent, replayed " + replayed + " frame(s).");
+            Platform.runLater(() -> {
+                boardGridPane.setMouseTransparent(isGameOver());
+                updateStatusLabel("Reconnected to opponent.");
+            });
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not resume the game: " + e.getMessage());
+            return false;
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Could not read the position before reconnecting: " + e.getMessage());
+            return false;
+        }
+    }
+
     // New: Helper to set board visual orientation
     private void setBoardVisualPerspective(PieceColor perspective) {
         // Set internal flag for refreshBoardView and getModelSquare
@@ -490,9 +642,7 @@ public class ChessController {
             chatInputField.clear(); // Clear the input field
 
             try {
-                dataOutputStream.writeInt(NETWORK_CHAT_CODE);
-                dataOutputStream.writeUTF(message);
-                dataOutputStream.flush();
+                gameConnection.sendChat(message);
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -515,16 +665,9 @@ public class ChessController {
             networkListenerTask = null;
         }
         try {
-            if (dataInputStream != null) {
-                dataInputStream.close();
-                dataInputStream = null;
-            }
-            if (dataOutputStream != null) {
-                dataOutputStream.close();
-                dataOutputStream = null;
-            }
-            if (gameSocket != null && !gameSocket.isClosed()) {
-                gameSocket.close();
+            if (gameConnection != null) {
+                gameConnection.close();
+                gameConnection = null;
                 gameSocket = null;
                 System.out.println("Network connections closed.");
             }
@@ -550,6 +693,7 @@ public class ChessController {
 
         moveHistoryListView.setItems(moveHistoryObservableList);
         setupMoveHistoryCellFactory();
+        setupOpeningExplorerCellFactory();
         setupPgnHeaderListeners();
         startNewGame();
     }
@@ -558,10 +702,21 @@ public class ChessController {
         if (uciService != null) {
             uciService.stopEngine();
         }
+        closeOpeningTable();
     }
 
     private void initializeBoardGrid() {
         boardGridPane.getChildren().clear();
+        for (byte[] rowCodes : renderedPieceCodes) {
+            Arrays.fill(rowCodes, Position.EMPTY);
+        }
+        if (canvasBoardMenuItem != null && canvasBoardMenuItem.isSelected()) {
+            canvasBoardView = new CanvasBoardView(SQUARE_SIZE);
+            addCanvasBoardHandlers(canvasBoardView);
+            boardGridPane.add(canvasBoardView, 0, 0);
+            return;
+        }
+        canvasBoardView = null;
         for (int row = 0; row < Board.SIZE; row++) {
             for (int col = 0; col < Board.SIZE; col++) {
                 StackPane squarePane = new StackPane();
@@ -623,13 +778,84 @@ public class ChessController {
     }
 
     private Square getModelSquare(StackPane squarePane) {
-        int targetViewRow = GridPane.getRowIndex(squarePane);
-        int targetViewCol = GridPane.getColumnIndex(squarePane);
-        int targetModelRow = boardIsFlipped ? (Board.SIZE - 1 - targetViewRow) : targetViewRow;
-        int targetModelCol = boardIsFlipped ? (Board.SIZE - 1 - targetViewCol) : targetViewCol;
+        return getModelSquare(GridPane.getRowIndex(squarePane), GridPane.getColumnIndex(squarePane));
+    }
+
+    private Square getModelSquare(int viewRow, int viewCol) {
+        int targetModelRow = boardIsFlipped ? (Board.SIZE - 1 - viewRow) : viewRow;
+        int targetModelCol = boardIsFlipped ? (Board.SIZE - 1 - viewCol) : viewCol;
         return gameModel.getBoard().getSquare(targetModelRow, targetModelCol);
     }
 
+    private int toCanvasSquare(Square modelSquare) {
+        int viewRow = boardIsFlipped ? (Board.SIZE - 1 - modelSquare.getRow()) : modelSquare.getRow();
+        int viewCol = boardIsFlipped ? (Board.SIZE - 1 - modelSquare.getCol()) : modelSquare.getCol();
+        return viewRow * Board.SIZE + viewCol;
+    }
+
+    private void addCanvasBoardHandlers(CanvasBoardView canvas) {
+        canvas.setOnMouseMoved(event -> {
+            if (isGameOver()) return;
+            int viewSquare = canvas.squareAt(event.getX(), event.getY());
+            if (viewSquare < 0) {
+                canvas.setHoverSquare(-1);
+                return;
+            }
+            Square hoveredModelSquare = getModelSquare(viewSquare / Board.SIZE, viewSquare % Board.SIZE);
+            boolean showHover = availableMovesForSelectedPiece.stream().anyMatch(m -> m.getEndSquare() == hoveredModelSquare);
+            if (hoveredModelSquare.hasPiece() && hoveredModelSquare.getPiece().getColor() == gameModel.getCurrentPlayer().getColor()) {
+                showHover = true;
+            }
+            canvas.setHoverSquare(showHover && hoveredModelSquare != selectedSquare ? viewSquare : -1);
+        });
+        canvas.setOnMouseExited(event -> canvas.setHoverSquare(-1));
+
+        canvas.setOnMousePressed(event -> {
+            canvasPressedSquare = canvas.squareAt(event.getX(), event.getY());
+            canvasDragging = false;
+        });
+
+        canvas.setOnMouseDragged(event -> {
+            if (canvasPressedSquare < 0 || isGameOver()) return;
+            if (isLanGameActive && myColor != gameModel.getCurrentPlayer().getColor()) return;
+            if (currentMode != GameMode.ANALYSIS && gameModel.getCurrentPlayer().getColor() != playerColor) return;
+
+            if (!canvasDragging) {
+                Square dragSourceSquareModel = getModelSquare(canvasPressedSquare / Board.SIZE, canvasPressedSquare % Board.SIZE);
+                if (!dragSourceSquareModel.hasPiece() || dragSourceSquareModel.getPiece().getColor() != gameModel.getCurrentPlayer().getColor()) {
+                    return;
+                }
+                if (selectedSquare != dragSourceSquareModel) {
+                    selectPiece(dragSourceSquareModel);
+                }
+                canvasDragging = true;
+            }
+            canvas.setDraggedPiece(canvasPressedSquare, event.getX(), event.getY());
+
+            int overSquare = canvas.squareAt(event.getX(), event.getY());
+            boolean canDrop = overSquare >= 0 && availableMovesForSelectedPiece.stream().anyMatch(m -> m.getEndSquare() == getModelSquare(overSquare / Board.SIZE, overSquare % Board.SIZE));
+            canvas.setDragOverSquare(canDrop ? overSquare : -1);
+            canvas.setHoverSquare(-1);
+        });
+
+        canvas.setOnMouseReleased(event -> {
+            int releasedSquare = canvas.squareAt(event.getX(), event.getY());
+            if (canvasDragging) {
+                canvasDragging = false;
+                canvas.clearDraggedPiece();
+                canvas.setDragOverSquare(-1);
+                boolean moved = releasedSquare >= 0 && dropSelectedPieceOn(getModelSquare(releasedSquare / Board.SIZE, releasedSquare % Board.SIZE));
+                if (!moved) {
+                    clearSelectionAndHighlights();
+                }
+            } else if (releasedSquare >= 0 && releasedSquare == canvasPressedSquare) {
+                if (!(isLanGameActive && myColor != gameModel.getCurrentPlayer().getColor()))
+                    handleSquareClick(releasedSquare / Board.SIZE, releasedSquare % Board.SIZE);
+            }
+            canvasPressedSquare = -1;
+        });
+    }
+
     private void setupMoveHistoryCellFactory() {
         moveHistoryListView.setCellFactory(listView -> new MoveListCell(this));
     }
@@ -669,6 +895,11 @@ public class ChessController {
 
     private void refreshBoardView() {
         Board currentBoard = gameModel.getBoard();
+        if (canvasBoardView != null) {
+            canvasBoardView.setPosition(currentBoard, boardIsFlipped);
+            canvasBoardView.clearHighlights();
+            return;
+        }
         for (int row = 0; row < Board.SIZE; row++) {
             for (int col = 0; col < Board.SIZE; col++) {
                 int viewRow = boardIsFlipped ? (Board.SIZE - 1 - row) : row;
@@ -678,45 +909,61 @@ public class ChessController {
                 ImageView pieceImageView = getPieceImageViewFromPane(squarePane);
 
                 Piece piece = currentBoard.getPiece(row, col);
-                if (piece != null) {
-                    try {
-                        String imagePath = piece.getImagePath();
-                        Image pieceImage = new Image(Objects.requireNonNull(getClass().getResourceAsStream(imagePath)));
-                        pieceImageView.setImage(pieceImage);
-                        pieceImageView.setVisible(true);
-                    } catch (Exception e) {
-                        System.err.println("Error loading image: " + piece.getImagePath() + " - " + e.getMessage());
-                        pieceImageView.setImage(null);
-                        pieceImageView.setVisible(false);
-                    }
-                } else {
-                    pieceImageView.setImage(null);
-                    pieceImageView.setVisible(false);
+                byte pieceCode = (piece == null) ? Position.EMPTY : Position.code(piece.getType(), piece.getColor());
+                // the move animation hides the moving piece, so an unchanged square can still need its view shown again
+                if (pieceCode != renderedPieceCodes[viewRow][viewCol] || pieceImageView.isVisible() != (piece != null)) {
+                    Image pieceImage = (piece == null) ? null : PieceImageProvider.getImageFor(piece.getType(), piece.getColor());
+                    pieceImageView.setImage(pieceImage);
+                    pieceImageView.setVisible(pieceImage != null);
+                    renderedPieceCodes[viewRow][viewCol] = pieceCode;
                 }
                 removeHighlightStyling(squarePane);
             }
         }
     }
 
-    private void rebuildMoveHistoryView() {
-        moveHistoryObservableList.clear();
-        List<Move> playedMoves = gameModel.getPlayedMoveSequence();
-        for (int i = 0; i < playedMoves.size(); i++) {
-            Move whiteMove = playedMoves.get(i);
-            if (whiteMove.getPieceMoved().getColor() == PieceColor.WHITE) {
-                Move blackMove = null;
-                if (i + 1 < playedMoves.size()) {
-                    blackMove = playedMoves.get(i + 1);
-                }
-                moveHistoryObservableList.add(new MovePairDisplay((i / 2) + 1, whiteMove, blackMove));
-                if (blackMove != null) {
-                    i++;
+    private void syncMoveHistoryView() {
+        moveHistoryModel.sync(gameModel);
+        updateMoveHistoryViewHighlightAndScroll();
+    }
+
+    private void setupOpeningExplorerCellFactory() {
+        openingExplorerListView.setCellFactory(listView -> new ListCell<>() {
+            @Override
+            protected void updateItem(OpeningMove item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    return;
                 }
-            } else {
-                moveHistoryObservableList.add(new MovePairDisplay((i / 2) + 1, null, whiteMove));
+                String rating = item.averageRating() > 0 ? "  avg " + item.averageRating() : "";
+                setText(String.format("%-7s %,8d  %.0f%% / %.0f%% / %.0f%%%s", item.san(), item.games(), item.whitePercent(), item.drawPercent(), item.blackPercent(), rating));
             }
+        });
+    }
+
+    private void updateOpeningExplorer() {
+        EcoOpening opening = gameModel.getOpening();
+        String openingName = opening == null ? "" : opening + " - ";
+        if (openingTable == null) {
+            openingExplorerListView.getItems().clear();
+            openingExplorerLabel.setText(openingName + "No opening table loaded");
+            return;
         }
-        updateMoveHistoryViewHighlightAndScroll();
+        List<OpeningMove> moves = openingTable.lookup(gameModel.toPosition());
+        openingExplorerListView.getItems().setAll(moves);
+        int games = moves.stream().mapToInt(OpeningMove::games).sum();
+        openingExplorerLabel.setText(openingName + (moves.isEmpty() ? "Position not in opening table" : String.format("%,d games", games)));
+    }
+
+    private void closeOpeningTable() {
+        if (openingTable == null) return;
+        try {
+            openingTable.close();
+        } catch (IOException e) {
+            System.err.println("Error closing opening table: " + e.getMessage());
+        }
+        openingTable = null;
     }
 
     private void updateAllUIStates() {
@@ -726,9 +973,10 @@ public class ChessController {
         updateUndoRedoButtonStates();
         updateActionButtonsState();
         updateCapturedPiecesView();
-        rebuildMoveHistoryView();
+        syncMoveHistoryView();
         updatePgnHeaderFieldsFromResult();
         updateMoveHistoryViewHighlightAndScroll();
+        updateOpeningExplorer();
         autoFlipBoardButton.setVisible(currentMode == GameMode.ANALYSIS);
 
     }
@@ -797,6 +1045,8 @@ public class ChessController {
             case THREEFOLD_REPETITION_DRAW -> "Draw by threefold repetition.";
             case INSUFFICIENT_MATERIAL_DRAW -> "Draw by insufficient material.";
             case DRAW_BY_AGREEMENT -> "Both sides agreed to draw.";
+            case WHITE_OUT_OF_TIME -> "BLACK wins on time.";
+            case BLACK_OUT_OF_TIME -> "WHITE wins on time.";
             default -> "";
         };
         statusLabel.setText(status);
@@ -839,22 +1089,36 @@ public class ChessController {
     }
 
     private void updateCapturedPiecesView() {
-        capturedByWhiteArea.getChildren().clear();
-        capturedByBlackArea.getChildren().clear();
-
-        Comparator<Piece> pieceComparator = Comparator.comparingInt((Piece p) -> getPieceValue(p.getType())).reversed().thenComparing(p -> p.getType().toString());
+        syncCapturedPiecesPane(gameModel.getCapturedPieces(PieceColor.WHITE), PieceColor.BLACK, renderedCapturedByWhite, capturedByWhiteArea);
+        syncCapturedPiecesPane(gameModel.getCapturedPieces(PieceColor.BLACK), PieceColor.WHITE, renderedCapturedByBlack, capturedByBlackArea);
+    }
 
-        List<Piece> whiteCaptures = new ArrayList<>(gameModel.getCapturedPieces(PieceColor.WHITE));
-        populateCapturedPiecesPane(pieceComparator, whiteCaptures, capturedByWhiteArea);
+    // Icons are grouped by type in CAPTURED_PIECE_ORDER, so only the groups whose count changed are touched.
+    private void syncCapturedPiecesPane(List<Piece> capturedList, PieceColor capturedColor, int[] renderedCounts, FlowPane targetPane) {
+        int[] counts = new int[PieceType.values().length];
+        for (Piece captured : capturedList) {
+            counts[captured.getType().ordinal()]++;
+        }
 
-        List<Piece> blackCaptures = new ArrayList<>(gameModel.getCapturedPieces(PieceColor.BLACK));
-        populateCapturedPiecesPane(pieceComparator, blackCaptures, capturedByBlackArea);
+        int groupStart = 0;
+        for (PieceType type : CAPTURED_PIECE_ORDER) {
+            int typeIndex = type.ordinal();
+            while (renderedCounts[typeIndex] > counts[typeIndex]) {
+                targetPane.getChildren().remove(groupStart);
+                renderedCounts[typeIndex]--;
+            }
+            while (renderedCounts[typeIndex] < counts[typeIndex]) {
+                targetPane.getChildren().add(groupStart, createCapturedPieceView(type, capturedColor));
+                renderedCounts[typeIndex]++;
+            }
+            groupStart += renderedCounts[typeIndex];
+        }
     }
 
     private void updateMoveHistoryViewHighlightAndScroll() {
         moveHistoryListView.refresh();
         if (currentPlyPointer >= 0) {
-            int displayIndex = currentPlyPointer / 2;
+            int displayIndex = moveHistoryModel.getRowIndex(currentPlyPointer);
             if (displayIndex < moveHistoryObservableList.size()) {
                 javafx.application.Platform.runLater(() -> moveHistoryListView.scrollTo(displayIndex));
             }
@@ -1025,6 +1289,7 @@ public class ChessController {
             }
             chatHistoryTab.setDisable(true);
             gameModel.initializeGame();
+            stopClock();
             clearSelectionAndHighlights();
             currentPlyPointer = -1;
             updatePgnHeaderFields(gameModel.getPgnHeaders());
@@ -1115,6 +1380,13 @@ public class ChessController {
         }
     }
 
+    @FXML
+    private void handleToggleCanvasBoard() {
+        initializeBoardGrid();
+        clearSelectionAndHighlights();
+        refreshBoardView();
+    }
+
     @FXML
     private void handleFlipBoard() {
         boardIsFlipped = !boardIsFlipped;
@@ -1133,7 +1405,10 @@ public class ChessController {
             try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
                 PgnHeaders headers = getCurrentHeadersFromFields();
                 headers.setResult(getPgnResult(gameModel.getGameState()));
-                String pgnContent = PgnFormatter.formatGame(gameModel.getPgnHeaders(), gameModel.getPlayedMoveSequence(), gameModel.getGameState());
+                EcoOpening opening = gameModel.getOpening();
+                gameModel.getPgnHeaders().setEco(opening == null ? null : opening.eco());
+                gameModel.getPgnHeaders().setOpening(opening == null ? null : opening.name());
+                String pgnContent = PgnFormatter.formatGame(gameModel.getPgnHeaders(), gameModel.getStartPosition(), gameModel.getPlayedMoveSequence(), gameModel.getGameState());
                 writer.print(pgnContent);
                 updateStatusLabel("Game saved as PGN: " + file.getName());
             } catch (IOException e) {
@@ -1170,6 +1445,26 @@ public class ChessController {
         }
     }
 
+    @FXML
+    private void handleLoadOpeningTable() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Load Opening Table");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Opening Tables (*.book)", "*.book"));
+        File file = fileChooser.showOpenDialog(rootPane.getScene().getWindow());
+
+        if (file != null) {
+            try {
+                OpeningTable table = OpeningTable.open(file.toPath());
+                closeOpeningTable();
+                openingTable = table;
+                updateOpeningExplorer();
+                updateStatusLabel(String.format("Opening table loaded: %s (%,d games)", file.getName(), table.getGameCount()));
+            } catch (IOException e) {
+                showAlert("Opening Table", "Could not load " + file.getName() + ": " + e.getMessage(), Alert.AlertType.ERROR);
+            }
+        }
+    }
+
     @FXML
     private void handleExit() {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -1185,10 +1480,10 @@ public class ChessController {
 
     @FXML
     private void handleOfferDraw() {
+        if (isSpectating) return;
         if (isLanGameActive) {
             try {
-                dataOutputStream.writeInt(NETWORK_OFFER_DRAW_CODE);
-                dataOutputStream.flush();
+                gameConnection.sendSignal(MessageType.OFFER_DRAW);
                 showAlert("Draw offer", "Draw offer sent.", Alert.AlertType.INFORMATION);
             } catch (IOException e) {
                 e.printStackTrace();
@@ -1210,6 +1505,7 @@ public class ChessController {
 
     @FXML
     private void handleSurrender() {
+        if (isSpectating) return;
         if (isGameOver()) {
             System.out.println("Surrender blocked: Game is already over with state " + gameModel.getGameState());
             return;
@@ -1226,8 +1522,7 @@ public class ChessController {
             if (isLanGameActive) {
                 surrenderPieceColor = myColor;
                 try {
-                    dataOutputStream.writeInt(myColor == PieceColor.WHITE ? NETWORK_SURRENDER_WHITE_CODE : NETWORK_SURRENDER_BLACK_CODE);
-                    dataOutputStream.flush();
+                    gameConnection.sendSignal(myColor == PieceColor.WHITE ? MessageType.SURRENDER_WHITE : MessageType.SURRENDER_BLACK);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -1351,9 +1646,6 @@ public class ChessController {
             }
         }
 
-        // Capture the SAN for network transmission *before* making the move on the model
-        String moveSanForNetwork = org.group13.chessgame.utils.NotationUtils.moveToAlgebraic(move, gameModel);
-
         Move executedMove = gameModel.makeMove(move);
         if (executedMove != null) {
             if (currentMode == GameMode.PLAYER_VS_COMPUTER && !isGameOver()) {
@@ -1370,10 +1662,8 @@ public class ChessController {
             System.out.println("isLanGameActive: " + isLanGameActive);
             if (isLanGameActive && (executedMove.getPieceMoved().getColor() == myColor)) {
                 try {
-                    dataOutputStream.writeInt(NETWORK_MOVE_CODE);
-                    dataOutputStream.writeUTF(moveSanForNetwork); // Send SAN string
-                    dataOutputStream.flush();
-                    System.out.println("Sent move to opponent: " + moveSanForNetwork);
+                    gameConnection.sendMove(PackedMove.fromMove(executedMove), gameModel.getCurrentPositionHash());
+                    System.out.println("Sent move to opponent: " + executedMove.getStandardAlgebraicNotation());
                     updateStatusLabel("Waiting for opponent's move...");
                 } catch (IOException e) {
                     e.printStackTrace();
@@ -1431,6 +1721,19 @@ public class ChessController {
         int endViewRow = boardIsFlipped ? (Board.SIZE - 1 - endSquareModel.getRow()) : endSquareModel.getRow();
         int endViewCol = boardIsFlipped ? (Board.SIZE - 1 - endSquareModel.getCol()) : endSquareModel.getCol();
 
+        if (canvasBoardView != null) {
+            boardGridPane.setMouseTransparent(true);
+            canvasBoardView.animateMove(startViewRow * Board.SIZE + startViewCol, endViewRow * Board.SIZE + endViewCol, Duration.millis(250), () -> {
+                if (isPlayerMove) {
+                    performMoveLogic(move);
+                } else {
+                    updateUIAfterMoving(move);
+                }
+                boardGridPane.setMouseTransparent(false);
+            });
+            return;
+        }
+
         StackPane startPane = squarePanes[startViewRow][startViewCol];
         ImageView pieceToAnimate = getPieceImageViewFromPane(startPane);
 
@@ -1597,26 +1900,7 @@ public class ChessController {
                 Square sourceDragModelSquare = gameModel.getBoard().getSquare(sourceModelRow, sourceModelCol);
 
                 if (selectedSquare == sourceDragModelSquare) {
-                    Optional<Move> chosenMoveOpt = availableMovesForSelectedPiece.stream().filter(m -> m.getEndSquare() == getModelSquare(squarePane)).findFirst();
-
-                    if (chosenMoveOpt.isPresent()) {
-                        Move moveToDo = chosenMoveOpt.get();
-                        if (moveToDo.getPieceMoved().getType() == PieceType.PAWN && (moveToDo.getEndSquare().getRow() == 0 || moveToDo.getEndSquare().getRow() == (Board.SIZE - 1))) {
-
-                            PieceType promotionChoice = askForPromotionType();
-                            if (promotionChoice == null) {
-                                clearSelectionAndHighlights();
-                                event.setDropCompleted(false);
-                                event.consume();
-                                return;
-                            }
-                            final PieceType finalChoice = promotionChoice;
-                            moveToDo = availableMovesForSelectedPiece.stream().filter(m -> m.getEndSquare() == getModelSquare(squarePane) && m.isPromotion() && m.getPromotionPieceType() == finalChoice).findFirst().orElseThrow(() -> new IllegalStateException("Selected promotion move (DnD) not found."));
-                        }
-
-                        performMoveLogic(moveToDo);
-                        success = true;
-                    }
+                    success = dropSelectedPieceOn(getModelSquare(squarePane));
                 }
             }
             event.setDropCompleted(success);
@@ -1627,6 +1911,32 @@ public class ChessController {
         });
     }
 
+    /**
+     * Plays the selected piece's move to {@code targetModelSquare} without animation, asking for the
+     * promotion piece when needed.
+     *
+     * @return false if there is no such move or the promotion dialog was cancelled.
+     */
+    private boolean dropSelectedPieceOn(Square targetModelSquare) {
+        Optional<Move> chosenMoveOpt = availableMovesForSelectedPiece.stream().filter(m -> m.getEndSquare() == targetModelSquare).findFirst();
+        if (chosenMoveOpt.isEmpty()) {
+            return false;
+        }
+        Move moveToDo = chosenMoveOpt.get();
+        if (moveToDo.getPieceMoved().getType() == PieceType.PAWN && (moveToDo.getEndSquare().getRow() == 0 || moveToDo.getEndSquare().getRow() == (Board.SIZE - 1))) {
+
+            PieceType promotionChoice = askForPromotionType();
+            if (promotionChoice == null) {
+                return false;
+            }
+            final PieceType finalChoice = promotionChoice;
+            moveToDo = availableMovesForSelectedPiece.stream().filter(m -> m.getEndSquare() == targetModelSquare && m.isPromotion() && m.getPromotionPieceType() == finalChoice).findFirst().orElseThrow(() -> new IllegalStateException("Selected promotion move (DnD) not found."));
+        }
+
+        performMoveLogic(moveToDo);
+        return true;
+    }
+
     private ImageView getPieceImageViewFromPane(StackPane pane) {
         for (Node node : pane.getChildren()) {
             if (node instanceof ImageView) {
@@ -1644,6 +1954,11 @@ public class ChessController {
         selectedSquare = squareToSelect;
         List<Move> filteredMoves = gameModel.getAllLegalMovesForPlayer(gameModel.getCurrentPlayer().getColor()).stream().filter(m -> m.getStartSquare() == selectedSquare).toList();
         availableMovesForSelectedPiece = new ArrayList<>(filteredMoves);
+        if (canvasBoardView != null) {
+            canvasBoardView.setSelectedSquare(toCanvasSquare(squareToSelect));
+            highlightAvailableMoves();
+            return;
+        }
         int viewRow = boardIsFlipped ? (Board.SIZE - 1 - squareToSelect.getRow()) : squareToSelect.getRow();
         int viewCol = boardIsFlipped ? (Board.SIZE - 1 - squareToSelect.getCol()) : squareToSelect.getCol();
         highlightSelectedSquare(squarePanes[viewRow][viewCol]);
@@ -1753,9 +2068,13 @@ public class ChessController {
     }
 
     private void clearSelectionAndHighlights() {
-        for (int r = 0; r < Board.SIZE; r++) {
-            for (int c = 0; c < Board.SIZE; c++) {
-                removeHighlightStyling(squarePanes[r][c]);
+        if (canvasBoardView != null) {
+            canvasBoardView.clearHighlights();
+        } else {
+            for (int r = 0; r < Board.SIZE; r++) {
+                for (int c = 0; c < Board.SIZE; c++) {
+                    removeHighlightStyling(squarePanes[r][c]);
+                }
             }
         }
         selectedSquare = null;
@@ -1768,6 +2087,20 @@ public class ChessController {
     }
 
     private void highlightAvailableMoves() {
+        if (canvasBoardView != null) {
+            long quietTargets = 0L;
+            long captureTargets = 0L;
+            for (Move move : availableMovesForSelectedPiece) {
+                long bit = 1L << toCanvasSquare(move.getEndSquare());
+                if (move.getPieceCaptured() != null || move.isEnPassantMove()) {
+                    captureTargets |= bit;
+                } else {
+                    quietTargets |= bit;
+                }
+            }
+            canvasBoardView.setMoveTargets(quietTargets, captureTargets);
+            return;
+        }
         for (Move move : availableMovesForSelectedPiece) {
             Square endModelSquare = move.getEndSquare();
             int endViewRow = boardIsFlipped ? (Board.SIZE - 1 - endModelSquare.getRow()) : endModelSquare.getRow();
@@ -1799,32 +2132,18 @@ public class ChessController {
         return state != Game.GameState.ACTIVE && state != Game.GameState.CHECK;
     }
 
-    private void populateCapturedPiecesPane(Comparator<Piece> comparator, List<Piece> capturedList, FlowPane targetPane) {
-        capturedList.sort(comparator);
-        for (Piece captured : capturedList) {
-            ImageView imgView = new ImageView(new Image(Objects.requireNonNull(getClass().getResourceAsStream(captured.getImagePath()))));
-            imgView.setFitHeight(SQUARE_SIZE * 0.35);
-            imgView.setPreserveRatio(true);
-            Tooltip.install(imgView, new Tooltip(captured.getColor() + " " + captured.getType()));
-            targetPane.getChildren().add(imgView);
-        }
-    }
-
-    private int getPieceValue(PieceType type) {
-        return switch (type) {
-            case QUEEN -> 9;
-            case ROOK -> 5;
-            case BISHOP -> 4;
-            case KNIGHT -> 3;
-            case PAWN -> 1;
-            default -> 0;
-        };
+    private ImageView createCapturedPieceView(PieceType type, PieceColor color) {
+        ImageView imgView = new ImageView(PieceImageProvider.getImageFor(type, color));
+        imgView.setFitHeight(SQUARE_SIZE * 0.35);
+        imgView.setPreserveRatio(true);
+        Tooltip.install(imgView, new Tooltip(color + " " + type));
+        return imgView;
     }
 
     private String getPgnResult(Game.GameState state) {
         return switch (state) {
-            case WHITE_WINS_CHECKMATE, BLACK_SURRENDERS -> "1-0";
-            case BLACK_WINS_CHECKMATE, WHITE_SURRENDERS -> "0-1";
+            case WHITE_WINS_CHECKMATE, BLACK_SURRENDERS, BLACK_OUT_OF_TIME -> "1-0";
+            case BLACK_WINS_CHECKMATE, WHITE_SURRENDERS, WHITE_OUT_OF_TIME -> "0-1";
             case STALEMATE_DRAW, FIFTY_MOVE_DRAW, THREEFOLD_REPETITION_DRAW, INSUFFICIENT_MATERIAL_DRAW -> "1/2-1/2";
             default -> "*";
         };
@@ -1834,19 +2153,8 @@ public class ChessController {
         if (targetPly == currentPlyPointer) return;
         clearSelectionAndHighlights();
 
-        int steps = targetPly - currentPlyPointer;
-
-        if (steps < 0) {
-            for (int i = 0; i < Math.abs(steps); i++) {
-                if (!gameModel.canUndo()) break;
-                gameModel.undo();
-            }
-        } else {
-            for (int i = 0; i < steps; i++) {
-                if (!gameModel.canRedo()) break;
-                gameModel.redo();
-            }
-        }
+        // currentPlyPointer is the index of the last played move, the model counts plies
+        if (!gameModel.seekToPly(targetPly + 1)) return;
         currentPlyPointer = targetPly;
 
         updateAllUIStates();
@@ -1893,7 +2201,7 @@ public class ChessController {
             whiteMoveTextNode.setOnMouseClicked(event -> {
                 MovePairDisplay item = getItem();
                 if (item != null && item.whiteMove() != null && event.getButton() == MouseButton.PRIMARY) {
-                    int targetPlyIndex = controller.gameModel.getPlayedMoveSequence().indexOf(item.whiteMove());
+                    int targetPlyIndex = controller.moveHistoryModel.getPly(getIndex(), true);
                     if (targetPlyIndex != -1 && targetPlyIndex != controller.currentPlyPointer) {
                         controller.jumpToMoveState(targetPlyIndex);
                     } else if (targetPlyIndex == controller.currentPlyPointer) {
@@ -1906,7 +2214,7 @@ public class ChessController {
             blackMoveTextNode.setOnMouseClicked(event -> {
                 MovePairDisplay item = getItem();
                 if (item != null && item.blackMove() != null && event.getButton() == MouseButton.PRIMARY) {
-                    int targetPlyIndex = controller.gameModel.getPlayedMoveSequence().indexOf(item.blackMove());
+                    int targetPlyIndex = controller.moveHistoryModel.getPly(getIndex(), false);
                     if (targetPlyIndex != -1 && targetPlyIndex != controller.currentPlyPointer) {
                         controller.jumpToMoveState(targetPlyIndex);
                     } else if (targetPlyIndex == controller.currentPlyPointer) {
@@ -1944,7 +2252,7 @@ public class ChessController {
                 whiteMoveTextNode.getStyleClass().remove("current-move-text");
                 blackMoveTextNode.getStyleClass().remove("current-move-text");
 
-                Move currentActualModelMove = (controller.currentPlyPointer >= 0 && controller.currentPlyPointer < controller.gameModel.getPlayedMoveSequence().size()) ? controller.gameModel.getPlayedMoveSequence().get(controller.currentPlyPointer) : null;
+                Move currentActualModelMove = controller.moveHistoryModel.getMove(controller.currentPlyPointer);
 
                 if (item.whiteMove() != null && item.whiteMove() == currentActualModelMove) {
                     whiteMoveTextNode.getStyleClass().add("current-move-text");
@@ -9,8 +9,10 @@ import javafx.scene.control.TextField;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.TimeControl;
+import org.group13.chessgame.network.GameConnection;
+import org.group13.chessgame.network.Reconnector;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -18,13 +20,14 @@ import java.util.Random;
 
 public class HostGameController {
 
-    private static final int NETWORK_COLOR_ASSIGNMENT_CODE = 6;
     private PieceColor hostChosenColor;
     private PieceColor finalHostColor;
 
     @FXML
     private TextField portField;
     @FXML
+    private TextField timeControlField;
+    @FXML
     private Text statusText;
     @FXML
     private Button startServerButton;
@@ -32,8 +35,10 @@ public class HostGameController {
     private Button cancelButton;
     private ServerSocket serverSocket;
     private Socket clientSocket;
+    private GameConnection connection;
     private int port;
     private boolean serverStartedSuccessfully = false;
+    private TimeControl timeControl;
 
     @FXML
     private void handleStartServer(ActionEvent event) {
@@ -51,6 +56,14 @@ public class HostGameController {
                 return;
             }
 
+            String timeControlStr = timeControlField.getText().trim();
+            try {
+                timeControl = timeControlStr.isEmpty() ? null : TimeControl.parse(timeControlStr);
+            } catch (IllegalArgumentException e) {
+                statusText.setText("Invalid clock. Use seconds+increment (300+3), seconds'd'delay (300d3) or leave it empty.");
+                return;
+            }
+
             // Disable buttons while server is starting/waiting
             startServerButton.setDisable(true);
             cancelButton.setDisable(true);
@@ -73,10 +86,12 @@ public class HostGameController {
                         }
                         PieceColor clientColor = finalHostColor.opposite();
 
-                        DataOutputStream dos = new DataOutputStream(clientSocket.getOutputStream());
-                        dos.writeInt(NETWORK_COLOR_ASSIGNMENT_CODE);
-                        dos.writeUTF(clientColor.name());
-                        dos.flush();
+                        connection = new GameConnection(clientSocket);
+                        connection.setReconnector(Reconnector.listenAgain(port, Reconnector.DEFAULT_TIMEOUT));
+                        connection.sendColorAssignment(clientColor);
+                        if (timeControl != null) {
+                            connection.sendTimeControl(timeControl);
+                        }
                         System.out.println("Host: Assigned " + clientColor + " to client. My color is " + finalHostColor);
 
                         Platform.runLater(() -> {
@@ -177,6 +192,10 @@ public class HostGameController {
         return clientSocket;
     }
 
+    public GameConnection getConnection() {
+        return connection;
+    }
+
     public boolean isServerStartedSuccessfully() {
         return serverStartedSuccessfully;
     }
@@ -190,6 +209,10 @@ public class HostGameController {
         this.hostChosenColor = color;
     }
 
+    public TimeControl getTimeControl() {
+        return timeControl;
+    }
+
     public PieceColor getFinalHostColor() {
         return finalHostColor;
     }
@@ -9,15 +9,18 @@ import javafx.scene.control.TextField;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.network.Frame;
+import org.group13.chessgame.network.FrameCodec;
+import org.group13.chessgame.network.GameConnection;
+import org.group13.chessgame.network.Reconnector;
+import org.group13.chessgame.network.MessageType;
 
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.Socket;
 import java.net.UnknownHostException;
 
 public class JoinGameController {
-    private static final int NETWORK_COLOR_ASSIGNMENT_CODE = 6;
     private PieceColor myColor;
 
     @FXML
@@ -26,23 +29,50 @@ public class JoinGameController {
     @FXML
     private TextField portField;
 
+    @FXML
+    private TextField roomField;
+
     @FXML
     private Text statusText;
 
     @FXML
     private Button connectButton;
 
+    @FXML
+    private Button watchButton;
+
     @FXML
     private Button cancelButton;
 
     private Socket clientSocket;
+    private GameConnection connection;
     private String ipAddress;
     private int port;
     private boolean connectedSuccessfully = false;
+    private boolean spectating = false;
+    private int roomId = 0;
+    private Frame snapshot;
+
+    // This method is called when the "Watch" button is clicked: join a game server room as a spectator
+    @FXML
+    private void handleWatch(ActionEvent event) {
+        String roomStr = roomField.getText().trim();
+        try {
+            roomId = roomStr.isEmpty() ? 0 : Integer.parseInt(roomStr);
+        } catch (NumberFormatException e) {
+            statusText.setText("Invalid room number. Leave it empty to watch the latest game.");
+            return;
+        }
+        spectating = true;
+        handleConnect(event);
+    }
 
     // This method is called when the "Connect" button is clicked
     @FXML
     private void handleConnect(ActionEvent event) {
+        if (event.getSource() == connectButton) {
+            spectating = false;
+        }
         ipAddress = ipField.getText();
         String portStr = portField.getText();
 
@@ -60,6 +90,7 @@ public class JoinGameController {
 
             // Disable buttons while connecting
             connectButton.setDisable(true);
+            watchButton.setDisable(true);
             cancelButton.setDisable(true);
             ipField.setDisable(true);
             portField.setDisable(true);
@@ -74,12 +105,28 @@ public class JoinGameController {
                     try {
                         clientSocket = new Socket(ipAddress, port); // This blocks until connected or fails
 
-                        DataInputStream dis = new DataInputStream(clientSocket.getInputStream());
-                        int messageType = dis.readInt();
+                        connection = new GameConnection(clientSocket);
+                        if (spectating) {
+                            connection.sendSpectate(roomId);
+                        } else {
+                            connection.setReconnector(Reconnector.dialAgain(ipAddress, port, Reconnector.DEFAULT_TIMEOUT));
+                        }
+                        Frame frame = connection.receive();
+
+                        if (spectating && frame.type() == MessageType.SNAPSHOT) {
+                            snapshot = frame;
+                            System.out.println("Client: Watching game with " + FrameCodec.readSnapshotMoves(frame).length + " moves played.");
 
-                        if (messageType == NETWORK_COLOR_ASSIGNMENT_CODE) {
-                            String colorName = dis.readUTF();
-                            myColor = PieceColor.valueOf(colorName);
+                            Platform.runLater(() -> {
+                                statusText.setText("Connected as a spectator!");
+                                connectedSuccessfully = true;
+                                Stage stage = (Stage) watchButton.getScene().getWindow();
+                                stage.close();
+                            });
+                        } else if (frame.type() == MessageType.ERROR) {
+                            throw new IOException(FrameCodec.readText(frame));
+                        } else if (!spectating && frame.type() == MessageType.COLOR_ASSIGNMENT) {
+                            myColor = FrameCodec.readColor(frame);
                             System.out.println("Client: Received color assignment. My color is " + myColor);
 
                             Platform.runLater(() -> {
@@ -90,7 +137,7 @@ public class JoinGameController {
                                 stage.close(); // Close dialog on success
                             });
                         } else {
-                            throw new IOException("Protocol Error: Expected color assignment, but got type " + messageType);
+                            throw new IOException("Protocol Error: Expected color assignment, but got " + frame);
                         }
 
                     } catch (ConnectException e) {
@@ -116,6 +163,7 @@ public class JoinGameController {
                         Platform.runLater(() -> {
                             if (!connectedSuccessfully) { // Only re-enable if not closing due to success
                                 connectButton.setDisable(false);
+                                watchButton.setDisable(false);
                                 cancelButton.setDisable(false);
                                 ipField.setDisable(false);
                                 portField.setDisable(false);
@@ -165,6 +213,10 @@ public class JoinGameController {
         return clientSocket;
     }
 
+    public GameConnection getConnection() {
+        return connection;
+    }
+
     public boolean isConnectedSuccessfully() {
         return connectedSuccessfully;
     }
@@ -172,4 +224,12 @@ public class JoinGameController {
     public PieceColor getMyColor() {
         return myColor;
     }
+
+    public boolean isSpectating() {
+        return spectating;
+    }
+
+    public Frame getSnapshot() {
+        return snapshot;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package org.group13.chessgame.controller;
+
+import javafx.collections.ObservableList;
+import org.group13.chessgame.model.Game;
+import org.group13.chessgame.model.Move;
+import org.group13.chessgame.model.PieceColor;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps the move-history rows in step with a {@link Game}'s played line (undo + redo stacks).
+ * <p>
+ * Undo, redo and jumps leave the line untouched, and a new move only truncates the redo tail and
+ * appends, so {@link #sync(Game)} usually costs O(1). The full rebuild only happens when the line was
+ * replaced, e.g. by a new game or a loaded PGN.
+ */
+class MoveHistoryModel {
+    private final ObservableList<MovePairDisplay> rows;
+    private final List<Move> line = new ArrayList<>();
+    // 1 when the first move of the line is Black's, so it shares no row with a White move
+    private int blackStartOffset = 0;
+
+    MoveHistoryModel(ObservableList<MovePairDisplay> rows) {
+        this.rows = rows;
+    }
+
+    void sync(Game game) {
+        Deque<Move> undoStack = game.getUndoStack();
+        Deque<Move> redoStack = game.getRedoStack();
+        int currentPly = undoStack.size();
+
+        Iterator<Move> undoIterator = undoStack.iterator();
+        Move lastMove = undoIterator.hasNext() ? undoIterator.next() : null;
+        Move previousMove = undoIterator.hasNext() ? undoIterator.next() : null;
+
+        boolean sameLine = line.size() == currentPly + redoStack.size() && (lastMove == null || line.get(currentPly - 1) == lastMove) && (redoStack.isEmpty() || line.get(currentPly) == redoStack.peek());
+        if (sameLine) {
+            return;
+        }
+
+        boolean extendsLine = redoStack.isEmpty() && lastMove != null && line.size() >= currentPly - 1 && (previousMove == null || line.get(currentPly - 2) == previousMove);
+        if (extendsLine) {
+            truncate(currentPly - 1);
+            append(lastMove);
+            return;
+        }
+
+        reset(game.getPlayedMoveSequence());
+    }
+
+    Move getMove(int ply) {
+        return (ply >= 0 && ply < line.size()) ? line.get(ply) : null;
+    }
+
+    int getPly(int rowIndex, boolean whiteMove) {
+        return rowIndex * 2 - blackStartOffset + (whiteMove ? 0 : 1);
+    }
+
+    int getRowIndex(int ply) {
+        return (ply + blackStartOffset) / 2;
+    }
+
+    private void reset(List<Move> playedMoves) {
+        line.clear();
+        blackStartOffset = (!playedMoves.isEmpty() && playedMoves.getFirst().getPieceMoved().getColor() == PieceColor.BLACK) ? 1 : 0;
+        List<MovePairDisplay> newRows = new ArrayList<>();
+        for (Move move : playedMoves) {
+            line.add(move);
+            int ply = line.size() - 1;
+            int rowIndex = getRowIndex(ply);
+            if (rowIndex < newRows.size()) {
+                MovePairDisplay row = newRows.get(rowIndex);
+                newRows.set(rowIndex, new MovePairDisplay(row.moveNumber(), row.whiteMove(), move));
+            } else {
+                newRows.add(createRow(rowIndex, move));
+            }
+        }
+        rows.setAll(newRows);
+    }
+
+    private void truncate(int plyCount) {
+        if (line.size() <= plyCount) return;
+        line.subList(plyCount, line.size()).clear();
+        if (plyCount == 0) {
+            blackStartOffset = 0;
+            rows.clear();
+            return;
+        }
+
+        int rowCount = getRowIndex(plyCount - 1) + 1;
+        if (rows.size() > rowCount) {
+            rows.remove(rowCount, rows.size());
+        }
+        MovePairDisplay lastRow = rows.get(rowCount - 1);
+        if (lastRow.blackMove() != null && lastRow.blackMove() != line.getLast()) {
+            rows.set(rowCount - 1, new MovePairDisplay(lastRow.moveNumber(), lastRow.whiteMove(), null));
+        }
+    }
+
+    private void append(Move move) {
+        if (line.isEmpty()) {
+            blackStartOffset = (move.getPieceMoved().getColor() == PieceColor.BLACK) ? 1 : 0;
+        }
+        line.add(move);
+        int rowIndex = getRowIndex(line.size() - 1);
+        if (rowIndex < rows.size()) {
+            MovePairDisplay row = rows.get(rowIndex);
+            rows.set(rowIndex, new MovePairDisplay(row.moveNumber(), row.whiteMove(), move));
+        } else {
+            rows.add(createRow(rowIndex, move));
+        }
+    }
+
+    private MovePairDisplay createRow(int rowIndex, Move firstMove) {
+        if (firstMove.getPieceMoved().getColor() == PieceColor.WHITE) {
+            return new MovePairDisplay(rowIndex + 1, firstMove, null);
+        }
+        return new MovePairDisplay(rowIndex + 1, null, firstMove);
+    }
+}
@@ -0,0 +1,249 @@
+package org.group13.chessgame.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+import org.group13.chessgame.model.Board;
+import org.group13.chessgame.model.Piece;
+import org.group13.chessgame.model.PieceColor;
+import org.group13.chessgame.model.PieceType;
+import org.group13.chessgame.model.Position;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws the whole board on a single {@link Canvas} instead of 64 StackPanes.
+ * <p>
+ * All coordinates here are view squares ({@code viewRow * 8 + viewCol}, row 0 at the top of the screen);
+ * the controller keeps translating between view and model squares as it does for the pane board.
+ * Pieces come from a sprite atlas built once per square size, and each repaint draws the layers in order:
+ * squares, highlights, pieces, move indicators, then the dragged or animated piece.
+ */
+public class CanvasBoardView extends Canvas {
+    private static final Color LIGHT_SQUARE = Color.web("#f0d9b5");
+    private static final Color DARK_SQUARE = Color.web("#b58863");
+    private static final Color HOVER_FILL = Color.rgb(20, 85, 30, 0.3);
+    private static final Color SELECTED_FILL = Color.rgb(20, 85, 30, 0.5);
+    private static final Color DRAG_OVER_FILL = Color.rgb(20, 85, 30, 0.3);
+    private static final Color MOVE_DOT_FILL = Color.rgb(20, 85, 30, 0.36);
+    private static final Color CAPTURE_DOT_FILL = Color.rgb(231, 76, 60, 0.36);
+    private static final double PIECE_SCALE = 0.8;
+
+    // atlases are shared by every board drawn at the same square size
+    private static final Map<Integer, Image> ATLAS_CACHE = new HashMap<>();
+
+    private final double squareSize;
+    private final Image atlas;
+    private final int atlasCellSize;
+    private final byte[] pieceCodes = new byte[Board.SIZE * Board.SIZE];
+
+    private int selectedSquare = -1;
+    private int hoverSquare = -1;
+    private int dragOverSquare = -1;
+    private long quietTargets;
+    private long captureTargets;
+
+    // the piece being dragged or animated is lifted off its square and drawn at floatX/floatY (its centre)
+    private int floatingFromSquare = -1;
+    private double floatX;
+    private double floatY;
+    private AnimationTimer runningAnimation;
+
+    private boolean redrawPending = false;
+
+    public CanvasBoardView(double squareSize) {
+        super(squareSize * Board.SIZE, squareSize * Board.SIZE);
+        this.squareSize = squareSize;
+        this.atlasCellSize = (int) Math.round(squareSize * PIECE_SCALE);
+        this.atlas = getAtlas(atlasCellSize);
+        redraw();
+    }
+
+    private static Image getAtlas(int cellSize) {
+        return ATLAS_CACHE.computeIfAbsent(cellSize, CanvasBoardView::buildAtlas);
+    }
+
+    // one row per colour, one column per PieceType ordinal
+    private static Image buildAtlas(int cellSize) {
+        Canvas sheet = new Canvas(cellSize * PieceType.values().length, cellSize * PieceColor.values().length);
+        GraphicsContext gc = sheet.getGraphicsContext2D();
+        for (PieceColor color : PieceColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                Image image = PieceImageProvider.getImageFor(type, color);
+                if (image != null) {
+                    gc.drawImage(image, type.ordinal() * cellSize, color.ordinal() * cellSize, cellSize, cellSize);
+                }
+            }
+        }
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        return sheet.snapshot(params, null);
+    }
+
+    private static int toViewSquare(int modelRow, int modelCol, boolean flipped) {
+        int viewRow = flipped ? (Board.SIZE - 1 - modelRow) : modelRow;
+        int viewCol = flipped ? (Board.SIZE - 1 - modelCol) : modelCol;
+        return viewRow * Board.SIZE + viewCol;
+    }
+
+    public void setPosition(Board board, boolean flipped) {
+        for (int row = 0; row < Board.SIZE; row++) {
+            for (int col = 0; col < Board.SIZE; col++) {
+                Piece piece = board.getPiece(row, col);
+                pieceCodes[toViewSquare(row, col, flipped)] = (piece == null) ? Position.EMPTY : Position.code(piece.getType(), piece.getColor());
+            }
+        }
+        requestRedraw();
+    }
+
+    /**
+     * @return the view square under the given local coordinates, or -1 if they are outside the board.
+     */
+    public int squareAt(double x, double y) {
+        int viewCol = (int) Math.floor(x / squareSize);
+        int viewRow = (int) Math.floor(y / squareSize);
+        if (!Board.isValidCoordinate(viewRow, viewCol)) return -1;
+        return viewRow * Board.SIZE + viewCol;
+    }
+
+    public void setSelectedSquare(int viewSquare) {
+        selectedSquare = viewSquare;
+        if (hoverSquare == viewSquare) hoverSquare = -1;
+        requestRedraw();
+    }
+
+    public void setHoverSquare(int viewSquare) {
+        if (hoverSquare == viewSquare) return;
+        hoverSquare = viewSquare;
+        requestRedraw();
+    }
+
+    public void setDragOverSquare(int viewSquare) {
+        if (dragOverSquare == viewSquare) return;
+        dragOverSquare = viewSquare;
+        requestRedraw();
+    }
+
+    public void setMoveTargets(long quietTargetMask, long captureTargetMask) {
+        quietTargets = quietTargetMask;
+        captureTargets = captureTargetMask;
+        requestRedraw();
+    }
+
+    public void clearHighlights() {
+        selectedSquare = -1;
+        hoverSquare = -1;
+        dragOverSquare = -1;
+        quietTargets = 0L;
+        captureTargets = 0L;
+        requestRedraw();
+    }
+
+    public void setDraggedPiece(int fromViewSquare, double x, double y) {
+        floatingFromSquare = fromViewSquare;
+        floatX = x;
+        floatY = y;
+        requestRedraw();
+    }
+
+    public void clearDraggedPiece() {
+        floatingFromSquare = -1;
+        requestRedraw();
+    }
+
+    /**
+     * Slides the piece on {@code fromViewSquare} to {@code toViewSquare}, then runs {@code onFinished}.
+     * The piece codes are not changed; the caller refreshes the position once the model has moved.
+     */
+    public void animateMove(int fromViewSquare, int toViewSquare, Duration duration, Runnable onFinished) {
+        if (runningAnimation != null) runningAnimation.stop();
+
+        double fromX = (fromViewSquare % Board.SIZE + 0.5) * squareSize;
+        double fromY = (fromViewSquare / Board.SIZE + 0.5) * squareSize;
+        double toX = (toViewSquare % Board.SIZE + 0.5) * squareSize;
+        double toY = (toViewSquare / Board.SIZE + 0.5) * squareSize;
+        double durationNanos = Math.max(1, duration.toMillis() * 1_000_000);
+
+        runningAnimation = new AnimationTimer() {
+            private long startTime = -1;
+
+            @Override
+            public void handle(long now) {
+                if (startTime < 0) startTime = now;
+                double t = Math.min(1.0, (now - startTime) / durationNanos);
+                double eased = t * t * (3 - 2 * t);
+                floatingFromSquare = fromViewSquare;
+                floatX = fromX + (toX - fromX) * eased;
+                floatY = fromY + (toY - fromY) * eased;
+                redraw();
+                if (t >= 1.0) {
+                    stop();
+                    runningAnimation = null;
+                    floatingFromSquare = -1;
+                    onFinished.run();
+                }
+            }
+        };
+        runningAnimation.start();
+    }
+
+    // coalesce several state changes in one pulse into a single repaint
+    private void requestRedraw() {
+        if (redrawPending) return;
+        redrawPending = true;
+        Platform.runLater(() -> {
+            redrawPending = false;
+            redraw();
+        });
+    }
+
+    private void redraw() {
+        GraphicsContext gc = getGraphicsContext2D();
+        for (int square = 0; square < pieceCodes.length; square++) {
+            int row = square / Board.SIZE;
+            int col = square % Board.SIZE;
+            double x = col * squareSize;
+            double y = row * squareSize;
+
+            gc.setFill((row + col) % 2 == 0 ? LIGHT_SQUARE : DARK_SQUARE);
+            gc.fillRect(x, y, squareSize, squareSize);
+
+            Color overlay = null;
+            if (square == selectedSquare) overlay = SELECTED_FILL;
+            else if (square == dragOverSquare) overlay = DRAG_OVER_FILL;
+            else if (square == hoverSquare) overlay = HOVER_FILL;
+            if (overlay != null) {
+                gc.setFill(overlay);
+                gc.fillRect(x, y, squareSize, squareSize);
+            }
+
+            if (square != floatingFromSquare) {
+                drawPiece(gc, pieceCodes[square], x + squareSize / 2, y + squareSize / 2);
+            }
+
+            long bit = 1L << square;
+            if (((quietTargets | captureTargets) & bit) != 0) {
+                double radius = squareSize / 5.0;
+                gc.setFill((captureTargets & bit) != 0 ? CAPTURE_DOT_FILL : MOVE_DOT_FILL);
+                gc.fillOval(x + squareSize / 2 - radius, y + squareSize / 2 - radius, radius * 2, radius * 2);
+            }
+        }
+
+        if (floatingFromSquare >= 0) {
+            drawPiece(gc, pieceCodes[floatingFromSquare], floatX, floatY);
+        }
+    }
+
+    private void drawPiece(GraphicsContext gc, byte code, double centerX, double centerY) {
+        if (code == Position.EMPTY) return;
+        PieceType type = Position.typeOf(code);
+        PieceColor color = Position.colorOf(code);
+        gc.drawImage(atlas, type.ordinal() * atlasCellSize, color.ordinal() * atlasCellSize, atlasCellSize, atlasCellSize, centerX - atlasCellSize / 2.0, centerY - atlasCellSize / 2.0, atlasCellSize, atlasCellSize);
+    }
+}
@@ -1,4 +1,4 @@
-package org.group13.chessgame.utils;
+package org.group13.chessgame.view;
 
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -34,7 +34,7 @@ public class PieceImageProvider {
         String colorStr = (color == PieceColor.WHITE) ? "w" : "b";
         String typeStr = Piece.pieceTypeToChar(type).toUpperCase();
         if (type == PieceType.KNIGHT) typeStr = "N";
-        return String.format("/images/pieces/%s%s.png", colorStr, typeStr);
+        return String.format("/images/piece/%s%s.png", colorStr, typeStr);
     }
 
     public static ImageView getImageViewFor(PieceType type, PieceColor color, double size) {